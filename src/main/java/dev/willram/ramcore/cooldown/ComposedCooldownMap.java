@@ -53,6 +53,20 @@ public interface ComposedCooldownMap<I, O> {
         return new ComposedCooldownMapImpl<>(base, composeFunction);
     }
 
+    /**
+     * Creates a new collection whose cooldowns are expired by a shared store
+     *
+     * @param base the cooldown to base off
+     * @param composeFunction the function mapping input keys to internal keys
+     * @param store the store expiring the cooldowns
+     * @return a new collection
+     */
+    @NotNull
+    static <I, O> ComposedCooldownMap<I, O> create(@NotNull Cooldown base, @NotNull Function<I, O> composeFunction, @NotNull CooldownStore store) {
+        Objects.requireNonNull(store, "store");
+        return store.composed(base, composeFunction);
+    }
+
     /**
      * Gets the base cooldown
      *
@@ -50,6 +50,19 @@ public interface CooldownMap<T> {
         return new CooldownMapImpl<>(base);
     }
 
+    /**
+     * Creates a new collection whose cooldowns are expired by a shared store
+     *
+     * @param base the cooldown to base off
+     * @param store the store expiring the cooldowns
+     * @return a new collection
+     */
+    @NotNull
+    static <T> CooldownMap<T> create(@NotNull Cooldown base, @NotNull CooldownStore store) {
+        Objects.requireNonNull(store, "store");
+        return store.map(base);
+    }
+
     /**
      * Gets the base cooldown
      *
@@ -0,0 +1,218 @@
+package dev.willram.ramcore.cooldown;
+
+import dev.willram.ramcore.exception.RamPreconditions;
+import dev.willram.ramcore.time.Time;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Shared expiry store for cooldown maps.
+ *
+ * <p>Maps created from a store keep one slot per tested key holding a primitive last-tested
+ * timestamp. Slots are threaded into a hashed timing wheel by expiry time, so {@link #sweep()}
+ * only walks the wheel buckets that came due since the previous sweep instead of scanning every
+ * map. Expired slots are removed from their map and reported to tracker expiry listeners in one
+ * batch per map.</p>
+ *
+ * <p>Nothing is swept automatically; run {@link #sweep()} from a repeating task.</p>
+ */
+public final class CooldownStore {
+    public static final long DEFAULT_RESOLUTION_MILLIS = 50L;
+    public static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private final long resolutionMillis;
+    private final StoredCooldown<?>[] wheel;
+    private final int mask;
+    private final Object lock = new Object();
+
+    // last wheel tick that may still hold due slots
+    private long cursor;
+    private int scheduled;
+
+    private CooldownStore(long resolutionMillis, int wheelSize) {
+        this.resolutionMillis = resolutionMillis;
+        this.wheel = new StoredCooldown<?>[wheelSize];
+        this.mask = wheelSize - 1;
+        this.cursor = Time.nowMillis() / resolutionMillis;
+    }
+
+    @NotNull
+    public static CooldownStore create() {
+        return new CooldownStore(DEFAULT_RESOLUTION_MILLIS, DEFAULT_WHEEL_SIZE);
+    }
+
+    /**
+     * Creates a store with a custom wheel layout.
+     *
+     * @param resolutionMillis the width of one wheel bucket
+     * @param wheelSize the number of buckets, a power of two
+     * @return a new store
+     */
+    @NotNull
+    public static CooldownStore create(long resolutionMillis, int wheelSize) {
+        RamPreconditions.checkArgument(resolutionMillis > 0, "cooldown store resolution must be positive", "Use a resolution of at least 1 millisecond.");
+        RamPreconditions.checkArgument(wheelSize > 0 && Integer.bitCount(wheelSize) == 1, "cooldown store wheel size must be a power of two", "Use a wheel size such as 256, 512, or 1024.");
+        return new CooldownStore(resolutionMillis, wheelSize);
+    }
+
+    @NotNull
+    public <K> CooldownMap<K> map(@NotNull Cooldown base) {
+        return new StoredCooldownMap<>(this, Objects.requireNonNull(base, "base"));
+    }
+
+    @NotNull
+    public <I, O> ComposedCooldownMap<I, O> composed(@NotNull Cooldown base, @NotNull Function<I, O> composeFunction) {
+        Objects.requireNonNull(composeFunction, "composeFunction");
+        return new StoredComposedCooldownMap<>(new StoredCooldownMap<>(this, Objects.requireNonNull(base, "base")), composeFunction);
+    }
+
+    @NotNull
+    public <K> CooldownTracker<K> tracker(@NotNull Cooldown base) {
+        return CooldownTracker.create(base, this);
+    }
+
+    /**
+     * Number of active cooldowns waiting to expire.
+     */
+    public int scheduled() {
+        synchronized (this.lock) {
+            return this.scheduled;
+        }
+    }
+
+    /**
+     * Expires every cooldown that is no longer active.
+     *
+     * @return the number of expired cooldowns
+     */
+    public int sweep() {
+        return sweep(Time.nowMillis());
+    }
+
+    /**
+     * Expires every cooldown that is no longer active at the given time.
+     *
+     * @param nowMillis the current unix time in milliseconds
+     * @return the number of expired cooldowns
+     */
+    public int sweep(long nowMillis) {
+        Map<StoredCooldownMap<?>, List<StoredCooldown<?>>> expired = new IdentityHashMap<>();
+        int count = 0;
+        synchronized (this.lock) {
+            long now = nowMillis / this.resolutionMillis;
+            long ticks = now - this.cursor + 1;
+            int buckets = ticks >= this.wheel.length ? this.wheel.length : (int) Math.max(ticks, 0L);
+            for (int i = 0; i < buckets; i++) {
+                StoredCooldown<?> slot = this.wheel[(int) ((this.cursor + i) & this.mask)];
+                while (slot != null) {
+                    StoredCooldown<?> next = slot.next;
+                    // last-tested writes also hold the lock, so a slot retested since it was
+                    // linked is still linked to its later bucket and fails this check
+                    if (slot.lastTested + slot.owner.timeout < nowMillis) {
+                        unlink(slot);
+                        if (slot.owner.release(slot)) {
+                            expired.computeIfAbsent(slot.owner, ignored -> new ArrayList<>()).add(slot);
+                            count++;
+                        }
+                    }
+                    slot = next;
+                }
+            }
+            // the current bucket may still hold slots due later in this tick
+            this.cursor = Math.max(this.cursor, now);
+        }
+        for (Map.Entry<StoredCooldownMap<?>, List<StoredCooldown<?>>> entry : expired.entrySet()) {
+            entry.getKey().fireExpired(entry.getValue());
+        }
+        return count;
+    }
+
+    /**
+     * Starts the cooldown for a key if it is not active, installing a slot when the key has none.
+     * The slot is the given handle, or a new one only when there is no handle.
+     */
+    <K> boolean test(StoredCooldownMap<K> map, K key, StoredCooldown<K> handle, long now) {
+        synchronized (this.lock) {
+            StoredCooldown<K> current = map.installed(key);
+            if (current != null ? !current.testSilently(now) : now <= map.timeout) {
+                return false;
+            }
+            write(handle, current != null ? current : slot(map, key, handle), now);
+            return true;
+        }
+    }
+
+    <K> void update(StoredCooldownMap<K> map, K key, StoredCooldown<K> handle, long lastTested) {
+        synchronized (this.lock) {
+            StoredCooldown<K> current = map.installed(key);
+            if (current == null && lastTested == 0L) {
+                if (handle != null) {
+                    handle.lastTested = 0L;
+                }
+                return;
+            }
+            write(handle, current != null ? current : slot(map, key, handle), lastTested);
+        }
+    }
+
+    void remove(StoredCooldown<?> slot) {
+        synchronized (this.lock) {
+            unlink(slot);
+            slot.owner.release(slot);
+        }
+    }
+
+    private static <K> StoredCooldown<K> slot(StoredCooldownMap<K> map, K key, StoredCooldown<K> handle) {
+        return handle != null ? handle : new StoredCooldown<>(map, key);
+    }
+
+    // every last-tested write goes through here under the lock, so a slot is in its map exactly
+    // while it is linked into the wheel
+    private <K> void write(StoredCooldown<K> handle, StoredCooldown<K> slot, long lastTested) {
+        if (handle != null) {
+            handle.lastTested = lastTested;
+        }
+        slot.lastTested = lastTested;
+        unlink(slot);
+        if (lastTested == 0L) {
+            slot.owner.release(slot);
+            return;
+        }
+        slot.owner.attach(slot);
+
+        long tick = Math.max((lastTested + slot.owner.timeout) / this.resolutionMillis, this.cursor);
+        int bucket = (int) (tick & this.mask);
+        StoredCooldown<?> head = this.wheel[bucket];
+        slot.bucket = bucket;
+        slot.next = head;
+        if (head != null) {
+            head.prev = slot;
+        }
+        this.wheel[bucket] = slot;
+        this.scheduled++;
+    }
+
+    private void unlink(StoredCooldown<?> slot) {
+        if (slot.bucket < 0) {
+            return;
+        }
+        if (slot.prev != null) {
+            slot.prev.next = slot.next;
+        } else {
+            this.wheel[slot.bucket] = slot.next;
+        }
+        if (slot.next != null) {
+            slot.next.prev = slot.prev;
+        }
+        slot.prev = null;
+        slot.next = null;
+        slot.bucket = -1;
+        this.scheduled--;
+    }
+}
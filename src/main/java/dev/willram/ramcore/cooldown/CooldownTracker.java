@@ -19,13 +19,22 @@ public final class CooldownTracker<K> {
     private final CooldownMap<K> cooldowns;
     private final List<CooldownExpiryListener<K>> expiryListeners = new ArrayList<>();
 
-    private CooldownTracker(@NotNull Cooldown base) {
-        this.cooldowns = CooldownMap.create(Objects.requireNonNull(base, "base"));
+    private CooldownTracker(@NotNull CooldownMap<K> cooldowns) {
+        this.cooldowns = cooldowns;
     }
 
     @NotNull
     public static <K> CooldownTracker<K> create(@NotNull Cooldown base) {
-        return new CooldownTracker<>(base);
+        return new CooldownTracker<>(CooldownMap.create(Objects.requireNonNull(base, "base")));
+    }
+
+    /**
+     * Creates a tracker whose cooldowns are expired by the store's sweeps, which also fire this
+     * tracker's expiry listeners.
+     */
+    @NotNull
+    public static <K> CooldownTracker<K> create(@NotNull Cooldown base, @NotNull CooldownStore store) {
+        return new CooldownTracker<>(CooldownMap.create(base, store));
     }
 
     @NotNull
@@ -95,6 +104,9 @@ public final class CooldownTracker<K> {
     @NotNull
     public CooldownTracker<K> onExpire(@NotNull CooldownExpiryListener<K> listener) {
         this.expiryListeners.add(Objects.requireNonNull(listener, "listener"));
+        if (this.cooldowns instanceof StoredCooldownMap<K> stored) {
+            stored.onExpire(listener);
+        }
         return this;
     }
 
@@ -31,6 +31,11 @@ public final class Cooldowns {
         return ComposedCooldownMap.create(cooldown, Player::getUniqueId);
     }
 
+    @NotNull
+    public static ComposedCooldownMap<Player, UUID> players(@NotNull Cooldown cooldown, @NotNull CooldownStore store) {
+        return ComposedCooldownMap.create(cooldown, Player::getUniqueId, store);
+    }
+
     @NotNull
     public static ComposedCooldownMap<OfflinePlayer, UUID> offlinePlayers(@NotNull Cooldown cooldown) {
         return ComposedCooldownMap.create(cooldown, OfflinePlayer::getUniqueId);
@@ -0,0 +1,79 @@
+package dev.willram.ramcore.cooldown;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.function.Function;
+
+/**
+ * Composed view over a {@link StoredCooldownMap}.
+ */
+final class StoredComposedCooldownMap<I, O> implements ComposedCooldownMap<I, O> {
+    private final StoredCooldownMap<O> delegate;
+    private final Function<I, O> composeFunction;
+
+    StoredComposedCooldownMap(StoredCooldownMap<O> delegate, Function<I, O> composeFunction) {
+        this.delegate = delegate;
+        this.composeFunction = composeFunction;
+    }
+
+    private O compose(I key) {
+        return this.composeFunction.apply(Objects.requireNonNull(key, "key"));
+    }
+
+    @NotNull
+    @Override
+    public Cooldown getBase() {
+        return this.delegate.getBase();
+    }
+
+    @NotNull
+    @Override
+    public Cooldown get(@NotNull I key) {
+        return this.delegate.get(compose(key));
+    }
+
+    @Override
+    public void put(@NotNull O key, @NotNull Cooldown cooldown) {
+        this.delegate.put(key, cooldown);
+    }
+
+    @NotNull
+    @Override
+    public Map<O, Cooldown> getAll() {
+        return this.delegate.getAll();
+    }
+
+    @Override
+    public boolean test(@NotNull I key) {
+        return this.delegate.test(compose(key));
+    }
+
+    @Override
+    public boolean testSilently(@NotNull I key) {
+        return this.delegate.testSilently(compose(key));
+    }
+
+    @Override
+    public long elapsed(@NotNull I key) {
+        return this.delegate.elapsed(compose(key));
+    }
+
+    @Override
+    public long remainingMillis(@NotNull I key) {
+        return this.delegate.remainingMillis(compose(key));
+    }
+
+    @NotNull
+    @Override
+    public OptionalLong getLastTested(@NotNull I key) {
+        return this.delegate.getLastTested(compose(key));
+    }
+
+    @Override
+    public void setLastTested(@NotNull I key, long time) {
+        this.delegate.setLastTested(compose(key), time);
+    }
+}
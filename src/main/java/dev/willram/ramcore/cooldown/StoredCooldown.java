@@ -0,0 +1,101 @@
+package dev.willram.ramcore.cooldown;
+
+import com.google.gson.JsonElement;
+import dev.willram.ramcore.gson.JsonBuilder;
+import dev.willram.ramcore.time.Time;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cooldown slot owned by a {@link CooldownStore}-backed map.
+ *
+ * <p>The last-tested time is a primitive field; writes to it and the wheel links are guarded by the
+ * store lock, while reads, including the active check in a test, are not. Reads of untested keys
+ * get a detached slot that is not in the map; writing a last-tested time installs it, or updates
+ * the slot installed for the key in the meantime.</p>
+ */
+final class StoredCooldown<K> implements Cooldown {
+    final StoredCooldownMap<K> owner;
+    final K key;
+
+    // when the last test occurred, 0 when never tested
+    volatile long lastTested;
+
+    // wheel state, guarded by the owning store
+    int bucket = -1;
+    StoredCooldown<?> prev;
+    StoredCooldown<?> next;
+
+    StoredCooldown(StoredCooldownMap<K> owner, K key) {
+        this.owner = owner;
+        this.key = key;
+    }
+
+    boolean testSilently(long now) {
+        return now - this.lastTested > this.owner.timeout;
+    }
+
+    boolean test(long now) {
+        return this.owner.test(this.key, this, now);
+    }
+
+    long remainingMillis(long now) {
+        long diff = now - this.lastTested;
+        long timeout = this.owner.timeout;
+        return diff > timeout ? 0L : timeout - diff;
+    }
+
+    @Override
+    public boolean testSilently() {
+        return testSilently(Time.nowMillis());
+    }
+
+    @Override
+    public boolean test() {
+        return test(Time.nowMillis());
+    }
+
+    @Override
+    public long elapsed() {
+        return Time.nowMillis() - this.lastTested;
+    }
+
+    @Override
+    public long remainingMillis() {
+        return remainingMillis(Time.nowMillis());
+    }
+
+    @NotNull
+    @Override
+    public OptionalLong getLastTested() {
+        long lastTested = this.lastTested;
+        return lastTested == 0 ? OptionalLong.empty() : OptionalLong.of(lastTested);
+    }
+
+    @Override
+    public void setLastTested(long time) {
+        this.owner.store.update(this.owner, this.key, this, Math.max(0L, time));
+    }
+
+    @Override
+    public long getTimeout() {
+        return this.owner.timeout;
+    }
+
+    @NotNull
+    @Override
+    public Cooldown copy() {
+        return new CooldownImpl(this.owner.timeout, TimeUnit.MILLISECONDS);
+    }
+
+    @NotNull
+    @Override
+    public JsonElement serialize() {
+        return JsonBuilder.object()
+                .add("lastTested", this.lastTested)
+                .add("timeout", this.owner.timeout)
+                .build();
+    }
+}
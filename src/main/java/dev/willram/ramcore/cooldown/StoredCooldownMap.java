@@ -0,0 +1,236 @@
+package dev.willram.ramcore.cooldown;
+
+import com.google.common.base.Preconditions;
+import dev.willram.ramcore.time.Time;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cooldown map whose slots are expired by a shared {@link CooldownStore}.
+ *
+ * <p>Keys that were never tested are not stored: {@link #testSilently(Object)} and the other
+ * read paths answer from the primitive slot state, or from the defaults when no slot exists.
+ * {@link #test(Object)} answers an active cooldown without locking or allocating, and only takes
+ * the store lock to start one, creating the key's slot at that point. {@link #get(Object)} hands
+ * out a detached slot for unseen keys, and a slot whose last-tested time is cleared is removed
+ * again.</p>
+ */
+final class StoredCooldownMap<K> implements CooldownMap<K> {
+    final CooldownStore store;
+    final long timeout;
+    private final Cooldown base;
+    private final ConcurrentHashMap<K, StoredCooldown<K>> slots = new ConcurrentHashMap<>();
+    private final List<CooldownExpiryListener<K>> expiryListeners = new CopyOnWriteArrayList<>();
+    private final Map<K, Cooldown> view = new View();
+
+    StoredCooldownMap(CooldownStore store, Cooldown base) {
+        this.store = store;
+        this.base = base;
+        this.timeout = base.getTimeout();
+    }
+
+    void onExpire(CooldownExpiryListener<K> listener) {
+        this.expiryListeners.add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    StoredCooldown<K> installed(K key) {
+        return this.slots.get(key);
+    }
+
+    /**
+     * Tests a key, taking the store lock only to start the cooldown. An active cooldown is answered
+     * from the installed slot alone, and an unseen key gets a slot only once the test passes.
+     */
+    boolean test(K key, StoredCooldown<K> handle, long now) {
+        StoredCooldown<K> current = this.slots.get(key);
+        if (current != null ? !current.testSilently(now) : now <= this.timeout) {
+            return false;
+        }
+        return this.store.test(this, key, handle, now);
+    }
+
+    /**
+     * Installs a slot. Only called under the store lock, after checking that no slot is installed
+     * for the key.
+     */
+    void attach(StoredCooldown<K> slot) {
+        this.slots.putIfAbsent(slot.key, slot);
+    }
+
+    /**
+     * Removes a slot, returning false if it was replaced or removed.
+     */
+    boolean release(StoredCooldown<?> slot) {
+        return this.slots.remove(slot.key, slot);
+    }
+
+    @SuppressWarnings("unchecked")
+    void fireExpired(List<StoredCooldown<?>> expired) {
+        if (this.expiryListeners.isEmpty()) {
+            return;
+        }
+        for (StoredCooldown<?> slot : expired) {
+            for (CooldownExpiryListener<K> listener : this.expiryListeners) {
+                listener.expired((K) slot.key, slot);
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public Cooldown getBase() {
+        return this.base;
+    }
+
+    @NotNull
+    @Override
+    public StoredCooldown<K> get(@NotNull K key) {
+        StoredCooldown<K> slot = this.slots.get(Objects.requireNonNull(key, "key"));
+        return slot != null ? slot : new StoredCooldown<>(this, key);
+    }
+
+    @Override
+    public void put(@NotNull K key, @NotNull Cooldown cooldown) {
+        Objects.requireNonNull(key, "key");
+        Preconditions.checkArgument(cooldown.getTimeout() == this.timeout, "different timeout");
+        this.store.update(this, key, null, Math.max(0L, cooldown.getLastTested().orElse(0L)));
+    }
+
+    @NotNull
+    @Override
+    public Map<K, Cooldown> getAll() {
+        return this.view;
+    }
+
+    @Override
+    public boolean test(@NotNull K key) {
+        return test(Objects.requireNonNull(key, "key"), null, Time.nowMillis());
+    }
+
+    @Override
+    public boolean testSilently(@NotNull K key) {
+        long now = Time.nowMillis();
+        StoredCooldown<K> slot = this.slots.get(Objects.requireNonNull(key, "key"));
+        return slot != null ? slot.testSilently(now) : now > this.timeout;
+    }
+
+    @Override
+    public long elapsed(@NotNull K key) {
+        StoredCooldown<K> slot = this.slots.get(Objects.requireNonNull(key, "key"));
+        return Time.nowMillis() - (slot != null ? slot.lastTested : 0L);
+    }
+
+    @Override
+    public long remainingMillis(@NotNull K key) {
+        StoredCooldown<K> slot = this.slots.get(Objects.requireNonNull(key, "key"));
+        return slot != null ? slot.remainingMillis(Time.nowMillis()) : 0L;
+    }
+
+    @NotNull
+    @Override
+    public OptionalLong getLastTested(@NotNull K key) {
+        StoredCooldown<K> slot = this.slots.get(Objects.requireNonNull(key, "key"));
+        return slot != null ? slot.getLastTested() : OptionalLong.empty();
+    }
+
+    @Override
+    public void setLastTested(@NotNull K key, long time) {
+        this.store.update(this, Objects.requireNonNull(key, "key"), null, Math.max(0L, time));
+    }
+
+    private StoredCooldown<K> remove(Object key) {
+        StoredCooldown<K> slot = this.slots.get(key);
+        if (slot != null) {
+            this.store.remove(slot);
+        }
+        return slot;
+    }
+
+    private final class View extends AbstractMap<K, Cooldown> {
+        private final Set<Entry<K, Cooldown>> entries = new Entries();
+
+        @Override
+        public int size() {
+            return StoredCooldownMap.this.slots.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return StoredCooldownMap.this.slots.containsKey(key);
+        }
+
+        @Override
+        public Cooldown get(Object key) {
+            return StoredCooldownMap.this.slots.get(key);
+        }
+
+        @Override
+        public Cooldown put(K key, Cooldown value) {
+            Cooldown previous = StoredCooldownMap.this.slots.get(key);
+            StoredCooldownMap.this.put(key, value);
+            return previous;
+        }
+
+        @Override
+        public Cooldown remove(Object key) {
+            return StoredCooldownMap.this.remove(key);
+        }
+
+        @Override
+        public void clear() {
+            for (K key : StoredCooldownMap.this.slots.keySet()) {
+                remove(key);
+            }
+        }
+
+        @NotNull
+        @Override
+        public Set<Entry<K, Cooldown>> entrySet() {
+            return this.entries;
+        }
+    }
+
+    private final class Entries extends AbstractSet<Map.Entry<K, Cooldown>> {
+
+        @Override
+        public int size() {
+            return StoredCooldownMap.this.slots.size();
+        }
+
+        @NotNull
+        @Override
+        public Iterator<Map.Entry<K, Cooldown>> iterator() {
+            Iterator<Map.Entry<K, StoredCooldown<K>>> iterator = StoredCooldownMap.this.slots.entrySet().iterator();
+            return new Iterator<>() {
+                private StoredCooldown<K> current;
+
+                @Override
+                public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override
+                public Map.Entry<K, Cooldown> next() {
+                    Map.Entry<K, StoredCooldown<K>> entry = iterator.next();
+                    this.current = entry.getValue();
+                    return Map.entry(entry.getKey(), entry.getValue());
+                }
+
+                @Override
+                public void remove() {
+                    StoredCooldownMap.this.store.remove(this.current);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,876 @@
+package dev.willram.ramcore.data;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import dev.willram.ramcore.gson.GsonProvider;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Compact binary repository item serializer.
+ *
+ * <p>Items go through the same Gson adapters as {@link GsonDataSerializer}, but the adapters write
+ * to and read from a binary {@link JsonWriter}/{@link JsonReader} pair, so no JSON text or tree is
+ * built. Values are tagged: integers as zig-zag varints, doubles as eight bytes, strings
+ * length-prefixed, and containers closed by an end marker. Object keys go through a per-item key
+ * table so repeated field names are written once. Each payload starts with a magic number, a format
+ * version, and flags; payloads above a threshold can be deflate-compressed.</p>
+ *
+ * <p>The character stream methods carry the same payload as Base64 text.</p>
+ */
+public final class BinaryDataSerializer<V extends DataItem> implements DataSerializer<V> {
+    private static final int MAGIC = 0x52434246;
+    private static final byte FORMAT_VERSION = 2;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 512;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte LONG = 3;
+    private static final byte DOUBLE = 4;
+    private static final byte STRING = 5;
+    private static final byte ARRAY = 6;
+    private static final byte OBJECT = 7;
+    private static final byte DECIMAL = 8;
+    private static final byte END = 9;
+
+    // object keys: 0 ends the object, 1 is followed by a new key, n + 2 repeats key n
+    private static final int KEY_END = 0;
+    private static final int KEY_NEW = 1;
+
+    private final Gson gson;
+    private final Class<V> type;
+    private final boolean compress;
+    private final int compressionThreshold;
+
+    private BinaryDataSerializer(@NotNull Gson gson, @NotNull Class<V> type, boolean compress, int compressionThreshold) {
+        this.gson = Objects.requireNonNull(gson, "gson").newBuilder()
+                .registerTypeAdapterFactory(MapAdapterFactory.INSTANCE)
+                .create();
+        this.type = Objects.requireNonNull(type, "type");
+        this.compress = compress;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @NotNull
+    public static <V extends DataItem> BinaryDataSerializer<V> standard(@NotNull Class<V> type) {
+        return new BinaryDataSerializer<>(GsonProvider.standard(), type, false, 0);
+    }
+
+    @NotNull
+    public static <V extends DataItem> BinaryDataSerializer<V> compressed(@NotNull Class<V> type) {
+        return new BinaryDataSerializer<>(GsonProvider.standard(), type, true, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    @NotNull
+    public ByteBuffer encode(@NotNull V item) {
+        Output payload = new Output(256);
+        this.gson.toJson(Objects.requireNonNull(item, "item"), this.type, new BinaryWriter(payload));
+
+        byte flags = 0;
+        byte[] body = payload.bytes;
+        int bodyLength = payload.size;
+        if (this.compress && payload.size >= this.compressionThreshold) {
+            byte[] deflated = deflate(payload.bytes, payload.size);
+            if (deflated.length < payload.size) {
+                flags = FLAG_DEFLATE;
+                body = deflated;
+                bodyLength = deflated.length;
+            }
+        }
+
+        Output output = new Output(bodyLength + 16);
+        output.writeInt(MAGIC);
+        output.write(FORMAT_VERSION);
+        output.write(flags);
+        output.writeVarInt(payload.size);
+        output.writeVarInt(bodyLength);
+        output.write(body, bodyLength);
+        return ByteBuffer.wrap(output.bytes, 0, output.size);
+    }
+
+    @NotNull
+    public V decode(@NotNull ByteBuffer buffer) throws IOException {
+        ByteBuffer input = buffer.slice();
+        if (input.remaining() < 6 || input.getInt() != MAGIC) {
+            throw new IOException("not a RamCore binary data payload");
+        }
+        byte version = input.get();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported binary data version " + version);
+        }
+        byte flags = input.get();
+        int payloadLength;
+        int bodyLength;
+        try {
+            payloadLength = readVarInt(input);
+            bodyLength = readVarInt(input);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated binary data header", e);
+        }
+        if (bodyLength > input.remaining()) {
+            throw new IOException("truncated binary data payload");
+        }
+        ByteBuffer payload = input.slice(input.position(), bodyLength);
+        if ((flags & FLAG_DEFLATE) != 0) {
+            // deflate cannot shrink data by more than about 1032:1
+            if (payloadLength > (long) bodyLength * 1032L + 64L) {
+                throw new IOException("corrupt compressed binary data length");
+            }
+            payload = ByteBuffer.wrap(inflate(payload, payloadLength));
+        }
+
+        V item;
+        try {
+            BinaryReader reader = new BinaryReader(payload);
+            item = this.gson.fromJson(reader, TypeToken.get(this.type));
+            reader.finish();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("truncated binary data payload", e);
+        } catch (JsonParseException e) {
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("corrupt binary data payload", e);
+        } catch (RuntimeException e) {
+            throw new IOException("corrupt binary data payload", e);
+        }
+        if (item == null) {
+            throw new IllegalArgumentException("Repository payload did not contain a " + this.type.getName());
+        }
+        return item;
+    }
+
+    @Override
+    public @NotNull V read(@NotNull InputStream input) throws IOException {
+        return decode(ByteBuffer.wrap(input.readAllBytes()));
+    }
+
+    @Override
+    public void write(@NotNull OutputStream output, @NotNull V item) throws IOException {
+        ByteBuffer buffer = encode(item);
+        output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+
+    @Override
+    public @NotNull V read(@NotNull Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] chunk = new char[4096];
+        for (int read; (read = reader.read(chunk)) != -1; ) {
+            text.append(chunk, 0, read);
+        }
+        try {
+            return decode(ByteBuffer.wrap(Base64.getDecoder().decode(text.toString().strip())));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("binary data text is not Base64", e);
+        }
+    }
+
+    @Override
+    public void write(@NotNull Writer writer, @NotNull V item) throws IOException {
+        writer.write(Base64.getEncoder().encodeToString(toArray(encode(item))));
+    }
+
+    @Override
+    public @NotNull String fileExtension() {
+        return ".bin";
+    }
+
+    private static byte[] toArray(ByteBuffer buffer) {
+        return Arrays.copyOfRange(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.arrayOffset() + buffer.limit());
+    }
+
+    private static String readString(ByteBuffer input) throws IOException {
+        int length = readVarInt(input);
+        if (length < 0 || length > input.remaining()) {
+            throw new IOException("truncated binary data string");
+        }
+        if (input.hasArray()) {
+            String value = new String(input.array(), input.arrayOffset() + input.position(), length, StandardCharsets.UTF_8);
+            input.position(input.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        input.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // every element takes at least one byte, so a larger count is corrupt
+    private static int readSize(ByteBuffer input) throws IOException {
+        int size = readVarInt(input);
+        if (size > input.remaining()) {
+            throw new IOException("truncated binary data container");
+        }
+        return size;
+    }
+
+    private static int readVarInt(ByteBuffer input) throws IOException {
+        long value = readVarLong(input);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw new IOException("binary data length out of range");
+        }
+        return (int) value;
+    }
+
+    private static long readVarLong(ByteBuffer input) throws IOException {
+        long raw = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = input.get();
+            raw |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (raw >>> 1) ^ -(raw & 1);
+            }
+        }
+        throw new IOException("malformed binary data varint");
+    }
+
+    private static byte[] deflate(byte[] bytes, int length) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(bytes, 0, length);
+            deflater.finish();
+            Output output = new Output(Math.max(64, length / 2));
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int written = deflater.deflate(chunk);
+                output.write(chunk, written);
+            }
+            return Arrays.copyOf(output.bytes, output.size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(ByteBuffer input, int length) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            byte[] output = new byte[length];
+            int read = 0;
+            while (read < length && !inflater.finished()) {
+                int inflated = inflater.inflate(output, read, length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                read += inflated;
+            }
+            if (read != length) {
+                throw new IOException("truncated compressed binary data payload");
+            }
+            return output;
+        } catch (DataFormatException e) {
+            throw new IOException("corrupt compressed binary data payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Receives Gson adapter output and encodes it straight into the payload.
+     */
+    private static final class BinaryWriter extends JsonWriter {
+        private final Output output;
+        private final Map<String, Integer> keys = new HashMap<>();
+        private String deferredName;
+
+        private BinaryWriter(Output output) {
+            super(Writer.nullWriter());
+            this.output = output;
+        }
+
+        @Override
+        public JsonWriter beginArray() {
+            writeDeferredName();
+            this.output.write(ARRAY);
+            return this;
+        }
+
+        @Override
+        public JsonWriter endArray() {
+            this.output.write(END);
+            return this;
+        }
+
+        @Override
+        public JsonWriter beginObject() {
+            writeDeferredName();
+            this.output.write(OBJECT);
+            return this;
+        }
+
+        @Override
+        public JsonWriter endObject() {
+            if (this.deferredName != null) {
+                throw new IllegalStateException("dangling name: " + this.deferredName);
+            }
+            this.output.writeVarInt(KEY_END);
+            return this;
+        }
+
+        @Override
+        public JsonWriter name(String name) {
+            Objects.requireNonNull(name, "name");
+            if (this.deferredName != null) {
+                throw new IllegalStateException("name already written: " + this.deferredName);
+            }
+            this.deferredName = name;
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(String value) {
+            if (value == null) {
+                return nullValue();
+            }
+            writeDeferredName();
+            this.output.write(STRING);
+            this.output.writeString(value);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(boolean value) {
+            writeDeferredName();
+            this.output.write(value ? TRUE : FALSE);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(Boolean value) {
+            return value == null ? nullValue() : value(value.booleanValue());
+        }
+
+        @Override
+        public JsonWriter value(float value) {
+            return value((double) value);
+        }
+
+        @Override
+        public JsonWriter value(double value) {
+            writeDeferredName();
+            this.output.write(DOUBLE);
+            this.output.writeLong(Double.doubleToRawLongBits(value));
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(long value) {
+            writeDeferredName();
+            this.output.write(LONG);
+            this.output.writeVarLong(value);
+            return this;
+        }
+
+        @Override
+        public JsonWriter value(Number value) {
+            if (value == null) {
+                return nullValue();
+            }
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                return value(value.longValue());
+            }
+            if (value instanceof Double || value instanceof Float) {
+                return value(value.doubleValue());
+            }
+            writeDeferredName();
+            this.output.write(DECIMAL);
+            this.output.writeString(value.toString());
+            return this;
+        }
+
+        @Override
+        public JsonWriter nullValue() {
+            if (this.deferredName != null && !getSerializeNulls()) {
+                this.deferredName = null;
+                return this;
+            }
+            writeDeferredName();
+            this.output.write(NULL);
+            return this;
+        }
+
+        @Override
+        public JsonWriter jsonValue(String value) throws IOException {
+            if (value == null) {
+                return nullValue();
+            }
+            writeElement(this, JsonParser.parseString(value));
+            return this;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        private void writeDeferredName() {
+            String name = this.deferredName;
+            if (name == null) {
+                return;
+            }
+            this.deferredName = null;
+            Integer id = this.keys.get(name);
+            if (id == null) {
+                this.keys.put(name, this.keys.size());
+                this.output.writeVarInt(KEY_NEW);
+                this.output.writeString(name);
+            } else {
+                this.output.writeVarInt(id + 2);
+            }
+        }
+
+        private static void writeElement(JsonWriter writer, JsonElement element) throws IOException {
+            if (element.isJsonNull()) {
+                writer.nullValue();
+            } else if (element.isJsonObject()) {
+                writer.beginObject();
+                for (Map.Entry<String, JsonElement> entry : element.getAsJsonObject().entrySet()) {
+                    writer.name(entry.getKey());
+                    writeElement(writer, entry.getValue());
+                }
+                writer.endObject();
+            } else if (element.isJsonArray()) {
+                writer.beginArray();
+                for (JsonElement value : element.getAsJsonArray()) {
+                    writeElement(writer, value);
+                }
+                writer.endArray();
+            } else {
+                JsonPrimitive primitive = element.getAsJsonPrimitive();
+                if (primitive.isBoolean()) {
+                    writer.value(primitive.getAsBoolean());
+                } else if (primitive.isString()) {
+                    writer.value(primitive.getAsString());
+                } else {
+                    writer.value(primitive.getAsNumber());
+                }
+            }
+        }
+    }
+
+    /**
+     * Feeds a payload to Gson adapters as a token stream.
+     */
+    private static final class BinaryReader extends JsonReader {
+        private final ByteBuffer input;
+        private final List<String> keys = new ArrayList<>();
+        // true for objects, false for arrays
+        private boolean[] objects = new boolean[16];
+        private int depth;
+        private boolean expectName;
+        private boolean rootRead;
+        private int tag = -1;
+        private int key = -1;
+
+        private BinaryReader(ByteBuffer input) {
+            super(Reader.nullReader());
+            this.input = input;
+        }
+
+        @Override
+        public JsonToken peek() throws IOException {
+            if (this.expectName) {
+                if (this.key < 0) {
+                    this.key = readVarInt(this.input);
+                }
+                return this.key == KEY_END ? JsonToken.END_OBJECT : JsonToken.NAME;
+            }
+            if (this.depth == 0 && this.rootRead) {
+                return JsonToken.END_DOCUMENT;
+            }
+            if (this.tag < 0) {
+                this.tag = this.input.get();
+            }
+            return switch (this.tag) {
+                case NULL -> JsonToken.NULL;
+                case TRUE, FALSE -> JsonToken.BOOLEAN;
+                case LONG, DOUBLE, DECIMAL -> JsonToken.NUMBER;
+                case STRING -> JsonToken.STRING;
+                case ARRAY -> JsonToken.BEGIN_ARRAY;
+                case OBJECT -> JsonToken.BEGIN_OBJECT;
+                case END -> {
+                    if (this.depth == 0 || this.objects[this.depth - 1]) {
+                        throw new IOException("unexpected binary data end marker");
+                    }
+                    yield JsonToken.END_ARRAY;
+                }
+                default -> throw new IOException("unknown binary data tag " + this.tag);
+            };
+        }
+
+        @Override
+        public void beginArray() throws IOException {
+            expect(JsonToken.BEGIN_ARRAY);
+            push(false);
+        }
+
+        @Override
+        public void endArray() throws IOException {
+            expect(JsonToken.END_ARRAY);
+            pop();
+        }
+
+        @Override
+        public void beginObject() throws IOException {
+            expect(JsonToken.BEGIN_OBJECT);
+            push(true);
+        }
+
+        @Override
+        public void endObject() throws IOException {
+            expect(JsonToken.END_OBJECT);
+            this.key = -1;
+            pop();
+        }
+
+        @Override
+        public boolean hasNext() throws IOException {
+            JsonToken token = peek();
+            return token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY && token != JsonToken.END_DOCUMENT;
+        }
+
+        @Override
+        public String nextName() throws IOException {
+            expect(JsonToken.NAME);
+            int id = this.key;
+            this.key = -1;
+            this.expectName = false;
+            if (id == KEY_NEW) {
+                String name = readString(this.input);
+                this.keys.add(name);
+                return name;
+            }
+            if (id - 2 >= this.keys.size()) {
+                throw new IOException("unknown binary data key " + id);
+            }
+            return this.keys.get(id - 2);
+        }
+
+        @Override
+        public String nextString() throws IOException {
+            JsonToken token = peek();
+            String value = switch (this.tag) {
+                case STRING, DECIMAL -> readString(this.input);
+                case LONG -> Long.toString(readVarLong(this.input));
+                case DOUBLE -> Double.toString(readDouble());
+                default -> throw unexpected("a string", token);
+            };
+            valueRead();
+            return value;
+        }
+
+        @Override
+        public boolean nextBoolean() throws IOException {
+            expect(JsonToken.BOOLEAN);
+            boolean value = this.tag == TRUE;
+            valueRead();
+            return value;
+        }
+
+        @Override
+        public void nextNull() throws IOException {
+            expect(JsonToken.NULL);
+            valueRead();
+        }
+
+        @Override
+        public double nextDouble() throws IOException {
+            JsonToken token = peek();
+            double value = switch (this.tag) {
+                case DOUBLE -> readDouble();
+                case LONG -> readVarLong(this.input);
+                case DECIMAL, STRING -> Double.parseDouble(readString(this.input));
+                default -> throw unexpected("a double", token);
+            };
+            valueRead();
+            return value;
+        }
+
+        @Override
+        public long nextLong() throws IOException {
+            JsonToken token = peek();
+            long value = switch (this.tag) {
+                case LONG -> readVarLong(this.input);
+                case DOUBLE -> {
+                    double number = readDouble();
+                    if ((long) number != number) {
+                        throw new NumberFormatException("Expected a long but was " + number);
+                    }
+                    yield (long) number;
+                }
+                case DECIMAL, STRING -> {
+                    try {
+                        yield new BigDecimal(readString(this.input)).longValueExact();
+                    } catch (ArithmeticException e) {
+                        throw new NumberFormatException("Expected a long: " + e.getMessage());
+                    }
+                }
+                default -> throw unexpected("a long", token);
+            };
+            valueRead();
+            return value;
+        }
+
+        @Override
+        public int nextInt() throws IOException {
+            long value = nextLong();
+            if ((int) value != value) {
+                throw new NumberFormatException("Expected an int but was " + value);
+            }
+            return (int) value;
+        }
+
+        @Override
+        public void skipValue() throws IOException {
+            JsonToken token = peek();
+            switch (token) {
+                case NAME -> nextName();
+                case BEGIN_ARRAY -> {
+                    beginArray();
+                    while (hasNext()) {
+                        skipValue();
+                    }
+                    endArray();
+                }
+                case BEGIN_OBJECT -> {
+                    beginObject();
+                    while (hasNext()) {
+                        nextName();
+                        skipValue();
+                    }
+                    endObject();
+                }
+                case STRING, NUMBER -> nextString();
+                case BOOLEAN -> nextBoolean();
+                case NULL -> nextNull();
+                default -> throw unexpected("a value", token);
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public String getPath() {
+            return "$";
+        }
+
+        @Override
+        public String getPreviousPath() {
+            return "$";
+        }
+
+        @Override
+        public String toString() {
+            return "BinaryReader at byte " + this.input.position();
+        }
+
+        private void finish() throws IOException {
+            if (peek() != JsonToken.END_DOCUMENT || this.input.hasRemaining()) {
+                throw new IOException("trailing binary data");
+            }
+        }
+
+        private void expect(JsonToken expected) throws IOException {
+            JsonToken token = peek();
+            if (token != expected) {
+                throw unexpected(expected.name(), token);
+            }
+        }
+
+        private double readDouble() {
+            return Double.longBitsToDouble(this.input.getLong());
+        }
+
+        private void push(boolean object) throws IOException {
+            this.tag = -1;
+            if (this.depth >= getNestingLimit()) {
+                throw new IOException("binary data nested too deeply");
+            }
+            if (this.depth == this.objects.length) {
+                this.objects = Arrays.copyOf(this.objects, this.depth * 2);
+            }
+            this.objects[this.depth++] = object;
+            this.expectName = object;
+        }
+
+        private void pop() {
+            this.depth--;
+            valueRead();
+        }
+
+        private void valueRead() {
+            this.tag = -1;
+            if (this.depth == 0) {
+                this.rootRead = true;
+                this.expectName = false;
+            } else {
+                this.expectName = this.objects[this.depth - 1];
+            }
+        }
+
+        private static IllegalStateException unexpected(String expected, JsonToken token) {
+            return new IllegalStateException("Expected " + expected + " but was " + token);
+        }
+    }
+
+    /**
+     * Reads maps from a {@link BinaryReader}. Gson's own map adapter reads keys through reader
+     * internals that only its own readers have, so keys are read here as names instead.
+     */
+    private enum MapAdapterFactory implements TypeAdapterFactory {
+        INSTANCE;
+
+        @Override
+        public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+            if (!Map.class.isAssignableFrom(type.getRawType())) {
+                return null;
+            }
+            com.google.common.reflect.TypeToken<?> map = com.google.common.reflect.TypeToken.of(type.getType());
+            Type keyType = map.resolveType(Map.class.getTypeParameters()[0]).getType();
+            Type valueType = map.resolveType(Map.class.getTypeParameters()[1]).getType();
+            return new MapAdapter<>(
+                    gson.getDelegateAdapter(this, type),
+                    keyType == String.class ? null : gson.getAdapter(TypeToken.get(keyType instanceof TypeVariable<?> ? Object.class : keyType)),
+                    gson.getAdapter(TypeToken.get(valueType instanceof TypeVariable<?> ? Object.class : valueType))
+            );
+        }
+    }
+
+    private static final class MapAdapter<T> extends TypeAdapter<T> {
+        private final TypeAdapter<T> delegate;
+        private final TypeAdapter<?> keys;
+        private final TypeAdapter<?> values;
+
+        private MapAdapter(TypeAdapter<T> delegate, TypeAdapter<?> keys, TypeAdapter<?> values) {
+            this.delegate = delegate;
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            this.delegate.write(out, value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T read(JsonReader in) throws IOException {
+            if (!(in instanceof BinaryReader) || in.peek() != JsonToken.BEGIN_OBJECT) {
+                return this.delegate.read(in);
+            }
+            // the delegate builds the right map implementation from an empty object
+            T created = this.delegate.fromJsonTree(new JsonObject());
+            Map<Object, Object> map = (Map<Object, Object>) created;
+            in.beginObject();
+            while (in.hasNext()) {
+                String name = in.nextName();
+                Object key = this.keys == null ? name : this.keys.fromJsonTree(new JsonPrimitive(name));
+                if (map.put(key, this.values.read(in)) != null) {
+                    throw new JsonSyntaxException("duplicate key: " + key);
+                }
+            }
+            in.endObject();
+            return created;
+        }
+    }
+
+    /**
+     * Growable byte sink; avoids the synchronization of {@link java.io.ByteArrayOutputStream}.
+     */
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        private Output(int capacity) {
+            this.bytes = new byte[Math.max(16, capacity)];
+        }
+
+        private void write(byte value) {
+            ensure(1);
+            this.bytes[this.size++] = value;
+        }
+
+        private void write(byte[] values, int length) {
+            ensure(length);
+            System.arraycopy(values, 0, this.bytes, this.size, length);
+            this.size += length;
+        }
+
+        private void writeInt(int value) {
+            ensure(4);
+            this.bytes[this.size++] = (byte) (value >>> 24);
+            this.bytes[this.size++] = (byte) (value >>> 16);
+            this.bytes[this.size++] = (byte) (value >>> 8);
+            this.bytes[this.size++] = (byte) value;
+        }
+
+        private void writeLong(long value) {
+            writeInt((int) (value >>> 32));
+            writeInt((int) value);
+        }
+
+        private void writeVarInt(int value) {
+            writeVarLong(value);
+        }
+
+        private void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensure(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                this.bytes[this.size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            this.bytes[this.size++] = (byte) zigzag;
+        }
+
+        private void writeString(String value) {
+            byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(encoded.length);
+            write(encoded, encoded.length);
+        }
+
+        private void ensure(int extra) {
+            if (this.size + extra > this.bytes.length) {
+                this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + extra));
+            }
+        }
+    }
+}
@@ -6,6 +6,8 @@ public abstract class DataItem {
     private transient boolean saving;
     private transient boolean shouldSave;
     private transient boolean dirty;
+    // last lookup in a lazy FileDataRepository, for least recently used eviction
+    transient volatile long accessed;
 
     public DataItem() {
         this.dataVersion = 1;
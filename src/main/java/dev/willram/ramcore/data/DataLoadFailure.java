@@ -0,0 +1,20 @@
+package dev.willram.ramcore.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * One repository file that could not be read or migrated during a bulk load.
+ */
+public record DataLoadFailure(
+        @NotNull Path path,
+        @NotNull Exception error
+) {
+
+    public DataLoadFailure {
+        Objects.requireNonNull(path, "path");
+        Objects.requireNonNull(error, "error");
+    }
+}
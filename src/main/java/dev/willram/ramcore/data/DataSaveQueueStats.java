@@ -0,0 +1,40 @@
+package dev.willram.ramcore.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Snapshot of a repository write-behind save queue.
+ */
+public record DataSaveQueueStats(
+        int backlog,
+        int inFlight,
+        long queued,
+        long coalesced,
+        long saved,
+        long failed,
+        long batches,
+        long lastBatchNanos,
+        long maxBatchNanos
+) {
+
+    public double averageBatchSize() {
+        return this.batches == 0 ? 0.0D : (double) (this.saved + this.failed) / this.batches;
+    }
+
+    @NotNull
+    public List<String> lines() {
+        return List.of(
+                "backlog=" + this.backlog,
+                "inFlight=" + this.inFlight,
+                "queued=" + this.queued,
+                "coalesced=" + this.coalesced,
+                "saved=" + this.saved,
+                "failed=" + this.failed,
+                "batches=" + this.batches,
+                "lastBatchMillis=" + this.lastBatchNanos / 1_000_000.0D,
+                "maxBatchMillis=" + this.maxBatchNanos / 1_000_000.0D
+        );
+    }
+}
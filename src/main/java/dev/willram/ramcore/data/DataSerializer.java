@@ -3,11 +3,20 @@ package dev.willram.ramcore.data;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Reads and writes repository items.
+ *
+ * <p>Repositories use the byte stream methods. Text serializers only implement the
+ * {@link Reader}/{@link Writer} pair and inherit UTF-8 bridging; binary serializers override the
+ * byte stream methods.</p>
  */
 public interface DataSerializer<V extends DataItem> {
 
@@ -15,4 +24,28 @@ public interface DataSerializer<V extends DataItem> {
     V read(@NotNull Reader reader) throws IOException;
 
     void write(@NotNull Writer writer, @NotNull V item) throws IOException;
+
+    /**
+     * Reads one item.
+     *
+     * @throws IOException if the input cannot be read or is not a valid item
+     */
+    @NotNull
+    default V read(@NotNull InputStream input) throws IOException {
+        return read(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    default void write(@NotNull OutputStream output, @NotNull V item) throws IOException {
+        Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+        write(writer, item);
+        writer.flush();
+    }
+
+    /**
+     * File extension, including the dot, for one-file-per-item repositories.
+     */
+    @NotNull
+    default String fileExtension() {
+        return ".json";
+    }
 }
@@ -2,33 +2,83 @@ package dev.willram.ramcore.data;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.IOException;
-import java.io.Reader;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Simple JSON/file-backed repository with dirty tracking, migrations, and async save helpers.
+ *
+ * <p>Queued saves go through a write-behind queue: repeated saves of a key that has not been
+ * written yet share one write, and a single drain task on the save executor writes queued keys in
+ * bounded batches.</p>
+ *
+ * <p>In lazy mode {@link #setup()} only indexes keys from file names. Items are read and migrated
+ * the first time they are looked up, and at most a bounded number of items stay resident. Resident
+ * lookups take no lock, and a miss reads the file on the calling thread while other lookups of the
+ * same key wait for that read. Dirty items are handed to the write-behind queue when they are
+ * evicted and stay readable until written. A caller that keeps an item across other lookups
+ * should save it with {@link #save(Object, DataItem)}, because the repository may have evicted
+ * that instance.</p>
  */
 public class FileDataRepository<K, V extends DataItem> extends DataRepository<K, V> implements AutoCloseable {
-    private static final String EXTENSION = ".json";
+    private static final int DEFAULT_SAVE_BATCH_SIZE = 64;
+    private static final int LOAD_BATCH_SIZE = 64;
+    private static final Logger LOGGER = Logger.getLogger(FileDataRepository.class.getName());
 
     private final Path directory;
     private final DataKeyCodec<K> keyCodec;
     private final DataSerializer<V> serializer;
+    private final String extension;
     private final Executor saveExecutor;
     private final List<DataRepositoryMigration<V>> migrations = new ArrayList<>();
-    private final List<CompletableFuture<Void>> pendingSaves = new ArrayList<>();
+    private final Map<K, CompletableFuture<Void>> queuedSaves = new ConcurrentHashMap<>();
+    private final Queue<K> saveQueue = new ConcurrentLinkedQueue<>();
+    private final Set<CompletableFuture<Void>> inFlightSaves = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final LongAdder queuedCount = new LongAdder();
+    private final LongAdder coalescedCount = new LongAdder();
+    private final LongAdder savedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+    private final LongAdder batchCount = new LongAdder();
+    private final AtomicLong lastBatchNanos = new AtomicLong();
+    private final AtomicLong maxBatchNanos = new AtomicLong();
+    private volatile int saveBatchSize = DEFAULT_SAVE_BATCH_SIZE;
+    private final Set<K> knownKeys = ConcurrentHashMap.newKeySet();
+    private final Map<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final Map<K, V> evicted = new ConcurrentHashMap<>();
+    private final AtomicLong accessClock = new AtomicLong();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private int maxResident;
+    private Executor loadExecutor;
+    private volatile List<DataLoadFailure> loadFailures = List.of();
 
     public FileDataRepository(@NotNull Path directory,
                               @NotNull DataKeyCodec<K> keyCodec,
@@ -37,6 +87,7 @@ public class FileDataRepository<K, V extends DataItem> extends DataRepository<K,
         this.directory = Objects.requireNonNull(directory, "directory");
         this.keyCodec = Objects.requireNonNull(keyCodec, "keyCodec");
         this.serializer = Objects.requireNonNull(serializer, "serializer");
+        this.extension = serializer.fileExtension();
         this.saveExecutor = Objects.requireNonNull(saveExecutor, "saveExecutor");
     }
 
@@ -47,79 +98,289 @@ public class FileDataRepository<K, V extends DataItem> extends DataRepository<K,
         return this;
     }
 
+    /**
+     * Sets how many queued keys the write-behind drain writes before yielding the save executor.
+     */
+    @NotNull
+    public FileDataRepository<K, V> saveBatchSize(int saveBatchSize) {
+        if (saveBatchSize < 1) {
+            throw new IllegalArgumentException("saveBatchSize must be >= 1");
+        }
+        this.saveBatchSize = saveBatchSize;
+        return this;
+    }
+
+    /**
+     * Switches the repository to lazy loading, keeping at most {@code maxResident} items in memory.
+     * Dirty items are queued for saving when they are evicted. Call before {@link #setup()}.
+     */
+    @NotNull
+    public FileDataRepository<K, V> lazyLoading(int maxResident) {
+        if (maxResident < 1) {
+            throw new IllegalArgumentException("maxResident must be >= 1");
+        }
+        Map<K, V> resident = new ConcurrentHashMap<>(this.registry);
+        this.knownKeys.addAll(resident.keySet());
+        this.maxResident = maxResident;
+        this.registry = resident;
+        return this;
+    }
+
+    public boolean lazy() {
+        return this.maxResident > 0;
+    }
+
+    /**
+     * Loads files in parallel on {@code loadExecutor} during {@link #setup()}. Results are merged
+     * in file name order, and files that fail to read or migrate are reported through
+     * {@link #loadFailures()} instead of aborting the load. Migrations must be thread-safe.
+     */
+    @NotNull
+    public FileDataRepository<K, V> parallelLoading(@NotNull Executor loadExecutor) {
+        this.loadExecutor = Objects.requireNonNull(loadExecutor, "loadExecutor");
+        return this;
+    }
+
     @Override
     public void setup() {
         this.registry.clear();
+        this.knownKeys.clear();
+        this.evicted.clear();
+        this.loadFailures = List.of();
         try {
             Files.createDirectories(this.directory);
+            List<Path> files;
             try (var stream = Files.list(this.directory)) {
-                for (Path path : stream
+                files = stream
                         .filter(Files::isRegularFile)
-                        .filter(file -> file.getFileName().toString().endsWith(EXTENSION))
-                        .toList()) {
-                    K key = this.keyCodec.decode(stripExtension(path.getFileName().toString()));
-                    V item = read(path);
-                    item = migrate(item);
-                    add(key, item);
+                        .filter(file -> file.getFileName().toString().endsWith(this.extension))
+                        .toList();
+            }
+            if (lazy()) {
+                for (Path path : files) {
+                    this.knownKeys.add(key(path));
                 }
+                return;
+            }
+            if (this.loadExecutor != null) {
+                loadParallel(files);
+                return;
+            }
+            for (Path path : files) {
+                K key = key(path);
+                V item = read(path);
+                item = migrate(item);
+                add(key, item);
             }
         } catch (IOException e) {
             throw new DataRepositoryException("failed to load repository from " + this.directory, e);
         }
     }
 
+    /**
+     * Returns the files that failed during the last parallel {@link #setup()}.
+     */
+    @NotNull
+    public List<DataLoadFailure> loadFailures() {
+        return this.loadFailures;
+    }
+
+    @Override
+    public V get(K key) {
+        if (!lazy()) {
+            return super.get(key);
+        }
+        V item = this.registry.get(key);
+        if (item != null) {
+            item.accessed = this.accessClock.incrementAndGet();
+            return item;
+        }
+        if (!this.knownKeys.contains(key)) {
+            return null;
+        }
+        item = this.evicted.get(key);
+        if (item == null) {
+            item = load(key);
+        }
+        item.accessed = this.accessClock.incrementAndGet();
+        V raced = this.registry.putIfAbsent(key, item);
+        if (raced != null) {
+            return raced;
+        }
+        evictResident();
+        return item;
+    }
+
+    /**
+     * Reads a non-resident item. Concurrent lookups of the same key share one read.
+     */
+    private V load(K key) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = this.loading.putIfAbsent(key, created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof DataRepositoryException failure ? failure : e;
+            }
+        }
+        try {
+            V item = migrate(read(path(key)));
+            created.complete(item);
+            return item;
+        } catch (IOException e) {
+            DataRepositoryException failure = new DataRepositoryException("failed to load data item " + key, e);
+            created.completeExceptionally(failure);
+            throw failure;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            this.loading.remove(key, created);
+        }
+    }
+
+    /**
+     * Adds an item. In lazy mode the item is marked dirty, because it only exists in memory until
+     * it is saved and must not be evicted before then.
+     */
+    @Override
+    public void add(K key, V value) {
+        if (!lazy()) {
+            super.add(key, value);
+            return;
+        }
+        super.add(key, value);
+        value.markDirty();
+        value.accessed = this.accessClock.incrementAndGet();
+        this.knownKeys.add(key);
+        evictResident();
+    }
+
+    @Override
+    public void remove(K key) {
+        if (!lazy()) {
+            super.remove(key);
+            return;
+        }
+        super.remove(key);
+        this.knownKeys.remove(key);
+        this.evicted.remove(key);
+    }
+
+    @Override
+    public boolean has(K key) {
+        return lazy() ? this.knownKeys.contains(key) : super.has(key);
+    }
+
+    @Override
+    public int size() {
+        return lazy() ? this.knownKeys.size() : super.size();
+    }
+
+    /**
+     * Returns the resident items. In lazy mode this is a copy, because items come and go as they
+     * are loaded and evicted.
+     */
+    @NotNull
+    @Override
+    public Collection<V> values() {
+        if (!lazy()) {
+            return super.values();
+        }
+        return List.copyOf(this.registry.values());
+    }
+
+    /**
+     * Returns the resident items by key. In lazy mode this is an unmodifiable copy, for the same
+     * reason as {@link #values()}.
+     */
+    @Override
+    public Map<K, V> registry() {
+        if (!lazy()) {
+            return super.registry();
+        }
+        return Collections.unmodifiableMap(new LinkedHashMap<>(this.registry));
+    }
+
+    /**
+     * Returns every key stored by this repository, including keys that are not resident. In lazy
+     * mode {@link #values()} only covers resident items.
+     */
+    @NotNull
+    public Set<K> keys() {
+        return lazy() ? Set.copyOf(this.knownKeys) : Set.copyOf(this.registry.keySet());
+    }
+
+    public int residentSize() {
+        return this.registry.size();
+    }
+
     @Override
     public void saveAll() {
-        for (K key : List.copyOf(this.registry.keySet())) {
+        for (K key : residentKeys()) {
             save(key);
         }
     }
 
     public void saveDirty() {
-        for (K key : List.copyOf(this.registry.keySet())) {
-            V item = require(key);
-            if (item.dirty()) {
+        for (K key : residentKeys()) {
+            V item = resident(key);
+            if (item != null && item.dirty()) {
                 save(key);
             }
         }
     }
 
     public void save(@NotNull K key) {
-        V item = require(key);
-        if (item.shouldNotSave()) {
+        V item = lazy() ? resident(key) : require(key);
+        if (item == null) {
+            // Non-resident lazy items were written, or queued, when they were evicted.
             return;
         }
-        item.setSaving(true);
-        try {
-            Files.createDirectories(this.directory);
-            write(path(key), item);
-            item.markClean();
-        } catch (IOException e) {
-            throw new DataRepositoryException("failed to save data item " + key, e);
-        } finally {
-            item.setSaving(false);
+        writeItem(key, item);
+    }
+
+    /**
+     * Saves the given instance under a key. In lazy mode the instance becomes the resident item
+     * again if the key is resident, so changes made to an item after it was evicted are kept.
+     */
+    public void save(@NotNull K key, @NotNull V item) {
+        Objects.requireNonNull(key, "key");
+        Objects.requireNonNull(item, "item");
+        if (lazy()) {
+            this.registry.replace(key, item);
+            this.evicted.replace(key, item);
+            this.knownKeys.add(key);
         }
+        writeItem(key, item);
     }
 
+    /**
+     * Queues a write-behind save. A key that is already queued and not yet being written shares
+     * the pending save instead of queueing another write.
+     */
     @NotNull
     public CompletableFuture<Void> queueSave(@NotNull K key) {
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> save(key), this.saveExecutor);
-        synchronized (this.pendingSaves) {
-            this.pendingSaves.add(future);
+        Objects.requireNonNull(key, "key");
+        this.queuedCount.increment();
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = this.queuedSaves.putIfAbsent(key, created);
+        if (existing != null) {
+            this.coalescedCount.increment();
+            return existing;
         }
-        future.whenComplete((result, error) -> {
-            synchronized (this.pendingSaves) {
-                this.pendingSaves.remove(future);
-            }
-        });
-        return future;
+        this.saveQueue.add(key);
+        scheduleDrain();
+        return created;
     }
 
     @NotNull
     public List<CompletableFuture<Void>> queueSaveDirty() {
         List<CompletableFuture<Void>> futures = new ArrayList<>();
-        for (K key : List.copyOf(this.registry.keySet())) {
-            if (require(key).dirty()) {
+        for (K key : residentKeys()) {
+            V item = resident(key);
+            if (item != null && item.dirty()) {
                 futures.add(queueSave(key));
             }
         }
@@ -127,13 +388,26 @@ public class FileDataRepository<K, V extends DataItem> extends DataRepository<K,
     }
 
     public void flushQueuedSaves() {
-        List<CompletableFuture<Void>> futures;
-        synchronized (this.pendingSaves) {
-            futures = List.copyOf(this.pendingSaves);
-        }
+        List<CompletableFuture<Void>> futures = new ArrayList<>(this.queuedSaves.values());
+        futures.addAll(this.inFlightSaves);
         CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
     }
 
+    @NotNull
+    public DataSaveQueueStats saveQueueStats() {
+        return new DataSaveQueueStats(
+                this.queuedSaves.size(),
+                this.inFlightSaves.size(),
+                this.queuedCount.sum(),
+                this.coalescedCount.sum(),
+                this.savedCount.sum(),
+                this.failedCount.sum(),
+                this.batchCount.sum(),
+                this.lastBatchNanos.get(),
+                this.maxBatchNanos.get()
+        );
+    }
+
     public void delete(@NotNull K key) {
         remove(key);
         try {
@@ -145,7 +419,7 @@ public class FileDataRepository<K, V extends DataItem> extends DataRepository<K,
 
     @NotNull
     public Path path(@NotNull K key) {
-        return this.directory.resolve(this.keyCodec.encode(key) + EXTENSION);
+        return this.directory.resolve(this.keyCodec.encode(key) + this.extension);
     }
 
     @Override
@@ -154,16 +428,180 @@ public class FileDataRepository<K, V extends DataItem> extends DataRepository<K,
         saveDirty();
     }
 
+    private void loadParallel(List<Path> files) {
+        List<Path> sorted = new ArrayList<>(files);
+        sorted.sort(Comparator.comparing(path -> path.getFileName().toString()));
+
+        List<CompletableFuture<List<LoadedFile<K, V>>>> batches = new ArrayList<>();
+        for (int start = 0; start < sorted.size(); start += LOAD_BATCH_SIZE) {
+            List<Path> batch = sorted.subList(start, Math.min(sorted.size(), start + LOAD_BATCH_SIZE));
+            batches.add(CompletableFuture.supplyAsync(() -> loadBatch(batch), this.loadExecutor));
+        }
+
+        List<DataLoadFailure> failures = new ArrayList<>();
+        for (CompletableFuture<List<LoadedFile<K, V>>> batch : batches) {
+            for (LoadedFile<K, V> loaded : batch.join()) {
+                if (loaded.failure() != null) {
+                    failures.add(loaded.failure());
+                } else {
+                    add(loaded.key(), loaded.item());
+                }
+            }
+        }
+        this.loadFailures = List.copyOf(failures);
+    }
+
+    private List<LoadedFile<K, V>> loadBatch(List<Path> paths) {
+        List<LoadedFile<K, V>> loaded = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            try {
+                K key = key(path);
+                loaded.add(new LoadedFile<>(key, migrate(read(path)), null));
+            } catch (IOException | RuntimeException e) {
+                loaded.add(new LoadedFile<>(null, null, new DataLoadFailure(path, e)));
+            }
+        }
+        return loaded;
+    }
+
+    private K key(Path path) {
+        return this.keyCodec.decode(stripExtension(path.getFileName().toString()));
+    }
+
+    private List<K> residentKeys() {
+        return List.copyOf(this.registry.keySet());
+    }
+
+    // evicted items waiting for their queued save are still the current copy
+    private V resident(K key) {
+        V item = this.registry.get(key);
+        return item != null || !lazy() ? item : this.evicted.get(key);
+    }
+
+    /**
+     * Evicts the least recently used items once the resident limit is exceeded, down to an eighth
+     * below it so the scan is not repeated on every load. Dirty items are queued for saving and stay
+     * readable through {@link #evicted} until written; items that are being saved stay resident. One
+     * caller evicts at a time and the others skip.
+     */
+    private void evictResident() {
+        if (this.registry.size() <= this.maxResident || !this.evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int excess = this.registry.size() - (this.maxResident - this.maxResident / 8);
+            List<Map.Entry<K, V>> entries = new ArrayList<>(this.registry.entrySet());
+            entries.sort(Comparator.comparingLong(entry -> entry.getValue().accessed));
+            for (Iterator<Map.Entry<K, V>> iterator = entries.iterator(); excess > 0 && iterator.hasNext(); ) {
+                Map.Entry<K, V> entry = iterator.next();
+                K key = entry.getKey();
+                V item = entry.getValue();
+                if (item.isSaving()) {
+                    continue;
+                }
+                if (item.dirty() && !item.shouldNotSave()) {
+                    this.evicted.put(key, item);
+                    if (!this.registry.remove(key, item)) {
+                        this.evicted.remove(key, item);
+                        continue;
+                    }
+                    queueSave(key).whenComplete((ignored, failure) -> evictedSaved(key, item, failure));
+                } else if (!this.registry.remove(key, item)) {
+                    continue;
+                }
+                excess--;
+            }
+        } finally {
+            this.evicting.set(false);
+        }
+    }
+
+    // a failed write puts the item back, so its changes are not dropped with it
+    private void evictedSaved(K key, V item, Throwable failure) {
+        if (failure != null) {
+            LOGGER.log(Level.WARNING, "Failed to save evicted data item " + key + ", keeping it resident", failure);
+            if (this.knownKeys.contains(key)) {
+                this.registry.putIfAbsent(key, item);
+            }
+        }
+        this.evicted.remove(key, item);
+    }
+
+    private void scheduleDrain() {
+        if (this.draining.compareAndSet(false, true)) {
+            try {
+                this.saveExecutor.execute(this::drainBatch);
+            } catch (RuntimeException e) {
+                this.draining.set(false);
+                throw e;
+            }
+        }
+    }
+
+    private void drainBatch() {
+        long start = System.nanoTime();
+        int written = 0;
+        try {
+            K key;
+            while (written < this.saveBatchSize && (key = this.saveQueue.poll()) != null) {
+                CompletableFuture<Void> future = this.queuedSaves.get(key);
+                if (future == null) {
+                    continue;
+                }
+                written++;
+                this.inFlightSaves.add(future);
+                this.queuedSaves.remove(key, future);
+                try {
+                    save(key);
+                    this.savedCount.increment();
+                    future.complete(null);
+                } catch (RuntimeException e) {
+                    this.failedCount.increment();
+                    future.completeExceptionally(e);
+                } finally {
+                    this.inFlightSaves.remove(future);
+                }
+            }
+        } finally {
+            if (written > 0) {
+                long elapsed = System.nanoTime() - start;
+                this.batchCount.increment();
+                this.lastBatchNanos.set(elapsed);
+                this.maxBatchNanos.accumulateAndGet(elapsed, Math::max);
+            }
+            this.draining.set(false);
+        }
+        if (!this.saveQueue.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+
+    private void writeItem(K key, V item) {
+        if (item.shouldNotSave()) {
+            return;
+        }
+        item.setSaving(true);
+        try {
+            Files.createDirectories(this.directory);
+            write(path(key), item);
+            item.markClean();
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to save data item " + key, e);
+        } finally {
+            item.setSaving(false);
+        }
+    }
+
     private V read(Path path) throws IOException {
-        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
-            return this.serializer.read(reader);
+        try (InputStream input = new BufferedInputStream(Files.newInputStream(path))) {
+            return this.serializer.read(input);
         }
     }
 
     private void write(Path path, V item) throws IOException {
         Path temp = path.resolveSibling(path.getFileName() + ".tmp");
-        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
-            this.serializer.write(writer, item);
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+            this.serializer.write(output, item);
         }
         try {
             Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
@@ -184,7 +622,10 @@ public class FileDataRepository<K, V extends DataItem> extends DataRepository<K,
         return current;
     }
 
-    private static String stripExtension(String fileName) {
-        return fileName.substring(0, fileName.length() - EXTENSION.length());
+    private String stripExtension(String fileName) {
+        return fileName.substring(0, fileName.length() - this.extension.length());
+    }
+
+    private record LoadedFile<K, V>(K key, V item, DataLoadFailure failure) {
     }
 }
@@ -0,0 +1,555 @@
+package dev.willram.ramcore.data;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, segmented log repository.
+ *
+ * <p>Every save appends a checksummed record to the active segment and updates an in-memory key to
+ * record index; deletes append tombstones. Segments roll over at a size limit, and compaction
+ * rewrites live records into one compacted segment once enough of the log is stale. Setup replays
+ * segments in order, reading sealed segments through memory maps, and truncates a torn or corrupt
+ * tail left by a crash.</p>
+ */
+public class LogDataRepository<K, V extends DataItem> extends DataRepository<K, V> implements AutoCloseable {
+    private static final String PREFIX = "segment-";
+    private static final String EXTENSION = ".log";
+    private static final int MAGIC = 0x52434C47;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_COMPACTED = 1;
+    private static final int SEGMENT_HEADER_BYTES = 6;
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int RECORD_HEADER_BYTES = 9;
+    private static final int RECORD_TRAILER_BYTES = 4;
+    private static final long DEFAULT_MAX_SEGMENT_BYTES = 64L * 1024 * 1024;
+    private static final long DEFAULT_MIN_COMPACTION_BYTES = 4L * 1024 * 1024;
+    private static final double DEFAULT_COMPACTION_RATIO = 0.5D;
+
+    private final Path directory;
+    private final DataKeyCodec<K> keyCodec;
+    private final DataSerializer<V> serializer;
+    private final List<DataRepositoryMigration<V>> migrations = new ArrayList<>();
+    private final Map<K, RecordLocation> index = new LinkedHashMap<>();
+    private final TreeMap<Long, Path> segments = new TreeMap<>();
+    private long maxSegmentBytes = DEFAULT_MAX_SEGMENT_BYTES;
+    private long minCompactionBytes = DEFAULT_MIN_COMPACTION_BYTES;
+    private double compactionRatio = DEFAULT_COMPACTION_RATIO;
+    private long logBytes;
+    private long liveBytes;
+    private long activeSegment;
+    private FileChannel activeChannel;
+    private long activeSize;
+
+    public LogDataRepository(@NotNull Path directory,
+                             @NotNull DataKeyCodec<K> keyCodec,
+                             @NotNull DataSerializer<V> serializer) {
+        this.directory = Objects.requireNonNull(directory, "directory");
+        this.keyCodec = Objects.requireNonNull(keyCodec, "keyCodec");
+        this.serializer = Objects.requireNonNull(serializer, "serializer");
+    }
+
+    @NotNull
+    public LogDataRepository<K, V> migrateTo(int targetVersion, @NotNull DataMigration<V> migration) {
+        this.migrations.add(new DataRepositoryMigration<>(targetVersion, migration));
+        this.migrations.sort(Comparator.comparingInt(DataRepositoryMigration::targetVersion));
+        return this;
+    }
+
+    /**
+     * Sets the size at which the active segment is sealed and a new one is started.
+     */
+    @NotNull
+    public LogDataRepository<K, V> maxSegmentBytes(long maxSegmentBytes) {
+        if (maxSegmentBytes < 1024 || maxSegmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("maxSegmentBytes must be between 1024 and " + Integer.MAX_VALUE);
+        }
+        this.maxSegmentBytes = maxSegmentBytes;
+        return this;
+    }
+
+    /**
+     * Sets when {@link #compactIfNeeded()} rewrites the log: once it is at least
+     * {@code minLogBytes} large and at least {@code staleRatio} of it is superseded records.
+     */
+    @NotNull
+    public LogDataRepository<K, V> compaction(long minLogBytes, double staleRatio) {
+        if (minLogBytes < 0) {
+            throw new IllegalArgumentException("minLogBytes must be >= 0");
+        }
+        if (staleRatio <= 0.0D || staleRatio >= 1.0D) {
+            throw new IllegalArgumentException("staleRatio must be between 0 and 1");
+        }
+        this.minCompactionBytes = minLogBytes;
+        this.compactionRatio = staleRatio;
+        return this;
+    }
+
+    @Override
+    public synchronized void setup() {
+        closeActive();
+        this.registry.clear();
+        this.index.clear();
+        this.segments.clear();
+        this.logBytes = 0;
+        this.liveBytes = 0;
+        try {
+            Files.createDirectories(this.directory);
+            discoverSegments();
+            Map<Long, ByteBuffer> buffers = new HashMap<>();
+            for (Map.Entry<Long, Path> segment : this.segments.entrySet()) {
+                boolean last = segment.getKey().equals(this.segments.lastKey());
+                ByteBuffer buffer = last ? readTail(segment.getValue()) : map(segment.getValue());
+                buffers.put(segment.getKey(), buffer);
+                replay(segment.getKey(), segment.getValue(), buffer, last);
+            }
+            for (Map.Entry<K, RecordLocation> entry : this.index.entrySet()) {
+                RecordLocation location = entry.getValue();
+                V item = decode(buffers.get(location.segment()), location);
+                add(entry.getKey(), migrate(item));
+            }
+            openActive(this.segments.isEmpty() ? 1 : this.segments.lastKey(), this.segments.isEmpty());
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to load repository from " + this.directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void saveAll() {
+        for (K key : List.copyOf(this.registry.keySet())) {
+            append(key);
+        }
+        sync();
+        compactIfNeeded();
+    }
+
+    public synchronized void saveDirty() {
+        for (K key : List.copyOf(this.registry.keySet())) {
+            if (require(key).dirty()) {
+                append(key);
+            }
+        }
+        sync();
+        compactIfNeeded();
+    }
+
+    /**
+     * Appends and syncs one item.
+     */
+    public synchronized void save(@NotNull K key) {
+        append(key);
+        sync();
+    }
+
+    public synchronized void delete(@NotNull K key) {
+        remove(key);
+        RecordLocation previous = this.index.remove(key);
+        if (previous == null) {
+            return;
+        }
+        try {
+            RecordLocation tombstone = write(DELETE, this.keyCodec.encode(key), new byte[0]);
+            this.liveBytes -= previous.length();
+            this.logBytes += tombstone.length();
+            this.activeChannel.force(false);
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to delete data item " + key, e);
+        }
+    }
+
+    /**
+     * Forces appended records to disk.
+     */
+    public synchronized void sync() {
+        if (this.activeChannel == null) {
+            return;
+        }
+        try {
+            this.activeChannel.force(false);
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to sync repository " + this.directory, e);
+        }
+    }
+
+    /**
+     * Compacts the log when it is large enough and mostly stale.
+     *
+     * @return true when a compaction ran
+     */
+    public synchronized boolean compactIfNeeded() {
+        if (this.logBytes < this.minCompactionBytes || staleRatio() < this.compactionRatio) {
+            return false;
+        }
+        compact();
+        return true;
+    }
+
+    /**
+     * Rewrites every live record into a single compacted segment and deletes older segments.
+     */
+    public synchronized void compact() {
+        if (this.activeChannel == null) {
+            return;
+        }
+        long id = this.segments.lastKey() + 1;
+        Path target = segmentPath(id);
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Map<K, RecordLocation> relocated = new LinkedHashMap<>();
+        long size;
+        try {
+            Map<Long, FileChannel> sources = new HashMap<>();
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                writeFully(out, segmentHeader(FLAG_COMPACTED), 0);
+                size = SEGMENT_HEADER_BYTES;
+                for (Map.Entry<K, RecordLocation> entry : this.index.entrySet()) {
+                    RecordLocation location = entry.getValue();
+                    FileChannel source = sources.get(location.segment());
+                    if (source == null) {
+                        source = FileChannel.open(this.segments.get(location.segment()), StandardOpenOption.READ);
+                        sources.put(location.segment(), source);
+                    }
+                    ByteBuffer record = ByteBuffer.allocate(location.length());
+                    readFully(source, record, location.offset());
+                    record.flip();
+                    writeFully(out, record, size);
+                    relocated.put(entry.getKey(), location.moveTo(id, size));
+                    size += location.length();
+                }
+                out.force(true);
+            } finally {
+                for (FileChannel source : sources.values()) {
+                    source.close();
+                }
+            }
+
+            closeActive();
+            move(temp, target);
+            for (Path old : List.copyOf(this.segments.values())) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to compact repository " + this.directory, e);
+        }
+
+        this.segments.clear();
+        this.segments.put(id, target);
+        this.index.putAll(relocated);
+        this.logBytes = size;
+        this.liveBytes = size - SEGMENT_HEADER_BYTES;
+        try {
+            openActive(id, false);
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to reopen repository " + this.directory, e);
+        }
+    }
+
+    public synchronized int segmentCount() {
+        return this.segments.size();
+    }
+
+    /**
+     * Total bytes across all segments, including stale records.
+     */
+    public synchronized long logBytes() {
+        return this.logBytes;
+    }
+
+    /**
+     * Bytes of records that are still the latest version of their key.
+     */
+    public synchronized long liveBytes() {
+        return this.liveBytes;
+    }
+
+    public synchronized double staleRatio() {
+        long payload = this.logBytes - (long) this.segments.size() * SEGMENT_HEADER_BYTES;
+        return payload <= 0 ? 0.0D : 1.0D - (double) this.liveBytes / payload;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (this.activeChannel != null) {
+            saveDirty();
+        }
+        closeActive();
+    }
+
+    private void append(K key) {
+        V item = require(key);
+        if (item.shouldNotSave()) {
+            return;
+        }
+        item.setSaving(true);
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            this.serializer.write(bytes, item);
+            RecordLocation location = write(PUT, this.keyCodec.encode(key), bytes.toByteArray());
+            RecordLocation previous = this.index.put(key, location);
+            this.liveBytes += location.length() - (previous == null ? 0 : previous.length());
+            this.logBytes += location.length();
+            item.markClean();
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to save data item " + key, e);
+        } finally {
+            item.setSaving(false);
+        }
+    }
+
+    private RecordLocation write(byte type, String encodedKey, byte[] value) throws IOException {
+        if (this.activeChannel == null) {
+            throw new IllegalStateException("repository is not set up; call setup() first");
+        }
+        byte[] key = encodedKey.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER_BYTES + key.length + value.length + RECORD_TRAILER_BYTES;
+        if (this.activeSize > SEGMENT_HEADER_BYTES && this.activeSize + length > this.maxSegmentBytes) {
+            this.activeChannel.force(false);
+            closeActive();
+            openActive(this.activeSegment + 1, true);
+        }
+
+        ByteBuffer record = ByteBuffer.allocate(length);
+        record.put(type).putInt(key.length).putInt(value.length).put(key).put(value);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, length - RECORD_TRAILER_BYTES);
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        long offset = this.activeSize;
+        writeFully(this.activeChannel, record, offset);
+        this.activeSize += length;
+        return new RecordLocation(this.activeSegment, offset, length, key.length, value.length);
+    }
+
+    private void discoverSegments() throws IOException {
+        try (var stream = Files.list(this.directory)) {
+            for (Path path : stream.filter(Files::isRegularFile).toList()) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(PREFIX) && name.endsWith(EXTENSION)) {
+                    long id = Long.parseLong(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+                    this.segments.put(id, path);
+                } else if (name.startsWith(PREFIX) && name.endsWith(EXTENSION + ".tmp")) {
+                    // Leftover from a compaction that did not finish; the original segments are intact.
+                    Files.delete(path);
+                }
+            }
+        }
+
+        Long compacted = null;
+        for (Map.Entry<Long, Path> segment : this.segments.entrySet()) {
+            if (isCompacted(segment.getValue())) {
+                compacted = segment.getKey();
+            }
+        }
+        if (compacted != null) {
+            // A compacted segment supersedes every older one; finish the interrupted cleanup.
+            for (Path old : List.copyOf(this.segments.headMap(compacted).values())) {
+                Files.deleteIfExists(old);
+            }
+            this.segments.headMap(compacted).clear();
+        }
+    }
+
+    private void replay(long segment, Path path, ByteBuffer buffer, boolean last) throws IOException {
+        if (buffer.limit() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC || buffer.get(4) != FORMAT_VERSION) {
+            if (last) {
+                truncate(path, 0);
+                this.segments.remove(segment);
+                Files.delete(path);
+                return;
+            }
+            throw new IOException("invalid segment header in " + path);
+        }
+
+        int position = SEGMENT_HEADER_BYTES;
+        CRC32 crc = new CRC32();
+        while (position < buffer.limit()) {
+            int valid = validRecordLength(buffer, position, crc);
+            if (valid < 0) {
+                if (!last) {
+                    throw new IOException("corrupt record at " + position + " in " + path);
+                }
+                truncate(path, position);
+                break;
+            }
+            byte type = buffer.get(position);
+            int keyLength = buffer.getInt(position + 1);
+            int valueLength = buffer.getInt(position + 5);
+            byte[] keyBytes = new byte[keyLength];
+            buffer.get(position + RECORD_HEADER_BYTES, keyBytes);
+            K key = this.keyCodec.decode(new String(keyBytes, StandardCharsets.UTF_8));
+
+            RecordLocation previous;
+            if (type == PUT) {
+                RecordLocation location = new RecordLocation(segment, position, valid, keyLength, valueLength);
+                previous = this.index.put(key, location);
+                this.liveBytes += valid;
+            } else {
+                previous = this.index.remove(key);
+            }
+            if (previous != null) {
+                this.liveBytes -= previous.length();
+            }
+            position += valid;
+        }
+        this.logBytes += position;
+    }
+
+    private static int validRecordLength(ByteBuffer buffer, int position, CRC32 crc) {
+        int remaining = buffer.limit() - position;
+        if (remaining < RECORD_HEADER_BYTES + RECORD_TRAILER_BYTES) {
+            return -1;
+        }
+        byte type = buffer.get(position);
+        int keyLength = buffer.getInt(position + 1);
+        int valueLength = buffer.getInt(position + 5);
+        if ((type != PUT && type != DELETE) || keyLength < 0 || valueLength < 0) {
+            return -1;
+        }
+        long length = (long) RECORD_HEADER_BYTES + keyLength + valueLength + RECORD_TRAILER_BYTES;
+        if (length > remaining) {
+            return -1;
+        }
+        int body = (int) length - RECORD_TRAILER_BYTES;
+        crc.reset();
+        crc.update(buffer.slice(position, body));
+        return (int) crc.getValue() == buffer.getInt(position + body) ? (int) length : -1;
+    }
+
+    private V decode(ByteBuffer buffer, RecordLocation location) throws IOException {
+        int valueOffset = (int) location.offset() + RECORD_HEADER_BYTES + location.keyLength();
+        byte[] value = new byte[location.valueLength()];
+        buffer.get(valueOffset, value);
+        return this.serializer.read(new ByteArrayInputStream(value));
+    }
+
+    private V migrate(V item) {
+        V current = item;
+        for (DataRepositoryMigration<V> migration : this.migrations) {
+            if (current.dataVersion() < migration.targetVersion()) {
+                current = migration.apply(current);
+                current.dataVersion(migration.targetVersion());
+                current.markDirty();
+            }
+        }
+        return current;
+    }
+
+    private void openActive(long id, boolean create) throws IOException {
+        Path path = segmentPath(id);
+        this.activeChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.activeSegment = id;
+        this.activeSize = this.activeChannel.size();
+        if (create || this.activeSize == 0) {
+            writeFully(this.activeChannel, segmentHeader((byte) 0), 0);
+            this.activeSize = SEGMENT_HEADER_BYTES;
+            this.logBytes += SEGMENT_HEADER_BYTES;
+            this.segments.put(id, path);
+        }
+    }
+
+    private void closeActive() {
+        if (this.activeChannel == null) {
+            return;
+        }
+        try {
+            this.activeChannel.close();
+        } catch (IOException e) {
+            throw new DataRepositoryException("failed to close repository segment " + this.activeSegment, e);
+        } finally {
+            this.activeChannel = null;
+        }
+    }
+
+    private Path segmentPath(long id) {
+        return this.directory.resolve(PREFIX + String.format("%012d", id) + EXTENSION);
+    }
+
+    private static boolean isCompacted(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+            readFully(channel, header, 0);
+            return header.position() == SEGMENT_HEADER_BYTES
+                    && header.getInt(0) == MAGIC
+                    && (header.get(5) & FLAG_COMPACTED) != 0;
+        }
+    }
+
+    private static ByteBuffer segmentHeader(byte flags) {
+        return ByteBuffer.allocate(SEGMENT_HEADER_BYTES).putInt(MAGIC).put(FORMAT_VERSION).put(flags).flip();
+    }
+
+    private static MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads the active segment onto the heap; it may be truncated and appended to, which a live
+     * mapping would block on some platforms.
+     */
+    private static ByteBuffer readTail(Path path) throws IOException {
+        return ByteBuffer.wrap(Files.readAllBytes(path));
+    }
+
+    private static void truncate(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                return;
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            offset += channel.write(buffer, offset);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private record RecordLocation(long segment, long offset, int length, int keyLength, int valueLength) {
+
+        private RecordLocation moveTo(long segment, long offset) {
+            return new RecordLocation(segment, offset, this.length, this.keyLength, this.valueLength);
+        }
+    }
+}
@@ -29,6 +29,22 @@ public final class Repositories {
         return new FileDataRepository<>(directory, DataKeyCodec.uuidKeys(), GsonDataSerializer.pretty(type), saveExecutor);
     }
 
+    @NotNull
+    public static <V extends DataItem> LogDataRepository<String, V> logByString(
+            @NotNull Path directory,
+            @NotNull Class<V> type
+    ) {
+        return new LogDataRepository<>(directory, DataKeyCodec.stringKeys(), GsonDataSerializer.standard(type));
+    }
+
+    @NotNull
+    public static <V extends DataItem> LogDataRepository<UUID, V> logByUuid(
+            @NotNull Path directory,
+            @NotNull Class<V> type
+    ) {
+        return new LogDataRepository<>(directory, DataKeyCodec.uuidKeys(), GsonDataSerializer.standard(type));
+    }
+
     private Repositories() {
     }
 }
@@ -1,23 +1,35 @@
 package dev.willram.ramcore.diagnostics;
 
+import dev.willram.ramcore.scheduler.AsyncExecutorStats;
+import dev.willram.ramcore.scheduler.RamExecutors;
+import dev.willram.ramcore.scheduler.Schedulers;
+import dev.willram.ramcore.scheduler.TickBudgetStats;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Scheduler mode and supported execution anchors.
+ * Scheduler mode, supported execution anchors, async executor load, and tick budget usage.
  */
 public record SchedulerDiagnostics(
         @NotNull String mode,
         boolean paperDetected,
         boolean foliaDetected,
-        @NotNull List<String> supportedContexts
+        @NotNull List<String> supportedContexts,
+        @Nullable AsyncExecutorStats async,
+        @Nullable TickBudgetStats tickBudget
 ) {
 
     public SchedulerDiagnostics {
         supportedContexts = List.copyOf(supportedContexts);
     }
 
+    public SchedulerDiagnostics(@NotNull String mode, boolean paperDetected, boolean foliaDetected, @NotNull List<String> supportedContexts) {
+        this(mode, paperDetected, foliaDetected, supportedContexts, null, null);
+    }
+
     @NotNull
     public static SchedulerDiagnostics capture() {
         boolean paper = hasClass("io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
@@ -27,18 +39,27 @@ public record SchedulerDiagnostics(
                 folia ? "folia-regionized" : "paper-compatible",
                 paper,
                 folia,
-                List.of("global", "async", "entity", "player", "region", "block", "chunk")
+                List.of("global", "async", "entity", "player", "region", "block", "chunk"),
+                RamExecutors.asyncStats(),
+                Schedulers.tickBudgetStats()
         );
     }
 
     @NotNull
     public List<String> lines() {
-        return List.of(
+        List<String> lines = new ArrayList<>(List.of(
                 "mode=" + this.mode,
                 "paperDetected=" + this.paperDetected,
                 "foliaDetected=" + this.foliaDetected,
                 "contexts=" + this.supportedContexts
-        );
+        ));
+        if (this.async != null) {
+            lines.addAll(this.async.lines());
+        }
+        if (this.tickBudget != null) {
+            lines.addAll(this.tickBudget.lines());
+        }
+        return lines;
     }
 
     private static boolean hasClass(String name) {
@@ -0,0 +1,156 @@
+package dev.willram.ramcore.event;
+
+import dev.willram.ramcore.exception.RamExceptions;
+import dev.willram.ramcore.interfaces.Delegate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps only the latest event per key until the next {@link #flush()}.
+ *
+ * <p>Used by coalescing subscriptions for high-frequency events such as movement or damage, where
+ * only the most recent state per player matters. Events may be offered from any thread. Flushed
+ * events have already finished dispatching, so cancelling or mutating them has no effect.</p>
+ *
+ * <p>A handler that throws is reported to the flush's exception consumer, and the remaining
+ * events of the batch are still delivered.</p>
+ *
+ * @param <K> the coalescing key type
+ * @param <T> the event type
+ */
+public final class EventCoalescer<K, T> implements Consumer<T>, Delegate<Object> {
+    private final Function<? super T, ? extends K> key;
+    // exactly one of these is set
+    private final Consumer<? super T> each;
+    private final Consumer<? super Map<K, T>> handler;
+    private final Object origin;
+    private final Map<K, T> pending = new ConcurrentHashMap<>();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+
+    private EventCoalescer(Function<? super T, ? extends K> key, Consumer<? super T> each, Consumer<? super Map<K, T>> handler, Object origin) {
+        this.key = Objects.requireNonNull(key, "key");
+        this.each = each;
+        this.handler = handler;
+        this.origin = Objects.requireNonNull(origin, "handler");
+    }
+
+    /**
+     * Creates a coalescer that passes each key's latest event to the handler on flush.
+     */
+    @NotNull
+    public static <K, T> EventCoalescer<K, T> latest(@NotNull Function<? super T, ? extends K> key, @NotNull Consumer<? super T> handler) {
+        return new EventCoalescer<>(key, handler, null, handler);
+    }
+
+    /**
+     * Creates a coalescer that passes all latest events, keyed, to the handler in one call per flush.
+     */
+    @NotNull
+    public static <K, T> EventCoalescer<K, T> batched(@NotNull Function<? super T, ? extends K> key, @NotNull Consumer<? super Map<K, T>> handler) {
+        return new EventCoalescer<>(key, null, handler, handler);
+    }
+
+    /**
+     * Records an event, replacing any pending event with the same key. Events with a null key are
+     * ignored.
+     */
+    public void offer(@NotNull T event) {
+        Objects.requireNonNull(event, "event");
+        this.received.increment();
+        K key = this.key.apply(event);
+        if (key != null) {
+            this.pending.put(key, event);
+        }
+    }
+
+    @Override
+    public void accept(@NotNull T event) {
+        offer(event);
+    }
+
+    /**
+     * Returns the user handler, so profiling reports it rather than the coalescer.
+     */
+    @Override
+    public Object getDelegate() {
+        return this.origin;
+    }
+
+    /**
+     * Delivers the pending events, reporting handler failures through {@link RamExceptions}, and
+     * returns how many were delivered. Does nothing when there are none.
+     */
+    public int flush() {
+        return flush(RamExceptions::reportEvent);
+    }
+
+    /**
+     * Delivers the pending events and returns how many were delivered. Does nothing when there are
+     * none.
+     *
+     * @param exceptionConsumer receives each handler failure with the event being handled, or the
+     *                          batch's first event for a batched handler
+     */
+    public int flush(@NotNull BiConsumer<? super T, Throwable> exceptionConsumer) {
+        Objects.requireNonNull(exceptionConsumer, "exceptionConsumer");
+        if (this.pending.isEmpty()) {
+            return 0;
+        }
+        Map<K, T> batch = new LinkedHashMap<>();
+        for (Map.Entry<K, T> entry : this.pending.entrySet()) {
+            // a concurrent replacement fails the remove and is left for the next flush
+            if (this.pending.remove(entry.getKey(), entry.getValue())) {
+                batch.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        this.delivered.add(batch.size());
+        if (this.each == null) {
+            try {
+                this.handler.accept(Collections.unmodifiableMap(batch));
+            } catch (Throwable t) {
+                exceptionConsumer.accept(batch.values().iterator().next(), t);
+            }
+            return batch.size();
+        }
+        for (T event : batch.values()) {
+            try {
+                this.each.accept(event);
+            } catch (Throwable t) {
+                exceptionConsumer.accept(event, t);
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Drops all pending events without delivering them.
+     */
+    public void clear() {
+        this.pending.clear();
+    }
+
+    public int pending() {
+        return this.pending.size();
+    }
+
+    public long received() {
+        return this.received.sum();
+    }
+
+    public long delivered() {
+        return this.delivered.sum();
+    }
+}
@@ -0,0 +1,126 @@
+package dev.willram.ramcore.event;
+
+import dev.willram.ramcore.diagnostics.DiagnosticProvider;
+import dev.willram.ramcore.exception.RamPreconditions;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Opt-in profiler for event subscriptions.
+ *
+ * <p>While enabled, every call into a functional subscription is timed and recorded against that
+ * subscription's {@link SubscriptionTimings}. When disabled the listeners skip the clock reads
+ * entirely. Enable it at startup with {@code -D}{@value #PROPERTY}{@code =true}, or toggle it at
+ * runtime with {@link #enable()} and {@link #disable()}.</p>
+ */
+public final class EventProfiler {
+    public static final String PROPERTY = "ramcore.events.profile";
+
+    private static volatile boolean enabled = Boolean.getBoolean(PROPERTY);
+
+    // keyed by subscription so timings are released once the subscription is collected
+    private static final Map<Object, SubscriptionTimings> TRACKED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static boolean enabled() {
+        return enabled;
+    }
+
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static void disable() {
+        enabled = false;
+    }
+
+    /**
+     * Starts reporting the given timings for a subscription. Called by subscription implementations
+     * when they are registered.
+     */
+    public static void track(@NotNull Object subscription, @NotNull SubscriptionTimings timings) {
+        TRACKED.put(Objects.requireNonNull(subscription, "subscription"), Objects.requireNonNull(timings, "timings"));
+    }
+
+    /**
+     * Forgets every tracked subscription.
+     */
+    public static void reset() {
+        TRACKED.clear();
+    }
+
+    /**
+     * Returns the subscriptions that have spent the most time handling events, slowest first.
+     */
+    @NotNull
+    public static List<SubscriptionTimings.Snapshot> top(int limit) {
+        RamPreconditions.checkArgument(limit > 0, "profiler limit must be positive", "Request at least one subscription.");
+        List<SubscriptionTimings> timings;
+        synchronized (TRACKED) {
+            timings = new ArrayList<>(TRACKED.values());
+        }
+        List<SubscriptionTimings.Snapshot> snapshots = new ArrayList<>(timings.size());
+        for (SubscriptionTimings timing : timings) {
+            SubscriptionTimings.Snapshot snapshot = timing.snapshot();
+            if (snapshot.calls() > 0) {
+                snapshots.add(snapshot);
+            }
+        }
+        snapshots.sort(Comparator.comparingLong(SubscriptionTimings.Snapshot::totalNanos).reversed());
+        return List.copyOf(snapshots.subList(0, Math.min(limit, snapshots.size())));
+    }
+
+    @NotNull
+    public static List<String> lines(int limit) {
+        List<String> lines = new ArrayList<>();
+        lines.add("events.profile.enabled=" + enabled);
+        lines.add("events.profile.subscriptions=" + TRACKED.size());
+        List<SubscriptionTimings.Snapshot> top = top(limit);
+        for (int i = 0; i < top.size(); i++) {
+            lines.add("events.profile.top." + (i + 1) + "=" + top.get(i).line());
+        }
+        return List.copyOf(lines);
+    }
+
+    /**
+     * Creates a diagnostic provider listing the {@code limit} hottest subscriptions.
+     */
+    @NotNull
+    public static DiagnosticProvider diagnostics(int limit) {
+        RamPreconditions.checkArgument(limit > 0, "profiler limit must be positive", "Request at least one subscription.");
+        return new DiagnosticProvider() {
+            @NotNull
+            @Override
+            public String id() {
+                return "profiler";
+            }
+
+            @NotNull
+            @Override
+            public String category() {
+                return "events";
+            }
+
+            @NotNull
+            @Override
+            public String description() {
+                return "Slowest event subscriptions by total handler time.";
+            }
+
+            @NotNull
+            @Override
+            public List<String> lines() {
+                return EventProfiler.lines(limit);
+            }
+        };
+    }
+
+    private EventProfiler() {
+    }
+}
@@ -0,0 +1,179 @@
+package dev.willram.ramcore.event;
+
+import dev.willram.ramcore.interfaces.Delegate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call timings for one event subscription, recorded while {@link EventProfiler} is enabled.
+ *
+ * <p>Durations go into a log-linear histogram: four buckets per power of two, so percentiles
+ * are reported as the upper edge of their bucket, at most 19% above the true value.</p>
+ */
+public final class SubscriptionTimings {
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final String eventClass;
+    private final String label;
+    private final LongAdder handled = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+
+    public SubscriptionTimings(@NotNull String eventClass, @NotNull String label) {
+        this.eventClass = Objects.requireNonNull(eventClass, "eventClass");
+        this.label = Objects.requireNonNull(label, "label");
+    }
+
+    /**
+     * Returns the name timings are reported under for a handler: the declaring class of the handler
+     * it delegates to, with lambda suffixes stripped.
+     */
+    @NotNull
+    public static String labelOf(@NotNull Object handler) {
+        String name = Delegate.resolve(handler).getClass().getName();
+        int lambda = name.indexOf("$$Lambda");
+        return lambda >= 0 ? name.substring(0, lambda) : name;
+    }
+
+    @NotNull
+    public String eventClass() {
+        return this.eventClass;
+    }
+
+    @NotNull
+    public String label() {
+        return this.label;
+    }
+
+    public void record(@NotNull Outcome outcome, long nanos) {
+        switch (outcome) {
+            case HANDLED -> this.handled.increment();
+            case FILTERED -> this.filtered.increment();
+            case FAILED -> this.failed.increment();
+            case EXPIRED -> this.expired.increment();
+        }
+        long duration = Math.max(0L, nanos);
+        this.totalNanos.add(duration);
+        this.histogram.incrementAndGet(bucket(duration));
+    }
+
+    /**
+     * Returns the upper bound of the bucket holding the given percentile, in nanoseconds.
+     */
+    public long percentileNanos(double percentile) {
+        if (percentile < 0.0D || percentile > 100.0D) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        long[] counts = new long[BUCKETS];
+        long total = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = this.histogram.get(i);
+            total += counts[i];
+        }
+        if (total == 0L) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100.0D));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBound(i);
+            }
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    @NotNull
+    public Snapshot snapshot() {
+        return new Snapshot(
+                this.eventClass,
+                this.label,
+                this.handled.sum(),
+                this.filtered.sum(),
+                this.failed.sum(),
+                this.expired.sum(),
+                this.totalNanos.sum(),
+                percentileNanos(99.0D)
+        );
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (magnitude - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (magnitude - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int magnitude = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long base = 1L << magnitude;
+        long width = 1L << (magnitude - SUB_BUCKET_BITS);
+        return base + (sub + 1) * width - 1;
+    }
+
+    /**
+     * How one event call left the subscription.
+     */
+    public enum Outcome {
+        HANDLED,
+        FILTERED,
+        FAILED,
+        EXPIRED
+    }
+
+    /**
+     * Point-in-time view of a subscription's timings.
+     */
+    public record Snapshot(
+            @NotNull String eventClass,
+            @NotNull String label,
+            long handled,
+            long filtered,
+            long failed,
+            long expired,
+            long totalNanos,
+            long p99Nanos
+    ) {
+
+        public long calls() {
+            return this.handled + this.filtered + this.failed + this.expired;
+        }
+
+        public double filterRejectionRatio() {
+            long calls = calls();
+            return calls == 0 ? 0.0D : (double) this.filtered / calls;
+        }
+
+        public double averageNanos() {
+            long calls = calls();
+            return calls == 0 ? 0.0D : (double) this.totalNanos / calls;
+        }
+
+        @NotNull
+        public String line() {
+            return this.eventClass + " " + this.label
+                    + " calls=" + calls()
+                    + " totalMillis=" + this.totalNanos / 1_000_000.0D
+                    + " avgMicros=" + averageNanos() / 1_000.0D
+                    + " p99Micros=" + this.p99Nanos / 1_000.0D
+                    + " filtered=" + String.format(Locale.ROOT, "%.2f", filterRejectionRatio())
+                    + " failed=" + this.failed;
+        }
+    }
+}
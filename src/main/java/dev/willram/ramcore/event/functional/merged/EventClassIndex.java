@@ -0,0 +1,118 @@
+package dev.willram.ramcore.event.functional.merged;
+
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.bukkit.plugin.IllegalPluginAccessException;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves runtime event classes to the value bound for their nearest bound class.
+ *
+ * <p>Bukkit delivers events that share a parent's {@link HandlerList} to listeners registered for the
+ * parent, so the runtime class of an event is not always a bound class. Each index caches the result
+ * per runtime class, so after the first event of a type dispatch is a single identity-keyed lookup.
+ * Class hierarchies, registration classes and handler lists are resolved once per class and shared by
+ * every index.</p>
+ *
+ * @param <V> the bound value type
+ */
+final class EventClassIndex<V> {
+    private static final Object MISSING = new Object();
+
+    private static final ClassValue<List<Class<?>>> HIERARCHIES = new ClassValue<>() {
+        @Override
+        protected List<Class<?>> computeValue(@NotNull Class<?> type) {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> current = type; current != null && Event.class.isAssignableFrom(current); current = current.getSuperclass()) {
+                hierarchy.add(current);
+            }
+            return List.copyOf(hierarchy);
+        }
+    };
+
+    private static final ClassValue<Class<? extends Event>> REGISTRATION_CLASSES = new ClassValue<>() {
+        @Override
+        protected Class<? extends Event> computeValue(@NotNull Class<?> type) {
+            return resolveRegistrationClass(type.asSubclass(Event.class));
+        }
+    };
+
+    private static final ClassValue<HandlerList> HANDLER_LISTS = new ClassValue<>() {
+        @Override
+        protected HandlerList computeValue(@NotNull Class<?> type) {
+            try {
+                Method getHandlerListMethod = type.getMethod("getHandlerList");
+                return (HandlerList) getHandlerListMethod.invoke(null);
+            } catch (Throwable t) {
+                return null;
+            }
+        }
+    };
+
+    private final Map<Class<? extends Event>, V> bound;
+    private final Map<Class<?>, Object> resolved = new ConcurrentHashMap<>();
+
+    EventClassIndex(@NotNull Map<Class<? extends Event>, V> bound) {
+        this.bound = Objects.requireNonNull(bound, "bound");
+    }
+
+    /**
+     * Returns the value bound for the class or its nearest bound superclass, or null if none is.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    V resolve(@NotNull Class<?> eventClass) {
+        Object value = this.resolved.get(eventClass);
+        if (value == null) {
+            value = this.resolved.computeIfAbsent(eventClass, this::lookup);
+        }
+        return value == MISSING ? null : (V) value;
+    }
+
+    private Object lookup(Class<?> eventClass) {
+        for (Class<?> type : HIERARCHIES.get(eventClass)) {
+            V value = this.bound.get(type);
+            if (value != null) {
+                return value;
+            }
+        }
+        return MISSING;
+    }
+
+    /**
+     * Returns the class whose handler list events of the given class are delivered through.
+     */
+    @NotNull
+    static Class<? extends Event> registrationClass(@NotNull Class<? extends Event> eventClass) {
+        return REGISTRATION_CLASSES.get(eventClass);
+    }
+
+    /**
+     * Returns the handler list declared for the given class, or null if it has none.
+     */
+    @Nullable
+    static HandlerList handlerList(@NotNull Class<? extends Event> eventClass) {
+        return HANDLER_LISTS.get(eventClass);
+    }
+
+    private static Class<? extends Event> resolveRegistrationClass(Class<? extends Event> clazz) {
+        try {
+            clazz.getDeclaredMethod("getHandlerList");
+            return clazz;
+        } catch (NoSuchMethodException e) {
+            if (clazz.getSuperclass() != null && !clazz.getSuperclass().equals(Event.class) && Event.class.isAssignableFrom(clazz.getSuperclass())) {
+                return REGISTRATION_CLASSES.get(clazz.getSuperclass());
+            } else {
+                throw new IllegalPluginAccessException("Unable to find handler list for event " + clazz.getName() + ".");
+            }
+        }
+    }
+}
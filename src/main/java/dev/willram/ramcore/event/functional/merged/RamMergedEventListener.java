@@ -27,18 +27,18 @@ package dev.willram.ramcore.event.functional.merged;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.reflect.TypeToken;
+import dev.willram.ramcore.event.EventProfiler;
 import dev.willram.ramcore.event.MergedSubscription;
+import dev.willram.ramcore.event.SubscriptionTimings;
 import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
 import org.bukkit.plugin.EventExecutor;
-import org.bukkit.plugin.IllegalPluginAccessException;
 import org.bukkit.plugin.Plugin;
 
 import org.jetbrains.annotations.NotNull;
-import java.lang.reflect.Method;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
@@ -50,6 +50,7 @@ import java.util.function.Predicate;
 class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor, Listener {
     private final TypeToken<T> handledClass;
     private final Map<Class<? extends Event>, MergedHandlerMapping<T, ? extends Event>> mappings;
+    private final EventClassIndex<MergedHandlerMapping<T, ? extends Event>> index;
 
     private final BiConsumer<? super Event, Throwable> exceptionConsumer;
 
@@ -61,11 +62,13 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
 
     private final AtomicLong callCount = new AtomicLong(0);
     private final AtomicBoolean active = new AtomicBoolean(true);
+    private final SubscriptionTimings timings;
 
     @SuppressWarnings("unchecked")
     RamMergedEventListener(MergedSubscriptionBuilderImpl<T> builder, List<BiConsumer<MergedSubscription<T>, ? super T>> handlers) {
         this.handledClass = builder.handledClass;
         this.mappings = ImmutableMap.copyOf(builder.mappings);
+        this.index = new EventClassIndex<>(this.mappings);
         this.exceptionConsumer = builder.exceptionConsumer;
 
         this.filters = builder.filters.toArray(new Predicate[builder.filters.size()]);
@@ -73,6 +76,7 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
         this.midExpiryTests = builder.midExpiryTests.toArray(new BiPredicate[builder.midExpiryTests.size()]);
         this.postExpiryTests = builder.postExpiryTests.toArray(new BiPredicate[builder.postExpiryTests.size()]);
         this.handlers = handlers.toArray(new BiConsumer[handlers.size()]);
+        this.timings = new SubscriptionTimings(this.handledClass.getRawType().getName(), SubscriptionTimings.labelOf(this.handlers[0]));
     }
 
     void register(Plugin plugin) {
@@ -80,7 +84,7 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
 
         for (Map.Entry<Class<? extends Event>, MergedHandlerMapping<T, ? extends Event>> ent : this.mappings.entrySet()) {
             Class<? extends Event> type = ent.getKey();
-            Class<? extends Event> registrationType = getRegistrationClass(type);
+            Class<? extends Event> registrationType = EventClassIndex.registrationClass(type);
 
             // only register once
             EventPriority existing = registered.put(registrationType, ent.getValue().getPriority());
@@ -93,11 +97,12 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
 
             Bukkit.getPluginManager().registerEvent(registrationType, this, ent.getValue().getPriority(), this, plugin, false);
         }
+        EventProfiler.track(this, this.timings);
     }
 
     @Override
     public void execute(Listener listener, Event event) {
-        MergedHandlerMapping<T, ? extends Event> mapping = this.mappings.get(event.getClass());
+        MergedHandlerMapping<T, ? extends Event> mapping = this.index.resolve(event.getClass());
         if (mapping == null) {
             return;
         }
@@ -113,21 +118,33 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
         // obtain the handled instance
         T handledInstance = function.apply(event);
 
+        if (!EventProfiler.enabled()) {
+            dispatch(listener, event, handledInstance);
+            return;
+        }
+
+        long start = System.nanoTime();
+        SubscriptionTimings.Outcome outcome = dispatch(listener, event, handledInstance);
+        this.timings.record(outcome, System.nanoTime() - start);
+    }
+
+    private SubscriptionTimings.Outcome dispatch(Listener listener, Event event, T handledInstance) {
         // check pre-expiry tests
         for (BiPredicate<MergedSubscription<T>, T> test : this.preExpiryTests) {
             if (test.test(this, handledInstance)) {
                 event.getHandlers().unregister(listener);
                 this.active.set(false);
-                return;
+                return SubscriptionTimings.Outcome.EXPIRED;
             }
         }
 
         // begin "handling" of the event
+        SubscriptionTimings.Outcome outcome = SubscriptionTimings.Outcome.HANDLED;
         try {
             // check the filters
             for (Predicate<T> filter : this.filters) {
                 if (!filter.test(handledInstance)) {
-                    return;
+                    return SubscriptionTimings.Outcome.FILTERED;
                 }
             }
 
@@ -136,7 +153,7 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
                 if (test.test(this, handledInstance)) {
                     event.getHandlers().unregister(listener);
                     this.active.set(false);
-                    return;
+                    return SubscriptionTimings.Outcome.EXPIRED;
                 }
             }
 
@@ -149,6 +166,7 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
             this.callCount.incrementAndGet();
         } catch (Throwable t) {
             this.exceptionConsumer.accept(event, t);
+            outcome = SubscriptionTimings.Outcome.FAILED;
         }
 
         // check post-expiry tests
@@ -156,9 +174,10 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
             if (test.test(this, handledInstance)) {
                 event.getHandlers().unregister(listener);
                 this.active.set(false);
-                return;
+                return SubscriptionTimings.Outcome.EXPIRED;
             }
         }
+        return outcome;
     }
 
     @Override
@@ -187,7 +206,10 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
         // (the event would also be unregistered next time it's called - but this obviously assumes
         // the event will be called again soon)
         for (Class<? extends Event> clazz : this.mappings.keySet()) {
-            unregisterListener(clazz, this);
+            HandlerList handlerList = EventClassIndex.handlerList(clazz);
+            if (handlerList != null) {
+                handlerList.unregister(this);
+            }
         }
 
         return true;
@@ -215,28 +237,4 @@ class RamMergedEventListener<T> implements MergedSubscription<T>, EventExecutor,
     public Set<Class<? extends Event>> getEventClasses() {
         return this.mappings.keySet();
     }
-
-    private static void unregisterListener(Class<? extends Event> eventClass, Listener listener) {
-        try {
-            // unfortunately we can't cache this reflect call, as the method is static
-            Method getHandlerListMethod = eventClass.getMethod("getHandlerList");
-            HandlerList handlerList = (HandlerList) getHandlerListMethod.invoke(null);
-            handlerList.unregister(listener);
-        } catch (Throwable t) {
-            // ignored
-        }
-    }
-
-    private static Class<? extends Event> getRegistrationClass(Class<? extends Event> clazz) {
-        try {
-            clazz.getDeclaredMethod("getHandlerList");
-            return clazz;
-        } catch (NoSuchMethodException var2) {
-            if (clazz.getSuperclass() != null && !clazz.getSuperclass().equals(Event.class) && Event.class.isAssignableFrom(clazz.getSuperclass())) {
-                return getRegistrationClass(clazz.getSuperclass().asSubclass(Event.class));
-            } else {
-                throw new IllegalPluginAccessException("Unable to find handler list for event " + clazz.getName() + ".");
-            }
-        }
-    }
 }
@@ -25,7 +25,9 @@
 
 package dev.willram.ramcore.event.functional.single;
 
+import dev.willram.ramcore.event.EventProfiler;
 import dev.willram.ramcore.event.SingleSubscription;
+import dev.willram.ramcore.event.SubscriptionTimings;
 import org.bukkit.Bukkit;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
@@ -61,6 +63,7 @@ class RamEventListener<T extends Event> implements SingleSubscription<T>, EventE
 
     private final AtomicLong callCount = new AtomicLong(0);
     private final AtomicBoolean active = new AtomicBoolean(true);
+    private final SubscriptionTimings timings;
 
     @SuppressWarnings("unchecked")
     RamEventListener(SingleSubscriptionBuilderImpl<T> builder, List<BiConsumer<SingleSubscription<T>, ? super T>> handlers) {
@@ -74,10 +77,12 @@ class RamEventListener<T extends Event> implements SingleSubscription<T>, EventE
         this.midExpiryTests = builder.midExpiryTests.toArray(new BiPredicate[builder.midExpiryTests.size()]);
         this.postExpiryTests = builder.postExpiryTests.toArray(new BiPredicate[builder.postExpiryTests.size()]);
         this.handlers = handlers.toArray(new BiConsumer[handlers.size()]);
+        this.timings = new SubscriptionTimings(this.eventClass.getName(), SubscriptionTimings.labelOf(this.handlers[0]));
     }
 
     void register(Plugin plugin) {
         Bukkit.getPluginManager().registerEvent(this.eventClass, this, this.priority, this, plugin, false);
+        EventProfiler.track(this, this.timings);
     }
 
     @Override
@@ -102,21 +107,33 @@ class RamEventListener<T extends Event> implements SingleSubscription<T>, EventE
         // obtain the event instance
         T eventInstance = this.eventClass.cast(event);
 
+        if (!EventProfiler.enabled()) {
+            dispatch(listener, event, eventInstance);
+            return;
+        }
+
+        long start = System.nanoTime();
+        SubscriptionTimings.Outcome outcome = dispatch(listener, event, eventInstance);
+        this.timings.record(outcome, System.nanoTime() - start);
+    }
+
+    private SubscriptionTimings.Outcome dispatch(Listener listener, Event event, T eventInstance) {
         // check pre-expiry tests
         for (BiPredicate<SingleSubscription<T>, T> test : this.preExpiryTests) {
             if (test.test(this, eventInstance)) {
                 event.getHandlers().unregister(listener);
                 this.active.set(false);
-                return;
+                return SubscriptionTimings.Outcome.EXPIRED;
             }
         }
 
         // begin "handling" of the event
+        SubscriptionTimings.Outcome outcome = SubscriptionTimings.Outcome.HANDLED;
         try {
             // check the filters
             for (Predicate<T> filter : this.filters) {
                 if (!filter.test(eventInstance)) {
-                    return;
+                    return SubscriptionTimings.Outcome.FILTERED;
                 }
             }
 
@@ -125,7 +142,7 @@ class RamEventListener<T extends Event> implements SingleSubscription<T>, EventE
                 if (test.test(this, eventInstance)) {
                     event.getHandlers().unregister(listener);
                     this.active.set(false);
-                    return;
+                    return SubscriptionTimings.Outcome.EXPIRED;
                 }
             }
 
@@ -138,6 +155,7 @@ class RamEventListener<T extends Event> implements SingleSubscription<T>, EventE
             this.callCount.incrementAndGet();
         } catch (Throwable t) {
             this.exceptionConsumer.accept(eventInstance, t);
+            outcome = SubscriptionTimings.Outcome.FAILED;
         }
 
         // check post-expiry tests
@@ -145,9 +163,10 @@ class RamEventListener<T extends Event> implements SingleSubscription<T>, EventE
             if (test.test(this, eventInstance)) {
                 event.getHandlers().unregister(listener);
                 this.active.set(false);
-                return;
+                return SubscriptionTimings.Outcome.EXPIRED;
             }
         }
+        return outcome;
     }
 
     @NotNull
@@ -26,6 +26,7 @@
 package dev.willram.ramcore.event.functional.single;
 
 import com.google.common.base.Preconditions;
+import dev.willram.ramcore.event.EventCoalescer;
 import dev.willram.ramcore.event.SingleSubscription;
 import dev.willram.ramcore.event.functional.ExpiryTestStage;
 import dev.willram.ramcore.event.functional.SubscriptionBuilder;
@@ -35,11 +36,13 @@ import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 
 import org.jetbrains.annotations.NotNull;
+import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
 
 /**
@@ -185,5 +188,60 @@ public interface SingleSubscriptionBuilder<T extends Event> extends Subscription
         Objects.requireNonNull(owner, "owner");
         return owner.bind(biHandler(handler));
     }
-    
+
+    /**
+     * Builds and registers a coalescing handler, which receives only the latest event per key once
+     * per tick.
+     *
+     * <p>Events handed to the handler have already finished dispatching, so they cannot be
+     * cancelled or modified. The handler runs on the global scheduler, see
+     * {@link #coalesce(EventCoalescer, long)}.</p>
+     *
+     * @param key the function giving the coalescing key, such as the player's UUID
+     * @param handler the consumer responsible for handling the latest event per key
+     * @param <K> the key type
+     * @return a registered {@link SingleSubscription} instance.
+     * @throws NullPointerException if the key or handler is null
+     */
+    @NotNull
+    default <K> SingleSubscription<T> coalesce(@NotNull Function<? super T, ? extends K> key, @NotNull Consumer<? super T> handler) {
+        return coalesce(EventCoalescer.latest(key, handler), 1L);
+    }
+
+    /**
+     * Builds and registers a coalescing handler which receives the latest event per key, as one
+     * batch, every {@code intervalTicks} ticks.
+     *
+     * @param key the function giving the coalescing key, such as the player's UUID
+     * @param intervalTicks the ticks between batches
+     * @param handler the consumer responsible for handling each batch
+     * @param <K> the key type
+     * @return a registered {@link SingleSubscription} instance.
+     * @throws NullPointerException if the key or handler is null
+     */
+    @NotNull
+    default <K> SingleSubscription<T> coalesceBatch(@NotNull Function<? super T, ? extends K> key, long intervalTicks,
+                                                    @NotNull Consumer<? super Map<K, T>> handler) {
+        return coalesce(EventCoalescer.batched(key, handler), intervalTicks);
+    }
+
+    /**
+     * Builds and registers a handler which feeds events into the given coalescer and flushes it
+     * every {@code intervalTicks} ticks until the subscription is closed.
+     *
+     * <p>Flushes run on the global scheduler: the main thread on Paper, and the global region on
+     * Folia, where the handler must not touch entity or world state directly and should hop to the
+     * owning region with {@code Schedulers.run(entity, ...)} instead. A handler that throws is
+     * reported to this subscription's exception consumer without dropping the rest of the batch,
+     * and each flush is timed by the {@link dev.willram.ramcore.event.EventProfiler} as its own
+     * entry.</p>
+     *
+     * @param coalescer the coalescer
+     * @param intervalTicks the ticks between flushes
+     * @return a registered {@link SingleSubscription} instance.
+     * @throws NullPointerException if the coalescer is null
+     */
+    @NotNull
+    SingleSubscription<T> coalesce(@NotNull EventCoalescer<?, T> coalescer, long intervalTicks);
+
 }
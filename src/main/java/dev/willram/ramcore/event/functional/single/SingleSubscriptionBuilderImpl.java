@@ -25,8 +25,13 @@
 
 package dev.willram.ramcore.event.functional.single;
 
+import com.google.common.base.Preconditions;
+import dev.willram.ramcore.event.EventCoalescer;
+import dev.willram.ramcore.event.EventProfiler;
 import dev.willram.ramcore.event.SingleSubscription;
+import dev.willram.ramcore.event.SubscriptionTimings;
 import dev.willram.ramcore.event.functional.ExpiryTestStage;
+import dev.willram.ramcore.scheduler.Schedulers;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 
@@ -34,6 +39,7 @@ import org.jetbrains.annotations.NotNull;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
 import java.util.function.BiPredicate;
 import java.util.function.Predicate;
@@ -107,4 +113,39 @@ class SingleSubscriptionBuilderImpl<T extends Event> implements SingleSubscripti
         return new SingleHandlerListImpl<>(this);
     }
 
+    @NotNull
+    @Override
+    public SingleSubscription<T> coalesce(@NotNull EventCoalescer<?, T> coalescer, long intervalTicks) {
+        Objects.requireNonNull(coalescer, "coalescer");
+        Preconditions.checkArgument(intervalTicks >= 1, "intervalTicks < 1");
+        BiConsumer<? super T, Throwable> exceptionConsumer = this.exceptionConsumer;
+        SingleSubscription<T> subscription = handlers().consumer(coalescer).register();
+
+        // the subscription only times offers, so flushes get their own entry
+        SubscriptionTimings timings = new SubscriptionTimings(this.eventClass.getName(), SubscriptionTimings.labelOf(coalescer) + "#flush");
+        EventProfiler.track(coalescer, timings);
+        AtomicBoolean failed = new AtomicBoolean();
+        BiConsumer<T, Throwable> flushExceptions = (event, throwable) -> {
+            failed.set(true);
+            exceptionConsumer.accept(event, throwable);
+        };
+
+        Schedulers.sync().runRepeating(task -> {
+            if (subscription.isClosed()) {
+                task.stop();
+                coalescer.clear();
+                return;
+            }
+            if (!EventProfiler.enabled()) {
+                coalescer.flush(flushExceptions);
+                return;
+            }
+            failed.set(false);
+            long start = System.nanoTime();
+            if (coalescer.flush(flushExceptions) > 0) {
+                timings.record(failed.get() ? SubscriptionTimings.Outcome.FAILED : SubscriptionTimings.Outcome.HANDLED, System.nanoTime() - start);
+            }
+        }, intervalTicks, intervalTicks);
+        return subscription;
+    }
 }
@@ -0,0 +1,92 @@
+package dev.willram.ramcore.loot;
+
+import dev.willram.ramcore.exception.RamPreconditions;
+import dev.willram.ramcore.random.RandomSelector;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Loot table prepared for repeated rolls.
+ *
+ * <p>The weighted alias table is built once when every weighted entry is unconditional, and is
+ * otherwise cached per set of eligible conditional entries, so only context-dependent entries
+ * are re-evaluated on each roll. Pools keep their own cached selectors.</p>
+ */
+public final class CompiledLootTable {
+    private final LootTable table;
+    private final LootEntry[] guaranteed;
+    private final LootSampler<LootEntry> weighted;
+    private final LootPool[] pools;
+
+    CompiledLootTable(@NotNull LootTable table) {
+        this.table = table;
+        this.guaranteed = table.guaranteed().toArray(LootEntry[]::new);
+        this.weighted = new LootSampler<>(table.weighted(), LootEntry::unconditional,
+                (entry, context, random) -> entry.condition().test(context));
+        this.pools = table.pools().toArray(LootPool[]::new);
+    }
+
+    @NotNull
+    public LootTable table() {
+        return this.table;
+    }
+
+    /**
+     * Rolls the table once.
+     */
+    @NotNull
+    public LootGenerationResult generate(@NotNull LootContext context, @NotNull Random random) {
+        return generate(context, random, 1);
+    }
+
+    /**
+     * Rolls the table {@code count} times with the same context and merges every roll into one
+     * result, reusing the reward and error buffers across rolls.
+     */
+    @NotNull
+    public LootGenerationResult generate(@NotNull LootContext context, @NotNull Random random, int count) {
+        Objects.requireNonNull(context, "context");
+        Objects.requireNonNull(random, "random");
+        RamPreconditions.checkArgument(count >= 0, "loot roll count must be >= 0", "Use 0 to roll nothing.");
+
+        List<LootReward> rewards = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            roll(context, random, rewards, errors);
+        }
+        return new LootGenerationResult(this.table.id(), context, rewards, errors);
+    }
+
+    private void roll(LootContext context, Random random, List<LootReward> rewards, List<String> errors) {
+        for (LootEntry entry : this.guaranteed) {
+            if (entry.unconditional() || entry.condition().test(context)) {
+                addReward(rewards, errors, entry, context);
+            }
+        }
+
+        int totalRolls = this.table.rolls() + this.table.bonusRolls(context);
+        if (totalRolls > 0) {
+            RandomSelector<LootEntry> selector = this.weighted.selector(context, random);
+            if (selector != null) {
+                for (int i = 0; i < totalRolls; i++) {
+                    addReward(rewards, errors, selector.pick(random), context);
+                }
+            }
+        }
+        for (LootPool pool : this.pools) {
+            pool.generate(context, random, rewards, errors);
+        }
+    }
+
+    private static void addReward(List<LootReward> rewards, List<String> errors, LootEntry entry, LootContext context) {
+        try {
+            rewards.add(entry.create(context));
+        } catch (RuntimeException e) {
+            errors.add(entry.id() + ": " + e.getMessage());
+        }
+    }
+}
@@ -17,25 +17,26 @@ public record LootEntry(
         @NotNull Function<LootContext, LootReward> rewardFactory,
         @NotNull Predicate<LootContext> condition
 ) implements Weighted {
+    private static final Predicate<LootContext> ALWAYS = context -> true;
 
     @NotNull
     public static LootEntry guaranteed(@NotNull String id, @NotNull LootReward reward) {
-        return new LootEntry(id, 1.0d, context -> reward, context -> true);
+        return new LootEntry(id, 1.0d, context -> reward, ALWAYS);
     }
 
     @NotNull
     public static LootEntry guaranteed(@NotNull String id, @NotNull Function<LootContext, LootReward> rewardFactory) {
-        return new LootEntry(id, 1.0d, rewardFactory, context -> true);
+        return new LootEntry(id, 1.0d, rewardFactory, ALWAYS);
     }
 
     @NotNull
     public static LootEntry weighted(@NotNull String id, double weight, @NotNull LootReward reward) {
-        return new LootEntry(id, weight, context -> reward, context -> true);
+        return new LootEntry(id, weight, context -> reward, ALWAYS);
     }
 
     @NotNull
     public static LootEntry weighted(@NotNull String id, double weight, @NotNull Function<LootContext, LootReward> rewardFactory) {
-        return new LootEntry(id, weight, rewardFactory, context -> true);
+        return new LootEntry(id, weight, rewardFactory, ALWAYS);
     }
 
     public LootEntry {
@@ -51,6 +52,13 @@ public record LootEntry(
         return new LootEntry(this.id, this.weight, this.rewardFactory, condition);
     }
 
+    /**
+     * Returns true when the entry was built without a condition, so it is eligible in every context.
+     */
+    public boolean unconditional() {
+        return this.condition == ALWAYS;
+    }
+
     @NotNull
     public LootReward create(@NotNull LootContext context) {
         return this.rewardFactory.apply(Objects.requireNonNull(context, "context"));
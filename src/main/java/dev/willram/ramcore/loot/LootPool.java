@@ -19,6 +19,7 @@ public final class LootPool {
     private final ToIntFunction<LootContext> bonusRolls;
     private final List<LootCondition> conditions;
     private final List<LootFunction> functions;
+    private final LootSampler<LootPoolEntry> sampler;
 
     private LootPool(Builder builder) {
         this.id = Objects.requireNonNull(builder.id, "id");
@@ -33,6 +34,7 @@ public final class LootPool {
         if (this.rolls < 0) {
             throw new IllegalArgumentException("loot pool rolls cannot be negative");
         }
+        this.sampler = new LootSampler<>(this.entries, LootPoolEntry::unconditional, LootPoolEntry::eligible);
     }
 
     @NotNull
@@ -63,19 +65,24 @@ public final class LootPool {
         Objects.requireNonNull(context, "context");
         Objects.requireNonNull(random, "random");
         Objects.requireNonNull(errors, "errors");
+        List<LootReward> rewards = new ArrayList<>();
+        generate(context, random, rewards, errors);
+        return rewards.isEmpty() ? List.of() : rewards;
+    }
+
+    /**
+     * Rolls the pool, appending rewards and errors to the given lists.
+     */
+    void generate(@NotNull LootContext context, @NotNull Random random, @NotNull List<LootReward> rewards, @NotNull List<String> errors) {
         for (LootCondition condition : this.conditions) {
             if (!condition.test(context, random)) {
-                return List.of();
+                return;
             }
         }
-        List<LootPoolEntry> eligible = this.entries.stream()
-                .filter(entry -> entry.eligible(context, random))
-                .toList();
-        if (eligible.isEmpty()) {
-            return List.of();
+        RandomSelector<LootPoolEntry> selector = this.sampler.selector(context, random);
+        if (selector == null) {
+            return;
         }
-        RandomSelector<LootPoolEntry> selector = RandomSelector.weighted(eligible);
-        List<LootReward> rewards = new ArrayList<>();
         int totalRolls = this.rolls + bonusRolls(context);
         for (int i = 0; i < totalRolls; i++) {
             LootPoolEntry entry = selector.pick(random);
@@ -89,7 +96,6 @@ public final class LootPool {
                 errors.add(this.id + "/" + entry.id() + ": " + e.getMessage());
             }
         }
-        return rewards;
     }
 
     public static final class Builder {
@@ -58,6 +58,10 @@ public final class LootPoolEntry implements Weighted {
         return this.functions;
     }
 
+    public boolean unconditional() {
+        return this.conditions.isEmpty();
+    }
+
     public boolean eligible(@NotNull LootContext context, @NotNull Random random) {
         for (LootCondition condition : this.conditions) {
             if (!condition.test(context, random)) {
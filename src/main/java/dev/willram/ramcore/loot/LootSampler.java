@@ -0,0 +1,109 @@
+package dev.willram.ramcore.loot;
+
+import dev.willram.ramcore.random.RandomSelector;
+import dev.willram.ramcore.random.Weighted;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * Weighted selector cache for a fixed list of loot entries.
+ *
+ * <p>Unconditional entries are always eligible, so the alias table only depends on which
+ * conditional entries pass. With no conditional entries one selector is built up front; with up
+ * to {@link #MAX_CACHED_CONDITIONS} of them, selectors are cached per eligibility mask. Larger
+ * conditional sets fall back to building a selector per roll.</p>
+ */
+final class LootSampler<E extends Weighted> {
+    static final int MAX_CACHED_CONDITIONS = 8;
+
+    private final List<E> entries;
+    private final Eligibility<E> eligibility;
+    private final int[] conditional;
+    private final boolean[] unconditional;
+    private final int unconditionalCount;
+    private final RandomSelector<E> all;
+    private final AtomicReferenceArray<RandomSelector<E>> selectors;
+
+    LootSampler(@NotNull List<E> entries, @NotNull Predicate<E> unconditional, @NotNull Eligibility<E> eligibility) {
+        this.entries = List.copyOf(entries);
+        this.eligibility = eligibility;
+        this.unconditional = new boolean[this.entries.size()];
+        List<Integer> conditional = new ArrayList<>();
+        int unconditionalCount = 0;
+        for (int i = 0; i < this.entries.size(); i++) {
+            if (unconditional.test(this.entries.get(i))) {
+                this.unconditional[i] = true;
+                unconditionalCount++;
+            } else {
+                conditional.add(i);
+            }
+        }
+        this.conditional = conditional.stream().mapToInt(Integer::intValue).toArray();
+        this.unconditionalCount = unconditionalCount;
+        this.all = this.conditional.length == 0 && !this.entries.isEmpty() ? RandomSelector.weighted(this.entries) : null;
+        this.selectors = this.conditional.length > 0 && this.conditional.length <= MAX_CACHED_CONDITIONS
+                ? new AtomicReferenceArray<>(1 << this.conditional.length)
+                : null;
+    }
+
+    /**
+     * Evaluates the conditional entries in declaration order and returns a selector over the
+     * eligible entries, or null when none are eligible.
+     */
+    @Nullable
+    RandomSelector<E> selector(@NotNull LootContext context, @NotNull Random random) {
+        if (this.conditional.length == 0) {
+            return this.all;
+        }
+        if (this.selectors == null) {
+            List<E> eligible = new ArrayList<>(this.entries.size());
+            for (int i = 0; i < this.entries.size(); i++) {
+                E entry = this.entries.get(i);
+                if (this.unconditional[i] || this.eligibility.test(entry, context, random)) {
+                    eligible.add(entry);
+                }
+            }
+            return eligible.isEmpty() ? null : RandomSelector.weighted(eligible);
+        }
+
+        int mask = 0;
+        for (int i = 0; i < this.conditional.length; i++) {
+            if (this.eligibility.test(this.entries.get(this.conditional[i]), context, random)) {
+                mask |= 1 << i;
+            }
+        }
+        if (mask == 0 && this.unconditionalCount == 0) {
+            return null;
+        }
+        RandomSelector<E> selector = this.selectors.get(mask);
+        if (selector == null) {
+            selector = build(mask);
+            this.selectors.compareAndSet(mask, null, selector);
+        }
+        return selector;
+    }
+
+    private RandomSelector<E> build(int mask) {
+        List<E> eligible = new ArrayList<>(this.entries.size());
+        int bit = 0;
+        for (int i = 0; i < this.entries.size(); i++) {
+            if (this.unconditional[i]) {
+                eligible.add(this.entries.get(i));
+            } else if ((mask & (1 << bit++)) != 0) {
+                eligible.add(this.entries.get(i));
+            }
+        }
+        return RandomSelector.weighted(eligible);
+    }
+
+    @FunctionalInterface
+    interface Eligibility<E> {
+        boolean test(@NotNull E entry, @NotNull LootContext context, @NotNull Random random);
+    }
+}
@@ -19,6 +19,7 @@ public final class LootTable {
     private final List<LootPool> pools;
     private final int rolls;
     private final ToIntFunction<LootContext> bonusRolls;
+    private final CompiledLootTable compiled;
 
     private LootTable(@NotNull ContentId id, @NotNull List<LootEntry> guaranteed, @NotNull List<LootEntry> weighted,
                       @NotNull List<LootPool> pools, int rolls, @NotNull ToIntFunction<LootContext> bonusRolls) {
@@ -29,6 +30,7 @@ public final class LootTable {
         this.rolls = rolls;
         this.bonusRolls = Objects.requireNonNull(bonusRolls, "bonusRolls");
         RamPreconditions.checkArgument(rolls >= 0, "loot table rolls must be >= 0", "Use 0 for guaranteed-only tables.");
+        this.compiled = new CompiledLootTable(this);
     }
 
     @NotNull
@@ -64,6 +66,14 @@ public final class LootTable {
         return Math.max(0, this.bonusRolls.applyAsInt(context));
     }
 
+    /**
+     * Returns the compiled form of this table, with its weighted selectors cached across rolls.
+     */
+    @NotNull
+    public CompiledLootTable compiled() {
+        return this.compiled;
+    }
+
     public static final class Builder {
         private final ContentId id;
         private final List<LootEntry> guaranteed = new ArrayList<>();
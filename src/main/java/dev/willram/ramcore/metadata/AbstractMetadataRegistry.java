@@ -29,9 +29,13 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 
+import dev.willram.ramcore.exception.RamPreconditions;
 import org.jetbrains.annotations.NotNull;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * A basic implementation of {@link MetadataRegistry} using a LoadingCache.
@@ -49,11 +53,26 @@ public class AbstractMetadataRegistry<T> implements MetadataRegistry<T> {
     @NotNull
     protected final LoadingCache<T, MetadataMap> cache = CacheBuilder.newBuilder().build(getLoader());
 
+    private final LongAdder evicted = new LongAdder();
+    private Iterator<Map.Entry<T, MetadataMap>> sweepCursor;
+
     @NotNull
     @Override
     public MetadataMap provide(@NotNull T id) {
         Objects.requireNonNull(id, "id");
-        return this.cache.getUnchecked(id);
+        MetadataMap map = this.cache.getUnchecked(id);
+        if (!(map instanceof MetadataMapImpl impl) || !impl.idle) {
+            return map;
+        }
+        // a sweep marked the map for eviction; unmark it under the id's lock, so the eviction
+        // either happened already and a fresh map is installed, or sees the map in use
+        return this.cache.asMap().compute(id, (key, current) -> {
+            MetadataMap provided = current != null ? current : MetadataMap.create();
+            if (provided instanceof MetadataMapImpl marked) {
+                marked.idle = false;
+            }
+            return provided;
+        });
     }
 
     @NotNull
@@ -73,8 +92,92 @@ public class AbstractMetadataRegistry<T> implements MetadataRegistry<T> {
 
     @Override
     public void cleanup() {
-        // MetadataMap#isEmpty also removes expired values
-        this.cache.asMap().values().removeIf(MetadataMap::isEmpty);
+        // MetadataMap#isEmpty also removes expired values; as with sweep, an empty map is evicted
+        // by the second cleanup that finds it empty and unused
+        this.cache.asMap().forEach((id, map) -> evictIfEmpty(id, map));
+    }
+
+    /**
+     * Checks up to {@code limit} maps, continuing from where the previous sweep stopped, and
+     * evicts the ones that are empty once their expired values are removed.
+     *
+     * <p>A map is only evicted once it has stayed empty and unused for a full pass: the first
+     * visit that finds it empty marks it, and providing or writing to it clears the mark. A map
+     * just handed out by {@link #provide(Object)} is therefore never evicted before its first
+     * write.</p>
+     *
+     * @param limit the maximum number of maps to check
+     * @return the number of maps evicted
+     */
+    public synchronized int sweep(int limit) {
+        RamPreconditions.checkArgument(limit > 0, "sweep limit must be positive", "Check at least one map per sweep.");
+        Iterator<Map.Entry<T, MetadataMap>> cursor = this.sweepCursor;
+        boolean restarted = false;
+        int visited = 0;
+        int removed = 0;
+        while (visited < limit) {
+            if (cursor == null || !cursor.hasNext()) {
+                // start another pass, but never visit the same map twice in one sweep
+                if (restarted) {
+                    break;
+                }
+                cursor = this.cache.asMap().entrySet().iterator();
+                restarted = true;
+                continue;
+            }
+            Map.Entry<T, MetadataMap> entry = cursor.next();
+            visited++;
+            if (evictIfEmpty(entry.getKey(), entry.getValue())) {
+                removed++;
+            }
+        }
+        this.sweepCursor = cursor;
+        return removed;
+    }
+
+    /**
+     * Gets the number of maps currently held by this registry.
+     *
+     * @return the resident map count
+     */
+    public long size() {
+        return this.cache.size();
+    }
+
+    /**
+     * Gets the number of empty maps evicted by sweeps and cleanups.
+     *
+     * @return the evicted map count
+     */
+    public long evicted() {
+        return this.evicted.sum();
+    }
+
+    private boolean evictIfEmpty(T id, MetadataMap map) {
+        MetadataMapImpl impl = map instanceof MetadataMapImpl m ? m : null;
+        if (!map.isEmpty()) {
+            if (impl != null && impl.idle) {
+                impl.idle = false;
+            }
+            return false;
+        }
+        if (impl != null && !impl.idle) {
+            impl.idle = true;
+            return false;
+        }
+        // re-check under the cache's lock for the id, so a map provided or written meanwhile is kept
+        boolean[] removed = new boolean[1];
+        this.cache.asMap().computeIfPresent(id, (key, current) -> {
+            if (current != map || !current.isEmpty() || impl != null && !impl.idle) {
+                return current;
+            }
+            removed[0] = true;
+            return null;
+        });
+        if (removed[0]) {
+            this.evicted.increment();
+        }
+        return removed[0];
     }
 
     private static final class Loader<T> extends CacheLoader<T, MetadataMap> {
@@ -25,7 +25,9 @@
 
 package dev.willram.ramcore.metadata;
 
+import dev.willram.ramcore.diagnostics.DiagnosticProvider;
 import dev.willram.ramcore.event.Events;
+import dev.willram.ramcore.event.filter.EventFilters;
 import dev.willram.ramcore.metadata.type.BlockMetadataRegistry;
 import dev.willram.ramcore.metadata.type.EntityMetadataRegistry;
 import dev.willram.ramcore.metadata.type.PlayerMetadataRegistry;
@@ -38,9 +40,12 @@ import org.bukkit.block.Block;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventPriority;
+import org.bukkit.event.entity.EntityDeathEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 
 import org.jetbrains.annotations.NotNull;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -52,6 +57,9 @@ import java.util.concurrent.atomic.AtomicBoolean;
  */
 public final class Metadata {
 
+    public static final String SWEEP_PROPERTY = "ramcore.metadata.sweepPerTick";
+    private static final int DEFAULT_SWEEP_LIMIT = 64;
+
     private static final AtomicBoolean SETUP = new AtomicBoolean(false);
 
     // lazily load
@@ -66,12 +74,27 @@ public final class Metadata {
             Events.subscribe(PlayerQuitEvent.class, EventPriority.MONITOR)
                     .handler(e -> StandardMetadataRegistries.PLAYER.remove(e.getPlayer().getUniqueId()));
 
-            // cache housekeeping task
+            // remove entity metadata once the entity has died, a tick later so other MONITOR
+            // listeners and death handling scheduled for this tick can still read it
+            Events.subscribe(EntityDeathEvent.class, EventPriority.MONITOR)
+                    .filter(EventFilters.ignoreCancelled())
+                    .filter(e -> !(e.getEntity() instanceof Player))
+                    .handler(e -> {
+                        UUID id = e.getEntity().getUniqueId();
+                        Schedulers.runLater(TaskContext.async(), () -> StandardMetadataRegistries.ENTITY.remove(id), 1L);
+                    });
+
+            // cache housekeeping task, checking a bounded slice of each registry per tick
+            int sweepLimit = Math.max(1, Integer.getInteger(SWEEP_PROPERTY, DEFAULT_SWEEP_LIMIT));
             Schedulers.runTimer(TaskContext.async(), () -> {
                 for (MetadataRegistry<?> registry : StandardMetadataRegistries.values()) {
-                    registry.cleanup();
+                    if (registry instanceof AbstractMetadataRegistry<?> sweeping) {
+                        sweeping.sweep(sweepLimit);
+                    } else {
+                        registry.cleanup();
+                    }
                 }
-            }, 1200L, 1200L);
+            }, 1L, 1L);
         }
     }
 
@@ -115,6 +138,62 @@ public final class Metadata {
         return StandardMetadataRegistries.WORLD;
     }
 
+    /**
+     * Gets the resident map count and evictions of each standard registry.
+     *
+     * @return diagnostic lines
+     */
+    @NotNull
+    public static List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        registryLines(lines, "players", StandardMetadataRegistries.PLAYER);
+        registryLines(lines, "entities", StandardMetadataRegistries.ENTITY);
+        registryLines(lines, "blocks", StandardMetadataRegistries.BLOCK);
+        registryLines(lines, "worlds", StandardMetadataRegistries.WORLD);
+        return List.copyOf(lines);
+    }
+
+    /**
+     * Creates a diagnostic provider reporting {@link #lines()}.
+     *
+     * @return the diagnostic provider
+     */
+    @NotNull
+    public static DiagnosticProvider diagnostics() {
+        return new DiagnosticProvider() {
+            @NotNull
+            @Override
+            public String id() {
+                return "registries";
+            }
+
+            @NotNull
+            @Override
+            public String category() {
+                return "metadata";
+            }
+
+            @NotNull
+            @Override
+            public String description() {
+                return "Resident metadata maps per registry.";
+            }
+
+            @NotNull
+            @Override
+            public List<String> lines() {
+                return Metadata.lines();
+            }
+        };
+    }
+
+    private static void registryLines(List<String> lines, String name, MetadataRegistry<?> registry) {
+        if (registry instanceof AbstractMetadataRegistry<?> sweeping) {
+            lines.add("metadata." + name + ".maps=" + sweeping.size());
+            lines.add("metadata." + name + ".evicted=" + sweeping.evicted());
+        }
+    }
+
     /**
      * Produces a {@link MetadataMap} for the given object.
      *
@@ -36,8 +36,8 @@ import java.util.function.Supplier;
 /**
  * A map which holds {@link MetadataKey}s, and maps them to persistent or transient (expiring / weak) values.
  *
- * Transient values will only be removed during map maintenance, which occurs during a housekeeping task running
- * every minute. Method signatures for the {@link #has(MetadataKey)} and equivalent remain accurate though.
+ * Transient values are removed when they are read, and otherwise during map maintenance, which occurs
+ * periodically on writes and in an incremental housekeeping task. Method signatures for the {@link #has(MetadataKey)} and equivalent remain accurate though.
  *
  * @see TransientValue
  */
@@ -26,18 +26,32 @@
 package dev.willram.ramcore.metadata;
 
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import java.util.*;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
+/**
+ * Concurrent {@link MetadataMap} indexed by key id.
+ *
+ * <p>Reads are a single hash lookup and only expire the entry they touch. Stale transient values
+ * elsewhere in the map are swept every {@value #CLEANUP_INTERVAL} writes and by the registry
+ * housekeeping task.</p>
+ */
 final class MetadataMapImpl implements MetadataMap {
-    private final Map<MetadataKey<?>, Object> map = new HashMap<>();
-    private final ReentrantLock lock = new ReentrantLock();
+    static final int CLEANUP_INTERVAL = 64;
+
+    private final Map<String, Entry> map = new ConcurrentHashMap<>();
+    private final AtomicInteger writes = new AtomicInteger();
+    // set by a registry sweep that found the map empty; writes and MetadataRegistry#provide clear
+    // it, and the sweep only evicts the map if it is still set on the next pass
+    volatile boolean idle;
 
     @Override
     public <T> void put(@NotNull MetadataKey<T> key, @NotNull T value) {
@@ -53,25 +67,13 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(value, "value");
 
-        this.lock.lock();
-        try {
-            MetadataKey<?> existing = null;
-            for (MetadataKey<?> k : this.map.keySet()) {
-                if (k.equals(key)) {
-                    existing = k;
-                    break;
-                }
-            }
-
-            if (existing != null && !existing.getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type " + key.getType().getRawType() + " to existing stored type " + existing.getType().getRawType());
+        this.map.compute(key.getId(), (id, existing) -> {
+            if (existing != null && !existing.isExpired()) {
+                checkType(existing, key);
             }
-
-            this.map.put(key, value);
-
-        } finally {
-            this.lock.unlock();
-        }
+            return new Entry(key, value);
+        });
+        afterWrite();
     }
 
     @Override
@@ -88,12 +90,8 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(value, "value");
 
-        this.lock.lock();
-        try {
-            this.map.put(key, value);
-        } finally {
-            this.lock.unlock();
-        }
+        this.map.put(key.getId(), new Entry(key, value));
+        afterWrite();
     }
 
     @Override
@@ -110,66 +108,21 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(value, "value");
 
-        this.lock.lock();
-        try {
-            cleanup();
-            return this.map.putIfAbsent(key, value) == null;
-        } finally {
-            this.lock.unlock();
+        Entry created = new Entry(key, value);
+        Entry result = this.map.compute(key.getId(), (id, existing) ->
+                existing == null || existing.isExpired() ? created : existing);
+        if (result != created) {
+            return false;
         }
+        afterWrite();
+        return true;
     }
 
     @NotNull
     @Override
     public <T> Optional<T> get(@NotNull MetadataKey<T> key) {
         Objects.requireNonNull(key, "key");
-
-        this.lock.lock();
-        try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    TransientValue<?> transientValue = ((TransientValue) kv.getValue());
-
-                    Object unboxed = transientValue.getOrNull();
-
-                    // if it has expired
-                    if (unboxed == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    // copy out the unboxed value
-                    if (kv.getKey().equals(key)) {
-                        existing = Maps.immutableEntry(kv.getKey(), unboxed);
-                        break;
-                    }
-
-                } else {
-                    if (kv.getKey().equals(key)) {
-                        existing = kv;
-                        break;
-                    }
-                }
-            }
-
-            if (existing == null) {
-                return Optional.empty();
-            }
-
-            if (!existing.getKey().getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type " + key.getType().getRawType() + " to existing stored type " + existing.getKey().getType().getRawType());
-            }
-
-            return Optional.of(key.cast(existing.getValue()));
-        } finally {
-            this.lock.unlock();
-        }
+        return Optional.ofNullable(lookup(key));
     }
 
     @NotNull
@@ -177,26 +130,27 @@ final class MetadataMapImpl implements MetadataMap {
     public <T> boolean ifPresent(@NotNull MetadataKey<T> key, @NotNull Consumer<? super T> action) {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(action, "action");
-        Optional<T> opt = get(key);
-        if (!opt.isPresent()) {
+        T value = lookup(key);
+        if (value == null) {
             return false;
         }
 
-        action.accept(opt.get());
+        action.accept(value);
         return true;
     }
 
     @Override
     public <T> T getOrNull(@NotNull MetadataKey<T> key) {
         Objects.requireNonNull(key, "key");
-        return get(key).orElse(null);
+        return lookup(key);
     }
 
     @Nullable
     @Override
     public <T> T getOrDefault(@NotNull MetadataKey<T> key, @Nullable T def) {
         Objects.requireNonNull(key, "key");
-        return get(key).orElse(def);
+        T value = lookup(key);
+        return value == null ? def : value;
     }
 
     @NotNull
@@ -205,56 +159,15 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(def, "def");
 
-        this.lock.lock();
-        try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    TransientValue<?> transientValue = ((TransientValue) kv.getValue());
-
-                    Object unboxed = transientValue.getOrNull();
-
-                    // if it has expired
-                    if (unboxed == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    // copy out the unboxed value
-                    if (kv.getKey().equals(key)) {
-                        existing = Maps.immutableEntry(kv.getKey(), unboxed);
-                        break;
-                    }
-
-                } else {
-                    if (kv.getKey().equals(key)) {
-                        existing = kv;
-                        break;
-                    }
-                }
-            }
-
-            if (existing == null) {
-                T t = def.get();
-                Objects.requireNonNull(t, "supplied def");
-
-                this.map.put(key, t);
-                return t;
-            }
-
-            if (!existing.getKey().getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type " + key.getType().getRawType() + " to existing stored type " + existing.getKey().getType().getRawType());
-            }
-
-            return key.cast(existing.getValue());
-        } finally {
-            this.lock.unlock();
+        T value = lookup(key);
+        if (value != null) {
+            return value;
         }
+
+        // supplied outside the map, so a supplier that reads or writes this map cannot re-enter compute
+        T created = def.get();
+        Objects.requireNonNull(created, "supplied def");
+        return install(key, new Entry(key, created), created);
     }
 
     @NotNull
@@ -263,149 +176,132 @@ final class MetadataMapImpl implements MetadataMap {
         Objects.requireNonNull(key, "key");
         Objects.requireNonNull(def, "def");
 
-        this.lock.lock();
-        try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    TransientValue<?> transientValue = ((TransientValue) kv.getValue());
-
-                    Object unboxed = transientValue.getOrNull();
-
-                    // if it has expired
-                    if (unboxed == null) {
-                        it.remove();
-                        continue;
-                    }
-
-                    // copy out the unboxed value
-                    if (kv.getKey().equals(key)) {
-                        existing = Maps.immutableEntry(kv.getKey(), unboxed);
-                        break;
-                    }
-
-                } else {
-                    if (kv.getKey().equals(key)) {
-                        existing = kv;
-                        break;
-                    }
-                }
-            }
-
-            if (existing == null) {
-                TransientValue<T> t = def.get();
-                Objects.requireNonNull(t, "supplied def");
-
-                T value = t.getOrNull();
-                if (value == null) {
-                    throw new IllegalArgumentException("Transient value already expired: " + t);
-                }
+        T value = lookup(key);
+        if (value != null) {
+            return value;
+        }
 
-                this.map.put(key, t);
-                return value;
-            }
+        TransientValue<T> t = def.get();
+        Objects.requireNonNull(t, "supplied def");
+        T created = t.getOrNull();
+        if (created == null) {
+            throw new IllegalArgumentException("Transient value already expired: " + t);
+        }
+        return install(key, new Entry(key, t), created);
+    }
 
-            if (!existing.getKey().getType().equals(key.getType())) {
-                throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type " + key.getType().getRawType() + " to existing stored type " + existing.getKey().getType().getRawType());
+    // stores a supplied entry unless a live value appeared meanwhile, and returns whichever value won
+    private <T> T install(MetadataKey<T> key, Entry entry, T created) {
+        Object[] unboxed = new Object[1];
+        this.map.compute(key.getId(), (id, existing) -> {
+            if (existing != null && (unboxed[0] = existing.unbox()) != null) {
+                checkType(existing, key);
+                return existing;
             }
-
-            return key.cast(existing.getValue());
-        } finally {
-            this.lock.unlock();
-        }
+            unboxed[0] = created;
+            return entry;
+        });
+        afterWrite();
+        return key.cast(unboxed[0]);
     }
 
     @Override
     public boolean has(@NotNull MetadataKey<?> key) {
         Objects.requireNonNull(key, "key");
 
-        this.lock.lock();
-        try {
-            Map.Entry<MetadataKey<?>, Object> existing = null;
-
-            // try to locate an existing entry, and expire any values at the same time.
-            Iterator<Map.Entry<MetadataKey<?>, Object>> it = this.map.entrySet().iterator();
-            while (it.hasNext()) {
-                Map.Entry<MetadataKey<?>, Object> kv = it.next();
-
-                if (kv.getValue() instanceof TransientValue<?>) {
-                    TransientValue<?> transientValue = ((TransientValue) kv.getValue());
-
-                    if (transientValue.shouldExpire()) {
-                        it.remove();
-                        continue;
-                    }
-                }
-
-                if (kv.getKey().equals(key)) {
-                    existing = kv;
-                    break;
-                }
-            }
-
-            return existing != null && existing.getKey().getType().equals(key.getType());
-        } finally {
-            this.lock.unlock();
+        Entry entry = this.map.get(key.getId());
+        if (entry == null) {
+            return false;
         }
+        if (entry.isExpired()) {
+            this.map.remove(key.getId(), entry);
+            return false;
+        }
+        return entry.key == key || entry.key.getType().equals(key.getType());
     }
 
     @Override
     public boolean remove(@NotNull MetadataKey<?> key) {
         Objects.requireNonNull(key, "key");
-
-        this.lock.lock();
-        try {
-            return this.map.remove(key) != null;
-        } finally {
-            this.lock.unlock();
-        }
+        return this.map.remove(key.getId()) != null;
     }
 
     @Override
     public void clear() {
-        this.lock.lock();
-        try {
-            this.map.clear();
-        } finally {
-            this.lock.unlock();
-        }
+        this.map.clear();
     }
 
     @NotNull
     @Override
     public ImmutableMap<MetadataKey<?>, Object> asMap() {
-        this.lock.lock();
-        try {
-            return ImmutableMap.copyOf(this.map);
-        } finally {
-            this.lock.unlock();
+        ImmutableMap.Builder<MetadataKey<?>, Object> builder = ImmutableMap.builder();
+        for (Entry entry : this.map.values()) {
+            builder.put(entry.key, entry.value);
         }
+        return builder.build();
     }
 
     @Override
     public boolean isEmpty() {
-        this.lock.lock();
-        try {
-            cleanup();
-            return this.map.isEmpty();
-        } finally {
-            this.lock.unlock();
+        if (this.map.isEmpty()) {
+            return true;
         }
+        cleanup();
+        return this.map.isEmpty();
     }
 
     @Override
     public void cleanup() {
-        this.lock.lock();
-        try {
-            this.map.values().removeIf(o -> o instanceof TransientValue<?> && ((TransientValue) o).shouldExpire());
-        } finally {
-            this.lock.unlock();
+        this.map.values().removeIf(Entry::isExpired);
+    }
+
+    // returns the live value for the key, expiring the entry if its transient value has lapsed
+    @Nullable
+    private <T> T lookup(MetadataKey<T> key) {
+        Entry entry = this.map.get(key.getId());
+        if (entry == null) {
+            return null;
+        }
+        Object value = entry.unbox();
+        if (value == null) {
+            this.map.remove(key.getId(), entry);
+            return null;
         }
+        checkType(entry, key);
+        return key.cast(value);
     }
 
+    private void afterWrite() {
+        if (this.idle) {
+            this.idle = false;
+        }
+        if (this.writes.incrementAndGet() % CLEANUP_INTERVAL == 0) {
+            cleanup();
+        }
+    }
+
+    private static void checkType(Entry existing, MetadataKey<?> key) {
+        if (existing.key != key && !existing.key.getType().equals(key.getType())) {
+            throw new ClassCastException("Cannot cast key with id " + key.getId() + " with type " + key.getType().getRawType() + " to existing stored type " + existing.key.getType().getRawType());
+        }
+    }
+
+    private static final class Entry {
+        private final MetadataKey<?> key;
+        private final Object value;
+
+        private Entry(MetadataKey<?> key, Object value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        @Nullable
+        Object unbox() {
+            return this.value instanceof TransientValue<?> transientValue ? transientValue.getOrNull() : this.value;
+        }
+
+        boolean isExpired() {
+            return this.value instanceof TransientValue<?> transientValue && transientValue.shouldExpire();
+        }
+    }
 }
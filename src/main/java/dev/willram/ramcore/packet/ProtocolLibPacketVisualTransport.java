@@ -39,8 +39,6 @@ public final class ProtocolLibPacketVisualTransport implements PacketVisualTrans
             return;
         }
         List<PacketContainer> packets = this.packetFactory.createPackets(operation);
-        for (PacketContainer packet : packets) {
-            Protocol.sendPacketScheduled(player.get(), packet);
-        }
+        Protocol.sendPacketsScheduled(player.get(), packets);
     }
 }
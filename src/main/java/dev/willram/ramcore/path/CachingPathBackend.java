@@ -0,0 +1,135 @@
+package dev.willram.ramcore.path;
+
+import com.destroystokyo.paper.entity.Pathfinder;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Mob;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Backend decorator that serves searches from a {@link PathResultCache}.
+ */
+final class CachingPathBackend implements PathBackend {
+    private final PathBackend delegate;
+    private final PathResultCache cache;
+    private PathNavigationProfile profile = PathNavigationProfile.unchanged();
+
+    CachingPathBackend(@NotNull PathBackend delegate, @NotNull PathResultCache cache) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate");
+        this.cache = Objects.requireNonNull(cache, "cache");
+    }
+
+    PathResultCache cache() {
+        return this.cache;
+    }
+
+    @NotNull
+    @Override
+    public Mob mob() {
+        return this.delegate.mob();
+    }
+
+    @NotNull
+    @Override
+    public UUID entityId() {
+        return this.delegate.entityId();
+    }
+
+    @NotNull
+    @Override
+    public Location currentLocation() {
+        return this.delegate.currentLocation();
+    }
+
+    @Override
+    public boolean ownedByCurrentThread() {
+        return this.delegate.ownedByCurrentThread();
+    }
+
+    @Override
+    public boolean valid() {
+        return this.delegate.valid();
+    }
+
+    @Override
+    public boolean sharesPathResults() {
+        return this.delegate.sharesPathResults();
+    }
+
+    @Nullable
+    @Override
+    public Pathfinder.PathResult findPath(@NotNull Location location) {
+        Objects.requireNonNull(location, "location");
+        return cached(location, () -> this.delegate.findPath(location));
+    }
+
+    @Nullable
+    @Override
+    public Pathfinder.PathResult findPath(@NotNull Entity entity) {
+        Objects.requireNonNull(entity, "entity");
+        return cached(entity.getLocation(), () -> this.delegate.findPath(entity));
+    }
+
+    @Override
+    public boolean moveTo(@NotNull Pathfinder.PathResult path, double speed) {
+        return this.delegate.moveTo(path, speed);
+    }
+
+    @Override
+    public boolean hasPath() {
+        return this.delegate.hasPath();
+    }
+
+    @Nullable
+    @Override
+    public Pathfinder.PathResult currentPath() {
+        return this.delegate.currentPath();
+    }
+
+    @Override
+    public void stop() {
+        this.delegate.stop();
+    }
+
+    @Override
+    public void applyNavigationProfile(@NotNull PathNavigationProfile profile) {
+        this.profile = Objects.requireNonNull(profile, "profile");
+        this.delegate.applyNavigationProfile(profile);
+    }
+
+    /**
+     * Gets the cached path to a goal without searching, or null when finding one needs a search.
+     */
+    @Nullable
+    Pathfinder.PathResult peek(@NotNull Location goal) {
+        PathResultCache.Key key = key(goal);
+        return key == null ? null : this.cache.peek(key);
+    }
+
+    private Pathfinder.PathResult cached(Location goal, Supplier<Pathfinder.PathResult> search) {
+        PathResultCache.Key key = key(goal);
+        if (key == null) {
+            return search.get();
+        }
+        Pathfinder.PathResult result = this.cache.get(key);
+        if (result != null) {
+            return result;
+        }
+        result = search.get();
+        if (result != null) {
+            this.cache.put(key, result);
+        }
+        return result;
+    }
+
+    @Nullable
+    private PathResultCache.Key key(Location goal) {
+        UUID owner = sharesPathResults() ? null : entityId();
+        return this.cache.key(currentLocation(), goal, mob().getType(), this.profile, owner);
+    }
+}
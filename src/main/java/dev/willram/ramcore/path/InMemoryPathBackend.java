@@ -22,6 +22,8 @@ public final class InMemoryPathBackend implements PathBackend {
     private boolean hasPath;
     private boolean moveAccepted = true;
     private int moveAttempts;
+    private int searches;
+    private boolean valid = true;
     private PathNavigationProfile lastProfile = PathNavigationProfile.unchanged();
 
     public InMemoryPathBackend(@NotNull Mob mob, @NotNull Location currentLocation) {
@@ -69,9 +71,34 @@ public final class InMemoryPathBackend implements PathBackend {
         return this.lastProfile;
     }
 
+    @Override
+    public boolean ownedByCurrentThread() {
+        return true;
+    }
+
+    @Override
+    public boolean valid() {
+        return this.valid;
+    }
+
+    public InMemoryPathBackend valid(boolean valid) {
+        this.valid = valid;
+        return this;
+    }
+
+    public int searches() {
+        return this.searches;
+    }
+
+    @Override
+    public boolean sharesPathResults() {
+        return true;
+    }
+
     @Nullable
     @Override
     public Pathfinder.PathResult findPath(@NotNull Location location) {
+        this.searches++;
         if (this.nextPath != null) {
             return this.nextPath;
         }
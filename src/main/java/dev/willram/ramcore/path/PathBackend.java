@@ -1,6 +1,7 @@
 package dev.willram.ramcore.path;
 
 import com.destroystokyo.paper.entity.Pathfinder;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Mob;
@@ -28,6 +29,28 @@ public interface PathBackend {
         return mob().getLocation();
     }
 
+    /**
+     * Returns whether the mob may be ticked on the current thread.
+     */
+    default boolean ownedByCurrentThread() {
+        return Bukkit.isOwnedByCurrentRegion(mob());
+    }
+
+    /**
+     * Returns whether the mob is still in a world, so path tasks for it can keep running.
+     */
+    default boolean valid() {
+        return mob().isValid();
+    }
+
+    /**
+     * Returns whether results from this backend are immutable and may be followed by other mobs,
+     * so a {@link PathResultCache} can hand them out across mobs.
+     */
+    default boolean sharesPathResults() {
+        return false;
+    }
+
     @Nullable
     Pathfinder.PathResult findPath(@NotNull Location location);
 
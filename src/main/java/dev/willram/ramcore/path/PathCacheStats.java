@@ -0,0 +1,30 @@
+package dev.willram.ramcore.path;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Snapshot of a {@link PathResultCache}.
+ */
+public record PathCacheStats(
+        long size,
+        long hits,
+        long misses
+) {
+
+    public double hitRatio() {
+        long lookups = this.hits + this.misses;
+        return lookups == 0L ? 0.0D : (double) this.hits / lookups;
+    }
+
+    @NotNull
+    public List<String> lines() {
+        return List.of(
+                "path.cache.size=" + this.size,
+                "path.cache.hits=" + this.hits,
+                "path.cache.misses=" + this.misses,
+                "path.cache.hitRatio=" + hitRatio()
+        );
+    }
+}
@@ -1,7 +1,5 @@
 package dev.willram.ramcore.path;
 
-import dev.willram.ramcore.scheduler.Schedulers;
-import dev.willram.ramcore.scheduler.Task;
 import org.bukkit.entity.Mob;
 import org.jetbrains.annotations.NotNull;
 
@@ -12,9 +10,15 @@ import java.util.Objects;
  */
 public final class PathController {
     private final PathBackend backend;
+    private final PathDriver driver;
 
     PathController(@NotNull PathBackend backend) {
+        this(backend, PathDriver.shared());
+    }
+
+    PathController(@NotNull PathBackend backend, @NotNull PathDriver driver) {
         this.backend = Objects.requireNonNull(backend, "backend");
+        this.driver = Objects.requireNonNull(driver, "driver");
     }
 
     @NotNull
@@ -27,6 +31,11 @@ public final class PathController {
         return this.backend;
     }
 
+    @NotNull
+    public PathDriver driver() {
+        return this.driver;
+    }
+
     @NotNull
     public PathTask create(@NotNull PathRequest request) {
         return new PathTask(this.backend, Objects.requireNonNull(request, "request"));
@@ -42,9 +51,6 @@ public final class PathController {
         if (intervalTicks <= 0L) {
             throw new IllegalArgumentException("path task interval ticks must be greater than zero");
         }
-        PathTask pathTask = create(request);
-        Task schedulerTask = Schedulers.runTimer(this.backend.mob(), pathTask::tick, 0L, intervalTicks);
-        pathTask.bind(schedulerTask);
-        return pathTask;
+        return this.driver.schedule(create(request), intervalTicks);
     }
 }
@@ -0,0 +1,277 @@
+package dev.willram.ramcore.path;
+
+import dev.willram.ramcore.scheduler.Schedulers;
+import dev.willram.ramcore.scheduler.Task;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ticks every scheduled {@link PathTask} from one repeating task and caps how many path searches
+ * may run per tick.
+ *
+ * <p>Tasks whose entity is owned by the driving thread are ticked inline. On Folia the driver's
+ * own task runs on the global region, which owns no entities, so a self-driven driver gives each
+ * task a repeating timer on its entity's scheduler instead and the global tick only refreshes the
+ * shared search budget. Manual drivers hand tasks they do not own to their entity's scheduler for
+ * that tick. A task whose repath is refused by the budget
+ * keeps its path and retries on the next tick, so bursts of repaths spread over the following
+ * ticks. Each tick starts at a different task so the same tasks do not always win the budget.</p>
+ *
+ * <p>{@link #schedule(PathTask, long)} and {@link #stats()} may be called from any thread;
+ * {@link #tick()} must only be called by the driver.</p>
+ */
+public final class PathDriver implements AutoCloseable {
+    public static final String BUDGET_PROPERTY = "ramcore.path.maxSearchesPerTick";
+    public static final int DEFAULT_SEARCHES_PER_TICK = 16;
+    static final int RATE_WINDOW_TICKS = 20;
+    private static final boolean REGIONIZED = regionized();
+
+    private static final class SharedHolder {
+        private static final PathDriver SHARED = new PathDriver(
+                Math.max(1, Integer.getInteger(BUDGET_PROPERTY, DEFAULT_SEARCHES_PER_TICK)), true);
+    }
+
+    private final int searchesPerTick;
+    private final boolean selfDriven;
+    // tasks tick on their own entity timers and the driver only resets the budget
+    private final boolean entityTimers;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger searchPermits = new AtomicInteger();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder deferredRepaths = new LongAdder();
+
+    // driver-thread state
+    private final List<Entry> entries = new ArrayList<>();
+    private final long[] searchWindow = new long[RATE_WINDOW_TICKS];
+    private long searchesAtTickStart;
+    private long ticks;
+    private int cursor;
+    private Task driver;
+    private boolean closed;
+
+    // published stats
+    private volatile int tasks;
+    private volatile long searchesLastSecond;
+    private volatile long lastTickNanos;
+
+    private PathDriver(int searchesPerTick, boolean selfDriven) {
+        if (searchesPerTick <= 0) {
+            throw new IllegalArgumentException("path searches per tick must be greater than zero");
+        }
+        this.searchesPerTick = searchesPerTick;
+        this.selfDriven = selfDriven;
+        this.entityTimers = selfDriven && REGIONIZED;
+    }
+
+    /**
+     * Gets the driver used by {@link PathController#schedule(PathRequest)}, limited to
+     * {@value #BUDGET_PROPERTY} path searches per tick.
+     */
+    @NotNull
+    public static PathDriver shared() {
+        return SharedHolder.SHARED;
+    }
+
+    /**
+     * Creates a driver that runs its own global repeating task while it has tasks.
+     */
+    @NotNull
+    public static PathDriver create(int searchesPerTick) {
+        return new PathDriver(searchesPerTick, true);
+    }
+
+    /**
+     * Creates a driver that only advances when {@link #tick()} is called, for tests and custom loops.
+     */
+    @NotNull
+    public static PathDriver manual(int searchesPerTick) {
+        return new PathDriver(searchesPerTick, false);
+    }
+
+    public int searchesPerTick() {
+        return this.searchesPerTick;
+    }
+
+    /**
+     * Adds a task, ticking it every {@code intervalTicks} driver ticks until it finishes.
+     */
+    @NotNull
+    public PathTask schedule(@NotNull PathTask task, long intervalTicks) {
+        Objects.requireNonNull(task, "task");
+        if (intervalTicks <= 0L) {
+            throw new IllegalArgumentException("path task interval ticks must be greater than zero");
+        }
+        task.drive(this);
+        Entry entry = new Entry(task, intervalTicks);
+        if (this.entityTimers) {
+            entry.timer = startTimer(task, intervalTicks);
+        }
+        this.pending.add(entry);
+        if (this.selfDriven) {
+            Schedulers.sync().execute(this::ensureDriven);
+        }
+        return task;
+    }
+
+    /**
+     * Runs one driver tick.
+     */
+    public void tick() {
+        long start = System.nanoTime();
+        this.ticks++;
+        long total = this.searches.sum();
+        this.searchWindow[(int) (this.ticks % RATE_WINDOW_TICKS)] = total - this.searchesAtTickStart;
+        this.searchesAtTickStart = total;
+        this.searchPermits.set(this.searchesPerTick);
+
+        Entry added;
+        while ((added = this.pending.poll()) != null) {
+            added.phase = this.ticks;
+            this.entries.add(added);
+        }
+
+        int size = this.entries.size();
+        if (size > 0) {
+            int first = this.cursor % size;
+            for (int i = 0; i < size; i++) {
+                Entry entry = this.entries.get((first + i) % size);
+                if (entry.timer == null && entry.task.active() && (this.ticks - entry.phase) % entry.interval == 0L) {
+                    dispatch(entry.task);
+                }
+            }
+            this.cursor = first + 1;
+            this.entries.removeIf(entry -> !entry.task.active());
+        }
+
+        long windowSum = 0L;
+        for (long count : this.searchWindow) {
+            windowSum += count;
+        }
+        this.searchesLastSecond = windowSum;
+        this.tasks = this.entries.size() + this.pending.size();
+        this.lastTickNanos = System.nanoTime() - start;
+
+        if (this.driver != null && this.entries.isEmpty() && this.pending.isEmpty()) {
+            this.driver.stop();
+            this.driver = null;
+        }
+    }
+
+    @NotNull
+    public PathDriverStats stats() {
+        return new PathDriverStats(
+                this.searchesPerTick,
+                this.tasks,
+                this.ticks,
+                this.searches.sum(),
+                this.searchesLastSecond,
+                this.deferredRepaths.sum(),
+                this.lastTickNanos
+        );
+    }
+
+    /**
+     * Cancels every task and stops the driver.
+     */
+    @Override
+    public void close() {
+        if (this.selfDriven) {
+            Schedulers.sync().execute(this::shutdown);
+        } else {
+            shutdown();
+        }
+    }
+
+    boolean tryAcquireSearch() {
+        if (this.searchPermits.getAndDecrement() > 0) {
+            this.searches.increment();
+            return true;
+        }
+        this.deferredRepaths.increment();
+        return false;
+    }
+
+    private void dispatch(PathTask task) {
+        PathBackend backend = task.backend();
+        if (backend.ownedByCurrentThread()) {
+            if (backend.valid()) {
+                task.tick();
+            } else {
+                task.retire();
+            }
+            return;
+        }
+        Schedulers.run(backend.mob(), task::tick, task::retire);
+    }
+
+    private void shutdown() {
+        this.closed = true;
+        Entry entry;
+        while ((entry = this.pending.poll()) != null) {
+            this.entries.add(entry);
+        }
+        for (Entry remaining : this.entries) {
+            if (remaining.timer == null) {
+                remaining.task.cancel(PathCancelReason.SHUTDOWN);
+                continue;
+            }
+            remaining.timer.stop();
+            PathTask task = remaining.task;
+            Schedulers.run(task.backend().mob(), () -> task.cancel(PathCancelReason.SHUTDOWN), task::retire);
+        }
+        this.entries.clear();
+        if (this.driver != null) {
+            this.driver.stop();
+            this.driver = null;
+        }
+    }
+
+    private static Task startTimer(PathTask task, long intervalTicks) {
+        AtomicReference<Task> timer = new AtomicReference<>();
+        timer.set(Schedulers.runTimer(task.backend().mob(), () -> {
+            task.tick();
+            if (!task.active()) {
+                Task self = timer.get();
+                if (self != null) {
+                    self.stop();
+                }
+            }
+        }, task::retire, intervalTicks, intervalTicks));
+        return timer.get();
+    }
+
+    private static boolean regionized() {
+        try {
+            Class.forName("io.papermc.paper.threadedregions.RegionizedServer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private void ensureDriven() {
+        if (this.driver == null && !this.closed) {
+            this.driver = Schedulers.sync().runRepeating(this::tick, 1L, 1L);
+        }
+    }
+
+    private static final class Entry {
+        private final PathTask task;
+        private final long interval;
+        private long phase;
+        private Task timer;
+
+        private Entry(PathTask task, long interval) {
+            this.task = task;
+            this.interval = interval;
+        }
+    }
+}
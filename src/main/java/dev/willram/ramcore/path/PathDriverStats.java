@@ -0,0 +1,35 @@
+package dev.willram.ramcore.path;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Snapshot of a {@link PathDriver}.
+ *
+ * <p>{@code deferredRepaths} counts repaths pushed to a later tick because the per-tick search
+ * budget was spent.</p>
+ */
+public record PathDriverStats(
+        int searchesPerTick,
+        int tasks,
+        long ticks,
+        long searches,
+        long searchesLastSecond,
+        long deferredRepaths,
+        long lastTickNanos
+) {
+
+    @NotNull
+    public List<String> lines() {
+        return List.of(
+                "path.driver.searchesPerTick=" + this.searchesPerTick,
+                "path.driver.tasks=" + this.tasks,
+                "path.driver.ticks=" + this.ticks,
+                "path.driver.searches=" + this.searches,
+                "path.driver.searchesPerSecond=" + this.searchesLastSecond,
+                "path.driver.deferredRepaths=" + this.deferredRepaths,
+                "path.driver.lastTickMillis=" + this.lastTickNanos / 1_000_000.0D
+        );
+    }
+}
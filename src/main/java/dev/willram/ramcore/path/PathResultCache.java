@@ -0,0 +1,231 @@
+package dev.willram.ramcore.path;
+
+import com.destroystokyo.paper.entity.Pathfinder;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.EntityType;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of path search results keyed by world, entity type, navigation profile and
+ * the quantized start and goal cells.
+ *
+ * <p>Wrap a backend with {@link #wrap(PathBackend)} so repaths that start and end in the same cells
+ * reuse the previous result instead of searching again. A result is reused by another mob only when
+ * the backend reports {@link PathBackend#sharesPathResults()}; Paper's results are mutable
+ * navigation state, so with {@link PaperPathBackend} the key also holds the mob's id and each mob
+ * keeps and reuses its own entry.</p>
+ */
+public final class PathResultCache {
+    private final Cache<Key, Pathfinder.PathResult> cache;
+    private final int cellSize;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private PathResultCache(Builder builder) {
+        this.cellSize = builder.cellSize;
+        LongSupplier clock = builder.clock;
+        this.cache = CacheBuilder.newBuilder()
+                .expireAfterWrite(builder.ttl.toNanos(), TimeUnit.NANOSECONDS)
+                .maximumSize(builder.maximumSize)
+                .ticker(new Ticker() {
+                    @Override
+                    public long read() {
+                        return clock.getAsLong();
+                    }
+                })
+                .build();
+    }
+
+    @NotNull
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns a backend that serves searches from this cache and stores new results in it.
+     */
+    @NotNull
+    public PathBackend wrap(@NotNull PathBackend backend) {
+        Objects.requireNonNull(backend, "backend");
+        if (backend instanceof CachingPathBackend caching && caching.cache() == this) {
+            return backend;
+        }
+        return new CachingPathBackend(backend, this);
+    }
+
+    public void invalidateAll() {
+        this.cache.invalidateAll();
+    }
+
+    /**
+     * Drops every result in the given world, for example after a large edit.
+     */
+    public void invalidate(@NotNull World world) {
+        String name = Objects.requireNonNull(world, "world").getName();
+        this.cache.asMap().keySet().removeIf(key -> key.world.equals(name));
+    }
+
+    /**
+     * Drops every result whose start or goal cell lies within {@code radius} blocks of a location,
+     * for example after a block change that may open or close a route.
+     */
+    public void invalidate(@NotNull Location center, int radius) {
+        Objects.requireNonNull(center, "center");
+        if (radius < 0) {
+            throw new IllegalArgumentException("invalidation radius must not be negative");
+        }
+        String world = worldName(center);
+        int minX = cell(center.getBlockX() - radius);
+        int maxX = cell(center.getBlockX() + radius);
+        int minY = cell(center.getBlockY() - radius);
+        int maxY = cell(center.getBlockY() + radius);
+        int minZ = cell(center.getBlockZ() - radius);
+        int maxZ = cell(center.getBlockZ() + radius);
+        this.cache.asMap().keySet().removeIf(key -> key.world.equals(world)
+                && (within(key.startX, key.startY, key.startZ, minX, maxX, minY, maxY, minZ, maxZ)
+                || within(key.goalX, key.goalY, key.goalZ, minX, maxX, minY, maxY, minZ, maxZ)));
+    }
+
+    @NotNull
+    public PathCacheStats stats() {
+        return new PathCacheStats(this.cache.size(), this.hits.sum(), this.misses.sum());
+    }
+
+    @Nullable
+    Pathfinder.PathResult get(@NotNull Key key) {
+        Pathfinder.PathResult result = peek(key);
+        if (result == null) {
+            this.misses.increment();
+        }
+        return result;
+    }
+
+    /**
+     * Gets a usable cached result, counting only hits; the search that follows a miss counts it.
+     */
+    @Nullable
+    Pathfinder.PathResult peek(@NotNull Key key) {
+        Pathfinder.PathResult result = this.cache.getIfPresent(key);
+        if (result == null || finished(result)) {
+            return null;
+        }
+        this.hits.increment();
+        return result;
+    }
+
+    void put(@NotNull Key key, @NotNull Pathfinder.PathResult result) {
+        this.cache.put(key, result);
+    }
+
+    /**
+     * Builds the key for a search.
+     *
+     * @param owner the searching mob, for backends whose results must not be shared, or null
+     */
+    @Nullable
+    Key key(@NotNull Location start, @NotNull Location goal, @Nullable EntityType type, @NotNull PathNavigationProfile profile,
+            @Nullable UUID owner) {
+        if (start.getWorld() == null || !Objects.equals(start.getWorld(), goal.getWorld())) {
+            return null;
+        }
+        return new Key(worldName(start), type, profile, owner,
+                cell(start.getBlockX()), cell(start.getBlockY()), cell(start.getBlockZ()),
+                cell(goal.getBlockX()), cell(goal.getBlockY()), cell(goal.getBlockZ()));
+    }
+
+    private int cell(int block) {
+        return Math.floorDiv(block, this.cellSize);
+    }
+
+    private static String worldName(Location location) {
+        World world = location.getWorld();
+        return world == null ? "" : world.getName();
+    }
+
+    private static boolean within(int x, int y, int z, int minX, int maxX, int minY, int maxY, int minZ, int maxZ) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    // a result the mob has already walked to the end of cannot be handed back to it
+    private static boolean finished(Pathfinder.PathResult result) {
+        List<Location> points = result.getPoints();
+        return result.getNextPointIndex() >= points.size();
+    }
+
+    record Key(
+            @NotNull String world,
+            @Nullable EntityType type,
+            @NotNull PathNavigationProfile profile,
+            @Nullable UUID owner,
+            int startX,
+            int startY,
+            int startZ,
+            int goalX,
+            int goalY,
+            int goalZ
+    ) {
+    }
+
+    public static final class Builder {
+        private Duration ttl = Duration.ofSeconds(2L);
+        private int cellSize = 1;
+        private long maximumSize = 4096L;
+        private LongSupplier clock = System::nanoTime;
+
+        /**
+         * Sets how long a result may be reused after it was found.
+         */
+        public Builder ttl(@NotNull Duration ttl) {
+            Objects.requireNonNull(ttl, "ttl");
+            if (ttl.isNegative() || ttl.isZero()) {
+                throw new IllegalArgumentException("path cache ttl must be positive");
+            }
+            this.ttl = ttl;
+            return this;
+        }
+
+        /**
+         * Sets the edge length, in blocks, of the cells start and goal positions are rounded to.
+         */
+        public Builder cellSize(int cellSize) {
+            if (cellSize <= 0) {
+                throw new IllegalArgumentException("path cache cell size must be greater than zero");
+            }
+            this.cellSize = cellSize;
+            return this;
+        }
+
+        public Builder maximumSize(long maximumSize) {
+            if (maximumSize <= 0L) {
+                throw new IllegalArgumentException("path cache maximum size must be greater than zero");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets the nanosecond clock used for expiry, for tests.
+         */
+        public Builder clock(@NotNull LongSupplier clock) {
+            this.clock = Objects.requireNonNull(clock, "clock");
+            return this;
+        }
+
+        public PathResultCache build() {
+            return new PathResultCache(this);
+        }
+    }
+}
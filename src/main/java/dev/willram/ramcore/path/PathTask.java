@@ -1,7 +1,6 @@
 package dev.willram.ramcore.path;
 
 import com.destroystokyo.paper.entity.Pathfinder;
-import dev.willram.ramcore.scheduler.Task;
 import org.bukkit.Location;
 import org.bukkit.entity.Entity;
 import org.jetbrains.annotations.NotNull;
@@ -12,7 +11,7 @@ import java.util.Objects;
 
 /**
  * Managed, tick-driven path run. The task can be driven manually in tests or
- * bound to RamCore's entity scheduler by {@link PathController#schedule(PathRequest)}.
+ * handed to a {@link PathDriver} by {@link PathController#schedule(PathRequest)}.
  */
 public final class PathTask implements AutoCloseable {
     private final PathBackend backend;
@@ -24,7 +23,7 @@ public final class PathTask implements AutoCloseable {
     private long stuckTicks;
     private Location lastLocation;
     private PathProgress lastProgress;
-    private Task scheduledTask;
+    private PathDriver driver;
 
     PathTask(@NotNull PathBackend backend, @NotNull PathRequest request) {
         this.backend = Objects.requireNonNull(backend, "backend");
@@ -57,16 +56,18 @@ public final class PathTask implements AutoCloseable {
         return this.backend;
     }
 
-    void bind(@NotNull Task scheduledTask) {
-        this.scheduledTask = Objects.requireNonNull(scheduledTask, "scheduledTask");
-        if (!active()) {
-            scheduledTask.stop();
+    void drive(@NotNull PathDriver driver) {
+        this.driver = Objects.requireNonNull(driver, "driver");
+    }
+
+    void retire() {
+        if (active()) {
+            fail(PathFailureReason.ENTITY_RETIRED, "path entity is no longer available");
         }
     }
 
     public void tick() {
         if (!active()) {
-            stopScheduled();
             return;
         }
 
@@ -88,14 +89,15 @@ public final class PathTask implements AutoCloseable {
             return;
         }
 
-        double remainingDistance = distance(this.backend.currentLocation(), destination);
+        // the checks compare squared distances; only the snapshot needs the real distance
+        double remainingDistanceSquared = this.backend.currentLocation().distanceSquared(destination);
         PathOptions options = this.request.options();
-        if (remainingDistance > options.maxDistance()) {
+        if (remainingDistanceSquared > options.maxDistance() * options.maxDistance()) {
             fail(PathFailureReason.TOO_FAR, "path destination is outside the maximum distance");
             return;
         }
 
-        if (remainingDistance <= options.completionDistance()) {
+        if (remainingDistanceSquared <= options.completionDistance() * options.completionDistance()) {
             complete("path destination reached");
             return;
         }
@@ -112,10 +114,15 @@ public final class PathTask implements AutoCloseable {
         }
 
         if (this.ticksSinceRepath >= options.repathIntervalTicks()) {
-            if (!repath(destination)) {
-                return;
+            // cached paths cost no search; when a search is needed and the driver's budget is
+            // spent, keep the current path and retry next tick
+            Pathfinder.PathResult cached = this.backend instanceof CachingPathBackend caching ? caching.peek(destination) : null;
+            if (cached != null || this.driver == null || this.driver.tryAcquireSearch()) {
+                if (!repath(destination, cached)) {
+                    return;
+                }
+                this.ticksSinceRepath = 0L;
             }
-            this.ticksSinceRepath = 0L;
         } else {
             this.ticksSinceRepath++;
         }
@@ -133,7 +140,6 @@ public final class PathTask implements AutoCloseable {
         this.status = PathStatus.CANCELLED;
         this.lastProgress = snapshot(PathStatus.CANCELLED, false, null, reason);
         this.request.cancel(new PathTaskResult(PathStatus.CANCELLED, this.lastProgress, null, reason, "path cancelled: " + reason));
-        stopScheduled();
         return true;
     }
 
@@ -142,8 +148,8 @@ public final class PathTask implements AutoCloseable {
         cancel(PathCancelReason.MANUAL);
     }
 
-    private boolean repath(Location destination) {
-        Pathfinder.PathResult path = switch (this.request.destination().type()) {
+    private boolean repath(Location destination, @Nullable Pathfinder.PathResult cached) {
+        Pathfinder.PathResult path = cached != null ? cached : switch (this.request.destination().type()) {
             case LOCATION -> this.backend.findPath(destination);
             case ENTITY -> findEntityPath();
         };
@@ -169,7 +175,8 @@ public final class PathTask implements AutoCloseable {
 
     private void updateStuckState() {
         Location current = this.backend.currentLocation();
-        if (!sameWorld(current, this.lastLocation) || distance(current, this.lastLocation) > this.request.options().stuckDistance()) {
+        double stuckDistance = this.request.options().stuckDistance();
+        if (!sameWorld(current, this.lastLocation) || current.distanceSquared(this.lastLocation) > stuckDistance * stuckDistance) {
             this.stuckTicks = 0L;
             this.lastLocation = current;
             return;
@@ -182,7 +189,6 @@ public final class PathTask implements AutoCloseable {
         this.status = PathStatus.COMPLETE;
         this.lastProgress = snapshot(PathStatus.COMPLETE, false, null, null);
         this.request.complete(new PathTaskResult(PathStatus.COMPLETE, this.lastProgress, null, null, message));
-        stopScheduled();
     }
 
     private void fail(PathFailureReason reason, String message) {
@@ -190,14 +196,6 @@ public final class PathTask implements AutoCloseable {
         this.status = PathStatus.FAILED;
         this.lastProgress = snapshot(PathStatus.FAILED, reason == PathFailureReason.STUCK, reason, null);
         this.request.fail(new PathTaskResult(PathStatus.FAILED, this.lastProgress, reason, null, message));
-        stopScheduled();
-    }
-
-    private void stopScheduled() {
-        if (this.scheduledTask != null) {
-            this.scheduledTask.stop();
-            this.scheduledTask = null;
-        }
     }
 
     private PathProgress snapshot(PathStatus status, boolean stuck, @Nullable PathFailureReason failureReason,
@@ -218,7 +216,7 @@ public final class PathTask implements AutoCloseable {
                 finalPoint,
                 path == null ? -1 : path.getNextPointIndex(),
                 points.size(),
-                destination == null || !sameWorld(current, destination) ? Double.POSITIVE_INFINITY : distance(current, destination),
+                destination == null || !sameWorld(current, destination) ? Double.POSITIVE_INFINITY : current.distance(destination),
                 stuck,
                 this.backend.hasPath(),
                 path != null && path.canReachFinalPoint(),
@@ -230,8 +228,4 @@ public final class PathTask implements AutoCloseable {
     private static boolean sameWorld(Location first, Location second) {
         return Objects.equals(first.getWorld(), second.getWorld());
     }
-
-    private static double distance(Location first, Location second) {
-        return first.distance(second);
-    }
 }
@@ -34,6 +34,34 @@ public final class Pathfinders {
         return new PathController(backend);
     }
 
+    @NotNull
+    public static PathController controller(@NotNull PathBackend backend, @NotNull PathDriver driver) {
+        return new PathController(backend, driver);
+    }
+
+    /**
+     * Creates a controller whose searches are served from the given cache when possible.
+     */
+    @NotNull
+    public static PathController controller(@NotNull Mob mob, @NotNull PathResultCache cache) {
+        return new PathController(cached(paperBackend(mob), cache));
+    }
+
+    @NotNull
+    public static PathBackend cached(@NotNull PathBackend backend, @NotNull PathResultCache cache) {
+        return Objects.requireNonNull(cache, "cache").wrap(backend);
+    }
+
+    @NotNull
+    public static PathResultCache.Builder cache() {
+        return PathResultCache.builder();
+    }
+
+    @NotNull
+    public static PathDriverStats driverStats() {
+        return PathDriver.shared().stats();
+    }
+
     @NotNull
     public static PathBackend paperBackend(@NotNull Mob mob) {
         return new PaperPathBackend(mob);
@@ -75,9 +103,23 @@ public final class Pathfinders {
     @NotNull
     public static <T extends Mob> RamMobGoal<T> patrolGoal(@NotNull T mob, @NotNull RamMobGoalBuilder<T> builder,
                                                            @NotNull WaypointRoute route, @NotNull PathOptions options) {
+        return routeGoal(controller(mob), builder, route, options);
+    }
+
+    /**
+     * Creates a patrol goal whose leg searches are served from the given cache when possible.
+     */
+    @NotNull
+    public static <T extends Mob> RamMobGoal<T> patrolGoal(@NotNull T mob, @NotNull RamMobGoalBuilder<T> builder,
+                                                           @NotNull WaypointRoute route, @NotNull PathOptions options,
+                                                           @NotNull PathResultCache cache) {
+        return routeGoal(controller(mob, cache), builder, route, options);
+    }
+
+    private static <T extends Mob> RamMobGoal<T> routeGoal(PathController controller, RamMobGoalBuilder<T> builder,
+                                                           WaypointRoute route, PathOptions options) {
         Objects.requireNonNull(route, "route");
         Objects.requireNonNull(options, "options");
-        PathController controller = controller(mob);
         AtomicInteger index = new AtomicInteger();
         AtomicBoolean finished = new AtomicBoolean(false);
         AtomicReference<PathTask> task = new AtomicReference<>();
@@ -0,0 +1,214 @@
+package dev.willram.ramcore.protocol;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-player outboxes and flush logic behind {@link PacketQueue}, independent of the packet type
+ * and of how flushes are scheduled and packets are sent.
+ *
+ * @param <P> the packet type
+ */
+final class PacketBatcher<P> {
+    // vanilla clients reject bundles holding more packets than this
+    static final int MAX_BUNDLE_SIZE = 4096;
+
+    private final boolean bundle;
+    private final Backend<P> backend;
+    private final Map<UUID, Outbox<P>> outboxes = new ConcurrentHashMap<>();
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder bundles = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final AtomicLong largestFlush = new AtomicLong();
+    private volatile Boolean bundleSupported;
+
+    PacketBatcher(boolean bundle, @NotNull Backend<P> backend) {
+        this.bundle = bundle;
+        this.backend = Objects.requireNonNull(backend, "backend");
+    }
+
+    void enqueue(@NotNull Player player, @NotNull P packet) {
+        Objects.requireNonNull(packet, "packet");
+        Outbox<P> outbox = outbox(player);
+        outbox.packets.add(packet);
+        this.queued.increment();
+        schedule(player, outbox);
+    }
+
+    void enqueue(@NotNull Player player, @NotNull Collection<? extends P> packets) {
+        Objects.requireNonNull(packets, "packets");
+        if (packets.isEmpty()) {
+            return;
+        }
+        Outbox<P> outbox = outbox(player);
+        for (P packet : packets) {
+            outbox.packets.add(Objects.requireNonNull(packet, "packet"));
+        }
+        this.queued.add(packets.size());
+        schedule(player, outbox);
+    }
+
+    int pending(@NotNull Player player) {
+        Outbox<P> outbox = this.outboxes.get(player.getUniqueId());
+        return outbox == null ? 0 : outbox.packets.size();
+    }
+
+    @NotNull
+    PacketQueueStats stats() {
+        int players = 0;
+        long pending = 0L;
+        for (Outbox<P> outbox : this.outboxes.values()) {
+            int size = outbox.packets.size();
+            if (size > 0) {
+                players++;
+                pending += size;
+            }
+        }
+        return new PacketQueueStats(
+                players,
+                pending,
+                this.queued.sum(),
+                this.flushes.sum(),
+                this.sent.sum(),
+                this.bundles.sum(),
+                this.dropped.sum(),
+                this.largestFlush.get()
+        );
+    }
+
+    private Outbox<P> outbox(Player player) {
+        return this.outboxes.computeIfAbsent(Objects.requireNonNull(player, "player").getUniqueId(), id -> new Outbox<>());
+    }
+
+    private void schedule(Player player, Outbox<P> outbox) {
+        if (outbox.scheduled.compareAndSet(false, true)) {
+            this.backend.schedule(player, () -> flush(player, outbox), () -> discard(player, outbox));
+        }
+    }
+
+    private void flush(Player player, Outbox<P> outbox) {
+        // cleared first so packets queued while sending schedule another flush
+        outbox.scheduled.set(false);
+        List<P> packets = drain(outbox);
+        if (!packets.isEmpty()) {
+            this.flushes.increment();
+            this.sent.add(packets.size());
+            this.largestFlush.accumulateAndGet(packets.size(), Math::max);
+            send(player, packets);
+        }
+        release(player, outbox);
+    }
+
+    private void discard(Player player, Outbox<P> outbox) {
+        outbox.scheduled.set(false);
+        this.dropped.add(drain(outbox).size());
+        release(player, outbox);
+    }
+
+    // a producer still holding a released outbox schedules its own flush, so nothing is lost
+    private void release(Player player, Outbox<P> outbox) {
+        if (outbox.packets.isEmpty()) {
+            this.outboxes.remove(player.getUniqueId(), outbox);
+        }
+    }
+
+    private static <P> List<P> drain(Outbox<P> outbox) {
+        List<P> packets = new ArrayList<>();
+        P packet;
+        while ((packet = outbox.packets.poll()) != null) {
+            packets.add(packet);
+        }
+        return packets;
+    }
+
+    private void send(Player player, List<P> packets) {
+        if (packets.size() == 1 || !bundling()) {
+            for (P packet : packets) {
+                this.backend.send(player, packet);
+            }
+            return;
+        }
+        List<P> run = new ArrayList<>();
+        for (P packet : packets) {
+            // bundles cannot nest, so existing bundles split the run
+            if (this.backend.isBundle(packet)) {
+                sendRun(player, run);
+                this.backend.send(player, packet);
+                continue;
+            }
+            run.add(packet);
+            if (run.size() == MAX_BUNDLE_SIZE) {
+                sendRun(player, run);
+            }
+        }
+        sendRun(player, run);
+    }
+
+    private void sendRun(Player player, List<P> run) {
+        if (run.size() == 1) {
+            this.backend.send(player, run.get(0));
+        } else if (run.size() > 1) {
+            this.backend.send(player, this.backend.bundle(List.copyOf(run)));
+            this.bundles.increment();
+        }
+        run.clear();
+    }
+
+    private boolean bundling() {
+        if (!this.bundle) {
+            return false;
+        }
+        Boolean supported = this.bundleSupported;
+        if (supported == null) {
+            try {
+                supported = this.backend.bundlesSupported();
+            } catch (Throwable t) {
+                supported = false;
+            }
+            this.bundleSupported = supported;
+        }
+        return supported;
+    }
+
+    /**
+     * Schedules flushes and sends packets for a {@link PacketBatcher}.
+     *
+     * @param <P> the packet type
+     */
+    interface Backend<P> {
+
+        /**
+         * Runs a flush on the player's scheduler, or {@code retired} if the player is gone first.
+         */
+        void schedule(@NotNull Player player, @NotNull Runnable flush, @NotNull Runnable retired);
+
+        void send(@NotNull Player player, @NotNull P packet);
+
+        boolean isBundle(@NotNull P packet);
+
+        @NotNull
+        P bundle(@NotNull List<P> packets);
+
+        boolean bundlesSupported();
+    }
+
+    private static final class Outbox<P> {
+        private final Queue<P> packets = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+}
@@ -0,0 +1,147 @@
+package dev.willram.ramcore.protocol;
+
+import com.comphenix.protocol.PacketType;
+import com.comphenix.protocol.events.PacketContainer;
+import dev.willram.ramcore.diagnostics.DiagnosticProvider;
+import dev.willram.ramcore.scheduler.Schedulers;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Per-player outbound packet queue backing {@link Protocol#sendPacketScheduled(Player, PacketContainer)}.
+ *
+ * <p>Packets queued for a player during a tick are sent together by one task on that player's
+ * scheduler, instead of one task per packet. Where the server supports bundle packets, a flush of
+ * several packets is sent as a bundle so the client applies them in the same frame. Disable bundling
+ * with {@code -D}{@value #BUNDLE_PROPERTY}{@code =false}.</p>
+ *
+ * <p>Packets may be queued from any thread and are sent in the order they were queued.</p>
+ */
+public final class PacketQueue {
+    public static final String BUNDLE_PROPERTY = "ramcore.protocol.bundlePackets";
+
+    private static final class SharedHolder {
+        private static final PacketQueue SHARED = new PacketQueue(
+                Boolean.parseBoolean(System.getProperty(BUNDLE_PROPERTY, "true")));
+    }
+
+    private final PacketBatcher<PacketContainer> batcher;
+
+    private PacketQueue(boolean bundle) {
+        this.batcher = new PacketBatcher<>(bundle, ProtocolLibBackend.INSTANCE);
+    }
+
+    /**
+     * Gets the queue used by {@link Protocol}.
+     *
+     * @return the shared queue
+     */
+    @NotNull
+    public static PacketQueue shared() {
+        return SharedHolder.SHARED;
+    }
+
+    /**
+     * Queues a packet for the player, scheduling a flush if none is pending.
+     *
+     * @param player the player
+     * @param packet the packet
+     */
+    public void enqueue(@NotNull Player player, @NotNull PacketContainer packet) {
+        this.batcher.enqueue(player, packet);
+    }
+
+    /**
+     * Queues packets for the player in order, scheduling a flush if none is pending.
+     *
+     * @param player the player
+     * @param packets the packets
+     */
+    public void enqueue(@NotNull Player player, @NotNull Collection<PacketContainer> packets) {
+        this.batcher.enqueue(player, packets);
+    }
+
+    /**
+     * Gets how many packets are waiting to be sent to the player.
+     *
+     * @param player the player
+     * @return the pending packet count
+     */
+    public int pending(@NotNull Player player) {
+        return this.batcher.pending(player);
+    }
+
+    @NotNull
+    public PacketQueueStats stats() {
+        return this.batcher.stats();
+    }
+
+    /**
+     * Creates a diagnostic provider reporting {@link #stats()}.
+     *
+     * @return the diagnostic provider
+     */
+    @NotNull
+    public DiagnosticProvider diagnostics() {
+        return new DiagnosticProvider() {
+            @NotNull
+            @Override
+            public String id() {
+                return "queue";
+            }
+
+            @NotNull
+            @Override
+            public String category() {
+                return "protocol";
+            }
+
+            @NotNull
+            @Override
+            public String description() {
+                return "Queued outbound packets and packets per flush.";
+            }
+
+            @NotNull
+            @Override
+            public List<String> lines() {
+                return stats().lines();
+            }
+        };
+    }
+
+    private enum ProtocolLibBackend implements PacketBatcher.Backend<PacketContainer> {
+        INSTANCE;
+
+        @Override
+        public void schedule(@NotNull Player player, @NotNull Runnable flush, @NotNull Runnable retired) {
+            Schedulers.run(player, flush, retired);
+        }
+
+        @Override
+        public void send(@NotNull Player player, @NotNull PacketContainer packet) {
+            Protocol.sendPacket(player, packet);
+        }
+
+        @Override
+        public boolean isBundle(@NotNull PacketContainer packet) {
+            return packet.getType() == PacketType.Play.Server.BUNDLE;
+        }
+
+        @NotNull
+        @Override
+        public PacketContainer bundle(@NotNull List<PacketContainer> packets) {
+            PacketContainer bundle = new PacketContainer(PacketType.Play.Server.BUNDLE);
+            bundle.getPacketBundles().write(0, packets);
+            return bundle;
+        }
+
+        @Override
+        public boolean bundlesSupported() {
+            return PacketType.Play.Server.BUNDLE.isSupported();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package dev.willram.ramcore.protocol;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Snapshot of a {@link PacketQueue}.
+ *
+ * @param players players with packets waiting to be sent
+ * @param pending packets waiting to be sent
+ * @param queued packets queued since startup
+ * @param flushes flushes that sent at least one packet
+ * @param sent packets sent by flushes
+ * @param bundles bundle packets sent
+ * @param dropped packets discarded because their player left
+ * @param largestFlush the most packets sent by one flush
+ */
+public record PacketQueueStats(
+        int players,
+        long pending,
+        long queued,
+        long flushes,
+        long sent,
+        long bundles,
+        long dropped,
+        long largestFlush
+) {
+
+    public double averagePacketsPerFlush() {
+        return this.flushes == 0L ? 0.0D : (double) this.sent / this.flushes;
+    }
+
+    @NotNull
+    public List<String> lines() {
+        return List.of(
+                "protocol.queue.players=" + this.players,
+                "protocol.queue.pending=" + this.pending,
+                "protocol.queue.queued=" + this.queued,
+                "protocol.queue.flushes=" + this.flushes,
+                "protocol.queue.sent=" + this.sent,
+                "protocol.queue.packetsPerFlush=" + averagePacketsPerFlush(),
+                "protocol.queue.largestFlush=" + this.largestFlush,
+                "protocol.queue.bundles=" + this.bundles,
+                "protocol.queue.dropped=" + this.dropped
+        );
+    }
+}
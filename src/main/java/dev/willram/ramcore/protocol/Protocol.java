@@ -31,11 +31,12 @@ import com.comphenix.protocol.ProtocolManager;
 import com.comphenix.protocol.events.ListenerPriority;
 import com.comphenix.protocol.events.PacketContainer;
 import dev.willram.ramcore.event.functional.protocol.ProtocolSubscriptionBuilder;
-import dev.willram.ramcore.scheduler.Schedulers;
 import org.bukkit.entity.Player;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.util.Collection;
+
 /**
  * Utilities for working with ProtocolLib.
  */
@@ -87,11 +88,34 @@ public final class Protocol {
     /**
      * Sends a packet on the scheduler context owned by the given player.
      *
+     * <p>Packets scheduled for the same player during a tick are sent together by
+     * one task through the {@link PacketQueue}.</p>
+     *
      * @param player the player
      * @param packet the packet
      */
     public static void sendPacketScheduled(@NotNull Player player, @NotNull PacketContainer packet) {
-        Schedulers.run(player, () -> sendPacket(player, packet));
+        PacketQueue.shared().enqueue(player, packet);
+    }
+
+    /**
+     * Sends packets, in order, on the scheduler context owned by the given player.
+     *
+     * @param player the player
+     * @param packets the packets
+     */
+    public static void sendPacketsScheduled(@NotNull Player player, @NotNull Collection<PacketContainer> packets) {
+        PacketQueue.shared().enqueue(player, packets);
+    }
+
+    /**
+     * Gets statistics for the queue behind the scheduled send methods.
+     *
+     * @return the queue statistics
+     */
+    @NotNull
+    public static PacketQueueStats queueStats() {
+        return PacketQueue.shared().stats();
     }
 
     /**
@@ -127,4 +151,16 @@ public final class Protocol {
         }
     }
 
+    /**
+     * Sends packets, in order, to each player on that player's scheduler context.
+     *
+     * @param players the players
+     * @param packets the packets
+     */
+    public static void broadcastPacketsScheduled(@NotNull Iterable<Player> players, @NotNull Collection<PacketContainer> packets) {
+        for (Player player : players) {
+            sendPacketsScheduled(player, packets);
+        }
+    }
+
 }
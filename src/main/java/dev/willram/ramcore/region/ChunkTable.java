@@ -0,0 +1,52 @@
+package dev.willram.ramcore.region;
+
+/**
+ * Fixed-size open-addressed table from packed chunk keys to values; avoids boxing keys on lookup.
+ */
+final class ChunkTable<T> {
+    private final long[] keys;
+    private final Object[] values;
+    private final int mask;
+
+    ChunkTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    static long key(int x, int z) {
+        return (long) x & 0xffffffffL | ((long) z & 0xffffffffL) << 32;
+    }
+
+    static long keyAt(double x, double z) {
+        return key(RegionBounds.floor(x) >> 4, RegionBounds.floor(z) >> 4);
+    }
+
+    void put(long key, T value) {
+        int slot = slot(key);
+        while (this.values[slot] != null && this.keys[slot] != key) {
+            slot = (slot + 1) & this.mask;
+        }
+        this.keys[slot] = key;
+        this.values[slot] = value;
+    }
+
+    @SuppressWarnings("unchecked")
+    T get(long key) {
+        int slot = slot(key);
+        Object value;
+        while ((value = this.values[slot]) != null) {
+            if (this.keys[slot] == key) {
+                return (T) value;
+            }
+            slot = (slot + 1) & this.mask;
+        }
+        return null;
+    }
+
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & this.mask;
+    }
+}
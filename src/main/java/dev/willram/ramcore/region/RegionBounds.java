@@ -0,0 +1,117 @@
+package dev.willram.ramcore.region;
+
+import dev.willram.ramcore.serialize.Position;
+import dev.willram.ramcore.serialize.Region;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Axis-aligned, inclusive bounding box of a region shape in one world.
+ */
+public record RegionBounds(
+        @NotNull String world,
+        double minX,
+        double minY,
+        double minZ,
+        double maxX,
+        double maxY,
+        double maxZ
+) {
+
+    public RegionBounds {
+        requireNonNull(world, "world");
+        if (minX > maxX || minY > maxY || minZ > maxZ) {
+            throw new IllegalArgumentException("bounds min must not exceed max");
+        }
+    }
+
+    @NotNull
+    public static RegionBounds of(@NotNull Region region) {
+        requireNonNull(region, "region");
+        Position min = region.getMin();
+        Position max = region.getMax();
+        return new RegionBounds(min.getWorld(), min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
+    }
+
+    @NotNull
+    public static RegionBounds around(@NotNull Position center, double radius) {
+        requireNonNull(center, "center");
+        return new RegionBounds(
+                center.getWorld(),
+                center.getX() - radius, center.getY() - radius, center.getZ() - radius,
+                center.getX() + radius, center.getY() + radius, center.getZ() + radius
+        );
+    }
+
+    public boolean contains(@NotNull Position position) {
+        return this.world.equals(position.getWorld()) && contains(position.getX(), position.getY(), position.getZ());
+    }
+
+    public boolean contains(double x, double y, double z) {
+        return x >= this.minX && x <= this.maxX
+                && y >= this.minY && y <= this.maxY
+                && z >= this.minZ && z <= this.maxZ;
+    }
+
+    /**
+     * Returns the smallest bounds covering both, or null when they are in different worlds.
+     */
+    @Nullable
+    public RegionBounds union(@NotNull RegionBounds other) {
+        if (!this.world.equals(other.world)) {
+            return null;
+        }
+        return new RegionBounds(
+                this.world,
+                Math.min(this.minX, other.minX), Math.min(this.minY, other.minY), Math.min(this.minZ, other.minZ),
+                Math.max(this.maxX, other.maxX), Math.max(this.maxY, other.maxY), Math.max(this.maxZ, other.maxZ)
+        );
+    }
+
+    /**
+     * Returns the overlap of both bounds, or null when they do not overlap.
+     */
+    @Nullable
+    public RegionBounds intersection(@NotNull RegionBounds other) {
+        double minX = Math.max(this.minX, other.minX);
+        double minY = Math.max(this.minY, other.minY);
+        double minZ = Math.max(this.minZ, other.minZ);
+        double maxX = Math.min(this.maxX, other.maxX);
+        double maxY = Math.min(this.maxY, other.maxY);
+        double maxZ = Math.min(this.maxZ, other.maxZ);
+        if (!this.world.equals(other.world) || minX > maxX || minY > maxY || minZ > maxZ) {
+            return null;
+        }
+        return new RegionBounds(this.world, minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    public int minChunkX() {
+        return floor(this.minX) >> 4;
+    }
+
+    public int minChunkZ() {
+        return floor(this.minZ) >> 4;
+    }
+
+    public int maxChunkX() {
+        return floor(this.maxX) >> 4;
+    }
+
+    public int maxChunkZ() {
+        return floor(this.maxZ) >> 4;
+    }
+
+    /**
+     * Number of chunk columns the bounds overlap.
+     */
+    public long chunkCount() {
+        return ((long) maxChunkX() - minChunkX() + 1) * ((long) maxChunkZ() - minChunkZ() + 1);
+    }
+
+    static int floor(double value) {
+        int floor = (int) value;
+        return value < floor ? floor - 1 : floor;
+    }
+}
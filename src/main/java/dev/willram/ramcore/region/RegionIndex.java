@@ -0,0 +1,119 @@
+package dev.willram.ramcore.region;
+
+import dev.willram.ramcore.serialize.Position;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable chunk-bucketed snapshot of registered rule regions.
+ *
+ * <p>Every bucket holds its candidate regions already sorted by descending priority, with
+ * registration order breaking ties, so a lookup is a single hash probe and no sort.</p>
+ */
+final class RegionIndex {
+    /**
+     * Regions spanning more chunk columns than this are kept in a per-world list instead of
+     * being copied into every chunk bucket.
+     */
+    static final long MAX_BUCKETED_CHUNKS = 1024;
+
+    static final RegionIndex EMPTY = build(List.of());
+
+    private static final RuleRegion[] NONE = new RuleRegion[0];
+
+    private final Map<String, WorldIndex> worlds;
+    private final RuleRegion[] unbounded;
+
+    private RegionIndex(Map<String, WorldIndex> worlds, RuleRegion[] unbounded) {
+        this.worlds = worlds;
+        this.unbounded = unbounded;
+    }
+
+    /**
+     * Builds an index from regions in registration order.
+     */
+    @NotNull
+    static RegionIndex build(@NotNull List<RuleRegion> regions) {
+        Map<RuleRegion, Integer> order = new HashMap<>();
+        for (int i = 0; i < regions.size(); i++) {
+            order.put(regions.get(i), i);
+        }
+        Comparator<RuleRegion> comparator = Comparator.<RuleRegion>comparingInt(RuleRegion::priority).reversed()
+                .thenComparingInt(order::get);
+
+        List<RuleRegion> unbounded = new ArrayList<>();
+        Map<String, List<RuleRegion>> large = new LinkedHashMap<>();
+        Map<String, Map<Long, List<RuleRegion>>> buckets = new LinkedHashMap<>();
+        for (RuleRegion region : regions) {
+            RegionBounds bounds = region.shape().bounds();
+            if (bounds == null) {
+                unbounded.add(region);
+                continue;
+            }
+            if (bounds.chunkCount() > MAX_BUCKETED_CHUNKS) {
+                large.computeIfAbsent(bounds.world(), ignored -> new ArrayList<>()).add(region);
+                continue;
+            }
+            Map<Long, List<RuleRegion>> worldBuckets = buckets.computeIfAbsent(bounds.world(), ignored -> new LinkedHashMap<>());
+            for (int x = bounds.minChunkX(); x <= bounds.maxChunkX(); x++) {
+                for (int z = bounds.minChunkZ(); z <= bounds.maxChunkZ(); z++) {
+                    worldBuckets.computeIfAbsent(ChunkTable.key(x, z), ignored -> new ArrayList<>()).add(region);
+                }
+            }
+        }
+
+        RuleRegion[] unboundedSorted = sorted(unbounded, comparator);
+        Map<String, WorldIndex> worlds = new HashMap<>();
+        List<String> worldNames = new ArrayList<>(buckets.keySet());
+        for (String world : large.keySet()) {
+            if (!buckets.containsKey(world)) {
+                worldNames.add(world);
+            }
+        }
+        for (String world : worldNames) {
+            List<RuleRegion> fallback = new ArrayList<>(large.getOrDefault(world, List.of()));
+            fallback.addAll(unbounded);
+            Map<Long, List<RuleRegion>> worldBuckets = buckets.getOrDefault(world, Map.of());
+            ChunkTable<RuleRegion[]> table = new ChunkTable<>(worldBuckets.size());
+            for (Map.Entry<Long, List<RuleRegion>> bucket : worldBuckets.entrySet()) {
+                List<RuleRegion> candidates = new ArrayList<>(bucket.getValue());
+                candidates.addAll(fallback);
+                table.put(bucket.getKey(), sorted(candidates, comparator));
+            }
+            worlds.put(world, new WorldIndex(table, sorted(fallback, comparator)));
+        }
+        return new RegionIndex(Map.copyOf(worlds), unboundedSorted);
+    }
+
+    /**
+     * Returns the regions that may contain the position, highest priority first.
+     */
+    @NotNull
+    RuleRegion[] candidates(@NotNull Position position) {
+        WorldIndex world = this.worlds.get(position.getWorld());
+        if (world == null) {
+            return this.unbounded;
+        }
+        RuleRegion[] bucket = world.chunks.get(ChunkTable.keyAt(position.getX(), position.getZ()));
+        return bucket != null ? bucket : world.fallback;
+    }
+
+    private static RuleRegion[] sorted(List<RuleRegion> regions, Comparator<RuleRegion> comparator) {
+        if (regions.isEmpty()) {
+            return NONE;
+        }
+        RuleRegion[] array = regions.toArray(RuleRegion[]::new);
+        Arrays.sort(array, comparator);
+        return array;
+    }
+
+    private record WorldIndex(ChunkTable<RuleRegion[]> chunks, RuleRegion[] fallback) {
+    }
+}
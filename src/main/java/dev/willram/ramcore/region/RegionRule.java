@@ -17,9 +17,11 @@ public record RegionRule(
         @NotNull Predicate<RegionQuery> condition
 ) {
 
+    private static final Predicate<RegionQuery> ALWAYS = query -> true;
+
     @NotNull
     public static RegionRule of(@NotNull String id, @NotNull RegionAction action, int priority, @NotNull RegionRuleResult result) {
-        return new RegionRule(id, action, priority, result, query -> true);
+        return new RegionRule(id, action, priority, result, ALWAYS);
     }
 
     @NotNull
@@ -40,4 +42,8 @@ public record RegionRule(
     boolean matches(RegionQuery query) {
         return this.action == query.action() && this.condition.test(query);
     }
+
+    boolean unconditional() {
+        return this.condition == ALWAYS;
+    }
 }
@@ -1,36 +1,49 @@
 package dev.willram.ramcore.region;
 
+import dev.willram.ramcore.content.ContentEntry;
 import dev.willram.ramcore.content.ContentId;
 import dev.willram.ramcore.content.ContentKey;
 import dev.willram.ramcore.content.ContentRegistry;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Registry-backed lightweight region rule evaluator.
+ *
+ * <p>Regions are looked up through a chunk-bucketed {@link RegionIndex} that is rebuilt lazily
+ * after registration changes, so evaluation only visits regions overlapping the query chunk.</p>
  */
 public final class RegionRuleEngine implements AutoCloseable {
     private final ContentRegistry<RuleRegion> regions = ContentRegistry.create(RuleRegion.class);
+    private volatile RegionIndex index = RegionIndex.EMPTY;
 
     @NotNull
-    public RuleRegion register(@NotNull String owner, @NotNull RuleRegion region) {
+    public synchronized RuleRegion register(@NotNull String owner, @NotNull RuleRegion region) {
         ContentKey<RuleRegion> key = ContentKey.of(region.id(), RuleRegion.class);
-        return this.regions.register(owner, key, region).value();
+        RuleRegion registered = this.regions.register(owner, key, region).value();
+        this.index = null;
+        return registered;
     }
 
     @NotNull
     public RegionDecision evaluate(@NotNull RegionQuery query) {
-        return this.regions.entries().stream()
-                .map(entry -> entry.value())
-                .filter(region -> region.contains(query))
-                .sorted((a, b) -> Integer.compare(b.priority(), a.priority()))
-                .map(region -> region.evaluate(query))
-                .filter(decision -> decision.result() != RegionRuleResult.PASS)
-                .findFirst()
-                .orElseGet(RegionDecision::pass);
+        for (RuleRegion region : index().candidates(query.position())) {
+            RegionDecision decision = region.evaluate(query);
+            if (decision.result() != RegionRuleResult.PASS) {
+                return decision;
+            }
+        }
+        return RegionDecision.pass();
     }
 
-    public int unregisterOwner(@NotNull String owner) {
-        return this.regions.unregisterOwner(owner);
+    public synchronized int unregisterOwner(@NotNull String owner) {
+        int removed = this.regions.unregisterOwner(owner);
+        if (removed > 0) {
+            this.index = null;
+        }
+        return removed;
     }
 
     public boolean contains(@NotNull ContentId id) {
@@ -38,7 +51,26 @@ public final class RegionRuleEngine implements AutoCloseable {
     }
 
     @Override
-    public void close() {
+    public synchronized void close() {
         this.regions.close();
+        this.index = RegionIndex.EMPTY;
+    }
+
+    private RegionIndex index() {
+        RegionIndex current = this.index;
+        if (current == null) {
+            synchronized (this) {
+                current = this.index;
+                if (current == null) {
+                    List<RuleRegion> values = new ArrayList<>();
+                    for (ContentEntry<RuleRegion> entry : this.regions.entries()) {
+                        values.add(entry.value());
+                    }
+                    current = RegionIndex.build(values);
+                    this.index = current;
+                }
+            }
+        }
+        return current;
     }
 }
@@ -2,6 +2,7 @@ package dev.willram.ramcore.region;
 
 import dev.willram.ramcore.serialize.Position;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * Position containment test for lightweight regions.
@@ -10,4 +11,24 @@ import org.jetbrains.annotations.NotNull;
 public interface RegionShape {
 
     boolean contains(@NotNull Position position);
+
+    /**
+     * Returns the bounding box of this shape, or null when the shape is unbounded or unknown.
+     *
+     * <p>Bounded shapes are indexed by chunk in {@link RegionRuleEngine}; unbounded shapes are
+     * tested against every query.</p>
+     */
+    @Nullable
+    default RegionBounds bounds() {
+        return null;
+    }
+
+    /**
+     * Returns the world this shape lives in, or null when it is not bound to one world.
+     */
+    @Nullable
+    default String world() {
+        RegionBounds bounds = bounds();
+        return bounds == null ? null : bounds.world();
+    }
 }
@@ -3,20 +3,34 @@ package dev.willram.ramcore.region;
 import dev.willram.ramcore.serialize.Position;
 import dev.willram.ramcore.serialize.Region;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 import static java.util.Objects.requireNonNull;
 
 /**
  * Common lightweight region shapes.
+ *
+ * <p>Composite shapes copy their members and precompute a merged bounding box, so positions
+ * outside it are rejected before any member is tested.</p>
  */
 public final class RegionShapes {
+    /**
+     * Unions with more bounded members than this look members up by chunk.
+     */
+    static final int UNION_INDEX_THRESHOLD = 16;
+
+    private static final RegionShape[] NO_SHAPES = new RegionShape[0];
 
     @NotNull
     public static RegionShape cuboid(@NotNull Region region) {
         requireNonNull(region, "region");
-        return region::inRegion;
+        return new CuboidShape(RegionBounds.of(region));
     }
 
     @NotNull
@@ -25,28 +39,174 @@ public final class RegionShapes {
         if (radius <= 0) {
             throw new IllegalArgumentException("radius must be > 0");
         }
-        double radiusSquared = radius * radius;
-        return position -> position.getWorld().equals(center.getWorld())
-                && squaredDistance(center, position) <= radiusSquared;
+        return new SphereShape(center.getWorld(), center.getX(), center.getY(), center.getZ(), radius * radius,
+                RegionBounds.around(center, radius));
     }
 
     @NotNull
     public static RegionShape any(@NotNull Collection<? extends RegionShape> shapes) {
         requireNonNull(shapes, "shapes");
-        return position -> shapes.stream().anyMatch(shape -> shape.contains(position));
+        RegionShape[] members = shapes.toArray(NO_SHAPES);
+        RegionBounds bounds = unionBounds(members);
+        if (bounds != null && members.length > UNION_INDEX_THRESHOLD) {
+            return new IndexedUnionShape(bounds, members);
+        }
+        return new UnionShape(bounds, members);
     }
 
     @NotNull
     public static RegionShape all(@NotNull Collection<? extends RegionShape> shapes) {
         requireNonNull(shapes, "shapes");
-        return position -> shapes.stream().allMatch(shape -> shape.contains(position));
+        RegionShape[] members = shapes.toArray(NO_SHAPES);
+        RegionBounds bounds = null;
+        for (RegionShape member : members) {
+            RegionBounds memberBounds = member.bounds();
+            if (memberBounds == null) {
+                continue;
+            }
+            if (bounds == null) {
+                bounds = memberBounds;
+                continue;
+            }
+            bounds = bounds.intersection(memberBounds);
+            if (bounds == null) {
+                return EmptyShape.INSTANCE;
+            }
+        }
+        return new IntersectionShape(bounds, members);
+    }
+
+    @Nullable
+    private static RegionBounds unionBounds(RegionShape[] members) {
+        RegionBounds bounds = null;
+        for (RegionShape member : members) {
+            RegionBounds memberBounds = member.bounds();
+            if (memberBounds == null) {
+                return null;
+            }
+            bounds = bounds == null ? memberBounds : bounds.union(memberBounds);
+            if (bounds == null) {
+                return null;
+            }
+        }
+        return bounds;
+    }
+
+    private record CuboidShape(RegionBounds bounds) implements RegionShape {
+
+        @Override
+        public boolean contains(@NotNull Position position) {
+            return this.bounds.contains(position);
+        }
+    }
+
+    private record SphereShape(String world, double x, double y, double z, double radiusSquared,
+                               RegionBounds bounds) implements RegionShape {
+
+        @Override
+        public boolean contains(@NotNull Position position) {
+            double dx = position.getX() - this.x;
+            double dy = position.getY() - this.y;
+            double dz = position.getZ() - this.z;
+            return dx * dx + dy * dy + dz * dz <= this.radiusSquared && this.world.equals(position.getWorld());
+        }
+    }
+
+    private record UnionShape(RegionBounds bounds, RegionShape[] members) implements RegionShape {
+
+        @Override
+        public boolean contains(@NotNull Position position) {
+            if (this.bounds != null && !this.bounds.contains(position)) {
+                return false;
+            }
+            for (RegionShape member : this.members) {
+                if (member.contains(position)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private record IntersectionShape(RegionBounds bounds, RegionShape[] members) implements RegionShape {
+
+        @Override
+        public boolean contains(@NotNull Position position) {
+            if (this.bounds != null && !this.bounds.contains(position)) {
+                return false;
+            }
+            for (RegionShape member : this.members) {
+                if (!member.contains(position)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Union of bounded members in one world, bucketed by chunk column like {@link RegionIndex}.
+     */
+    private static final class IndexedUnionShape implements RegionShape {
+        private final RegionBounds bounds;
+        private final ChunkTable<RegionShape[]> chunks;
+        private final RegionShape[] wide;
+
+        private IndexedUnionShape(RegionBounds bounds, RegionShape[] members) {
+            this.bounds = bounds;
+            Map<Long, List<RegionShape>> buckets = new LinkedHashMap<>();
+            List<RegionShape> wide = new ArrayList<>();
+            for (RegionShape member : members) {
+                RegionBounds memberBounds = member.bounds();
+                if (memberBounds.chunkCount() > RegionIndex.MAX_BUCKETED_CHUNKS) {
+                    wide.add(member);
+                    continue;
+                }
+                for (int x = memberBounds.minChunkX(); x <= memberBounds.maxChunkX(); x++) {
+                    for (int z = memberBounds.minChunkZ(); z <= memberBounds.maxChunkZ(); z++) {
+                        buckets.computeIfAbsent(ChunkTable.key(x, z), ignored -> new ArrayList<>()).add(member);
+                    }
+                }
+            }
+            this.chunks = new ChunkTable<>(buckets.size());
+            buckets.forEach((key, shapes) -> this.chunks.put(key, shapes.toArray(NO_SHAPES)));
+            this.wide = wide.toArray(NO_SHAPES);
+        }
+
+        @Override
+        public boolean contains(@NotNull Position position) {
+            if (!this.bounds.contains(position)) {
+                return false;
+            }
+            RegionShape[] candidates = this.chunks.get(ChunkTable.keyAt(position.getX(), position.getZ()));
+            if (candidates != null) {
+                for (RegionShape member : candidates) {
+                    if (member.contains(position)) {
+                        return true;
+                    }
+                }
+            }
+            for (RegionShape member : this.wide) {
+                if (member.contains(position)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public RegionBounds bounds() {
+            return this.bounds;
+        }
     }
 
-    private static double squaredDistance(Position a, Position b) {
-        double x = a.getX() - b.getX();
-        double y = a.getY() - b.getY();
-        double z = a.getZ() - b.getZ();
-        return x * x + y * y + z * z;
+    private enum EmptyShape implements RegionShape {
+        INSTANCE;
+
+        @Override
+        public boolean contains(@NotNull Position position) {
+            return false;
+        }
     }
 
     private RegionShapes() {
@@ -9,18 +9,36 @@ import java.util.List;
 
 /**
  * Region shape plus priority-ordered rules.
+ *
+ * <p>Rules are compiled on build into a per-action dispatch table sorted by descending priority.
+ * Actions whose outcome does not depend on a rule condition resolve to a precomputed decision.</p>
  */
 public final class RuleRegion {
     private final ContentId id;
     private final RegionShape shape;
     private final int priority;
     private final List<RegionRule> rules;
+    private final RegionRule[][] dispatch;
+    private final RegionDecision[] decisions;
 
     private RuleRegion(@NotNull ContentId id, @NotNull RegionShape shape, int priority, @NotNull Collection<RegionRule> rules) {
         this.id = id;
         this.shape = shape;
         this.priority = priority;
         this.rules = List.copyOf(rules);
+
+        RegionAction[] actions = RegionAction.values();
+        this.dispatch = new RegionRule[actions.length][];
+        this.decisions = new RegionDecision[actions.length];
+        for (RegionAction action : actions) {
+            RegionRule[] compiled = compile(this.rules, action);
+            this.dispatch[action.ordinal()] = compiled;
+            if (compiled.length == 0) {
+                this.decisions[action.ordinal()] = RegionDecision.pass();
+            } else if (compiled[0].unconditional()) {
+                this.decisions[action.ordinal()] = RegionDecision.of(compiled[0].result(), id, compiled[0].id());
+            }
+        }
     }
 
     @NotNull
@@ -57,13 +75,41 @@ public final class RuleRegion {
             return RegionDecision.pass();
         }
 
-        return this.rules.stream()
-                .filter(rule -> rule.matches(query))
-                .sorted((a, b) -> Integer.compare(b.priority(), a.priority()))
-                .filter(rule -> rule.result() != RegionRuleResult.PASS)
-                .findFirst()
-                .map(rule -> RegionDecision.of(rule.result(), this.id, rule.id()))
-                .orElseGet(RegionDecision::pass);
+        int action = query.action().ordinal();
+        RegionDecision decision = this.decisions[action];
+        if (decision != null) {
+            return decision;
+        }
+
+        for (RegionRule rule : this.dispatch[action]) {
+            if (rule.condition().test(query)) {
+                return RegionDecision.of(rule.result(), this.id, rule.id());
+            }
+        }
+        return RegionDecision.pass();
+    }
+
+    /**
+     * Returns the non-pass rules for one action, highest priority first. Rules after the first
+     * unconditional rule can never win and are dropped.
+     */
+    private static RegionRule[] compile(List<RegionRule> rules, RegionAction action) {
+        List<RegionRule> matching = new ArrayList<>();
+        for (RegionRule rule : rules) {
+            if (rule.action() == action && rule.result() != RegionRuleResult.PASS) {
+                matching.add(rule);
+            }
+        }
+        matching.sort((a, b) -> Integer.compare(b.priority(), a.priority()));
+
+        int length = matching.size();
+        for (int i = 0; i < matching.size(); i++) {
+            if (matching.get(i).unconditional()) {
+                length = i + 1;
+                break;
+            }
+        }
+        return matching.subList(0, length).toArray(RegionRule[]::new);
     }
 
     public static final class Builder {
@@ -0,0 +1,83 @@
+package dev.willram.ramcore.scheduler;
+
+import dev.willram.ramcore.exception.RamPreconditions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Thread layout of the RamCore async executor.
+ *
+ * <p>The shared executor reads {@value #MODE_PROPERTY}, {@value #THREADS_PROPERTY}, and
+ * {@value #QUEUE_PROPERTY} once at startup.</p>
+ */
+public record AsyncExecutorSettings(@NotNull Mode mode, int threads, int queueCapacity) {
+    public static final String MODE_PROPERTY = "ramcore.async.mode";
+    public static final String THREADS_PROPERTY = "ramcore.async.threads";
+    public static final String QUEUE_PROPERTY = "ramcore.async.queue";
+
+    public AsyncExecutorSettings {
+        Objects.requireNonNull(mode, "mode");
+        RamPreconditions.checkArgument(threads > 0, "async executor threads must be positive", "Use at least 1 thread.");
+        RamPreconditions.checkArgument(queueCapacity >= 0, "async executor queue capacity must be >= 0", "Use 0 for a direct hand-off.");
+    }
+
+    /**
+     * Unbounded cached thread pool; the historical behaviour.
+     */
+    @NotNull
+    public static AsyncExecutorSettings cached() {
+        return new AsyncExecutorSettings(Mode.CACHED, Integer.MAX_VALUE, 0);
+    }
+
+    /**
+     * Fixed number of platform threads with a bounded queue. Submissions that do not fit run on
+     * the submitting thread, unless it is the scheduler timer or a server thread; those go to a
+     * bounded overflow queue instead.
+     */
+    @NotNull
+    public static AsyncExecutorSettings bounded(int threads, int queueCapacity) {
+        return new AsyncExecutorSettings(Mode.BOUNDED, threads, queueCapacity);
+    }
+
+    /**
+     * One virtual thread per task, with at most {@code maxConcurrency} running. Submissions over
+     * the limit wait on the submitting thread, unless it is the scheduler timer or a server
+     * thread; those go to a bounded overflow queue instead.
+     */
+    @NotNull
+    public static AsyncExecutorSettings virtual(int maxConcurrency) {
+        return new AsyncExecutorSettings(Mode.VIRTUAL, maxConcurrency, 0);
+    }
+
+    @NotNull
+    public static AsyncExecutorSettings fromSystemProperties() {
+        return parse(System.getProperty(MODE_PROPERTY), System.getProperty(THREADS_PROPERTY), System.getProperty(QUEUE_PROPERTY));
+    }
+
+    @NotNull
+    static AsyncExecutorSettings parse(@Nullable String mode, @Nullable String threads, @Nullable String queue) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        if (mode == null || mode.isBlank()) {
+            return cached();
+        }
+        return switch (mode.trim().toLowerCase(Locale.ROOT)) {
+            case "cached" -> cached();
+            case "bounded" -> bounded(parseInt(threads, Math.max(2, processors)), parseInt(queue, 1024));
+            case "virtual" -> virtual(parseInt(threads, 256));
+            default -> throw new IllegalArgumentException("unknown " + MODE_PROPERTY + ": " + mode);
+        };
+    }
+
+    private static int parseInt(@Nullable String value, int fallback) {
+        return value == null || value.isBlank() ? fallback : Integer.parseInt(value.trim());
+    }
+
+    public enum Mode {
+        CACHED,
+        BOUNDED,
+        VIRTUAL
+    }
+}
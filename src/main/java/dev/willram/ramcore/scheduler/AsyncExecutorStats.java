@@ -0,0 +1,81 @@
+package dev.willram.ramcore.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Snapshot of the RamCore async executor.
+ *
+ * <p>{@code rejected} counts submissions that hit the thread or queue limit and were pushed back
+ * onto the submitter, or onto the overflow queue when the submitter was the timer or a server
+ * thread, instead of spawning another thread. {@code dropped} counts those the full overflow queue
+ * turned away.</p>
+ */
+public record AsyncExecutorStats(
+        @NotNull AsyncExecutorSettings.Mode mode,
+        int threads,
+        int activeThreads,
+        int queueDepth,
+        long submitted,
+        long completed,
+        long rejected,
+        long dropped,
+        @NotNull List<Task> tasks
+) {
+
+    public AsyncExecutorStats {
+        tasks = List.copyOf(tasks);
+    }
+
+    @NotNull
+    public List<String> lines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("async.mode=" + this.mode.name().toLowerCase(Locale.ROOT));
+        lines.add("async.threads=" + this.threads);
+        lines.add("async.activeThreads=" + this.activeThreads);
+        lines.add("async.queueDepth=" + this.queueDepth);
+        lines.add("async.submitted=" + this.submitted);
+        lines.add("async.completed=" + this.completed);
+        lines.add("async.rejected=" + this.rejected);
+        lines.add("async.dropped=" + this.dropped);
+        for (Task task : this.tasks) {
+            lines.add("async.task." + task.name() + "=" + task.summary());
+        }
+        return lines;
+    }
+
+    /**
+     * Timings for tasks sharing one name.
+     */
+    public record Task(
+            @NotNull String name,
+            long runs,
+            long rejected,
+            long totalQueueNanos,
+            long maxQueueNanos,
+            long totalRunNanos,
+            long maxRunNanos
+    ) {
+
+        public double averageQueueMillis() {
+            return this.runs == 0 ? 0.0D : this.totalQueueNanos / 1_000_000.0D / this.runs;
+        }
+
+        public double averageRunMillis() {
+            return this.runs == 0 ? 0.0D : this.totalRunNanos / 1_000_000.0D / this.runs;
+        }
+
+        @NotNull
+        public String summary() {
+            return "runs=" + this.runs
+                    + " rejected=" + this.rejected
+                    + " avgQueueMillis=" + averageQueueMillis()
+                    + " maxQueueMillis=" + this.maxQueueNanos / 1_000_000.0D
+                    + " avgRunMillis=" + averageRunMillis()
+                    + " maxRunMillis=" + this.maxRunNanos / 1_000_000.0D;
+        }
+    }
+}
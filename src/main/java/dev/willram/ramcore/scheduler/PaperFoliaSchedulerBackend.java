@@ -10,14 +10,25 @@ import org.bukkit.World;
 import org.bukkit.entity.Entity;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 final class PaperFoliaSchedulerBackend implements SchedulerBackend {
 
     private static final int NO_BUKKIT_TASK_ID = -1;
 
+    private final TickBudgetScheduler tickBudget = TickBudgetScheduler.fromSystemProperties();
+    private final AtomicReference<ScheduledTask> tickBudgetDriver = new AtomicReference<>();
+
+    @Nullable
+    @Override
+    public TickBudgetStats tickBudgetStats() {
+        return this.tickBudget != null ? this.tickBudget.stats() : null;
+    }
+
     @Override
     public boolean isSyncThread() {
         return Bukkit.isPrimaryThread() || Bukkit.isGlobalTickThread();
@@ -83,6 +94,11 @@ final class PaperFoliaSchedulerBackend implements SchedulerBackend {
     @Override
     public TaskHandle runRepeatingSync(@NotNull Runnable runnable, long delayTicks, long intervalTicks) {
         Objects.requireNonNull(runnable, "runnable");
+        if (this.tickBudget != null) {
+            TaskHandle handle = this.tickBudget.schedule(runnable, delayTicks, intervalTicks);
+            startTickBudgetDriver();
+            return handle;
+        }
         return new PaperTaskHandle(Bukkit.getGlobalRegionScheduler().runAtFixedRate(
                 plugin(),
                 scheduledTask -> runnable.run(),
@@ -248,6 +264,21 @@ final class PaperFoliaSchedulerBackend implements SchedulerBackend {
         Objects.requireNonNull(plugin, "plugin");
         Bukkit.getGlobalRegionScheduler().cancelTasks(plugin);
         Bukkit.getAsyncScheduler().cancelTasks(plugin);
+        if (this.tickBudget != null) {
+            this.tickBudgetDriver.set(null);
+            this.tickBudget.clear();
+        }
+    }
+
+    private void startTickBudgetDriver() {
+        if (this.tickBudgetDriver.get() != null) {
+            return;
+        }
+        synchronized (this.tickBudgetDriver) {
+            if (this.tickBudgetDriver.get() == null) {
+                this.tickBudgetDriver.set(Bukkit.getGlobalRegionScheduler().runAtFixedRate(plugin(), ignored -> this.tickBudget.tick(), 1L, 1L));
+            }
+        }
     }
 
     private static RamPlugin plugin() {
@@ -27,32 +27,105 @@ package dev.willram.ramcore.scheduler;
 
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import dev.willram.ramcore.exception.RamExceptions;
+import dev.willram.ramcore.interfaces.Delegate;
+import org.bukkit.Bukkit;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.WeakHashMap;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 final class RamAsyncExecutor extends AbstractExecutorService implements ScheduledExecutorService {
+    // task names beyond this are folded into one bucket so lambdas cannot grow the stats map without bound
+    static final int MAX_TRACKED_TASK_NAMES = 256;
+    static final String OTHER_TASKS = "other";
+    // submissions from the timer or a server thread that hit the limit wait here instead of
+    // blocking or running inline; past this they are dropped
+    static final int OVERFLOW_CAPACITY = 1024;
+
+    private final AsyncExecutorSettings settings;
     private final ExecutorService taskService;
+    private final ThreadPoolExecutor pool;
+    private final Semaphore permits;
     private final ScheduledExecutorService timerExecutionService;
+    // single feeder thread that hands overflowed tasks to the pool in order; null in cached mode
+    private final ThreadPoolExecutor overflow;
+    private volatile Thread timerThread;
+    private volatile Thread overflowThread;
 
     private final Set<ScheduledFuture<?>> tasks = Collections.newSetFromMap(new WeakHashMap<>());
 
+    private final Map<String, TaskStats> taskStats = new ConcurrentHashMap<>();
+    private final AtomicInteger running = new AtomicInteger();
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
     RamAsyncExecutor() {
-        this.taskService = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+        this(AsyncExecutorSettings.cached());
+    }
+
+    RamAsyncExecutor(AsyncExecutorSettings settings) {
+        this.settings = settings;
+        ThreadFactory threads = new ThreadFactoryBuilder()
                 .setDaemon(true)
                 .setNameFormat("ram-scheduler-%d")
-                .build()
-        );
-        this.timerExecutionService = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .build();
+        switch (settings.mode()) {
+            case CACHED -> {
+                this.pool = new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), threads);
+                this.permits = null;
+            }
+            case BOUNDED -> {
+                BlockingQueue<Runnable> queue = settings.queueCapacity() == 0
+                        ? new SynchronousQueue<>()
+                        : new ArrayBlockingQueue<>(settings.queueCapacity());
+                this.pool = new ThreadPoolExecutor(settings.threads(), settings.threads(), 60L, TimeUnit.SECONDS, queue, threads, this::rejected);
+                this.pool.allowCoreThreadTimeOut(true);
+                this.permits = null;
+            }
+            default -> {
+                this.pool = null;
+                this.permits = new Semaphore(settings.threads());
+            }
+        }
+        this.taskService = this.pool != null
+                ? this.pool
+                : Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ram-scheduler-virtual-", 0).factory());
+        ThreadFactory timer = new ThreadFactoryBuilder()
                 .setDaemon(true)
                 .setNameFormat("ram-scheduler-timer")
-                .build()
-        );
+                .build();
+        this.timerExecutionService = Executors.newSingleThreadScheduledExecutor(runnable -> this.timerThread = timer.newThread(runnable));
+        if (settings.mode() == AsyncExecutorSettings.Mode.CACHED) {
+            this.overflow = null;
+            return;
+        }
+        ThreadFactory feeder = new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("ram-scheduler-overflow")
+                .build();
+        this.overflow = new ThreadPoolExecutor(1, 1, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(OVERFLOW_CAPACITY), runnable -> this.overflowThread = feeder.newThread(runnable)) {
+            @Override
+            protected void terminated() {
+                // the feeder may still hand tasks to the pool while it drains
+                RamAsyncExecutor.this.taskService.shutdown();
+            }
+        };
+        this.overflow.allowCoreThreadTimeOut(true);
+    }
+
+    AsyncExecutorSettings settings() {
+        return this.settings;
     }
 
     private ScheduledFuture<?> consumeTask(ScheduledFuture<?> future) {
@@ -70,15 +143,161 @@ final class RamAsyncExecutor extends AbstractExecutorService implements Schedule
         }
     }
 
+    AsyncExecutorStats stats() {
+        List<AsyncExecutorStats.Task> tasks = new ArrayList<>(this.taskStats.size());
+        for (Map.Entry<String, TaskStats> entry : this.taskStats.entrySet()) {
+            tasks.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        tasks.sort(Comparator.comparingLong(AsyncExecutorStats.Task::totalRunNanos).reversed());
+        int queueDepth = this.pool != null ? this.pool.getQueue().size() : this.permits.getQueueLength();
+        if (this.overflow != null) {
+            queueDepth += this.overflow.getQueue().size();
+        }
+        int threads = this.pool != null ? this.pool.getPoolSize() : this.settings.threads();
+        return new AsyncExecutorStats(
+                this.settings.mode(),
+                threads,
+                this.running.get(),
+                queueDepth,
+                this.submitted.sum(),
+                this.completed.sum(),
+                this.rejected.sum(),
+                this.dropped.sum(),
+                tasks
+        );
+    }
+
+    private TaskStats stats(String name) {
+        TaskStats stats = this.taskStats.get(name);
+        if (stats != null) {
+            return stats;
+        }
+        if (this.taskStats.size() >= MAX_TRACKED_TASK_NAMES) {
+            return this.taskStats.computeIfAbsent(OTHER_TASKS, ignored -> new TaskStats());
+        }
+        return this.taskStats.computeIfAbsent(name, ignored -> new TaskStats());
+    }
+
+    /**
+     * Hands a task to the pool.
+     *
+     * <p>When the pool is at its limit, an ordinary submitting thread waits for a permit (virtual
+     * mode) or runs the task itself (bounded mode). The timer thread and server threads must do
+     * neither, so their submissions go to the overflow queue instead, and are dropped with a
+     * {@link RejectedExecutionException} once that is full.</p>
+     */
+    private void dispatch(String name, Runnable runnable) {
+        InstrumentedTask task = new InstrumentedTask(stats(name), runnable);
+        this.submitted.increment();
+        if (this.permits == null) {
+            this.taskService.execute(task);
+            return;
+        }
+        if (!this.permits.tryAcquire()) {
+            if (!mayWait()) {
+                overflow(task);
+                return;
+            }
+            task.stats.rejected.increment();
+            this.rejected.increment();
+            this.permits.acquireUninterruptibly();
+        }
+        launch(task);
+    }
+
+    // virtual mode: runs a task that holds a permit
+    private void launch(InstrumentedTask task) {
+        try {
+            this.taskService.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    this.permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.permits.release();
+            throw e;
+        }
+    }
+
+    private void overflow(InstrumentedTask task) {
+        task.stats.rejected.increment();
+        this.rejected.increment();
+        try {
+            this.overflow.execute(() -> {
+                // the feeder is an ordinary async thread, so it may wait or run the task itself
+                if (this.permits == null) {
+                    this.pool.execute(task);
+                    return;
+                }
+                this.permits.acquireUninterruptibly();
+                launch(task);
+            });
+        } catch (RejectedExecutionException e) {
+            this.dropped.increment();
+            throw new RejectedExecutionException("RamCore async overflow queue is full (" + OVERFLOW_CAPACITY + " tasks)", e);
+        }
+    }
+
+    // false on threads that must never block on, or run, async work
+    private boolean mayWait() {
+        Thread thread = Thread.currentThread();
+        if (thread == this.timerThread) {
+            return false;
+        }
+        // on Folia this is true on every region and the global tick thread
+        return Bukkit.getServer() == null || !Bukkit.isPrimaryThread();
+    }
+
+    // bounded mode: run on the submitting thread instead of growing the pool
+    private void rejected(Runnable runnable, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("RamCore async executor is shut down");
+        }
+        if (!(runnable instanceof InstrumentedTask task)) {
+            runnable.run();
+            return;
+        }
+        if (!mayWait()) {
+            overflow(task);
+            return;
+        }
+        // overflowed tasks were already counted when they were queued
+        if (Thread.currentThread() != this.overflowThread) {
+            this.rejected.increment();
+            task.stats.rejected.increment();
+        }
+        task.run();
+    }
+
+    // submit() wraps tasks in a FutureTask; keep the submitted task reachable so stats name it
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Runnable runnable, T value) {
+        return new SubmittedTask<>(runnable, Executors.callable(runnable, value));
+    }
+
+    @Override
+    protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+        return new SubmittedTask<>(callable, callable);
+    }
+
     @Override
     public void execute(Runnable runnable) {
-        this.taskService.execute(RamExceptions.wrapSchedulerTask(runnable));
+        dispatch(TaskNames.of(runnable), RamExceptions.wrapSchedulerTask(runnable));
     }
 
     @Override
     public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        String name = TaskNames.of(command);
         Runnable delegate = RamExceptions.wrapSchedulerTask(command);
-        return consumeTask(this.timerExecutionService.schedule(() -> this.taskService.execute(delegate), delay, unit));
+        return consumeTask(this.timerExecutionService.schedule(() -> {
+            try {
+                dispatch(name, delegate);
+            } catch (RejectedExecutionException e) {
+                // counted as dropped
+            }
+        }, delay, unit));
     }
 
     @Override
@@ -88,7 +307,7 @@ final class RamAsyncExecutor extends AbstractExecutorService implements Schedule
 
     @Override
     public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
-        return consumeTask(this.timerExecutionService.scheduleAtFixedRate(new FixedRateWorker(RamExceptions.wrapSchedulerTask(command)), initialDelay, period, unit));
+        return consumeTask(this.timerExecutionService.scheduleAtFixedRate(new FixedRateWorker(TaskNames.of(command), RamExceptions.wrapSchedulerTask(command)), initialDelay, period, unit));
     }
 
     @Override
@@ -100,13 +319,21 @@ final class RamAsyncExecutor extends AbstractExecutorService implements Schedule
     public void shutdown() {
         cancelRepeatingTasks();
         this.timerExecutionService.shutdown();
-        this.taskService.shutdown();
+        if (this.overflow != null) {
+            // shuts the task service down once the queued overflow has been handed over
+            this.overflow.shutdown();
+        } else {
+            this.taskService.shutdown();
+        }
     }
 
     @Override
     public List<Runnable> shutdownNow() {
         cancelRepeatingTasks();
         List<Runnable> timerTasks = this.timerExecutionService.shutdownNow();
+        if (this.overflow != null) {
+            timerTasks.addAll(this.overflow.shutdownNow());
+        }
         List<Runnable> tasks = this.taskService.shutdownNow();
         timerTasks.addAll(tasks);
         return timerTasks;
@@ -114,7 +341,7 @@ final class RamAsyncExecutor extends AbstractExecutorService implements Schedule
 
     @Override
     public boolean isShutdown() {
-        return this.timerExecutionService.isShutdown() && this.taskService.isShutdown();
+        return this.timerExecutionService.isShutdown() && (this.overflow != null ? this.overflow.isShutdown() : this.taskService.isShutdown());
     }
 
     @Override
@@ -129,16 +356,89 @@ final class RamAsyncExecutor extends AbstractExecutorService implements Schedule
             return false;
         }
 
+        if (this.overflow != null && !this.overflow.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+            return false;
+        }
+
         long remaining = deadline - System.nanoTime();
         return remaining > 0 && this.taskService.awaitTermination(remaining, TimeUnit.NANOSECONDS);
     }
 
+    private static final class TaskStats {
+        private final LongAdder runs = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder queueNanos = new LongAdder();
+        private final LongAdder runNanos = new LongAdder();
+        private final AtomicLong maxQueueNanos = new AtomicLong();
+        private final AtomicLong maxRunNanos = new AtomicLong();
+
+        private void record(long queueNanos, long runNanos) {
+            this.runs.increment();
+            this.queueNanos.add(queueNanos);
+            this.runNanos.add(runNanos);
+            this.maxQueueNanos.accumulateAndGet(queueNanos, Math::max);
+            this.maxRunNanos.accumulateAndGet(runNanos, Math::max);
+        }
+
+        private AsyncExecutorStats.Task snapshot(String name) {
+            return new AsyncExecutorStats.Task(
+                    name,
+                    this.runs.sum(),
+                    this.rejected.sum(),
+                    this.queueNanos.sum(),
+                    this.maxQueueNanos.get(),
+                    this.runNanos.sum(),
+                    this.maxRunNanos.get()
+            );
+        }
+    }
+
+    private final class InstrumentedTask implements Runnable {
+        private final TaskStats stats;
+        private final Runnable delegate;
+        private final long submittedAt = System.nanoTime();
+
+        private InstrumentedTask(TaskStats stats, Runnable delegate) {
+            this.stats = stats;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            RamAsyncExecutor.this.running.incrementAndGet();
+            try {
+                this.delegate.run();
+            } finally {
+                RamAsyncExecutor.this.running.decrementAndGet();
+                RamAsyncExecutor.this.completed.increment();
+                this.stats.record(start - this.submittedAt, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static final class SubmittedTask<V> extends FutureTask<V> implements Delegate<Object> {
+        private final Object task;
+
+        private SubmittedTask(Object task, Callable<V> callable) {
+            super(callable);
+            this.task = task;
+        }
+
+        @Override
+        public Object getDelegate() {
+            return this.task;
+        }
+    }
+
     private final class FixedRateWorker implements Runnable {
+        private final String name;
         private final Runnable delegate;
         private final ReentrantLock lock = new ReentrantLock();
         private final AtomicInteger running = new AtomicInteger(0);
 
-        private FixedRateWorker(Runnable delegate) {
+        private FixedRateWorker(String name, Runnable delegate) {
+            this.name = name;
             this.delegate = delegate;
         }
 
@@ -157,15 +457,20 @@ final class RamAsyncExecutor extends AbstractExecutorService implements Schedule
                 return;
             }
 
-            RamAsyncExecutor.this.taskService.execute(() -> {
-                this.lock.lock();
-                try {
-                    this.delegate.run();
-                } finally {
-                    this.lock.unlock();
-                    this.running.decrementAndGet();
-                }
-            });
+            try {
+                RamAsyncExecutor.this.dispatch(this.name, () -> {
+                    this.lock.lock();
+                    try {
+                        this.delegate.run();
+                    } finally {
+                        this.lock.unlock();
+                        this.running.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // counted as dropped; the next period tries again
+                this.running.decrementAndGet();
+            }
         }
     }
 }
@@ -36,7 +36,7 @@ import java.util.concurrent.ScheduledExecutorService;
 public final class RamExecutors {
     private static final Executor SYNC_BUKKIT = new BukkitSyncExecutor();
     private static final Executor ASYNC_BUKKIT = new BukkitAsyncExecutor();
-    private static final RamAsyncExecutor ASYNC_HELPER = new RamAsyncExecutor();
+    private static final RamAsyncExecutor ASYNC_HELPER = new RamAsyncExecutor(AsyncExecutorSettings.fromSystemProperties());
 
     public static Executor sync() {
         return SYNC_BUKKIT;
@@ -46,6 +46,21 @@ public final class RamExecutors {
         return ASYNC_HELPER;
     }
 
+    /**
+     * Returns queue, timing, and thread counts for the {@link #asyncHelper()} executor.
+     */
+    public static AsyncExecutorStats asyncStats() {
+        return ASYNC_HELPER.stats();
+    }
+
+    /**
+     * Names a task so the async executor statistics group its timings under {@code name}
+     * rather than its declaring class.
+     */
+    public static Runnable named(String name, Runnable task) {
+        return TaskNames.named(name, task);
+    }
+
     public static Executor asyncBukkit() {
         return ASYNC_BUKKIT;
     }
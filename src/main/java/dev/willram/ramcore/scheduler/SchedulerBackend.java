@@ -6,6 +6,7 @@ import org.bukkit.World;
 import org.bukkit.entity.Entity;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.util.concurrent.TimeUnit;
 
 interface SchedulerBackend {
@@ -48,6 +49,11 @@ interface SchedulerBackend {
 
     void cancelTasks(@NotNull RamPlugin plugin);
 
+    @Nullable
+    default TickBudgetStats tickBudgetStats() {
+        return null;
+    }
+
     interface TaskHandle {
         boolean cancel();
 
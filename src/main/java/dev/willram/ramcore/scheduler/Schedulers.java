@@ -43,6 +43,7 @@ import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitScheduler;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import java.util.Objects;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
@@ -730,6 +731,15 @@ public final class Schedulers {
         return BACKEND.isSyncThread();
     }
 
+    /**
+     * Returns the tick budget stats when global repeating tasks run under
+     * {@code -Dramcore.scheduler.tickBudgetMillis}, or null otherwise.
+     */
+    @Nullable
+    public static TickBudgetStats tickBudgetStats() {
+        return BACKEND.tickBudgetStats();
+    }
+
     public static void shutdown(@NotNull RamPlugin plugin) {
         BACKEND.cancelTasks(plugin);
     }
@@ -0,0 +1,48 @@
+package dev.willram.ramcore.scheduler;
+
+import dev.willram.ramcore.interfaces.Delegate;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * Derives the name async executor statistics are grouped under.
+ */
+final class TaskNames {
+
+    @NotNull
+    static Runnable named(@NotNull String name, @NotNull Runnable task) {
+        Objects.requireNonNull(name, "name");
+        Objects.requireNonNull(task, "task");
+        if (name.isBlank()) {
+            throw new IllegalArgumentException("task name must not be blank");
+        }
+        return new NamedTask(name, task);
+    }
+
+    /**
+     * Returns the explicit name of a {@link #named(String, Runnable)} task, or the declaring class
+     * of anything else, with lambda suffixes stripped. {@link Delegate} wrappers such as promise
+     * runnables and submitted futures are unwrapped first, so they count under the task they run.
+     */
+    @NotNull
+    static String of(@NotNull Object task) {
+        Object resolved = task instanceof NamedTask ? task : Delegate.resolve(task);
+        if (resolved instanceof NamedTask named) {
+            return named.name();
+        }
+        String name = resolved.getClass().getName();
+        int lambda = name.indexOf("$$Lambda");
+        return lambda >= 0 ? name.substring(0, lambda) : name;
+    }
+
+    private record NamedTask(String name, Runnable delegate) implements Runnable {
+        @Override
+        public void run() {
+            this.delegate.run();
+        }
+    }
+
+    private TaskNames() {
+    }
+}
@@ -0,0 +1,224 @@
+package dev.willram.ramcore.scheduler;
+
+import dev.willram.ramcore.exception.RamExceptions;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs repeating global tasks from one driver tick with a per-tick time budget.
+ *
+ * <p>Tasks live in a hashed timing wheel of ticks. Each {@link #tick()} moves the due tasks onto a
+ * ready queue and runs them until the budget is spent; the rest stay queued and run first on the
+ * next tick. New periodic tasks start on the least crowded tick within their first interval, so
+ * tasks registered together do not all fire on the same tick.</p>
+ *
+ * <p>{@link #schedule(Runnable, long, long)} and {@link #stats()} may be called from any thread;
+ * {@link #tick()} must only be called by the driver.</p>
+ */
+final class TickBudgetScheduler {
+    static final String BUDGET_PROPERTY = "ramcore.scheduler.tickBudgetMillis";
+    static final int WHEEL_SIZE = 256;
+    private static final int MASK = WHEEL_SIZE - 1;
+
+    private final long budgetNanos;
+    private final LongSupplier clock;
+    private final Queue<Entry> pending = new ConcurrentLinkedQueue<>();
+
+    // driver-thread state
+    @SuppressWarnings("unchecked")
+    private final ArrayDeque<Entry>[] wheel = new ArrayDeque[WHEEL_SIZE];
+    private final ArrayDeque<Entry> ready = new ArrayDeque<>();
+    private long currentTick;
+    private int scheduled;
+
+    // published stats
+    private volatile int tasks;
+    private volatile int deferred;
+    private volatile long ticks;
+    private volatile long overBudgetTicks;
+    private volatile long deferredRuns;
+    private volatile long lastTickNanos;
+    private volatile long maxTickNanos;
+
+    TickBudgetScheduler(long budgetNanos, @NotNull LongSupplier clock) {
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("tick budget must be positive");
+        }
+        this.budgetNanos = budgetNanos;
+        this.clock = Objects.requireNonNull(clock, "clock");
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            this.wheel[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * Creates a scheduler from {@value #BUDGET_PROPERTY}, or returns null when it is unset.
+     */
+    @Nullable
+    static TickBudgetScheduler fromSystemProperties() {
+        String budget = System.getProperty(BUDGET_PROPERTY);
+        if (budget == null || budget.isBlank()) {
+            return null;
+        }
+        double millis = Double.parseDouble(budget.trim());
+        return millis > 0 ? new TickBudgetScheduler((long) (millis * 1_000_000L), System::nanoTime) : null;
+    }
+
+    @NotNull
+    SchedulerBackend.TaskHandle schedule(@NotNull Runnable runnable, long delayTicks, long intervalTicks) {
+        Entry entry = new Entry(Objects.requireNonNull(runnable, "runnable"), Math.max(1L, delayTicks), Math.max(1L, intervalTicks));
+        this.pending.add(entry);
+        return entry;
+    }
+
+    /**
+     * Advances one tick and runs due work within the budget.
+     */
+    void tick() {
+        this.currentTick++;
+        Entry added;
+        while ((added = this.pending.poll()) != null) {
+            if (!added.cancelled.get()) {
+                insert(added, stagger(this.currentTick + added.delay - 1, added.interval));
+            }
+        }
+
+        ArrayDeque<Entry> bucket = this.wheel[(int) (this.currentTick & MASK)];
+        for (Iterator<Entry> iterator = bucket.iterator(); iterator.hasNext(); ) {
+            Entry entry = iterator.next();
+            if (entry.cancelled.get()) {
+                iterator.remove();
+                this.scheduled--;
+            } else if (entry.dueTick <= this.currentTick) {
+                iterator.remove();
+                this.scheduled--;
+                this.ready.add(entry);
+            }
+        }
+
+        long start = this.clock.getAsLong();
+        long spent = 0L;
+        int ran = 0;
+        long late = 0L;
+        Entry entry;
+        while ((ran == 0 || spent < this.budgetNanos) && (entry = this.ready.poll()) != null) {
+            if (entry.cancelled.get()) {
+                continue;
+            }
+            if (entry.dueTick < this.currentTick) {
+                late++;
+            }
+            try {
+                entry.runnable.run();
+            } catch (Throwable t) {
+                RamExceptions.reportScheduler(t);
+            }
+            ran++;
+            spent = this.clock.getAsLong() - start;
+            if (!entry.cancelled.get()) {
+                insert(entry, Math.max(entry.dueTick + entry.interval, this.currentTick + 1));
+            }
+        }
+
+        this.ticks++;
+        this.lastTickNanos = spent;
+        if (spent > this.maxTickNanos) {
+            this.maxTickNanos = spent;
+        }
+        if (spent > this.budgetNanos) {
+            this.overBudgetTicks++;
+        }
+        this.deferredRuns += late;
+        this.deferred = this.ready.size();
+        this.tasks = this.scheduled + this.ready.size();
+    }
+
+    /**
+     * Cancels every task, used when the owning plugin shuts its schedulers down.
+     */
+    void clear() {
+        Entry entry;
+        while ((entry = this.pending.poll()) != null) {
+            entry.cancel();
+        }
+        for (ArrayDeque<Entry> bucket : this.wheel) {
+            bucket.forEach(Entry::cancel);
+        }
+        this.ready.forEach(Entry::cancel);
+    }
+
+    @NotNull
+    TickBudgetStats stats() {
+        return new TickBudgetStats(
+                this.budgetNanos,
+                this.tasks,
+                this.deferred,
+                this.ticks,
+                this.overBudgetTicks,
+                this.deferredRuns,
+                this.lastTickNanos,
+                this.maxTickNanos
+        );
+    }
+
+    // picks the least crowded tick in the first interval so repeaters registered together spread out
+    private long stagger(long firstTick, long interval) {
+        long best = firstTick;
+        int bestLoad = Integer.MAX_VALUE;
+        long span = Math.min(interval, WHEEL_SIZE);
+        for (long tick = firstTick; tick < firstTick + span; tick++) {
+            int load = this.wheel[(int) (tick & MASK)].size();
+            if (load < bestLoad) {
+                best = tick;
+                bestLoad = load;
+                if (load == 0) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private void insert(Entry entry, long dueTick) {
+        entry.dueTick = dueTick;
+        this.wheel[(int) (dueTick & MASK)].add(entry);
+        this.scheduled++;
+    }
+
+    private static final class Entry implements SchedulerBackend.TaskHandle {
+        private final Runnable runnable;
+        private final long delay;
+        private final long interval;
+        private final AtomicBoolean cancelled = new AtomicBoolean();
+        private long dueTick;
+
+        private Entry(Runnable runnable, long delay, long interval) {
+            this.runnable = runnable;
+            this.delay = delay;
+            this.interval = interval;
+        }
+
+        @Override
+        public boolean cancel() {
+            return this.cancelled.compareAndSet(false, true);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return this.cancelled.get();
+        }
+
+        @Override
+        public int getBukkitId() {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package dev.willram.ramcore.scheduler;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Snapshot of the tick-budgeted global repeating task scheduler.
+ *
+ * <p>{@code deferred} is the number of tasks carried over to the next tick, and
+ * {@code deferredRuns} counts runs that happened later than their planned tick.</p>
+ */
+public record TickBudgetStats(
+        long budgetNanos,
+        int tasks,
+        int deferred,
+        long ticks,
+        long overBudgetTicks,
+        long deferredRuns,
+        long lastTickNanos,
+        long maxTickNanos
+) {
+
+    @NotNull
+    public List<String> lines() {
+        return List.of(
+                "tickBudget.budgetMillis=" + this.budgetNanos / 1_000_000.0D,
+                "tickBudget.tasks=" + this.tasks,
+                "tickBudget.deferred=" + this.deferred,
+                "tickBudget.ticks=" + this.ticks,
+                "tickBudget.overBudgetTicks=" + this.overBudgetTicks,
+                "tickBudget.deferredRuns=" + this.deferredRuns,
+                "tickBudget.lastTickMillis=" + this.lastTickNanos / 1_000_000.0D,
+                "tickBudget.maxTickMillis=" + this.maxTickNanos / 1_000_000.0D
+        );
+    }
+}
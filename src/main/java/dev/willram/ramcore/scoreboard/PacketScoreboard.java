@@ -41,6 +41,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -60,6 +61,9 @@ public class PacketScoreboard implements Scoreboard {
     private final Map<UUID, Map<String, PacketScoreboardTeam>> playerTeams = Collections.synchronizedMap(new HashMap<>());
     private final Map<UUID, Map<String, PacketScoreboardObjective>> playerObjectives = Collections.synchronizedMap(new HashMap<>());
 
+    // sidebars, which track their own viewers
+    private final Map<String, PacketSidebar> sidebars = Collections.synchronizedMap(new HashMap<>());
+
     public PacketScoreboard(@NotNull RamPlugin plugin) {
         Events.subscribe(PlayerJoinEvent.class).handler(this::handlePlayerJoin).bindWith(plugin);
         Events.subscribe(PlayerQuitEvent.class).handler(this::handlePlayerQuit).bindWith(plugin);
@@ -91,6 +95,7 @@ public class PacketScoreboard implements Scoreboard {
             t.removePlayer(player);
         });
         this.objectives.values().forEach(o -> o.unsubscribe(player, true));
+        this.sidebars.values().forEach(s -> s.hide(player, true));
 
         Map<String, PacketScoreboardObjective> playerObjectives = this.playerObjectives.remove(player.getUniqueId());
         if (playerObjectives != null) {
@@ -256,6 +261,43 @@ public class PacketScoreboard implements Scoreboard {
         return true;
     }
 
+    /**
+     * Creates a new sidebar, which is shown to players with {@link PacketSidebar#update(Player, List)}
+     *
+     * @param id the id of the sidebar
+     * @param title the default title
+     * @return the new sidebar
+     * @throws IllegalStateException if a sidebar with the same id already exists
+     */
+    public PacketSidebar createSidebar(String id, String title) {
+        Preconditions.checkState(!this.sidebars.containsKey(id), "id already exists");
+
+        PacketSidebar sidebar = new PacketSidebar(id, title);
+        this.sidebars.put(id, sidebar);
+        return sidebar;
+    }
+
+    @Nullable
+    public PacketSidebar getSidebar(String id) {
+        return this.sidebars.get(id);
+    }
+
+    public boolean removeSidebar(String id) {
+        PacketSidebar sidebar = this.sidebars.remove(id);
+        if (sidebar == null) {
+            return false;
+        }
+
+        for (UUID viewer : sidebar.getViewers()) {
+            Player player = Bukkit.getPlayer(viewer);
+            if (player != null) {
+                sidebar.hide(player);
+            }
+        }
+        sidebar.clearViewers();
+        return true;
+    }
+
     static WrappedChatComponent toComponent(String text) {
         return AdventureComponentConverter.fromComponent(MiniMessage.miniMessage().deserialize(text));
     }
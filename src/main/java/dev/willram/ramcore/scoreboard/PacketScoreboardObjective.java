@@ -199,25 +199,43 @@ public class PacketScoreboardObjective implements ScoreboardObjective {
     public void clearScores() {
         this.scores.clear();
 
-        Protocol.broadcastPacketScheduled(this.subscribed, newObjectivePacket(UpdateType.REMOVE));
-        for (Player player : this.subscribed) {
-            subscribe(player);
-        }
+        // recreate the objective in one batch so viewers never see it half torn down
+        Protocol.broadcastPacketsScheduled(this.subscribed, List.of(
+                newObjectivePacket(UpdateType.REMOVE),
+                newObjectivePacket(UpdateType.CREATE),
+                newDisplaySlotPacket(getDisplaySlot())
+        ));
     }
 
     @Override
     public void applyScores(Map<String, Integer> scores) {
         Objects.requireNonNull(scores, "scores");
 
-        Set<String> toRemove = new HashSet<>(getScores().keySet());
+        Map<String, Integer> trimmed = new HashMap<>();
         for (Map.Entry<String, Integer> score : scores.entrySet()) {
-            toRemove.remove(trimScore(score.getKey()));
+            trimmed.put(trimScore(score.getKey()), score.getValue());
         }
-        for (String name : toRemove) {
-            removeScore(name);
+
+        // collect every change first, so each subscriber gets one batch instead of a packet per score
+        List<PacketContainer> packets = new ArrayList<>();
+        synchronized (this.scores) {
+            for (Iterator<String> it = this.scores.keySet().iterator(); it.hasNext(); ) {
+                String name = it.next();
+                if (!trimmed.containsKey(name)) {
+                    it.remove();
+                    packets.add(newScorePacket(name, 0, ScoreboardAction.REMOVE));
+                }
+            }
+            for (Map.Entry<String, Integer> score : trimmed.entrySet()) {
+                Integer oldValue = this.scores.put(score.getKey(), score.getValue());
+                if (oldValue == null || !oldValue.equals(score.getValue())) {
+                    packets.add(newScorePacket(score.getKey(), score.getValue(), ScoreboardAction.CHANGE));
+                }
+            }
         }
-        for (Map.Entry<String, Integer> score : scores.entrySet()) {
-            setScore(score.getKey(), score.getValue());
+
+        if (!packets.isEmpty()) {
+            Protocol.broadcastPacketsScheduled(this.subscribed, packets);
         }
     }
 
@@ -240,11 +258,13 @@ public class PacketScoreboardObjective implements ScoreboardObjective {
     @Override
     public void subscribe(Player player) {
         Objects.requireNonNull(player, "player");
-        Protocol.sendPacketScheduled(player, newObjectivePacket(UpdateType.CREATE));
-        Protocol.sendPacketScheduled(player, newDisplaySlotPacket(getDisplaySlot()));
+        List<PacketContainer> packets = new ArrayList<>();
+        packets.add(newObjectivePacket(UpdateType.CREATE));
+        packets.add(newDisplaySlotPacket(getDisplaySlot()));
         for (Map.Entry<String, Integer> score : getScores().entrySet()) {
-            Protocol.sendPacketScheduled(player, newScorePacket(score.getKey(), score.getValue(), ScoreboardAction.CHANGE));
+            packets.add(newScorePacket(score.getKey(), score.getValue(), ScoreboardAction.CHANGE));
         }
+        Protocol.sendPacketsScheduled(player, packets);
         this.subscribed.add(player);
     }
 
@@ -270,6 +290,23 @@ public class PacketScoreboardObjective implements ScoreboardObjective {
     }
 
     private PacketContainer newObjectivePacket(UpdateType mode) {
+        return newObjectivePacket(mode, getDisplayName());
+    }
+
+    // sidebars reuse one objective as the template for every viewer, each with its own title
+    PacketContainer newCreatePacket(String displayName) {
+        return newObjectivePacket(UpdateType.CREATE, trimName(displayName));
+    }
+
+    PacketContainer newUpdatePacket(String displayName) {
+        return newObjectivePacket(UpdateType.UPDATE, trimName(displayName));
+    }
+
+    PacketContainer newRemovePacket() {
+        return newObjectivePacket(UpdateType.REMOVE);
+    }
+
+    private PacketContainer newObjectivePacket(UpdateType mode, String displayName) {
         // http://wiki.vg/Protocol#Scoreboard_Objective
         PacketContainer packet = new PacketContainer(PacketType.Play.Server.SCOREBOARD_OBJECTIVE);
 
@@ -281,10 +318,10 @@ public class PacketScoreboardObjective implements ScoreboardObjective {
 
         if (USING_CHAT_COMPONENTS) {
             // set display name - Component
-            packet.getChatComponents().write(0, PacketScoreboard.toComponent(getDisplayName()));
+            packet.getChatComponents().write(0, PacketScoreboard.toComponent(displayName));
         } else {
             // set display name - limited to String(16) - Only if mode is 0 or 2. The text to be displayed for the score
-            packet.getStrings().write(1, getDisplayName());
+            packet.getStrings().write(1, displayName);
         }
 
         // set type - either "integer" or "hearts"
@@ -293,7 +330,7 @@ public class PacketScoreboardObjective implements ScoreboardObjective {
         return packet;
     }
 
-    private PacketContainer newScorePacket(String name, int value, ScoreboardAction action) {
+    PacketContainer newScorePacket(String name, int value, ScoreboardAction action) {
         // http://wiki.vg/Protocol#Update_Score
         PacketContainer packet = new PacketContainer(PacketType.Play.Server.SCOREBOARD_SCORE);
 
@@ -312,7 +349,7 @@ public class PacketScoreboardObjective implements ScoreboardObjective {
         return packet;
     }
 
-    private PacketContainer newDisplaySlotPacket(DisplaySlot displaySlot) {
+    PacketContainer newDisplaySlotPacket(DisplaySlot displaySlot) {
         // http://wiki.vg/Protocol#Display_Scoreboard
         PacketContainer packet = new PacketContainer(PacketType.Play.Server.SCOREBOARD_DISPLAY_OBJECTIVE);
 
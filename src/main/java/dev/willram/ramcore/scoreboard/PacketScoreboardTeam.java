@@ -331,14 +331,19 @@ public class PacketScoreboardTeam implements ScoreboardTeam {
     }
 
     private PacketContainer newCreatePacket() {
+        return newCreatePacket(getPrefix(), getSuffix(), getPlayers());
+    }
+
+    // sidebars reuse one team as the template for a line shown to many viewers, each with its own text
+    PacketContainer newCreatePacket(String prefix, String suffix, Collection<String> members) {
         // create an update packet (as that contains a number of values required by the create packet)
-        PacketContainer packet = newUpdatePacket();
+        PacketContainer packet = newUpdatePacket(prefix, suffix);
 
         // set mode - byte
         packet.getIntegers().write(GTEQ_1_13 ? 0 : 1, UpdateType.CREATE.getCode());
 
         // add player info - array of String(40)
-        List<String> players = new ArrayList<>(getPlayers());
+        List<String> players = new ArrayList<>(members);
 
         // set players - ProtocolLib handles setting 'Entity Count'
         packet.getSpecificModifier(Collection.class).write(0, players);
@@ -346,7 +351,7 @@ public class PacketScoreboardTeam implements ScoreboardTeam {
         return packet;
     }
 
-    private PacketContainer newRemovePacket() {
+    PacketContainer newRemovePacket() {
         // http://wiki.vg/Protocol#Teams
         PacketContainer packet = new PacketContainer(PacketType.Play.Server.SCOREBOARD_TEAM);
 
@@ -362,6 +367,10 @@ public class PacketScoreboardTeam implements ScoreboardTeam {
     }
 
     private PacketContainer newUpdatePacket() {
+        return newUpdatePacket(getPrefix(), getSuffix());
+    }
+
+    PacketContainer newUpdatePacket(String prefix, String suffix) {
         // http://wiki.vg/Protocol#Teams
         PacketContainer packet = new PacketContainer(PacketType.Play.Server.SCOREBOARD_TEAM);
 
@@ -383,19 +392,19 @@ public class PacketScoreboardTeam implements ScoreboardTeam {
             struct.getChatComponents().write(0, PacketScoreboard.toComponent(getDisplayName()));
 
             // set prefix - Component
-            struct.getChatComponents().write(1, PacketScoreboard.toComponent(getPrefix()));
+            struct.getChatComponents().write(1, PacketScoreboard.toComponent(prefix));
 
             // set suffix - Component
-            struct.getChatComponents().write(2, PacketScoreboard.toComponent(getSuffix()));
+            struct.getChatComponents().write(2, PacketScoreboard.toComponent(suffix));
         } else {
             // set display name - String(32)
             struct.getStrings().write(1, getDisplayName());
 
             // set prefix - String(16)
-            struct.getStrings().write(2, getPrefix());
+            struct.getStrings().write(2, trimPrefixSuffix(prefix));
 
             // set suffix - String(16)
-            struct.getStrings().write(3, getSuffix());
+            struct.getStrings().write(3, trimPrefixSuffix(suffix));
         }
 
         // friendly flags - byte - Bit mask. 0x01: Allow friendly fire, 0x02: can see invisible entities on same team
@@ -0,0 +1,308 @@
+package dev.willram.ramcore.scoreboard;
+
+import com.comphenix.protocol.events.PacketContainer;
+import com.comphenix.protocol.wrappers.EnumWrappers.ScoreboardAction;
+import com.google.common.base.Preconditions;
+import dev.willram.ramcore.protocol.Protocol;
+import org.bukkit.ChatColor;
+import org.bukkit.entity.Player;
+import org.bukkit.scoreboard.DisplaySlot;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A packet sidebar that keeps its own lines per viewer and only sends what changed.
+ *
+ * <p>Each line is a fixed, invisible score entry on its own team, and the line's text is the
+ * team's prefix. Changing a line's text is a single team update, with no score removed and
+ * re-added, so the sidebar does not flicker. Every viewer sees the same teams and entries; only
+ * the prefixes differ. Updates go through the per-player packet queue, so everything changed for
+ * a viewer during a tick arrives in one flush.</p>
+ *
+ * <p>Lines use MiniMessage, like other packet scoreboard text. Methods may be called from any
+ * thread.</p>
+ */
+public final class PacketSidebar {
+    public static final int MAX_LINES = 15;
+    // team ids are "<id>_<line>", and team ids are limited to 16 chars
+    public static final int MAX_ID_LENGTH = 13;
+
+    // a color code followed by a reset renders as nothing, and cannot collide with a player name
+    private static final String[] ENTRIES = new String[MAX_LINES];
+
+    static {
+        ChatColor[] colors = ChatColor.values();
+        for (int i = 0; i < MAX_LINES; i++) {
+            ENTRIES[i] = colors[i].toString() + ChatColor.RESET;
+        }
+    }
+
+    private final String id;
+    private final String title;
+    private final PacketScoreboardObjective objective;
+    private final PacketScoreboardTeam[] lines = new PacketScoreboardTeam[MAX_LINES];
+    private final Map<UUID, View> views = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new sidebar
+     *
+     * @param id the id of the sidebar's objective, at most {@value #MAX_ID_LENGTH} characters
+     * @param title the title shown to new viewers
+     */
+    public PacketSidebar(@NotNull String id, @NotNull String title) {
+        Objects.requireNonNull(id, "id");
+        Preconditions.checkArgument(id.length() <= MAX_ID_LENGTH, "id cannot be longer than " + MAX_ID_LENGTH + " characters");
+
+        this.id = id;
+        this.title = Objects.requireNonNull(title, "title");
+        this.objective = new PacketScoreboardObjective(id, title, DisplaySlot.SIDEBAR, false);
+        for (int i = 0; i < MAX_LINES; i++) {
+            this.lines[i] = new PacketScoreboardTeam(id + "_" + i, "", false);
+        }
+    }
+
+    @NotNull
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the title shown to viewers that have not been given their own.
+     *
+     * @return the default title
+     */
+    @NotNull
+    public String getTitle() {
+        return this.title;
+    }
+
+    /**
+     * Shows the sidebar to a player, with the default title and no lines.
+     *
+     * @param player the player
+     */
+    public void show(@NotNull Player player) {
+        Objects.requireNonNull(player, "player");
+        View view = this.views.computeIfAbsent(player.getUniqueId(), uuid -> new View());
+        synchronized (view) {
+            if (view.shown) {
+                return;
+            }
+            view.shown = true;
+            view.title = this.title;
+            Protocol.sendPacketsScheduled(player, List.of(
+                    this.objective.newCreatePacket(this.title),
+                    this.objective.newDisplaySlotPacket(DisplaySlot.SIDEBAR)
+            ));
+        }
+    }
+
+    /**
+     * Sets the lines a player sees, showing the sidebar first if needed.
+     *
+     * @param player the player
+     * @param lines the lines, top first
+     */
+    public void update(@NotNull Player player, @NotNull List<String> lines) {
+        update(player, null, lines);
+    }
+
+    /**
+     * Sets the title and lines a player sees, showing the sidebar first if needed. Only lines
+     * whose text differs from what the player already sees are sent.
+     *
+     * @param player the player
+     * @param title the title, or null to keep the current one
+     * @param lines the lines, top first
+     */
+    public void update(@NotNull Player player, @Nullable String title, @NotNull List<String> lines) {
+        Objects.requireNonNull(lines, "lines");
+        Preconditions.checkArgument(lines.size() <= MAX_LINES, "sidebar cannot have more than " + MAX_LINES + " lines");
+        update(player, title, lines, new HashMap<>());
+    }
+
+    /**
+     * Sets the lines every given player sees. Viewers that need the same change share one packet.
+     *
+     * @param players the players
+     * @param lines the lines, top first
+     */
+    public void update(@NotNull Iterable<? extends Player> players, @NotNull List<String> lines) {
+        Objects.requireNonNull(players, "players");
+        Objects.requireNonNull(lines, "lines");
+        Preconditions.checkArgument(lines.size() <= MAX_LINES, "sidebar cannot have more than " + MAX_LINES + " lines");
+        Map<LineChange, PacketContainer> shared = new HashMap<>();
+        for (Player player : players) {
+            update(player, null, lines, shared);
+        }
+    }
+
+    private void update(Player player, String title, List<String> lines, Map<LineChange, PacketContainer> shared) {
+        Objects.requireNonNull(player, "player");
+        show(player);
+        View view = this.views.get(player.getUniqueId());
+        if (view == null) {
+            return;
+        }
+
+        List<PacketContainer> packets = new ArrayList<>();
+        synchronized (view) {
+            if (!view.shown) {
+                return;
+            }
+            if (title != null && !title.equals(view.title)) {
+                view.title = title;
+                packets.add(this.objective.newUpdatePacket(title));
+            }
+            for (LineChange change : diff(view.lines, lines)) {
+                packets.add(shared.computeIfAbsent(change, this::packet));
+            }
+        }
+        if (!packets.isEmpty()) {
+            Protocol.sendPacketsScheduled(player, packets);
+        }
+    }
+
+    /**
+     * Gets the lines a player currently sees.
+     *
+     * @param player the player
+     * @return the lines, or an empty list if the sidebar is not shown to the player
+     */
+    @NotNull
+    public List<String> getLines(@NotNull Player player) {
+        View view = this.views.get(player.getUniqueId());
+        if (view == null) {
+            return List.of();
+        }
+        synchronized (view) {
+            return List.copyOf(view.lines);
+        }
+    }
+
+    public boolean isShown(@NotNull Player player) {
+        return this.views.containsKey(player.getUniqueId());
+    }
+
+    @NotNull
+    public Set<UUID> getViewers() {
+        return Set.copyOf(this.views.keySet());
+    }
+
+    /**
+     * Hides the sidebar from a player.
+     *
+     * @param player the player
+     */
+    public void hide(@NotNull Player player) {
+        hide(player, false);
+    }
+
+    /**
+     * Hides the sidebar from a player.
+     *
+     * @param player the player
+     * @param fast if true, forgets the player without sending any packets, for players leaving the server
+     */
+    public void hide(@NotNull Player player, boolean fast) {
+        Objects.requireNonNull(player, "player");
+        View view = this.views.remove(player.getUniqueId());
+        if (view == null) {
+            return;
+        }
+
+        List<PacketContainer> packets = new ArrayList<>();
+        synchronized (view) {
+            if (!view.shown) {
+                return;
+            }
+            view.shown = false;
+            packets.add(this.objective.newRemovePacket());
+            for (int i = 0; i < view.lines.size(); i++) {
+                packets.add(this.lines[i].newRemovePacket());
+            }
+            view.lines.clear();
+        }
+        if (!fast) {
+            Protocol.sendPacketsScheduled(player, packets);
+        }
+    }
+
+    /**
+     * Forgets every viewer without sending any packets. Used when players may already be offline;
+     * otherwise hide each viewer.
+     */
+    public void clearViewers() {
+        this.views.clear();
+    }
+
+    /**
+     * Returns the changes that turn the current lines into the given lines, and makes the current
+     * lines equal to them.
+     */
+    @NotNull
+    static List<LineChange> diff(@NotNull List<String> current, @NotNull List<String> lines) {
+        int oldSize = current.size();
+        int newSize = lines.size();
+        List<LineChange> changes = new ArrayList<>();
+
+        for (int i = 0; i < Math.max(oldSize, newSize); i++) {
+            if (i >= newSize) {
+                changes.add(new LineChange(LineChange.Kind.REMOVE_SCORE, i, null, 0));
+                changes.add(new LineChange(LineChange.Kind.REMOVE, i, null, 0));
+                continue;
+            }
+
+            String line = Objects.requireNonNull(lines.get(i), "line");
+            if (i >= oldSize) {
+                changes.add(new LineChange(LineChange.Kind.CREATE, i, line, 0));
+            } else if (!line.equals(current.get(i))) {
+                changes.add(new LineChange(LineChange.Kind.UPDATE, i, line, 0));
+            }
+
+            // scores count down to 1 at the bottom, so they only move when the line count changes
+            if (i >= oldSize || oldSize != newSize) {
+                changes.add(new LineChange(LineChange.Kind.SCORE, i, null, newSize - i));
+            }
+        }
+
+        current.clear();
+        current.addAll(lines);
+        return changes;
+    }
+
+    private PacketContainer packet(LineChange change) {
+        int i = change.line();
+        return switch (change.kind()) {
+            case CREATE -> this.lines[i].newCreatePacket(change.text(), "", List.of(ENTRIES[i]));
+            case UPDATE -> this.lines[i].newUpdatePacket(change.text(), "");
+            case REMOVE -> this.lines[i].newRemovePacket();
+            case SCORE -> this.objective.newScorePacket(ENTRIES[i], change.score(), ScoreboardAction.CHANGE);
+            case REMOVE_SCORE -> this.objective.newScorePacket(ENTRIES[i], 0, ScoreboardAction.REMOVE);
+        };
+    }
+
+    /**
+     * One packet's worth of change to a viewer's lines. Equal changes are sent as the same packet.
+     */
+    record LineChange(@NotNull Kind kind, int line, @Nullable String text, int score) {
+        enum Kind {
+            CREATE, UPDATE, REMOVE, SCORE, REMOVE_SCORE
+        }
+    }
+
+    private static final class View {
+        private final List<String> lines = new ArrayList<>(MAX_LINES);
+        private String title;
+        private boolean shown;
+    }
+}
@@ -0,0 +1,100 @@
+package dev.willram.ramcore.world;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-width unsigned values packed into longs without spanning long boundaries, the layout
+ * chunk sections use for block-state palettes.
+ */
+final class PackedIndices {
+    private final int size;
+    private final int bits;
+    private final int valuesPerLong;
+    private final long mask;
+    private final long[] data;
+
+    PackedIndices(int size, int bits) {
+        this(size, bits, new long[longs(size, bits)]);
+    }
+
+    PackedIndices(int size, int bits, long[] data) {
+        if (size < 0) {
+            throw new IllegalArgumentException("packed index count must not be negative");
+        }
+        if (bits < 1 || bits > 32) {
+            throw new IllegalArgumentException("packed index width must be between 1 and 32 bits");
+        }
+        if (data.length != longs(size, bits)) {
+            throw new IllegalArgumentException("packed index data has " + data.length + " longs, expected " + longs(size, bits));
+        }
+        this.size = size;
+        this.bits = bits;
+        this.valuesPerLong = 64 / bits;
+        this.mask = (1L << bits) - 1L;
+        this.data = data;
+    }
+
+    /**
+     * Returns the width needed to store values up to {@code maxValue}, at least one bit.
+     */
+    static int bitsFor(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+
+    static int longs(int size, int bits) {
+        int valuesPerLong = 64 / bits;
+        return (size + valuesPerLong - 1) / valuesPerLong;
+    }
+
+    int size() {
+        return this.size;
+    }
+
+    int bits() {
+        return this.bits;
+    }
+
+    int get(int index) {
+        int cell = index / this.valuesPerLong;
+        int shift = (index - cell * this.valuesPerLong) * this.bits;
+        return (int) ((this.data[cell] >>> shift) & this.mask);
+    }
+
+    void set(int index, int value) {
+        if ((value & ~this.mask) != 0L) {
+            throw new IllegalArgumentException("value " + value + " does not fit in " + this.bits + " bits");
+        }
+        int cell = index / this.valuesPerLong;
+        int shift = (index - cell * this.valuesPerLong) * this.bits;
+        this.data[cell] = (this.data[cell] & ~(this.mask << shift)) | ((long) value << shift);
+    }
+
+    /**
+     * Returns a copy stored with the given, at least as wide, width.
+     */
+    PackedIndices widen(int bits) {
+        if (bits == this.bits) {
+            return this;
+        }
+        PackedIndices widened = new PackedIndices(this.size, bits);
+        for (int i = 0; i < this.size; i++) {
+            widened.set(i, get(i));
+        }
+        return widened;
+    }
+
+    long[] raw() {
+        return this.data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PackedIndices other && this.size == other.size && this.bits == other.bits
+                && Arrays.equals(this.data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * this.size + this.bits) + Arrays.hashCode(this.data);
+    }
+}
@@ -0,0 +1,817 @@
+package dev.willram.ramcore.world;
+
+import dev.willram.ramcore.promise.Promise;
+import dev.willram.ramcore.serialize.BlockPosition;
+import dev.willram.ramcore.serialize.BlockRegion;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Palette-compressed structure snapshot.
+ *
+ * <p>Blocks are stored like chunk sections: a palette of distinct block states and one bit-packed
+ * palette index per position in the snapshot's bounding box, with block entities in a sparse side
+ * map. A box full of a handful of block types costs a few bits per block instead of one object and
+ * two strings. Positions inside the box that the snapshot does not cover are stored as absent.</p>
+ *
+ * <p>Snapshots are immutable. The binary form written by {@link #write(OutputStream, boolean)} loads
+ * straight back into this representation without expanding to per-block objects.</p>
+ */
+public final class PackedStructureSnapshot {
+    private static final int MAGIC = 0x52435353;
+    private static final byte FORMAT_VERSION = 1;
+    private static final byte FLAG_DEFLATE = 1;
+    private static final int ABSENT = 0;
+
+    private final BlockPosition origin;
+    private final BlockOffset min;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final List<String> materials;
+    private final List<String> blockData;
+    private final PackedIndices indices;
+    private final Map<Integer, BlockEntitySnapshot> blockEntities;
+    private final int blockCount;
+
+    private PackedStructureSnapshot(BlockPosition origin, BlockOffset min, int sizeX, int sizeY, int sizeZ,
+                                    List<String> materials, List<String> blockData, PackedIndices indices,
+                                    Map<Integer, BlockEntitySnapshot> blockEntities) {
+        this.origin = origin;
+        this.min = min;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.materials = List.copyOf(materials);
+        this.blockData = List.copyOf(blockData);
+        this.indices = indices;
+        this.blockEntities = Collections.unmodifiableMap(new HashMap<>(blockEntities));
+        int count = 0;
+        for (int i = 0; i < indices.size(); i++) {
+            int stored = indices.get(i);
+            if (stored > this.materials.size()) {
+                throw new IllegalArgumentException("packed structure index " + stored + " is outside its palette");
+            }
+            if (stored != ABSENT) {
+                count++;
+            }
+        }
+        this.blockCount = count;
+    }
+
+    /**
+     * Creates a builder for a snapshot whose box starts at {@code min}, relative to {@code origin}.
+     */
+    @NotNull
+    public static Builder builder(@NotNull BlockPosition origin, @NotNull BlockOffset min, int sizeX, int sizeY, int sizeZ) {
+        return new Builder(origin, min, sizeX, sizeY, sizeZ);
+    }
+
+    /**
+     * Captures a region without blocking the region threads for the whole capture.
+     *
+     * <p>Each chunk in the region is copied as a {@link org.bukkit.ChunkSnapshot} on the region that
+     * owns it, together with the region's block entities. Block states are then read from the copies
+     * in parallel on the async pool. Full block states are only built for block entities.</p>
+     */
+    @NotNull
+    public static Promise<PackedStructureSnapshot> captureAsync(@NotNull BlockRegion region) {
+        return StructureCapture.capture(region);
+    }
+
+    /**
+     * Packs a snapshot. When several blocks share an offset the last one wins.
+     */
+    @NotNull
+    public static PackedStructureSnapshot pack(@NotNull StructureSnapshot snapshot) {
+        Objects.requireNonNull(snapshot, "snapshot");
+        List<StructureBlockSnapshot> blocks = snapshot.blocks();
+        if (blocks.isEmpty()) {
+            return builder(snapshot.origin(), new BlockOffset(0, 0, 0), 0, 0, 0).build();
+        }
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (StructureBlockSnapshot block : blocks) {
+            BlockOffset offset = block.offset();
+            minX = Math.min(minX, offset.x());
+            minY = Math.min(minY, offset.y());
+            minZ = Math.min(minZ, offset.z());
+            maxX = Math.max(maxX, offset.x());
+            maxY = Math.max(maxY, offset.y());
+            maxZ = Math.max(maxZ, offset.z());
+        }
+        Builder builder = builder(snapshot.origin(), new BlockOffset(minX, minY, minZ),
+                maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+        for (StructureBlockSnapshot block : blocks) {
+            BlockOffset offset = block.offset();
+            builder.block(offset.x(), offset.y(), offset.z(), block.material(), block.blockData());
+            block.blockEntity().ifPresent(entity -> builder.blockEntity(offset.x(), offset.y(), offset.z(), entity));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Expands this snapshot into one {@link StructureBlockSnapshot} per block, in y, z, x order.
+     */
+    @NotNull
+    public StructureSnapshot unpack() {
+        List<StructureBlockSnapshot> blocks = new ArrayList<>(this.blockCount);
+        forEachBlock((x, y, z, paletteIndex) -> {
+            StructureBlockSnapshot block = StructureBlockSnapshot.of(new BlockOffset(x, y, z),
+                    this.materials.get(paletteIndex), this.blockData.get(paletteIndex));
+            BlockEntitySnapshot blockEntity = this.blockEntities.get(index(x, y, z));
+            blocks.add(blockEntity == null ? block : block.withBlockEntity(blockEntity));
+        });
+        return new StructureSnapshot(this.origin, blocks);
+    }
+
+    @NotNull
+    public BlockPosition origin() {
+        return this.origin;
+    }
+
+    /**
+     * Returns the offset of the lowest corner of the snapshot's box.
+     */
+    @NotNull
+    public BlockOffset min() {
+        return this.min;
+    }
+
+    public int sizeX() {
+        return this.sizeX;
+    }
+
+    public int sizeY() {
+        return this.sizeY;
+    }
+
+    public int sizeZ() {
+        return this.sizeZ;
+    }
+
+    public int volume() {
+        return this.indices.size();
+    }
+
+    /**
+     * Returns how many positions in the box hold a block.
+     */
+    public int blockCount() {
+        return this.blockCount;
+    }
+
+    public int bitsPerBlock() {
+        return this.indices.bits();
+    }
+
+    public int paletteSize() {
+        return this.materials.size();
+    }
+
+    @NotNull
+    public String material(int paletteIndex) {
+        return this.materials.get(paletteIndex);
+    }
+
+    @NotNull
+    public String blockData(int paletteIndex) {
+        return this.blockData.get(paletteIndex);
+    }
+
+    /**
+     * Returns the palette index of the block at an offset, or -1 if the snapshot has no block there.
+     */
+    public int paletteIndex(int x, int y, int z) {
+        return paletteIndexAt(index(x, y, z));
+    }
+
+    /**
+     * Returns the block data at an offset, or null if the snapshot has no block there.
+     */
+    @Nullable
+    public String blockDataAt(@NotNull BlockOffset offset) {
+        int paletteIndex = paletteIndex(offset.x(), offset.y(), offset.z());
+        return paletteIndex < 0 ? null : this.blockData.get(paletteIndex);
+    }
+
+    @NotNull
+    public Optional<BlockEntitySnapshot> blockEntity(@NotNull BlockOffset offset) {
+        int index = index(offset.x(), offset.y(), offset.z());
+        return index < 0 ? Optional.empty() : Optional.ofNullable(this.blockEntities.get(index));
+    }
+
+    public int blockEntityCount() {
+        return this.blockEntities.size();
+    }
+
+    /**
+     * Visits every block in y, z, x order without creating per-block objects.
+     */
+    public void forEachBlock(@NotNull BlockVisitor visitor) {
+        Objects.requireNonNull(visitor, "visitor");
+        int index = 0;
+        for (int y = 0; y < this.sizeY; y++) {
+            for (int z = 0; z < this.sizeZ; z++) {
+                for (int x = 0; x < this.sizeX; x++, index++) {
+                    int stored = this.indices.get(index);
+                    if (stored != ABSENT) {
+                        visitor.visit(this.min.x() + x, this.min.y() + y, this.min.z() + z, stored - 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the smallest sparse snapshot that turns this snapshot into {@code target} when
+     * restored: every position where {@code target} has a block that this snapshot lacks or holds in
+     * a different state, or with different block entity content. Positions only this snapshot covers
+     * are left out, since {@code target} has nothing to restore there. Offsets are compared relative
+     * to each snapshot's own origin; the delta uses {@code target}'s origin.
+     */
+    @NotNull
+    public PackedStructureSnapshot diff(@NotNull PackedStructureSnapshot target) {
+        Objects.requireNonNull(target, "target");
+        Map<PaletteEntry, Integer> own = new HashMap<>();
+        for (int i = 0; i < this.materials.size(); i++) {
+            own.put(new PaletteEntry(this.materials.get(i), this.blockData.get(i)), i);
+        }
+        int[] remap = new int[target.paletteSize()];
+        for (int i = 0; i < remap.length; i++) {
+            remap[i] = own.getOrDefault(new PaletteEntry(target.material(i), target.blockData(i)), -2);
+        }
+        return target.select((x, y, z, index, paletteIndex) -> {
+            int ownIndex = index(x, y, z);
+            return remap[paletteIndex] != paletteIndexAt(ownIndex)
+                    || !sameContent(target.blockEntities.get(index), ownIndex < 0 ? null : this.blockEntities.get(ownIndex));
+        });
+    }
+
+    /**
+     * Returns a sparse snapshot holding only this snapshot's blocks at the box indices the filter accepts.
+     */
+    @NotNull
+    PackedStructureSnapshot select(@NotNull IndexFilter filter) {
+        int count = 0;
+        int[] selected = new int[16];
+        int index = 0;
+        for (int dy = 0; dy < this.sizeY; dy++) {
+            for (int dz = 0; dz < this.sizeZ; dz++) {
+                for (int dx = 0; dx < this.sizeX; dx++, index++) {
+                    int paletteIndex = this.indices.get(index) - 1;
+                    if (paletteIndex < 0 || !filter.test(this.min.x() + dx, this.min.y() + dy, this.min.z() + dz, index, paletteIndex)) {
+                        continue;
+                    }
+                    if (count == selected.length) {
+                        selected = Arrays.copyOf(selected, count * 2);
+                    }
+                    selected[count++] = index;
+                }
+            }
+        }
+        return select(selected, count);
+    }
+
+    /**
+     * Returns a sparse snapshot holding only this snapshot's blocks at the first {@code count} box
+     * indices, which must be ascending. Indices without a block are skipped.
+     */
+    @NotNull
+    PackedStructureSnapshot select(int[] selected, int count) {
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int boxIndex = selected[i];
+            if (this.indices.get(boxIndex) == ABSENT) {
+                continue;
+            }
+            selected[kept++] = boxIndex;
+            int x = this.min.x() + boxIndex % this.sizeX;
+            int z = this.min.z() + (boxIndex / this.sizeX) % this.sizeZ;
+            int y = this.min.y() + boxIndex / (this.sizeX * this.sizeZ);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        count = kept;
+        if (count == 0) {
+            return builder(this.origin, new BlockOffset(0, 0, 0), 0, 0, 0).build();
+        }
+        Builder builder = builder(this.origin, new BlockOffset(minX, minY, minZ), maxX - minX + 1, maxY - minY + 1, maxZ - minZ + 1);
+        int[] states = new int[this.materials.size()];
+        for (int i = 0; i < count; i++) {
+            int boxIndex = selected[i];
+            int paletteIndex = this.indices.get(boxIndex) - 1;
+            if (states[paletteIndex] == 0) {
+                states[paletteIndex] = builder.state(this.materials.get(paletteIndex), this.blockData.get(paletteIndex));
+            }
+            int x = this.min.x() + boxIndex % this.sizeX;
+            int z = this.min.z() + (boxIndex / this.sizeX) % this.sizeZ;
+            int y = this.min.y() + boxIndex / (this.sizeX * this.sizeZ);
+            builder.set(x, y, z, states[paletteIndex]);
+            BlockEntitySnapshot blockEntity = this.blockEntities.get(boxIndex);
+            if (blockEntity != null) {
+                builder.blockEntity(x, y, z, blockEntity);
+            }
+        }
+        return builder.build();
+    }
+
+    // captured positions differ between snapshots taken at different places, so they are ignored
+    private static boolean sameContent(@Nullable BlockEntitySnapshot a, @Nullable BlockEntitySnapshot b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.kind() == b.kind()
+                && a.blockData().equals(b.blockData())
+                && a.pdcKeys().equals(b.pdcKeys())
+                && a.properties().equals(b.properties())
+                && a.rawNbt().equals(b.rawNbt());
+    }
+
+    /**
+     * Throws if restoring at the target origin would write blocks in more than one chunk.
+     */
+    public void validateSingleTargetChunk(@NotNull BlockPosition targetOrigin) {
+        Objects.requireNonNull(targetOrigin, "targetOrigin");
+        List<StructureSlice> slices = StructureSlice.split(this, targetOrigin);
+        for (StructureSlice slice : slices) {
+            if (slice.chunkX() != slices.get(0).chunkX() || slice.chunkZ() != slices.get(0).chunkZ()) {
+                throw new IllegalArgumentException("Structure restore crosses chunk boundaries; split the snapshot or use StructureRestoreTask to schedule each affected region.");
+            }
+        }
+    }
+
+    /**
+     * Restores the snapshot on the calling thread, which must own every target chunk. Blocks that
+     * already match are not written.
+     */
+    @NotNull
+    public StructureApplyResult restore(@NotNull BlockPosition targetOrigin, @NotNull StructureApplyOptions options) {
+        Objects.requireNonNull(targetOrigin, "targetOrigin");
+        Objects.requireNonNull(options, "options");
+        if (options.requireSingleChunk()) {
+            validateSingleTargetChunk(targetOrigin);
+        }
+        StructureWriter writer = new StructureWriter(this, targetOrigin, options);
+        for (StructureSlice slice : StructureSlice.split(this, targetOrigin)) {
+            writer.write(slice);
+        }
+        return writer.result();
+    }
+
+    @NotNull
+    public byte[] toBytes(boolean compress) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + this.indices.raw().length * 8);
+        try {
+            write(bytes, compress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @NotNull
+    public static PackedStructureSnapshot fromBytes(@NotNull byte[] bytes) throws IOException {
+        return read(new ByteArrayInputStream(Objects.requireNonNull(bytes, "bytes")));
+    }
+
+    /**
+     * Writes the compressed binary form to a file.
+     */
+    public void save(@NotNull Path path) throws IOException {
+        try (OutputStream output = Files.newOutputStream(Objects.requireNonNull(path, "path"))) {
+            write(output, true);
+        }
+    }
+
+    @NotNull
+    public static PackedStructureSnapshot load(@NotNull Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(Objects.requireNonNull(path, "path"))) {
+            return read(input);
+        }
+    }
+
+    /**
+     * Writes the binary form: a magic number, a format version, flags, then the payload, deflated
+     * when {@code compress} is set. The stream is left open.
+     */
+    public void write(@NotNull OutputStream output, boolean compress) throws IOException {
+        Objects.requireNonNull(output, "output");
+        DataOutputStream header = new DataOutputStream(output);
+        header.writeInt(MAGIC);
+        header.writeByte(FORMAT_VERSION);
+        header.writeByte(compress ? FLAG_DEFLATE : 0);
+        header.flush();
+        if (!compress) {
+            writePayload(header);
+            header.flush();
+            return;
+        }
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(output, deflater, 8192);
+            DataOutputStream payload = new DataOutputStream(deflated);
+            writePayload(payload);
+            payload.flush();
+            deflated.finish();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(OutputStream, boolean)}.
+     */
+    @NotNull
+    public static PackedStructureSnapshot read(@NotNull InputStream input) throws IOException {
+        Objects.requireNonNull(input, "input");
+        DataInputStream header = new DataInputStream(input);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("not a packed structure snapshot");
+        }
+        byte version = header.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("unsupported packed structure format version " + version);
+        }
+        byte flags = header.readByte();
+        if ((flags & FLAG_DEFLATE) == 0) {
+            return readPayload(header);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            return readPayload(new DataInputStream(new InflaterInputStream(input, inflater, 8192)));
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private void writePayload(DataOutputStream out) throws IOException {
+        writeString(out, this.origin.getWorld());
+        out.writeInt(this.origin.getX());
+        out.writeInt(this.origin.getY());
+        out.writeInt(this.origin.getZ());
+        out.writeInt(this.min.x());
+        out.writeInt(this.min.y());
+        out.writeInt(this.min.z());
+        out.writeInt(this.sizeX);
+        out.writeInt(this.sizeY);
+        out.writeInt(this.sizeZ);
+        out.writeInt(this.materials.size());
+        for (int i = 0; i < this.materials.size(); i++) {
+            writeString(out, this.materials.get(i));
+            writeString(out, this.blockData.get(i));
+        }
+        out.writeByte(this.indices.bits());
+        long[] data = this.indices.raw();
+        out.writeInt(data.length);
+        for (long value : data) {
+            out.writeLong(value);
+        }
+        out.writeInt(this.blockEntities.size());
+        for (Map.Entry<Integer, BlockEntitySnapshot> entry : this.blockEntities.entrySet()) {
+            out.writeInt(entry.getKey());
+            writeBlockEntity(out, entry.getValue());
+        }
+    }
+
+    private static PackedStructureSnapshot readPayload(DataInputStream in) throws IOException {
+        String world = readString(in);
+        BlockPosition origin = BlockPosition.of(in.readInt(), in.readInt(), in.readInt(), world);
+        BlockOffset min = new BlockOffset(in.readInt(), in.readInt(), in.readInt());
+        int sizeX = in.readInt();
+        int sizeY = in.readInt();
+        int sizeZ = in.readInt();
+        int volume = volume(sizeX, sizeY, sizeZ);
+        int paletteSize = readCount(in);
+        List<String> materials = new ArrayList<>(paletteSize);
+        List<String> blockData = new ArrayList<>(paletteSize);
+        for (int i = 0; i < paletteSize; i++) {
+            materials.add(readString(in));
+            blockData.add(readString(in));
+        }
+        int bits = in.readUnsignedByte();
+        if (bits != PackedIndices.bitsFor(paletteSize)) {
+            throw new IOException("packed structure uses " + bits + " bits for a palette of " + paletteSize);
+        }
+        long[] data = new long[readCount(in)];
+        if (data.length != PackedIndices.longs(volume, bits)) {
+            throw new IOException("packed structure index data does not match its size");
+        }
+        for (int i = 0; i < data.length; i++) {
+            data[i] = in.readLong();
+        }
+        int blockEntityCount = readCount(in);
+        Map<Integer, BlockEntitySnapshot> blockEntities = new HashMap<>();
+        for (int i = 0; i < blockEntityCount; i++) {
+            int index = in.readInt();
+            if (index < 0 || index >= volume) {
+                throw new IOException("packed structure block entity is outside its box");
+            }
+            blockEntities.put(index, readBlockEntity(in));
+        }
+        try {
+            return new PackedStructureSnapshot(origin, min, sizeX, sizeY, sizeZ, materials, blockData,
+                    new PackedIndices(volume, bits, data), blockEntities);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("corrupt packed structure: " + e.getMessage(), e);
+        }
+    }
+
+    private static void writeBlockEntity(DataOutputStream out, BlockEntitySnapshot snapshot) throws IOException {
+        BlockPosition position = snapshot.position();
+        writeString(out, position.getWorld());
+        out.writeInt(position.getX());
+        out.writeInt(position.getY());
+        out.writeInt(position.getZ());
+        writeString(out, snapshot.material());
+        writeString(out, snapshot.blockData());
+        writeString(out, snapshot.kind().name());
+        out.writeInt(snapshot.pdcKeys().size());
+        for (String key : snapshot.pdcKeys()) {
+            writeString(out, key);
+        }
+        out.writeInt(snapshot.properties().size());
+        for (Map.Entry<String, String> property : snapshot.properties().entrySet()) {
+            writeString(out, property.getKey());
+            writeString(out, property.getValue());
+        }
+        out.writeBoolean(snapshot.rawNbt().isPresent());
+        if (snapshot.rawNbt().isPresent()) {
+            writeString(out, snapshot.rawNbt().get());
+        }
+    }
+
+    private static BlockEntitySnapshot readBlockEntity(DataInputStream in) throws IOException {
+        String world = readString(in);
+        BlockPosition position = BlockPosition.of(in.readInt(), in.readInt(), in.readInt(), world);
+        String material = readString(in);
+        String blockData = readString(in);
+        BlockEntityKind kind;
+        try {
+            kind = BlockEntityKind.valueOf(readString(in));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("unknown block entity kind", e);
+        }
+        int pdcKeyCount = readCount(in);
+        Set<String> pdcKeys = new LinkedHashSet<>();
+        for (int i = 0; i < pdcKeyCount; i++) {
+            pdcKeys.add(readString(in));
+        }
+        int propertyCount = readCount(in);
+        Map<String, String> properties = new LinkedHashMap<>();
+        for (int i = 0; i < propertyCount; i++) {
+            properties.put(readString(in), readString(in));
+        }
+        Optional<String> rawNbt = in.readBoolean() ? Optional.of(readString(in)) : Optional.empty();
+        return new BlockEntitySnapshot(position, material, blockData, kind, pdcKeys, properties, rawNbt);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readCount(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readCount(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("negative length in packed structure");
+        }
+        return count;
+    }
+
+    private static int volume(int sizeX, int sizeY, int sizeZ) {
+        if (sizeX < 0 || sizeY < 0 || sizeZ < 0) {
+            throw new IllegalArgumentException("packed structure size must not be negative");
+        }
+        long volume = (long) sizeX * sizeY * sizeZ;
+        if (volume > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("packed structure is too large");
+        }
+        return (int) volume;
+    }
+
+    int index(int x, int y, int z) {
+        int dx = x - this.min.x();
+        int dy = y - this.min.y();
+        int dz = z - this.min.z();
+        if (dx < 0 || dy < 0 || dz < 0 || dx >= this.sizeX || dy >= this.sizeY || dz >= this.sizeZ) {
+            return -1;
+        }
+        return (dy * this.sizeZ + dz) * this.sizeX + dx;
+    }
+
+    int paletteIndexAt(int index) {
+        return index < 0 ? -1 : this.indices.get(index) - 1;
+    }
+
+    boolean hasBlockEntity(int index) {
+        return !this.blockEntities.isEmpty() && this.blockEntities.containsKey(index);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof PackedStructureSnapshot other
+                && this.origin.equals(other.origin)
+                && this.min.equals(other.min)
+                && this.sizeX == other.sizeX
+                && this.sizeY == other.sizeY
+                && this.sizeZ == other.sizeZ
+                && this.materials.equals(other.materials)
+                && this.blockData.equals(other.blockData)
+                && this.indices.equals(other.indices)
+                && this.blockEntities.equals(other.blockEntities);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.origin, this.min, this.sizeX, this.sizeY, this.sizeZ, this.blockData, this.indices);
+    }
+
+    @Override
+    public String toString() {
+        return "PackedStructureSnapshot{origin=" + this.origin + ", min=" + this.min
+                + ", size=" + this.sizeX + "x" + this.sizeY + "x" + this.sizeZ
+                + ", blocks=" + this.blockCount + ", palette=" + this.materials.size() + "}";
+    }
+
+    /**
+     * Receives blocks from {@link #forEachBlock(BlockVisitor)}.
+     */
+    @FunctionalInterface
+    public interface BlockVisitor {
+        void visit(int x, int y, int z, int paletteIndex);
+    }
+
+    @FunctionalInterface
+    interface IndexFilter {
+        boolean test(int x, int y, int z, int index, int paletteIndex);
+    }
+
+    public static final class Builder {
+        private final BlockPosition origin;
+        private final BlockOffset min;
+        private final int sizeX;
+        private final int sizeY;
+        private final int sizeZ;
+        private final List<String> materials = new ArrayList<>();
+        private final List<String> blockData = new ArrayList<>();
+        private final Map<PaletteEntry, Integer> palette = new HashMap<>();
+        private final Map<Integer, BlockEntitySnapshot> blockEntities = new HashMap<>();
+        private PackedIndices indices;
+
+        private Builder(BlockPosition origin, BlockOffset min, int sizeX, int sizeY, int sizeZ) {
+            this.origin = Objects.requireNonNull(origin, "origin");
+            this.min = Objects.requireNonNull(min, "min");
+            this.indices = new PackedIndices(volume(sizeX, sizeY, sizeZ), 1);
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+        }
+
+        /**
+         * Sets the block at an offset relative to the origin.
+         */
+        @NotNull
+        public Builder block(int x, int y, int z, @NotNull String material, @NotNull String blockData) {
+            // state() may widen the indices, so it must run before they are read
+            int index = index(x, y, z);
+            int stored = state(material, blockData);
+            this.indices.set(index, stored);
+            return this;
+        }
+
+        /**
+         * Attaches a block entity to the block at an offset relative to the origin.
+         */
+        @NotNull
+        public Builder blockEntity(int x, int y, int z, @NotNull BlockEntitySnapshot blockEntity) {
+            this.blockEntities.put(index(x, y, z), Objects.requireNonNull(blockEntity, "blockEntity"));
+            return this;
+        }
+
+        /**
+         * Returns the stored, one-based palette id for a block state, adding it if needed.
+         */
+        int state(@NotNull String material, @NotNull String blockData) {
+            PaletteEntry entry = new PaletteEntry(Objects.requireNonNull(material, "material"), Objects.requireNonNull(blockData, "blockData"));
+            Integer stored = this.palette.get(entry);
+            if (stored == null) {
+                this.materials.add(material);
+                this.blockData.add(blockData);
+                stored = this.materials.size();
+                this.palette.put(entry, stored);
+                int bits = PackedIndices.bitsFor(stored);
+                if (bits > this.indices.bits()) {
+                    this.indices = this.indices.widen(bits);
+                }
+            }
+            return stored;
+        }
+
+        /**
+         * Sets the block at an offset to a palette id returned by {@link #state(String, String)}.
+         */
+        void set(int x, int y, int z, int stored) {
+            this.indices.set(index(x, y, z), stored);
+        }
+
+        /**
+         * Renumbers the palette in order of first use, in y, z, x order, so the result matches
+         * {@link #pack(StructureSnapshot)} no matter which order the blocks were set in.
+         */
+        void reorderPalette() {
+            int[] remap = new int[this.materials.size() + 1];
+            List<String> materials = new ArrayList<>(this.materials.size());
+            List<String> blockData = new ArrayList<>(this.blockData.size());
+            for (int i = 0; i < this.indices.size(); i++) {
+                int stored = this.indices.get(i);
+                if (stored != ABSENT && remap[stored] == 0) {
+                    materials.add(this.materials.get(stored - 1));
+                    blockData.add(this.blockData.get(stored - 1));
+                    remap[stored] = materials.size();
+                }
+                if (stored != ABSENT) {
+                    this.indices.set(i, remap[stored]);
+                }
+            }
+            this.materials.clear();
+            this.blockData.clear();
+            this.palette.clear();
+            for (int i = 0; i < materials.size(); i++) {
+                state(materials.get(i), blockData.get(i));
+            }
+        }
+
+        @NotNull
+        public PackedStructureSnapshot build() {
+            PackedIndices indices = this.indices.widen(PackedIndices.bitsFor(this.materials.size()));
+            if (indices == this.indices) {
+                indices = new PackedIndices(indices.size(), indices.bits(), indices.raw().clone());
+            }
+            Map<Integer, BlockEntitySnapshot> blockEntities = new HashMap<>();
+            for (Map.Entry<Integer, BlockEntitySnapshot> entry : this.blockEntities.entrySet()) {
+                if (indices.get(entry.getKey()) != ABSENT) {
+                    blockEntities.put(entry.getKey(), entry.getValue());
+                }
+            }
+            return new PackedStructureSnapshot(this.origin, this.min, this.sizeX, this.sizeY, this.sizeZ,
+                    this.materials, this.blockData, indices, blockEntities);
+        }
+
+        private int index(int x, int y, int z) {
+            int dx = x - this.min.x();
+            int dy = y - this.min.y();
+            int dz = z - this.min.z();
+            if (dx < 0 || dy < 0 || dz < 0 || dx >= this.sizeX || dy >= this.sizeY || dz >= this.sizeZ) {
+                throw new IllegalArgumentException("offset " + x + ", " + y + ", " + z + " is outside the packed structure");
+            }
+            return (dy * this.sizeZ + dz) * this.sizeX + dx;
+        }
+    }
+
+    private record PaletteEntry(String material, String blockData) {
+    }
+}
@@ -2,6 +2,19 @@ package dev.willram.ramcore.world;
 
 /**
  * Summary of a structure restore operation.
+ *
+ * @param blocks blocks visited
+ * @param blockEntities block entities restored
+ * @param skippedBlockEntities block entities left out by the restore options
+ * @param unchanged visited blocks that already matched the snapshot and were not written
  */
-public record StructureApplyResult(int blocks, int blockEntities, int skippedBlockEntities) {
+public record StructureApplyResult(int blocks, int blockEntities, int skippedBlockEntities, int unchanged) {
+
+    public StructureApplyResult(int blocks, int blockEntities, int skippedBlockEntities) {
+        this(blocks, blockEntities, skippedBlockEntities, 0);
+    }
+
+    public int changed() {
+        return this.blocks - this.unchanged;
+    }
 }
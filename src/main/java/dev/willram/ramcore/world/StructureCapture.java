@@ -0,0 +1,189 @@
+package dev.willram.ramcore.world;
+
+import dev.willram.ramcore.promise.Promise;
+import dev.willram.ramcore.scheduler.Schedulers;
+import dev.willram.ramcore.serialize.BlockPosition;
+import dev.willram.ramcore.serialize.BlockRegion;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.World;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captures a region into a {@link PackedStructureSnapshot} one chunk at a time: chunk snapshots and
+ * block entities are taken on the owning region, block states are read off-thread.
+ */
+final class StructureCapture {
+    private final BlockRegion region;
+    private final BlockPosition min;
+    private final BlockPosition max;
+    private final PackedStructureSnapshot.Builder builder;
+    private final Promise<PackedStructureSnapshot> result = Promise.empty();
+    private final AtomicInteger remaining;
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    private StructureCapture(BlockRegion region, int chunks) {
+        this.region = region;
+        this.min = region.getMin();
+        this.max = region.getMax();
+        this.builder = PackedStructureSnapshot.builder(this.min, new BlockOffset(0, 0, 0),
+                this.max.getX() - this.min.getX() + 1,
+                this.max.getY() - this.min.getY() + 1,
+                this.max.getZ() - this.min.getZ() + 1);
+        this.remaining = new AtomicInteger(chunks);
+    }
+
+    @NotNull
+    static Promise<PackedStructureSnapshot> capture(@NotNull BlockRegion region) {
+        Objects.requireNonNull(region, "region");
+        World world = Objects.requireNonNull(Bukkit.getWorld(region.getMin().getWorld()), "region world");
+        StructureCapture capture = of(region);
+        BlockPosition min = region.getMin();
+        BlockPosition max = region.getMax();
+        for (int chunkZ = min.getZ() >> 4; chunkZ <= max.getZ() >> 4; chunkZ++) {
+            for (int chunkX = min.getX() >> 4; chunkX <= max.getX() >> 4; chunkX++) {
+                capture.chunk(world, chunkX, chunkZ);
+            }
+        }
+        return capture.result;
+    }
+
+    // a capture waiting for one snapshot of every chunk the region touches
+    @NotNull
+    static StructureCapture of(@NotNull BlockRegion region) {
+        BlockPosition min = region.getMin();
+        BlockPosition max = region.getMax();
+        return new StructureCapture(region, ((max.getX() >> 4) - (min.getX() >> 4) + 1) * ((max.getZ() >> 4) - (min.getZ() >> 4) + 1));
+    }
+
+    /**
+     * Reads and merges one chunk snapshot on the calling thread, for chunks without block entities.
+     */
+    void accept(@NotNull ChunkSnapshot snapshot) {
+        merge(read(new ChunkCopy(snapshot, List.of())));
+    }
+
+    @NotNull
+    Promise<PackedStructureSnapshot> result() {
+        return this.result;
+    }
+
+    private void chunk(World world, int chunkX, int chunkZ) {
+        Schedulers.call(world, chunkX, chunkZ, () -> copy(world.getChunkAt(chunkX, chunkZ)))
+                .thenApplyAsync(this::read)
+                .thenAcceptAsync(this::merge)
+                .exceptionallyAsync(t -> {
+                    if (this.failed.compareAndSet(false, true)) {
+                        this.result.supplyException(t);
+                    }
+                    return null;
+                });
+    }
+
+    // region thread: everything that must touch live world state
+    private ChunkCopy copy(Chunk chunk) {
+        ChunkSnapshot snapshot = chunk.getChunkSnapshot(false, false, false);
+        List<BlockEntityCopy> blockEntities = new ArrayList<>();
+        // only block entities inside the region, read in place since they are captured right away
+        for (BlockState state : chunk.getTileEntities(this.region::inRegion, false)) {
+            blockEntities.add(new BlockEntityCopy(state.getX(), state.getY(), state.getZ(), BlockEntitySnapshot.capture(state)));
+        }
+        return new ChunkCopy(snapshot, blockEntities);
+    }
+
+    // async pool: resolve every position against a chunk-local palette
+    private ChunkStates read(ChunkCopy copy) {
+        ChunkSnapshot snapshot = copy.snapshot();
+        int baseX = snapshot.getX() << 4;
+        int baseZ = snapshot.getZ() << 4;
+        int minX = Math.max(this.min.getX(), baseX);
+        int minZ = Math.max(this.min.getZ(), baseZ);
+        int maxX = Math.min(this.max.getX(), baseX + 15);
+        int maxZ = Math.min(this.max.getZ(), baseZ + 15);
+        int sizeX = maxX - minX + 1;
+        int sizeZ = maxZ - minZ + 1;
+        int sizeY = this.max.getY() - this.min.getY() + 1;
+        Map<BlockData, Integer> local = new HashMap<>();
+        List<String> materials = new ArrayList<>();
+        List<String> blockData = new ArrayList<>();
+        int[] states = new int[sizeX * sizeY * sizeZ];
+        int index = 0;
+        for (int y = this.min.getY(); y <= this.max.getY(); y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockData data = snapshot.getBlockData(x - baseX, y, z - baseZ);
+                    Integer state = local.get(data);
+                    if (state == null) {
+                        state = materials.size();
+                        local.put(data, state);
+                        materials.add(data.getMaterial().key().asString());
+                        blockData.add(data.getAsString());
+                    }
+                    states[index++] = state;
+                }
+            }
+        }
+        return new ChunkStates(minX, minZ, sizeX, sizeZ, materials, blockData, states, copy.blockEntities());
+    }
+
+    private void merge(ChunkStates chunk) {
+        PackedStructureSnapshot built = null;
+        synchronized (this.builder) {
+            int[] palette = new int[chunk.materials().size()];
+            for (int i = 0; i < palette.length; i++) {
+                palette[i] = this.builder.state(chunk.materials().get(i), chunk.blockData().get(i));
+            }
+            int originX = this.min.getX();
+            int originY = this.min.getY();
+            int originZ = this.min.getZ();
+            int index = 0;
+            for (int y = this.min.getY(); y <= this.max.getY(); y++) {
+                for (int z = chunk.minZ(); z < chunk.minZ() + chunk.sizeZ(); z++) {
+                    for (int x = chunk.minX(); x < chunk.minX() + chunk.sizeX(); x++) {
+                        this.builder.set(x - originX, y - originY, z - originZ, palette[chunk.states()[index++]]);
+                    }
+                }
+            }
+            for (BlockEntityCopy blockEntity : chunk.blockEntities()) {
+                this.builder.blockEntity(blockEntity.x() - originX, blockEntity.y() - originY, blockEntity.z() - originZ, blockEntity.snapshot());
+            }
+            if (this.remaining.decrementAndGet() == 0 && !this.failed.get()) {
+                // chunks finish in any order, which would otherwise decide the palette order
+                this.builder.reorderPalette();
+                built = this.builder.build();
+            }
+        }
+        if (built != null) {
+            this.result.supply(built);
+        }
+    }
+
+    private record ChunkCopy(ChunkSnapshot snapshot, List<BlockEntityCopy> blockEntities) {
+    }
+
+    private record BlockEntityCopy(int x, int y, int z, BlockEntitySnapshot snapshot) {
+    }
+
+    private record ChunkStates(
+            int minX,
+            int minZ,
+            int sizeX,
+            int sizeZ,
+            List<String> materials,
+            List<String> blockData,
+            int[] states,
+            List<BlockEntityCopy> blockEntities
+    ) {
+    }
+}
@@ -0,0 +1,272 @@
+package dev.willram.ramcore.world;
+
+import com.google.common.reflect.TypeToken;
+import dev.willram.ramcore.event.Events;
+import dev.willram.ramcore.serialize.BlockPosition;
+import dev.willram.ramcore.terminable.Terminable;
+import dev.willram.ramcore.terminable.composite.CompositeTerminable;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.Bisected;
+import org.bukkit.block.data.BlockData;
+import org.bukkit.block.data.Openable;
+import org.bukkit.block.data.Powerable;
+import org.bukkit.block.data.type.Door;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.block.Action;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockSpreadEvent;
+import org.bukkit.event.block.FluidLevelChangeEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.block.SpongeAbsorbEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records which positions of a restored structure have changed, so a rollback only rewrites those.
+ *
+ * <p>{@link #track} listens for block events inside the structure's target box; anything that
+ * changes blocks without firing events should call {@link #record(int, int, int)}. {@link #restore()}
+ * restores the snapshot's blocks at the recorded positions and clears them, so an arena reset costs
+ * work proportional to what changed rather than to the arena's size. Recording is safe from any
+ * region thread.</p>
+ */
+public final class StructureChangeJournal implements Terminable {
+    private final PackedStructureSnapshot snapshot;
+    private final BlockPosition targetOrigin;
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private final CompositeTerminable subscriptions = CompositeTerminable.create();
+
+    private StructureChangeJournal(PackedStructureSnapshot snapshot, BlockPosition targetOrigin) {
+        this.snapshot = Objects.requireNonNull(snapshot, "snapshot");
+        this.targetOrigin = Objects.requireNonNull(targetOrigin, "targetOrigin");
+    }
+
+    /**
+     * Creates a journal that only records positions passed to {@link #record(int, int, int)}.
+     */
+    @NotNull
+    public static StructureChangeJournal create(@NotNull PackedStructureSnapshot snapshot, @NotNull BlockPosition targetOrigin) {
+        return new StructureChangeJournal(snapshot, targetOrigin);
+    }
+
+    /**
+     * Creates a journal that also records block changes reported by Bukkit events until closed.
+     */
+    @NotNull
+    public static StructureChangeJournal track(@NotNull PackedStructureSnapshot snapshot, @NotNull BlockPosition targetOrigin) {
+        StructureChangeJournal journal = create(snapshot, targetOrigin);
+        journal.listen();
+        return journal;
+    }
+
+    @NotNull
+    public PackedStructureSnapshot snapshot() {
+        return this.snapshot;
+    }
+
+    @NotNull
+    public BlockPosition targetOrigin() {
+        return this.targetOrigin;
+    }
+
+    /**
+     * Records a changed world position. Positions the snapshot does not cover are ignored.
+     *
+     * <p>{@link #track} already records block, fluid, piston, explosion and bucket events, and
+     * doors, trapdoors, fence gates, levers, buttons and pressure plates toggled by players. Other
+     * interactions that change a block's state in place, such as repeater delays, note blocks,
+     * cakes, composters or candles, and plugin {@code setType}/{@code setBlockData} calls, must be
+     * recorded here.</p>
+     */
+    public void record(int x, int y, int z) {
+        int index = this.snapshot.index(x - this.targetOrigin.getX(), y - this.targetOrigin.getY(), z - this.targetOrigin.getZ());
+        if (this.snapshot.paletteIndexAt(index) >= 0) {
+            this.changed.add(index);
+        }
+    }
+
+    public void record(@NotNull Block block) {
+        if (block.getWorld().getName().equals(this.targetOrigin.getWorld())) {
+            record(block.getX(), block.getY(), block.getZ());
+        }
+    }
+
+    /**
+     * Gets how many positions have changed since the last drain.
+     */
+    public int size() {
+        return this.changed.size();
+    }
+
+    public void clear() {
+        this.changed.clear();
+    }
+
+    /**
+     * Removes the recorded positions and returns the snapshot's blocks at those positions.
+     */
+    @NotNull
+    public PackedStructureSnapshot drain() {
+        int count = 0;
+        int[] drained = new int[Math.max(16, this.changed.size())];
+        for (Iterator<Integer> iterator = this.changed.iterator(); iterator.hasNext(); ) {
+            if (count == drained.length) {
+                drained = Arrays.copyOf(drained, count * 2);
+            }
+            drained[count++] = iterator.next();
+            iterator.remove();
+        }
+        // only the recorded positions are read, however large the structure is
+        Arrays.sort(drained, 0, count);
+        return this.snapshot.select(drained, count);
+    }
+
+    /**
+     * Restores the snapshot at every recorded position and clears them.
+     */
+    @NotNull
+    public StructureRestoreTask restore() {
+        return restore(StructureApplyOptions.DEFAULT);
+    }
+
+    @NotNull
+    public StructureRestoreTask restore(@NotNull StructureApplyOptions options) {
+        return StructureRestoreTask.builder(drain(), this.targetOrigin)
+                .options(options)
+                .start();
+    }
+
+    /**
+     * Stops listening for block events.
+     */
+    @Override
+    public void close() {
+        this.subscriptions.closeAndReportException();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.subscriptions.isClosed();
+    }
+
+    private void listen() {
+        Events.merge(new TypeToken<List<Block>>() {})
+                .bindEvent(BlockBreakEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockPlaceEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockMultiPlaceEvent.class, EventPriority.MONITOR, e -> states(e, e.getReplacedBlockStates()))
+                .bindEvent(BlockBurnEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockIgniteEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockFadeEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockGrowEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockFormEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockSpreadEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(LeavesDecayEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockFromToEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getToBlock()))
+                .bindEvent(FluidLevelChangeEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(SpongeAbsorbEvent.class, EventPriority.MONITOR, e -> states(e, e.getBlocks()))
+                .bindEvent(BlockFertilizeEvent.class, EventPriority.MONITOR, e -> states(e, e.getBlocks()))
+                .bindEvent(StructureGrowEvent.class, EventPriority.MONITOR, e -> states(e, e.getBlocks()))
+                .bindEvent(EntityChangeBlockEvent.class, EventPriority.MONITOR, e -> blocks(e, e.getBlock()))
+                .bindEvent(BlockExplodeEvent.class, EventPriority.MONITOR, e -> exploded(e, e.getBlock(), e.blockList()))
+                .bindEvent(EntityExplodeEvent.class, EventPriority.MONITOR, e -> exploded(e, null, e.blockList()))
+                .bindEvent(BlockPistonExtendEvent.class, EventPriority.MONITOR, e -> piston(e, e.getBlock(), e.getDirection(), e.getBlocks()))
+                .bindEvent(BlockPistonRetractEvent.class, EventPriority.MONITOR, e -> piston(e, e.getBlock(), e.getDirection(), e.getBlocks()))
+                .bindEvent(PlayerBucketEmptyEvent.class, EventPriority.MONITOR, e -> bucket(e, e.getBlock(), e.getBlockClicked()))
+                .bindEvent(PlayerBucketFillEvent.class, EventPriority.MONITOR, e -> bucket(e, e.getBlock(), e.getBlockClicked()))
+                .bindEvent(PlayerInteractEvent.class, EventPriority.MONITOR, this::interacted)
+                .handler(blocks -> blocks.forEach(this::record))
+                .bindWith(this.subscriptions);
+    }
+
+    private static List<Block> blocks(Cancellable event, Block block) {
+        return event.isCancelled() ? List.of() : List.of(block);
+    }
+
+    private static List<Block> states(Cancellable event, List<BlockState> states) {
+        if (event.isCancelled()) {
+            return List.of();
+        }
+        List<Block> blocks = new ArrayList<>(states.size());
+        for (BlockState state : states) {
+            blocks.add(state.getBlock());
+        }
+        return blocks;
+    }
+
+    private static List<Block> exploded(Cancellable event, Block source, List<Block> destroyed) {
+        if (event.isCancelled()) {
+            return List.of();
+        }
+        List<Block> blocks = new ArrayList<>(destroyed);
+        if (source != null) {
+            blocks.add(source);
+        }
+        return blocks;
+    }
+
+    // waterlogging puts the fluid in the clicked block rather than the one next to it
+    private static List<Block> bucket(Cancellable event, Block block, Block clicked) {
+        return event.isCancelled() ? List.of() : List.of(block, clicked);
+    }
+
+    // doors, trapdoors, fence gates, levers, buttons and pressure plates toggle without a block event
+    private List<Block> interacted(PlayerInteractEvent event) {
+        Block block = event.getClickedBlock();
+        if (block == null || event.useInteractedBlock() == Event.Result.DENY
+                || (event.getAction() != Action.RIGHT_CLICK_BLOCK && event.getAction() != Action.PHYSICAL)) {
+            return List.of();
+        }
+        BlockData data = block.getBlockData();
+        if (!(data instanceof Openable) && !(data instanceof Powerable)) {
+            return List.of();
+        }
+        if (data instanceof Door door) {
+            return List.of(block, block.getRelative(door.getHalf() == Bisected.Half.TOP ? BlockFace.DOWN : BlockFace.UP));
+        }
+        return List.of(block);
+    }
+
+    // moved blocks leave their old position and fill the next one along the push direction
+    private static List<Block> piston(Cancellable event, Block piston, BlockFace direction, List<Block> moved) {
+        if (event.isCancelled()) {
+            return List.of();
+        }
+        List<Block> blocks = new ArrayList<>(moved.size() * 2 + 2);
+        blocks.add(piston);
+        blocks.add(piston.getRelative(direction));
+        for (Block block : moved) {
+            blocks.add(block);
+            blocks.add(block.getRelative(direction));
+        }
+        return blocks;
+    }
+}
@@ -0,0 +1,25 @@
+package dev.willram.ramcore.world;
+
+/**
+ * Progress of a {@link StructureRestoreTask}.
+ *
+ * @param slices chunk-section slices in the restore
+ * @param completedSlices slices written so far
+ * @param blocks blocks visited so far
+ * @param unchanged visited blocks that already matched and were skipped
+ * @param elapsedMillis time since the restore started
+ * @param done whether the restore has finished, failed, or been cancelled
+ */
+public record StructureRestoreProgress(
+        int slices,
+        int completedSlices,
+        long blocks,
+        long unchanged,
+        long elapsedMillis,
+        boolean done
+) {
+
+    public double fraction() {
+        return this.slices == 0 ? 1.0D : (double) this.completedSlices / this.slices;
+    }
+}
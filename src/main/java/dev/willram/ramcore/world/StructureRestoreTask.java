@@ -0,0 +1,193 @@
+package dev.willram.ramcore.world;
+
+import dev.willram.ramcore.promise.Promise;
+import dev.willram.ramcore.scheduler.Schedulers;
+import dev.willram.ramcore.scheduler.Task;
+import dev.willram.ramcore.serialize.BlockPosition;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Restores a {@link PackedStructureSnapshot} in chunk-section slices spread over ticks.
+ *
+ * <p>The restore is split into one slice per 16×16×16 section of the target. A global task hands
+ * out slices, bottom section first, until the tick's block budget is spent; each slice runs on the
+ * region that owns its chunk, inline when the driving thread already owns it. On Paper that spreads
+ * a large restore over consecutive ticks; on Folia slices in different regions run in parallel.
+ * Unlike {@link PackedStructureSnapshot#restore}, restores may cross chunk boundaries, so
+ * {@link StructureApplyOptions#requireSingleChunk()} is ignored.</p>
+ */
+public final class StructureRestoreTask {
+    public static final String BUDGET_PROPERTY = "ramcore.world.restoreBlocksPerTick";
+    public static final int DEFAULT_BLOCKS_PER_TICK = 4096;
+
+    private final StructureWriter writer;
+    private final List<StructureSlice> slices;
+    private final int blocksPerTick;
+    private final Consumer<? super StructureRestoreProgress> progressListener;
+    private final Promise<StructureApplyResult> result = Promise.empty();
+    private final AtomicInteger completedSlices = new AtomicInteger();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final long startNanos = System.nanoTime();
+    private volatile boolean cancelled;
+    private volatile boolean done;
+
+    // driver-thread state
+    private int next;
+
+    private StructureRestoreTask(Builder builder) {
+        this.writer = new StructureWriter(builder.snapshot, builder.targetOrigin, builder.options);
+        this.slices = StructureSlice.split(builder.snapshot, builder.targetOrigin);
+        this.blocksPerTick = builder.blocksPerTick;
+        this.progressListener = builder.progressListener;
+    }
+
+    @NotNull
+    public static Builder builder(@NotNull PackedStructureSnapshot snapshot, @NotNull BlockPosition targetOrigin) {
+        return new Builder(snapshot, targetOrigin);
+    }
+
+    /**
+     * Gets a promise completed with the restore summary once every slice is written.
+     */
+    @NotNull
+    public Promise<StructureApplyResult> result() {
+        return this.result;
+    }
+
+    @NotNull
+    public StructureRestoreProgress progress() {
+        return new StructureRestoreProgress(
+                this.slices.size(),
+                this.completedSlices.get(),
+                this.writer.blocks(),
+                this.writer.unchanged(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - this.startNanos),
+                this.done
+        );
+    }
+
+    public boolean done() {
+        return this.done;
+    }
+
+    /**
+     * Stops handing out slices and cancels the result. Slices already running finish.
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.result.cancel();
+    }
+
+    private StructureRestoreTask start() {
+        if (this.slices.isEmpty()) {
+            finish();
+        } else {
+            Schedulers.sync().runRepeating(this::tick, 1L, 1L);
+        }
+        return this;
+    }
+
+    private void tick(Task task) {
+        boolean stopped = this.cancelled || this.failure.get() != null;
+        int budget = this.blocksPerTick;
+        while (!stopped && this.next < this.slices.size() && budget > 0) {
+            StructureSlice slice = this.slices.get(this.next++);
+            budget -= slice.blocks();
+            dispatch(slice);
+        }
+        int dispatched = stopped ? this.next : this.slices.size();
+        if (this.completedSlices.get() >= dispatched) {
+            task.stop();
+            finish();
+        } else if (this.progressListener != null) {
+            this.progressListener.accept(progress());
+        }
+    }
+
+    private void dispatch(StructureSlice slice) {
+        World world = this.writer.world();
+        Runnable write = () -> {
+            try {
+                if (!this.cancelled) {
+                    this.writer.write(slice);
+                }
+            } catch (Throwable t) {
+                this.failure.compareAndSet(null, t);
+            } finally {
+                this.completedSlices.incrementAndGet();
+            }
+        };
+        if (Bukkit.isOwnedByCurrentRegion(world, slice.chunkX(), slice.chunkZ())) {
+            write.run();
+        } else {
+            Schedulers.run(world, slice.chunkX(), slice.chunkZ(), write);
+        }
+    }
+
+    private void finish() {
+        this.done = true;
+        Throwable failure = this.failure.get();
+        if (failure != null) {
+            this.result.supplyException(failure);
+        } else if (!this.cancelled) {
+            this.result.supply(this.writer.result());
+        }
+        if (this.progressListener != null) {
+            this.progressListener.accept(progress());
+        }
+    }
+
+    public static final class Builder {
+        private final PackedStructureSnapshot snapshot;
+        private final BlockPosition targetOrigin;
+        private StructureApplyOptions options = StructureApplyOptions.DEFAULT;
+        private int blocksPerTick = Math.max(1, Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BLOCKS_PER_TICK));
+        private Consumer<? super StructureRestoreProgress> progressListener;
+
+        private Builder(PackedStructureSnapshot snapshot, BlockPosition targetOrigin) {
+            this.snapshot = Objects.requireNonNull(snapshot, "snapshot");
+            this.targetOrigin = Objects.requireNonNull(targetOrigin, "targetOrigin");
+        }
+
+        @NotNull
+        public Builder options(@NotNull StructureApplyOptions options) {
+            this.options = Objects.requireNonNull(options, "options");
+            return this;
+        }
+
+        /**
+         * Sets how many blocks may be handed out per tick. At least one slice is handed out each tick.
+         */
+        @NotNull
+        public Builder blocksPerTick(int blocksPerTick) {
+            if (blocksPerTick <= 0) {
+                throw new IllegalArgumentException("restore blocks per tick must be greater than zero");
+            }
+            this.blocksPerTick = blocksPerTick;
+            return this;
+        }
+
+        /**
+         * Sets a listener called on the global thread after each tick and once when the restore ends.
+         */
+        @NotNull
+        public Builder onProgress(@NotNull Consumer<? super StructureRestoreProgress> progressListener) {
+            this.progressListener = Objects.requireNonNull(progressListener, "progressListener");
+            return this;
+        }
+
+        @NotNull
+        public StructureRestoreTask start() {
+            return new StructureRestoreTask(this).start();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package dev.willram.ramcore.world;
+
+import dev.willram.ramcore.serialize.BlockPosition;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The part of a packed structure restore that falls in one 16×16×16 chunk section of the target,
+ * in world block coordinates.
+ */
+record StructureSlice(
+        int chunkX,
+        int sectionY,
+        int chunkZ,
+        int minX,
+        int minY,
+        int minZ,
+        int maxX,
+        int maxY,
+        int maxZ,
+        int blocks
+) {
+
+    /**
+     * Splits a restore of the snapshot at the target origin into section slices holding at least
+     * one block, bottom section first.
+     */
+    @NotNull
+    static List<StructureSlice> split(@NotNull PackedStructureSnapshot snapshot, @NotNull BlockPosition target) {
+        List<StructureSlice> slices = new ArrayList<>();
+        if (snapshot.blockCount() == 0) {
+            return slices;
+        }
+        int x0 = target.getX() + snapshot.min().x();
+        int y0 = target.getY() + snapshot.min().y();
+        int z0 = target.getZ() + snapshot.min().z();
+        int x1 = x0 + snapshot.sizeX() - 1;
+        int y1 = y0 + snapshot.sizeY() - 1;
+        int z1 = z0 + snapshot.sizeZ() - 1;
+        for (int sectionY = y0 >> 4; sectionY <= y1 >> 4; sectionY++) {
+            for (int chunkZ = z0 >> 4; chunkZ <= z1 >> 4; chunkZ++) {
+                for (int chunkX = x0 >> 4; chunkX <= x1 >> 4; chunkX++) {
+                    int minX = Math.max(x0, chunkX << 4);
+                    int minY = Math.max(y0, sectionY << 4);
+                    int minZ = Math.max(z0, chunkZ << 4);
+                    int maxX = Math.min(x1, (chunkX << 4) + 15);
+                    int maxY = Math.min(y1, (sectionY << 4) + 15);
+                    int maxZ = Math.min(z1, (chunkZ << 4) + 15);
+                    int blocks = 0;
+                    for (int y = minY; y <= maxY; y++) {
+                        for (int z = minZ; z <= maxZ; z++) {
+                            for (int x = minX; x <= maxX; x++) {
+                                if (snapshot.paletteIndex(x - target.getX(), y - target.getY(), z - target.getZ()) >= 0) {
+                                    blocks++;
+                                }
+                            }
+                        }
+                    }
+                    if (blocks > 0) {
+                        slices.add(new StructureSlice(chunkX, sectionY, chunkZ, minX, minY, minZ, maxX, maxY, maxZ, blocks));
+                    }
+                }
+            }
+        }
+        return slices;
+    }
+}
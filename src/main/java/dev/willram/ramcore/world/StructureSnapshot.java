@@ -6,17 +6,22 @@ import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 /**
  * Region snapshot with relative block coordinates.
  */
 public record StructureSnapshot(@NotNull BlockPosition origin, @NotNull List<StructureBlockSnapshot> blocks) {
+    // restores pack first only while the bounding box is at most this many times the block count
+    static final int MAX_PACKED_VOLUME_PER_BLOCK = 8;
 
     public StructureSnapshot {
         Objects.requireNonNull(origin, "origin");
@@ -54,6 +59,26 @@ public record StructureSnapshot(@NotNull BlockPosition origin, @NotNull List<Str
         return new StructureSnapshot(origin, blocks);
     }
 
+    /**
+     * Returns the palette-compressed form of this snapshot.
+     */
+    @NotNull
+    public PackedStructureSnapshot pack() {
+        return PackedStructureSnapshot.pack(this);
+    }
+
+    /**
+     * Returns the blocks of {@code target} that differ from this snapshot, so restoring the result
+     * over this snapshot's blocks produces {@code target}.
+     *
+     * @see PackedStructureSnapshot#diff(PackedStructureSnapshot)
+     */
+    @NotNull
+    public StructureSnapshot diff(@NotNull StructureSnapshot target) {
+        Objects.requireNonNull(target, "target");
+        return pack().diff(target.pack()).unpack();
+    }
+
     public void validateSingleTargetChunk(@NotNull BlockPosition targetOrigin) {
         Objects.requireNonNull(targetOrigin, "targetOrigin");
         int chunkX = targetOrigin.getX() >> 4;
@@ -66,6 +91,14 @@ public record StructureSnapshot(@NotNull BlockPosition origin, @NotNull List<Str
         }
     }
 
+    /**
+     * Restores the snapshot on the calling thread, parsing each distinct block state once and
+     * skipping blocks that already match.
+     *
+     * <p>Dense snapshots are restored through their packed form. Sparse ones, whose bounding box is
+     * much larger than their block count, such as a few far-apart changes, are written block by
+     * block so no box-sized index array is allocated.</p>
+     */
     @NotNull
     public StructureApplyResult restore(@NotNull BlockPosition targetOrigin, @NotNull StructureApplyOptions options) {
         Objects.requireNonNull(targetOrigin, "targetOrigin");
@@ -73,13 +106,50 @@ public record StructureSnapshot(@NotNull BlockPosition origin, @NotNull List<Str
         if (options.requireSingleChunk()) {
             validateSingleTargetChunk(targetOrigin);
         }
+        if (sparse()) {
+            return restoreBlocks(targetOrigin, options);
+        }
+        return pack().restore(targetOrigin, options.withRequireSingleChunk(false));
+    }
+
+    boolean sparse() {
+        if (this.blocks.isEmpty()) {
+            return false;
+        }
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        for (StructureBlockSnapshot block : this.blocks) {
+            BlockOffset offset = block.offset();
+            minX = Math.min(minX, offset.x());
+            minY = Math.min(minY, offset.y());
+            minZ = Math.min(minZ, offset.z());
+            maxX = Math.max(maxX, offset.x());
+            maxY = Math.max(maxY, offset.y());
+            maxZ = Math.max(maxZ, offset.z());
+        }
+        long volume = ((long) maxX - minX + 1) * ((long) maxY - minY + 1) * ((long) maxZ - minZ + 1);
+        return volume > (long) this.blocks.size() * MAX_PACKED_VOLUME_PER_BLOCK;
+    }
+
+    private StructureApplyResult restoreBlocks(BlockPosition targetOrigin, StructureApplyOptions options) {
         World world = Objects.requireNonNull(Bukkit.getWorld(targetOrigin.getWorld()), "target world");
+        List<StructureBlockSnapshot> sorted = new ArrayList<>(this.blocks);
+        sorted.sort(Comparator.comparingInt((StructureBlockSnapshot block) -> block.offset().y())
+                .thenComparingInt(block -> block.offset().z())
+                .thenComparingInt(block -> block.offset().x()));
+        Map<String, BlockData> parsed = new HashMap<>();
+        int unchanged = 0;
         int blockEntities = 0;
         int skippedBlockEntities = 0;
-        for (StructureBlockSnapshot snapshot : sortedBlocks()) {
+        for (StructureBlockSnapshot snapshot : sorted) {
             BlockPosition position = snapshot.offset().apply(targetOrigin);
+            BlockData data = parsed.computeIfAbsent(snapshot.blockData(), Bukkit::createBlockData);
             Block block = world.getBlockAt(position.getX(), position.getY(), position.getZ());
-            block.setBlockData(Bukkit.createBlockData(snapshot.blockData()), options.physics());
+            if (block.getType() == data.getMaterial() && block.getBlockData().equals(data)) {
+                unchanged++;
+            } else {
+                block.setBlockData(data, options.physics());
+            }
             if (snapshot.blockEntity().isPresent()) {
                 if (options.applyBlockEntities()) {
                     blockEntities++;
@@ -88,16 +158,7 @@ public record StructureSnapshot(@NotNull BlockPosition origin, @NotNull List<Str
                 }
             }
         }
-        return new StructureApplyResult(this.blocks.size(), blockEntities, skippedBlockEntities);
-    }
-
-    @NotNull
-    private List<StructureBlockSnapshot> sortedBlocks() {
-        return this.blocks.stream()
-                .sorted(Comparator.comparingInt((StructureBlockSnapshot block) -> block.offset().y())
-                        .thenComparingInt(block -> block.offset().z())
-                        .thenComparingInt(block -> block.offset().x()))
-                .toList();
+        return new StructureApplyResult(sorted.size(), blockEntities, skippedBlockEntities, unchanged);
     }
 
     public static final class Builder {
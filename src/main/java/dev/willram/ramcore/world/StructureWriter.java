@@ -0,0 +1,105 @@
+package dev.willram.ramcore.world;
+
+import dev.willram.ramcore.serialize.BlockPosition;
+import org.bukkit.Bukkit;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.data.BlockData;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Writes slices of a packed structure into a world. Slices may be written concurrently from the
+ * region threads that own them; each palette entry is parsed into {@link BlockData} once.
+ */
+final class StructureWriter {
+    private final PackedStructureSnapshot snapshot;
+    private final BlockPosition target;
+    private final StructureApplyOptions options;
+    private final World world;
+    private final AtomicReferenceArray<BlockData> parsed;
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder unchanged = new LongAdder();
+    private final LongAdder blockEntities = new LongAdder();
+    private final LongAdder skippedBlockEntities = new LongAdder();
+
+    StructureWriter(@NotNull PackedStructureSnapshot snapshot, @NotNull BlockPosition target, @NotNull StructureApplyOptions options) {
+        this.snapshot = Objects.requireNonNull(snapshot, "snapshot");
+        this.target = Objects.requireNonNull(target, "target");
+        this.options = Objects.requireNonNull(options, "options");
+        this.world = Objects.requireNonNull(Bukkit.getWorld(target.getWorld()), "target world");
+        this.parsed = new AtomicReferenceArray<>(snapshot.paletteSize());
+    }
+
+    @NotNull
+    World world() {
+        return this.world;
+    }
+
+    void write(@NotNull StructureSlice slice) {
+        int tx = this.target.getX();
+        int ty = this.target.getY();
+        int tz = this.target.getZ();
+        int written = 0;
+        int matched = 0;
+        for (int y = slice.minY(); y <= slice.maxY(); y++) {
+            for (int z = slice.minZ(); z <= slice.maxZ(); z++) {
+                for (int x = slice.minX(); x <= slice.maxX(); x++) {
+                    int index = this.snapshot.index(x - tx, y - ty, z - tz);
+                    int paletteIndex = this.snapshot.paletteIndexAt(index);
+                    if (paletteIndex < 0) {
+                        continue;
+                    }
+                    written++;
+                    BlockData data = blockData(paletteIndex);
+                    Block block = this.world.getBlockAt(x, y, z);
+                    // the material check avoids copying block data for most changed blocks
+                    if (block.getType() == data.getMaterial() && block.getBlockData().equals(data)) {
+                        matched++;
+                    } else {
+                        block.setBlockData(data, this.options.physics());
+                    }
+                    if (this.snapshot.hasBlockEntity(index)) {
+                        if (this.options.applyBlockEntities()) {
+                            this.blockEntities.increment();
+                        } else {
+                            this.skippedBlockEntities.increment();
+                        }
+                    }
+                }
+            }
+        }
+        this.blocks.add(written);
+        this.unchanged.add(matched);
+    }
+
+    long blocks() {
+        return this.blocks.sum();
+    }
+
+    long unchanged() {
+        return this.unchanged.sum();
+    }
+
+    @NotNull
+    StructureApplyResult result() {
+        return new StructureApplyResult(
+                (int) this.blocks.sum(),
+                (int) this.blockEntities.sum(),
+                (int) this.skippedBlockEntities.sum(),
+                (int) this.unchanged.sum()
+        );
+    }
+
+    private BlockData blockData(int paletteIndex) {
+        BlockData data = this.parsed.get(paletteIndex);
+        if (data == null) {
+            data = Bukkit.createBlockData(this.snapshot.blockData(paletteIndex));
+            this.parsed.compareAndSet(paletteIndex, null, data);
+        }
+        return data;
+    }
+}
@@ -47,6 +47,14 @@ public final class WorldBlocks {
         return Schedulers.call(region.getMin().toLocation(), () -> StructureSnapshot.capture(region));
     }
 
+    /**
+     * Captures a region chunk by chunk, reading block states off-thread from chunk snapshots.
+     */
+    @NotNull
+    public static Promise<PackedStructureSnapshot> capturePacked(@NotNull BlockRegion region) {
+        return PackedStructureSnapshot.captureAsync(region);
+    }
+
     @NotNull
     public static Promise<Boolean> edit(@NotNull BlockState state, @NotNull Consumer<BlockState> editor,
                                         boolean force, boolean physics) {
@@ -84,6 +92,19 @@ public final class WorldBlocks {
         return Schedulers.call(target, () -> snapshot.restore(BlockPosition.of(target), options));
     }
 
+    /**
+     * Restores a snapshot in chunk-section slices over the following ticks, each slice on the region
+     * that owns it. The restore may cross chunk boundaries.
+     */
+    @NotNull
+    public static StructureRestoreTask restoreSliced(@NotNull Location origin, @NotNull PackedStructureSnapshot snapshot,
+                                                     @NotNull StructureApplyOptions options) {
+        Objects.requireNonNull(origin, "origin");
+        return StructureRestoreTask.builder(snapshot, BlockPosition.of(origin))
+                .options(options)
+                .start();
+    }
+
     @NotNull
     public static NmsAccessRegistry registerPaperCapability(@NotNull NmsAccessRegistry registry) {
         Objects.requireNonNull(registry, "registry")
@@ -58,4 +58,95 @@ public final class CooldownTrackerTest {
         assertTrue(throttle.test("player", "jump").denied());
         assertTrue(throttle.test("player", "dash").allowed());
     }
+
+    @Test
+    public void storeSweepExpiresAcrossMapsInBatches() {
+        CooldownStore store = CooldownStore.create();
+        CooldownTracker<String> dashes = store.tracker(Cooldown.of(1, TimeUnit.MILLISECONDS));
+        CooldownMap<String> blinks = CooldownMap.create(Cooldown.of(1, TimeUnit.MINUTES), store);
+        List<String> expired = new ArrayList<>();
+        dashes.onExpire((key, cooldown) -> expired.add(key));
+
+        dashes.reset("dash", 1L);
+        dashes.reset("roll", 1L);
+        assertTrue(blinks.test("blink"));
+        assertEquals(3, store.scheduled());
+
+        assertEquals(2, store.sweep());
+        assertEquals(2, expired.size());
+        assertTrue(expired.containsAll(List.of("dash", "roll")));
+        assertEquals(0, dashes.size());
+        assertEquals(1, store.scheduled());
+        assertFalse(blinks.testSilently("blink"));
+    }
+
+    @Test
+    public void storeMapsDoNotAllocateUntestedKeys() {
+        CooldownStore store = CooldownStore.create();
+        CooldownMap<String> map = CooldownMap.create(Cooldown.of(1, TimeUnit.MINUTES), store);
+
+        assertTrue(map.testSilently("idle"));
+        assertEquals(0L, map.remainingMillis("idle"));
+        assertTrue(map.getAll().isEmpty());
+
+        assertTrue(map.test("cast"));
+        assertFalse(map.test("cast"));
+        assertEquals(1, map.getAll().size());
+
+        map.getAll().remove("cast");
+        assertEquals(0, store.scheduled());
+        assertTrue(map.test("cast"));
+    }
+
+    @Test
+    public void storeTrackerReadsAndClearedResetsLeaveNoSlots() {
+        CooldownStore store = CooldownStore.create();
+        CooldownTracker<String> tracker = store.tracker(Cooldown.of(1, TimeUnit.MINUTES));
+
+        assertTrue(tracker.peek("idle").allowed());
+        assertFalse(tracker.active("idle"));
+        assertTrue(tracker.cooldown("idle").testSilently());
+        assertEquals(0, tracker.size());
+        assertEquals(0, store.scheduled());
+
+        assertTrue(tracker.test("cast").allowed());
+        assertTrue(tracker.active("cast"));
+        tracker.reset("cast", 0L);
+        assertEquals(0, tracker.size());
+        assertEquals(0, store.scheduled());
+
+        // a detached slot installs itself once written
+        Cooldown detached = tracker.cooldown("late");
+        assertEquals(0, tracker.size());
+        detached.reset();
+        assertEquals(1, tracker.size());
+        assertTrue(tracker.active("late"));
+        assertFalse(tracker.test("late").allowed());
+    }
+
+    @Test
+    public void storeTestsOnlyInstallSlotsWhenACooldownStarts() {
+        CooldownStore store = CooldownStore.create();
+        CooldownMap<String> map = CooldownMap.create(Cooldown.of(1, TimeUnit.MINUTES), store);
+
+        map.setLastTested("idle", 0L);
+        map.put("idle", Cooldown.of(1, TimeUnit.MINUTES));
+        assertTrue(map.getAll().isEmpty());
+        assertEquals(0, store.scheduled());
+
+        assertTrue(map.test("cast"));
+        Cooldown installed = map.getAll().get("cast");
+        long started = installed.getLastTested().orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            assertFalse(map.test("cast"));
+        }
+        assertEquals(1, store.scheduled());
+        assertEquals(started, installed.getLastTested().orElseThrow());
+
+        // an expired slot is rearmed in place rather than replaced
+        map.setLastTested("cast", 1L);
+        assertTrue(map.test("cast"));
+        assertEquals(1, store.scheduled());
+        assertTrue(installed == map.getAll().get("cast"));
+    }
 }
@@ -4,13 +4,28 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 
 public final class FileDataRepositoryTest {
@@ -117,6 +132,240 @@ public final class FileDataRepositoryTest {
         assertFalse(Files.exists(repository.path("clean")));
     }
 
+    @Test
+    public void queuedSavesCoalesceAndDrainInBatches() throws Exception {
+        Path directory = temporaryFolder.newFolder("batched").toPath();
+        Deque<Runnable> tasks = new ArrayDeque<>();
+        FileDataRepository<String, Profile> repository = Repositories.jsonByString(directory, Profile.class, tasks::add)
+                .saveBatchSize(2);
+        for (int i = 0; i < 5; i++) {
+            repository.add("p" + i, new Profile("p" + i, i));
+        }
+
+        CompletableFuture<Void> first = repository.queueSave("p0");
+        CompletableFuture<Void> repeated = repository.queueSave("p0");
+        for (int i = 1; i < 5; i++) {
+            repository.queueSave("p" + i);
+        }
+
+        assertSame(first, repeated);
+        assertEquals(1, tasks.size());
+        assertEquals(5, repository.saveQueueStats().backlog());
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+
+        DataSaveQueueStats stats = repository.saveQueueStats();
+        assertTrue(first.isDone());
+        assertEquals(0, stats.backlog());
+        assertEquals(6, stats.queued());
+        assertEquals(1, stats.coalesced());
+        assertEquals(5, stats.saved());
+        assertEquals(3, stats.batches());
+        assertTrue(Files.exists(repository.path("p4")));
+    }
+
+    @Test
+    public void lazyLoadingIndexesKeysAndLoadsOnDemand() throws Exception {
+        Path directory = temporaryFolder.newFolder("lazy").toPath();
+        FileDataRepository<String, Profile> writer = repository(directory);
+        for (int i = 0; i < 4; i++) {
+            Profile profile = new Profile("p" + i, i);
+            profile.dataVersion(1);
+            writer.add("p" + i, profile);
+        }
+        writer.saveAll();
+
+        FileDataRepository<String, Profile> lazy = repository(directory)
+                .migrateTo(2, (item, fromVersion) -> {
+                    item.level = item.level + 100;
+                    return item;
+                })
+                .lazyLoading(2);
+        lazy.setup();
+
+        assertEquals(4, lazy.size());
+        assertEquals(0, lazy.residentSize());
+        assertTrue(lazy.has("p3"));
+
+        Profile loaded = lazy.require("p3");
+        assertEquals(103, loaded.level);
+        assertEquals(2, loaded.dataVersion());
+        lazy.save("p3");
+        lazy.require("p0");
+        lazy.require("p1");
+
+        assertEquals(2, lazy.residentSize());
+        assertEquals(101, lazy.require("p1").level);
+        assertFalse(lazy.has("missing"));
+    }
+
+    @Test
+    public void lazyLoadingWritesDirtyItemsBeforeEvictingAndSavesHeldItems() throws Exception {
+        Path directory = temporaryFolder.newFolder("lazy-dirty").toPath();
+        FileDataRepository<String, Profile> lazy = repository(directory).lazyLoading(1);
+        lazy.setup();
+
+        Profile held = new Profile("p0", 1);
+        lazy.add("p0", held);
+        lazy.add("p1", new Profile("p1", 2));
+
+        assertEquals(1, lazy.residentSize());
+        assertTrue(Files.exists(lazy.path("p0")));
+        assertFalse(held.dirty());
+
+        held.level = 5;
+        held.markDirty();
+        lazy.save("p0", held);
+        lazy.values().forEach(profile -> lazy.get("p0"));
+
+        FileDataRepository<String, Profile> reader = repository(directory);
+        reader.setup();
+        assertEquals(5, reader.require("p0").level);
+        assertEquals(2, reader.require("p1").level);
+    }
+
+    @Test
+    public void lazyEvictionQueuesDirtyItemsAndKeepsThemReadableUntilWritten() throws Exception {
+        Path directory = temporaryFolder.newFolder("lazy-queued").toPath();
+        Deque<Runnable> tasks = new ArrayDeque<>();
+        FileDataRepository<String, Profile> lazy = Repositories.jsonByString(directory, Profile.class, tasks::add)
+                .lazyLoading(1);
+        lazy.setup();
+
+        Profile evicted = new Profile("p0", 1);
+        lazy.add("p0", evicted);
+        lazy.add("p1", new Profile("p1", 2));
+
+        assertEquals(1, lazy.residentSize());
+        assertEquals(1, tasks.size());
+        assertFalse(Files.exists(lazy.path("p0")));
+        assertSame(evicted, lazy.get("p0"));
+
+        while (!tasks.isEmpty()) {
+            tasks.poll().run();
+        }
+        assertTrue(Files.exists(lazy.path("p0")));
+        assertFalse(evicted.dirty());
+        assertEquals(2, lazy.saveQueueStats().saved());
+    }
+
+    @Test
+    public void parallelLoadingMigratesAndCollectsFailures() throws Exception {
+        Path directory = temporaryFolder.newFolder("parallel").toPath();
+        FileDataRepository<String, Profile> writer = repository(directory);
+        for (int i = 0; i < 100; i++) {
+            writer.add("p" + i, new Profile("p" + i, i));
+        }
+        writer.saveAll();
+        Files.writeString(directory.resolve("broken.json"), "{not json");
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            FileDataRepository<String, Profile> loaded = repository(directory)
+                    .migrateTo(2, (item, fromVersion) -> {
+                        item.level = item.level * 2;
+                        return item;
+                    })
+                    .parallelLoading(executor);
+            loaded.setup();
+
+            assertEquals(100, loaded.size());
+            assertEquals(84, loaded.require("p42").level);
+            assertEquals(1, loaded.loadFailures().size());
+            assertEquals(directory.resolve("broken.json"), loaded.loadFailures().get(0).path());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void binarySerializerRoundTripsThroughRepository() throws Exception {
+        Path directory = temporaryFolder.newFolder("binary").toPath();
+        FileDataRepository<String, Profile> repository = new FileDataRepository<>(
+                directory, DataKeyCodec.stringKeys(), BinaryDataSerializer.compressed(Profile.class), Runnable::run);
+        Profile profile = new Profile("binary", 42);
+        profile.tags.addAll(List.of("alpha", "beta", "alpha"));
+        profile.balance = 12.5D;
+        repository.add("binary", profile);
+        repository.saveAll();
+
+        FileDataRepository<String, Profile> loaded = new FileDataRepository<>(
+                directory, DataKeyCodec.stringKeys(), BinaryDataSerializer.compressed(Profile.class), Runnable::run);
+        loaded.setup();
+
+        Profile read = loaded.require("binary");
+        assertTrue(repository.path("binary").toString().endsWith(".bin"));
+        assertEquals("binary", read.name);
+        assertEquals(42, read.level);
+        assertEquals(List.of("alpha", "beta", "alpha"), read.tags);
+        assertEquals(12.5D, read.balance, 0.0D);
+    }
+
+    @Test
+    public void binarySerializerReportsTruncatedPayloadsAsIoExceptions() {
+        BinaryDataSerializer<Profile> serializer = BinaryDataSerializer.compressed(Profile.class);
+        Profile profile = new Profile("short", 3);
+        for (int i = 0; i < 100; i++) {
+            profile.tags.add("tag-" + i);
+        }
+        ByteBuffer encoded = serializer.encode(profile);
+        byte[] bytes = new byte[encoded.remaining()];
+        encoded.get(bytes);
+
+        for (int length : new int[]{0, 5, 6, 7, bytes.length / 2, bytes.length - 1}) {
+            ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, length);
+            assertThrows(IOException.class, () -> serializer.decode(truncated));
+        }
+        byte[] header = {0x52, 0x43, 0x42, 0x46, 2, 0, (byte) 0x80};
+        assertThrows(IOException.class, () -> serializer.decode(ByteBuffer.wrap(header)));
+    }
+
+    @Test
+    public void binarySerializerIsSmallerThanJson() throws Exception {
+        Profile profile = new Profile("compact", 7);
+        for (int i = 0; i < 200; i++) {
+            profile.tags.add("tag-" + (i % 10));
+        }
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        GsonDataSerializer.standard(Profile.class).write(json, profile);
+
+        ByteBuffer plain = BinaryDataSerializer.standard(Profile.class).encode(profile);
+        ByteBuffer compressed = BinaryDataSerializer.compressed(Profile.class).encode(profile);
+
+        assertTrue(plain.remaining() < json.size());
+        assertTrue(compressed.remaining() < plain.remaining());
+        assertEquals(profile.tags, BinaryDataSerializer.compressed(Profile.class).decode(compressed).tags);
+    }
+
+    @Test
+    public void binarySerializerStreamsNestedObjectsMapsAndNulls() throws Exception {
+        Ledger ledger = new Ledger();
+        ledger.owner = new Profile("owner", 9);
+        ledger.balances.put("gold", 12L);
+        ledger.balances.put("silver", -3L);
+        ledger.byLevel.put(5, List.of("a", "b"));
+        ledger.byLevel.put(-1, List.of());
+        ledger.ratio = 0.1F;
+        ledger.note = null;
+        BinaryDataSerializer<Ledger> serializer = BinaryDataSerializer.compressed(Ledger.class);
+
+        Ledger read = serializer.decode(serializer.encode(ledger));
+        StringWriter text = new StringWriter();
+        serializer.write(text, ledger);
+        Ledger fromText = serializer.read(new StringReader(text.toString()));
+
+        for (Ledger copy : List.of(read, fromText)) {
+            assertEquals("owner", copy.owner.name);
+            assertEquals(9, copy.owner.level);
+            assertEquals(ledger.balances, copy.balances);
+            assertEquals(ledger.byLevel, copy.byLevel);
+            assertEquals(0.1F, copy.ratio, 0.0F);
+            assertEquals(null, copy.note);
+        }
+        assertTrue(read.balances instanceof TreeMap);
+    }
+
     private static FileDataRepository<String, Profile> repository(Path directory) {
         return Repositories.jsonByString(directory, Profile.class, Runnable::run);
     }
@@ -124,6 +373,8 @@ public final class FileDataRepositoryTest {
     public static final class Profile extends DataItem {
         private String name;
         private int level;
+        private double balance;
+        private List<String> tags = new ArrayList<>();
 
         public Profile() {
         }
@@ -133,4 +384,12 @@ public final class FileDataRepositoryTest {
             this.level = level;
         }
     }
+
+    public static final class Ledger extends DataItem {
+        private Profile owner;
+        private TreeMap<String, Long> balances = new TreeMap<>();
+        private Map<Integer, List<String>> byLevel = new LinkedHashMap<>();
+        private float ratio;
+        private String note = "unset";
+    }
 }
@@ -0,0 +1,114 @@
+package dev.willram.ramcore.data;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public final class LogDataRepositoryTest {
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void replaysLatestRecordsAndTombstones() throws Exception {
+        Path directory = temporaryFolder.newFolder("log").toPath();
+        LogDataRepository<String, Profile> repository = repository(directory);
+        repository.setup();
+        Profile profile = profile("will", 1);
+        repository.add("will", profile);
+        repository.add("gone", profile("gone", 1));
+        repository.saveAll();
+        profile.level = 5;
+        profile.markDirty();
+        repository.saveDirty();
+        repository.delete("gone");
+        repository.close();
+
+        LogDataRepository<String, Profile> loaded = repository(directory);
+        loaded.setup();
+
+        assertEquals(5, loaded.require("will").level);
+        assertFalse(loaded.has("gone"));
+        assertTrue(loaded.staleRatio() > 0.0D);
+    }
+
+    @Test
+    public void compactionKeepsOnlyLiveRecords() throws Exception {
+        Path directory = temporaryFolder.newFolder("compact").toPath();
+        LogDataRepository<String, Profile> repository = repository(directory)
+                .maxSegmentBytes(1024);
+        repository.setup();
+        Profile profile = profile("will", 0);
+        repository.add("will", profile);
+        for (int i = 0; i < 100; i++) {
+            profile.level = i;
+            repository.save("will");
+        }
+        assertTrue(repository.segmentCount() > 1);
+
+        repository.compact();
+
+        assertEquals(1, repository.segmentCount());
+        assertEquals(0.0D, repository.staleRatio(), 0.0001D);
+        repository.close();
+        LogDataRepository<String, Profile> loaded = repository(directory);
+        loaded.setup();
+        assertEquals(99, loaded.require("will").level);
+    }
+
+    @Test
+    public void tornTailIsTruncatedOnRecovery() throws Exception {
+        Path directory = temporaryFolder.newFolder("torn").toPath();
+        LogDataRepository<String, Profile> repository = repository(directory);
+        repository.setup();
+        repository.add("a", profile("a", 1));
+        repository.add("b", profile("b", 2));
+        repository.saveAll();
+        repository.close();
+
+        Path segment;
+        try (var stream = Files.list(directory)) {
+            segment = stream.filter(path -> path.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        long size = Files.size(segment);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        LogDataRepository<String, Profile> recovered = repository(directory);
+        recovered.setup();
+
+        assertEquals(List.of("a"), List.copyOf(recovered.registry().keySet()));
+        recovered.add("c", profile("c", 3));
+        recovered.saveAll();
+        recovered.close();
+        LogDataRepository<String, Profile> reloaded = repository(directory);
+        reloaded.setup();
+        assertEquals(3, reloaded.require("c").level);
+    }
+
+    private static Profile profile(String name, int level) {
+        Profile profile = new Profile();
+        profile.name = name;
+        profile.level = level;
+        return profile;
+    }
+
+    private static LogDataRepository<String, Profile> repository(Path directory) {
+        return Repositories.logByString(directory, Profile.class);
+    }
+
+    public static final class Profile extends DataItem {
+        private String name;
+        private int level;
+    }
+}
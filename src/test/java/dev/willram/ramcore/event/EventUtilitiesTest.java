@@ -7,6 +7,7 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 import static org.junit.Assert.assertEquals;
@@ -77,6 +78,114 @@ public final class EventUtilitiesTest {
         assertNotNull(Events.group());
     }
 
+    @Test
+    public void subscriptionTimingsBucketDurationsWithinQuarterOfAPowerOfTwo() {
+        for (long nanos : new long[]{0L, 3L, 4L, 7L, 8L, 1_000L, 123_456L, 50_000_000L}) {
+            long upper = SubscriptionTimings.upperBound(SubscriptionTimings.bucket(nanos));
+            assertTrue(upper >= nanos);
+            assertTrue(upper <= nanos + nanos / 4 + 1);
+        }
+        assertTrue(SubscriptionTimings.bucket(Long.MAX_VALUE) >= SubscriptionTimings.bucket(1L << 62));
+    }
+
+    @Test
+    public void subscriptionTimingsReportOutcomesAndPercentiles() {
+        SubscriptionTimings timings = new SubscriptionTimings("BaseTestEvent", "handler");
+        for (int i = 0; i < 98; i++) {
+            timings.record(SubscriptionTimings.Outcome.HANDLED, 1_000L);
+        }
+        timings.record(SubscriptionTimings.Outcome.FILTERED, 100L);
+        timings.record(SubscriptionTimings.Outcome.FAILED, 1_000_000L);
+
+        SubscriptionTimings.Snapshot snapshot = timings.snapshot();
+        assertEquals(100L, snapshot.calls());
+        assertEquals(98L, snapshot.handled());
+        assertEquals(1L, snapshot.filtered());
+        assertEquals(1L, snapshot.failed());
+        assertEquals(0.01D, snapshot.filterRejectionRatio(), 0.0001D);
+        assertTrue(timings.percentileNanos(50.0D) >= 1_000L && timings.percentileNanos(50.0D) < 1_250L);
+        assertTrue(timings.percentileNanos(100.0D) >= 1_000_000L);
+    }
+
+    @Test
+    public void eventProfilerRanksTrackedSubscriptionsByTotalTime() {
+        EventProfiler.reset();
+        Object fast = new Object();
+        Object slow = new Object();
+        SubscriptionTimings fastTimings = new SubscriptionTimings("BaseTestEvent", "fast");
+        SubscriptionTimings slowTimings = new SubscriptionTimings("ChildTestEvent", "slow");
+        EventProfiler.track(fast, fastTimings);
+        EventProfiler.track(slow, slowTimings);
+        EventProfiler.track(new Object(), new SubscriptionTimings("BaseTestEvent", "idle"));
+
+        fastTimings.record(SubscriptionTimings.Outcome.HANDLED, 1_000L);
+        slowTimings.record(SubscriptionTimings.Outcome.HANDLED, 5_000_000L);
+
+        List<SubscriptionTimings.Snapshot> top = EventProfiler.top(5);
+        assertEquals(2, top.size());
+        assertEquals("slow", top.get(0).label());
+        assertEquals("fast", top.get(1).label());
+        assertEquals(1, EventProfiler.top(1).size());
+        assertTrue(EventProfiler.diagnostics(1).lines().stream().anyMatch(line -> line.startsWith("events.profile.top.1=ChildTestEvent slow")));
+        EventProfiler.reset();
+    }
+
+    @Test
+    public void coalescerDeliversOnlyLatestEventPerKey() {
+        List<String> delivered = new ArrayList<>();
+        EventCoalescer<Character, String> coalescer = EventCoalescer.latest(value -> value.charAt(0), delivered::add);
+
+        coalescer.offer("a1");
+        coalescer.offer("b1");
+        coalescer.offer("a2");
+        coalescer.offer("a3");
+
+        assertEquals(2, coalescer.pending());
+        assertEquals(2, coalescer.flush());
+        assertEquals(List.of("a3", "b1"), delivered.stream().sorted().toList());
+        assertEquals(4L, coalescer.received());
+        assertEquals(2L, coalescer.delivered());
+        assertEquals(0, coalescer.flush());
+    }
+
+    @Test
+    public void batchedCoalescerDeliversOneKeyedBatchAndIgnoresNullKeys() {
+        List<Map<String, String>> batches = new ArrayList<>();
+        EventCoalescer<String, String> coalescer = EventCoalescer.batched(
+                value -> value.startsWith("-") ? null : value.substring(0, 1),
+                batches::add);
+
+        coalescer.offer("x1");
+        coalescer.offer("-ignored");
+        coalescer.offer("y1");
+        coalescer.offer("x2");
+        coalescer.flush();
+
+        assertEquals(1, batches.size());
+        assertEquals(Map.of("x", "x2", "y", "y1"), batches.get(0));
+        assertTrue(SubscriptionTimings.labelOf(coalescer).startsWith(EventUtilitiesTest.class.getName()));
+    }
+
+    @Test
+    public void coalescerReportsFailingHandlersAndDeliversTheRestOfTheBatch() {
+        List<String> delivered = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        EventCoalescer<Character, String> coalescer = EventCoalescer.latest(value -> value.charAt(0), value -> {
+            if (value.startsWith("b")) {
+                throw new IllegalStateException(value);
+            }
+            delivered.add(value);
+        });
+
+        coalescer.offer("a1");
+        coalescer.offer("b1");
+        coalescer.offer("c1");
+
+        assertEquals(3, coalescer.flush((event, throwable) -> failed.add(event + ":" + throwable.getMessage())));
+        assertEquals(List.of("a1", "c1"), delivered.stream().sorted().toList());
+        assertEquals(List.of("b1:b1"), failed);
+    }
+
     private record RecordingCloseable(String id, List<String> closed) implements AutoCloseable {
         @Override
         public void close() {
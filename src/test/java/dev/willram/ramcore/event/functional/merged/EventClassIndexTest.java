@@ -0,0 +1,56 @@
+package dev.willram.ramcore.event.functional.merged;
+
+import dev.willram.ramcore.event.EventUtilitiesTest.BaseTestEvent;
+import dev.willram.ramcore.event.EventUtilitiesTest.ChildTestEvent;
+import org.bukkit.event.Event;
+import org.bukkit.event.HandlerList;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public final class EventClassIndexTest {
+
+    @Test
+    public void resolvesSubclassEventsToNearestBoundClass() {
+        EventClassIndex<String> index = new EventClassIndex<>(Map.of(BaseTestEvent.class, "base"));
+
+        assertEquals("base", index.resolve(BaseTestEvent.class));
+        assertEquals("base", index.resolve(ChildTestEvent.class));
+        assertNull(index.resolve(OtherTestEvent.class));
+        assertNull(index.resolve(OtherTestEvent.class));
+    }
+
+    @Test
+    public void exactBindingWinsOverParentBinding() {
+        EventClassIndex<String> index = new EventClassIndex<>(Map.of(
+                BaseTestEvent.class, "base",
+                ChildTestEvent.class, "child"
+        ));
+
+        assertEquals("base", index.resolve(BaseTestEvent.class));
+        assertEquals("child", index.resolve(ChildTestEvent.class));
+    }
+
+    @Test
+    public void registrationClassAndHandlerListFollowTheDeclaringClass() {
+        assertEquals(BaseTestEvent.class, EventClassIndex.registrationClass(ChildTestEvent.class));
+        assertSame(BaseTestEvent.getHandlerList(), EventClassIndex.handlerList(ChildTestEvent.class));
+    }
+
+    public static final class OtherTestEvent extends Event {
+        private static final HandlerList HANDLERS = new HandlerList();
+
+        @Override
+        public HandlerList getHandlers() {
+            return HANDLERS;
+        }
+
+        public static HandlerList getHandlerList() {
+            return HANDLERS;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package dev.willram.ramcore.loot;
 
 import dev.willram.ramcore.content.ContentId;
+import dev.willram.ramcore.random.RandomSelector;
 import org.junit.Test;
 
 import java.time.Duration;
@@ -9,6 +10,7 @@ import java.util.List;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -33,6 +35,57 @@ public final class InstancedLootTest {
         assertEquals(List.of("coin", "gem", "gem", "gem"), result.rewards().stream().map(LootReward::id).toList());
     }
 
+    @Test
+    public void compiledTableMatchesPerRollSelectorsForConditionalEntries() {
+        LootEntry nether = LootEntry.weighted("quartz", 3, LootReward.of("quartz"))
+                .when(context -> "world_nether".equals(context.worldName()));
+        LootTable table = LootTable.builder(TABLE_ID)
+                .weighted(LootEntry.weighted("gem", 1, LootReward.of("gem")))
+                .weighted(LootEntry.weighted("dust", 4, LootReward.of("dust")))
+                .weighted(nether)
+                .rolls(5)
+                .build();
+        LootContext overworld = LootContext.builder("mob").world("world").build();
+        LootContext netherContext = LootContext.builder("mob").world("world_nether").build();
+
+        assertTrue(table.weighted().get(0).unconditional());
+        assertFalse(nether.unconditional());
+        for (LootContext context : List.of(overworld, netherContext, overworld)) {
+            List<LootEntry> eligible = table.weighted().stream()
+                    .filter(entry -> entry.condition().test(context))
+                    .toList();
+            Random expectedRandom = new Random(7);
+            RandomSelector<LootEntry> selector = RandomSelector.weighted(eligible);
+            List<String> expected = IntStream.range(0, 5)
+                    .mapToObj(ignored -> selector.pick(expectedRandom).id())
+                    .toList();
+
+            LootGenerationResult result = new LootGenerator().generate(table, context, new Random(7));
+
+            assertEquals(expected, result.rewards().stream().map(LootReward::id).toList());
+        }
+    }
+
+    @Test
+    public void bulkGenerateMergesRolls() {
+        LootTable table = LootTable.builder(TABLE_ID)
+                .guaranteed(LootEntry.guaranteed("coin", LootReward.of("coin")))
+                .weighted(LootEntry.weighted("gem", 1, context -> {
+                    throw new IllegalStateException("broken");
+                }))
+                .pool(LootPool.builder("bones")
+                        .rolls(2)
+                        .entry(LootPoolEntry.builder("bone", LootReward.of("bone")).build())
+                        .build())
+                .build();
+
+        LootGenerationResult result = table.compiled().generate(LootContext.builder("farm").build(), new Random(3), 100);
+
+        assertEquals(300, result.rewards().size());
+        assertEquals(100, result.errors().size());
+        assertEquals(100, result.rewards().stream().filter(reward -> reward.id().equals("coin")).count());
+    }
+
     @Test
     public void perPlayerClaimPolicyBlocksDuplicateClaimsOnlyForSamePlayer() {
         LootInstanceStore store = InstancedLoot.inMemoryStore();
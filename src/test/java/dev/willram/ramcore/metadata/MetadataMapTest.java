@@ -0,0 +1,173 @@
+package dev.willram.ramcore.metadata;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+public final class MetadataMapTest {
+
+    @Test
+    public void putAndGetUseKeyIdAndRejectDifferentTypes() {
+        MetadataMap map = MetadataMap.create();
+        MetadataKey<String> name = MetadataKey.createStringKey("Name");
+        MetadataKey<Integer> conflicting = MetadataKey.createIntegerKey("name");
+
+        map.put(name, "alex");
+
+        assertEquals("alex", map.getOrNull(MetadataKey.createStringKey("name")));
+        assertThrows(ClassCastException.class, () -> map.put(conflicting, 3));
+        assertThrows(ClassCastException.class, () -> map.get(conflicting));
+        assertFalse(map.has(conflicting));
+        assertEquals("alex", map.getOrNull(name));
+
+        map.forcePut(conflicting, 3);
+        assertEquals(Integer.valueOf(3), map.getOrNull(conflicting));
+    }
+
+    @Test
+    public void expiredTransientValuesAreTreatedAsAbsent() {
+        MetadataMap map = MetadataMap.create();
+        MetadataKey<String> key = MetadataKey.createStringKey("flag");
+        TestValue value = new TestValue("first");
+
+        map.put(key, value);
+        assertTrue(map.has(key));
+        assertEquals("first", map.getOrNull(key));
+
+        value.expired.set(true);
+        assertFalse(map.has(key));
+        assertTrue(map.putIfAbsent(key, "second"));
+        assertFalse(map.putIfAbsent(key, "third"));
+        assertEquals("second", map.getOrPut(key, () -> "fourth"));
+    }
+
+    @Test
+    public void cleanupAndIsEmptyDropExpiredValues() {
+        MetadataMap map = MetadataMap.create();
+        TestValue value = new TestValue("value");
+        map.put(MetadataKey.createStringKey("a"), value);
+        map.put(MetadataKey.createStringKey("b"), "kept");
+
+        value.expired.set(true);
+        map.cleanup();
+
+        assertEquals(1, map.asMap().size());
+        assertTrue(map.remove(MetadataKey.createStringKey("b")));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test
+    public void getOrPutExpiringStoresSuppliedTransientValue() {
+        MetadataMap map = MetadataMap.create();
+        MetadataKey<String> key = MetadataKey.createStringKey("session");
+
+        assertEquals("created", map.getOrPutExpiring(key, () -> new TestValue("created")));
+        assertEquals("created", map.getOrPutExpiring(key, () -> new TestValue("ignored")));
+        assertTrue(map.asMap().values().iterator().next() instanceof TestValue);
+    }
+
+    @Test
+    public void getOrPutSuppliersMayUseTheSameMap() {
+        MetadataMap map = MetadataMap.create();
+        MetadataKey<String> outer = MetadataKey.createStringKey("outer");
+        MetadataKey<String> inner = MetadataKey.createStringKey("inner");
+
+        // same bin or not, a reentrant supplier must neither throw nor deadlock
+        assertEquals("inner!", map.getOrPut(outer, () -> map.getOrPut(inner, () -> "inner") + "!"));
+        assertEquals("inner", map.getOrNull(inner));
+
+        // a supplier that stores the key itself wins over the value it returns
+        MetadataKey<String> self = MetadataKey.createStringKey("self");
+        assertEquals("stored", map.getOrPut(self, () -> {
+            map.put(self, "stored");
+            return "returned";
+        }));
+        assertEquals("stored", map.getOrPutExpiring(self, () -> new TestValue("ignored")));
+    }
+
+    @Test
+    public void registrySweepEvictsEmptyMapsInBoundedSlices() {
+        AbstractMetadataRegistry<Integer> registry = new AbstractMetadataRegistry<>();
+        MetadataKey<String> key = MetadataKey.createStringKey("key");
+        TestValue expiring = new TestValue("value");
+        for (int i = 0; i < 10; i++) {
+            registry.provide(i);
+        }
+        registry.provide(10).put(key, "kept");
+        registry.provide(11).put(key, expiring);
+        expiring.expired.set(true);
+
+        // the first pass only marks the empty maps
+        int removed = 0;
+        for (int i = 0; i < 3; i++) {
+            removed += registry.sweep(4);
+        }
+        assertEquals(0, removed);
+        assertEquals(12L, registry.size());
+
+        removed = registry.sweep(4);
+        assertTrue(removed >= 3);
+        assertEquals(12L - removed, registry.size());
+
+        for (int i = 0; i < 2; i++) {
+            removed += registry.sweep(4);
+        }
+
+        assertEquals(11, removed);
+        assertEquals(1L, registry.size());
+        assertEquals(11L, registry.evicted());
+        assertTrue(registry.get(10).isPresent());
+    }
+
+    @Test
+    public void registrySweepKeepsMapsProvidedOrWrittenSinceTheLastPass() {
+        AbstractMetadataRegistry<Integer> registry = new AbstractMetadataRegistry<>();
+        MetadataKey<String> key = MetadataKey.createStringKey("key");
+        TestValue expiring = new TestValue("value");
+        MetadataMap provided = registry.provide(0);
+        MetadataMap refilled = registry.provide(1);
+        refilled.put(key, expiring);
+        expiring.expired.set(true);
+
+        assertEquals(0, registry.sweep(8));
+        // marked maps handed out again, or written to, are not evicted by the next pass
+        assertSame(provided, registry.provide(0));
+        refilled.put(key, "late");
+        assertEquals(0, registry.sweep(8));
+        provided.put(key, "first");
+
+        assertEquals(2L, registry.size());
+        assertEquals("first", registry.get(0).orElseThrow().getOrNull(key));
+        assertEquals("late", registry.get(1).orElseThrow().getOrNull(key));
+
+        registry.provide(0).remove(key);
+        assertEquals(0, registry.sweep(8));
+        assertEquals(1, registry.sweep(8));
+        assertFalse(registry.get(0).isPresent());
+    }
+
+    private static final class TestValue implements TransientValue<String> {
+        private final String value;
+        private final AtomicBoolean expired = new AtomicBoolean();
+
+        private TestValue(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String getOrNull() {
+            return this.expired.get() ? null : this.value;
+        }
+
+        @Override
+        public boolean shouldExpire() {
+            return this.expired.get();
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package dev.willram.ramcore.path;
 
+import com.destroystokyo.paper.entity.Pathfinder;
 import dev.willram.ramcore.nms.api.NmsAccessRegistry;
 import dev.willram.ramcore.nms.api.NmsCapability;
 import dev.willram.ramcore.nms.api.NmsSupportStatus;
@@ -12,13 +13,16 @@ import org.junit.Test;
 
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public final class PathfindingFacadeTest {
@@ -117,6 +121,141 @@ public final class PathfindingFacadeTest {
         assertEquals(PathCancelReason.REPLACED, cancelled.get().cancelReason());
     }
 
+    @Test
+    public void driverTicksAllTasksAndSpreadsSearchesOverBudget() {
+        World world = world("world");
+        PathDriver driver = PathDriver.manual(2);
+        List<InMemoryPathBackend> backends = new ArrayList<>();
+        List<PathTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            InMemoryPathBackend backend = Pathfinders.memoryBackend(mob("driven-" + i), new Location(world, i, 64, 0));
+            backends.add(backend);
+            tasks.add(driver.schedule(Pathfinders.controller(backend, driver).create(Pathfinders.to(new Location(world, i, 64, 50))
+                    .stuckTimeoutTicks(100L)
+                    .build()), 1L));
+        }
+
+        driver.tick();
+        assertEquals(2, backends.stream().mapToInt(InMemoryPathBackend::searches).sum());
+        driver.tick();
+        driver.tick();
+
+        assertTrue(backends.stream().allMatch(backend -> backend.searches() == 1));
+        assertTrue(tasks.stream().allMatch(PathTask::active));
+        PathDriverStats stats = driver.stats();
+        assertEquals(5, stats.tasks());
+        assertEquals(5L, stats.searches());
+        assertTrue(stats.deferredRepaths() >= 3L);
+    }
+
+    @Test
+    public void driverServesCachedPathsWithoutSpendingTheSearchBudget() {
+        World world = world("world");
+        PathDriver driver = PathDriver.manual(1);
+        PathResultCache cache = Pathfinders.cache().build();
+        List<InMemoryPathBackend> backends = new ArrayList<>();
+        List<PathTask> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            InMemoryPathBackend backend = Pathfinders.memoryBackend(mob("herd-" + i), new Location(world, 0.1 * i, 64, 0));
+            backends.add(backend);
+            tasks.add(driver.schedule(Pathfinders.controller(Pathfinders.cached(backend, cache), driver).create(Pathfinders.to(new Location(world, 20, 64, 0))
+                    .repathIntervalTicks(100L)
+                    .stuckTimeoutTicks(100L)
+                    .build()), 1L));
+        }
+
+        driver.tick();
+        assertEquals(1, backends.stream().mapToInt(InMemoryPathBackend::searches).sum());
+        driver.tick();
+
+        assertEquals(1, backends.stream().mapToInt(InMemoryPathBackend::searches).sum());
+        assertTrue(backends.stream().allMatch(InMemoryPathBackend::hasPath));
+        assertTrue(tasks.stream().allMatch(PathTask::active));
+        assertEquals(1L, driver.stats().searches());
+        assertEquals(2L, cache.stats().hits());
+        assertEquals(1L, cache.stats().misses());
+    }
+
+    @Test
+    public void driverRetiresTasksForInvalidEntitiesAndHonoursInterval() {
+        World world = world("world");
+        PathDriver driver = PathDriver.manual(10);
+        InMemoryPathBackend removed = Pathfinders.memoryBackend(mob("removed"), new Location(world, 0, 64, 0));
+        InMemoryPathBackend slow = Pathfinders.memoryBackend(mob("slow"), new Location(world, 0, 64, 0));
+        AtomicReference<PathTaskResult> failed = new AtomicReference<>();
+        PathTask removedTask = driver.schedule(Pathfinders.controller(removed, driver).create(Pathfinders.to(new Location(world, 9, 64, 0))
+                .onFailure(failed::set)
+                .build()), 1L);
+        PathTask slowTask = driver.schedule(Pathfinders.controller(slow, driver).create(Pathfinders.to(new Location(world, 9, 64, 0))
+                .stuckTimeoutTicks(100L)
+                .build()), 3L);
+
+        driver.tick();
+        removed.valid(false);
+        driver.tick();
+        driver.tick();
+
+        assertEquals(PathFailureReason.ENTITY_RETIRED, failed.get().failureReason());
+        assertFalse(removedTask.active());
+        assertEquals(1L, slowTask.progress().ticksElapsed());
+        assertEquals(1, driver.stats().tasks());
+
+        driver.close();
+        assertEquals(PathStatus.CANCELLED, slowTask.status());
+    }
+
+    @Test
+    public void resultCacheSharesImmutableResultsUntilTheyExpire() {
+        World world = world("world");
+        AtomicLong clock = new AtomicLong();
+        PathResultCache cache = Pathfinders.cache()
+                .ttl(Duration.ofSeconds(1L))
+                .clock(clock::get)
+                .build();
+        Location goal = new Location(world, 20, 64, 0);
+        InMemoryPathBackend first = Pathfinders.memoryBackend(mob("first"), new Location(world, 0.2, 64, 0.2));
+        InMemoryPathBackend second = Pathfinders.memoryBackend(mob("second"), new Location(world, 0.8, 64, 0.7));
+        PathBackend cachedFirst = Pathfinders.cached(first, cache);
+        PathBackend cachedSecond = Pathfinders.cached(second, cache);
+
+        Pathfinder.PathResult found = cachedFirst.findPath(goal);
+        assertSame(found, cachedSecond.findPath(goal.clone().add(0.5, 0, 0.5)));
+        second.currentLocation(new Location(world, 3, 64, 0));
+        cachedSecond.findPath(goal);
+        clock.addAndGet(Duration.ofSeconds(2L).toNanos());
+        cachedFirst.findPath(goal);
+
+        assertEquals(2, first.searches());
+        assertEquals(1, second.searches());
+        assertEquals(1L, cache.stats().hits());
+        assertEquals(3L, cache.stats().misses());
+    }
+
+    @Test
+    public void resultCacheKeepsMutableResultsPerMobAndInvalidatesNearChanges() {
+        World world = world("world");
+        PathResultCache cache = Pathfinders.cache().build();
+        Location goal = new Location(world, 20, 64, 0);
+        InMemoryPathBackend first = Pathfinders.memoryBackend(mob("first"), new Location(world, 0, 64, 0));
+        InMemoryPathBackend second = Pathfinders.memoryBackend(mob("second"), new Location(world, 0, 64, 0));
+        PathBackend cachedFirst = Pathfinders.cached(unshared(first), cache);
+        PathBackend cachedSecond = Pathfinders.cached(unshared(second), cache);
+
+        cachedFirst.findPath(goal);
+        cachedFirst.findPath(goal);
+        cachedSecond.findPath(goal);
+        // the second mob's search is stored under its own key, so the first keeps its entry
+        cachedFirst.findPath(goal);
+        cachedFirst.applyNavigationProfile(PathNavigationProfile.builder().canOpenDoors(true).build());
+        cachedFirst.findPath(goal);
+        cache.invalidate(new Location(world, 18, 64, 0), 2);
+        cachedSecond.findPath(goal);
+
+        assertEquals(2, first.searches());
+        assertEquals(2, second.searches());
+        assertEquals(1L, cache.stats().size());
+    }
+
     @Test
     public void pathfindingCapabilityReportsPartialPaperSupport() {
         NmsAccessRegistry registry = Pathfinders.registerPaperCapability(
@@ -139,6 +278,12 @@ public final class PathfindingFacadeTest {
         return proxy(Mob.class, handler);
     }
 
+    private static PathBackend unshared(PathBackend backend) {
+        return proxy(PathBackend.class, (proxy, method, args) -> method.getName().equals("sharesPathResults")
+                ? false
+                : method.invoke(backend, args));
+    }
+
     private static World world(String name) {
         InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
             case "getName" -> name;
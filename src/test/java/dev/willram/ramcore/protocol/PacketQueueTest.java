@@ -0,0 +1,259 @@
+package dev.willram.ramcore.protocol;
+
+import org.bukkit.entity.Player;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class PacketQueueTest {
+
+    @Test
+    public void packetsQueuedInOneTickShareOneFlushPerPlayerInOrder() {
+        FakeBackend backend = new FakeBackend(false);
+        PacketBatcher<Packet> batcher = new PacketBatcher<>(false, backend);
+        Player alex = player("alex");
+        Player sam = player("sam");
+
+        batcher.enqueue(alex, packet("a1"));
+        batcher.enqueue(sam, packet("s1"));
+        batcher.enqueue(alex, List.of(packet("a2"), packet("a3")));
+
+        assertEquals(2, backend.scheduled.size());
+        assertEquals(3, batcher.pending(alex));
+        assertEquals(1, batcher.pending(sam));
+
+        backend.runAll();
+
+        assertEquals(List.of("a1", "a2", "a3"), backend.sentTo(alex));
+        assertEquals(List.of("s1"), backend.sentTo(sam));
+        assertEquals(0, batcher.pending(alex));
+        PacketQueueStats stats = batcher.stats();
+        assertEquals(0, stats.players());
+        assertEquals(4L, stats.queued());
+        assertEquals(2L, stats.flushes());
+        assertEquals(4L, stats.sent());
+        assertEquals(3L, stats.largestFlush());
+        assertEquals(0L, stats.bundles());
+        assertEquals(2.0D, stats.averagePacketsPerFlush(), 0.0D);
+    }
+
+    @Test
+    public void packetsQueuedDuringAFlushScheduleAnotherFlush() {
+        FakeBackend backend = new FakeBackend(false);
+        PacketBatcher<Packet> batcher = new PacketBatcher<>(false, backend);
+        Player player = player("alex");
+        backend.onSend = packet -> {
+            if (packet.name().equals("first")) {
+                batcher.enqueue(player, packet("reply"));
+            }
+        };
+
+        batcher.enqueue(player, packet("first"));
+        backend.runNext();
+
+        assertEquals(List.of("first"), backend.sentTo(player));
+        assertEquals(1, backend.scheduled.size());
+        assertEquals(1, batcher.pending(player));
+
+        backend.runNext();
+
+        assertEquals(List.of("first", "reply"), backend.sentTo(player));
+        assertTrue(backend.scheduled.isEmpty());
+        assertEquals(2L, batcher.stats().flushes());
+    }
+
+    @Test
+    public void flushesAreBundledAndSplitAtTheBundleLimit() {
+        FakeBackend backend = new FakeBackend(true);
+        PacketBatcher<Packet> batcher = new PacketBatcher<>(true, backend);
+        Player player = player("alex");
+        List<Packet> packets = new ArrayList<>();
+        for (int i = 0; i < PacketBatcher.MAX_BUNDLE_SIZE + 2; i++) {
+            packets.add(packet("p" + i));
+        }
+
+        batcher.enqueue(player, packets);
+        backend.runAll();
+
+        List<Packet> sent = backend.sent(player);
+        assertEquals(2, sent.size());
+        assertEquals(PacketBatcher.MAX_BUNDLE_SIZE, sent.get(0).bundled().size());
+        assertEquals("p0", sent.get(0).bundled().get(0).name());
+        assertEquals(List.of("p4096", "p4097"), names(sent.get(1).bundled()));
+        assertEquals(2L, batcher.stats().bundles());
+        assertEquals(PacketBatcher.MAX_BUNDLE_SIZE + 2L, batcher.stats().sent());
+    }
+
+    @Test
+    public void existingBundlesSplitRunsAndSinglePacketsAreNotWrapped() {
+        FakeBackend backend = new FakeBackend(true);
+        PacketBatcher<Packet> batcher = new PacketBatcher<>(true, backend);
+        Player player = player("alex");
+        Packet existing = new Packet("existing", List.of(packet("inner")));
+
+        batcher.enqueue(player, List.of(packet("a"), packet("b"), existing, packet("c")));
+        backend.runAll();
+        batcher.enqueue(player, packet("alone"));
+        backend.runAll();
+
+        List<Packet> sent = backend.sent(player);
+        assertEquals(4, sent.size());
+        assertEquals(List.of("a", "b"), names(sent.get(0).bundled()));
+        assertEquals(existing, sent.get(1));
+        assertEquals(packet("c"), sent.get(2));
+        assertEquals(packet("alone"), sent.get(3));
+        assertEquals(1L, batcher.stats().bundles());
+    }
+
+    @Test
+    public void unsupportedOrDisabledBundlesSendPacketsIndividually() {
+        FakeBackend unsupported = new FakeBackend(false);
+        PacketBatcher<Packet> batcher = new PacketBatcher<>(true, unsupported);
+        FakeBackend supported = new FakeBackend(true);
+        PacketBatcher<Packet> disabled = new PacketBatcher<>(false, supported);
+        Player player = player("alex");
+
+        batcher.enqueue(player, List.of(packet("a"), packet("b")));
+        disabled.enqueue(player, List.of(packet("a"), packet("b")));
+        unsupported.runAll();
+        supported.runAll();
+
+        assertEquals(List.of("a", "b"), unsupported.sentTo(player));
+        assertEquals(List.of("a", "b"), supported.sentTo(player));
+        assertEquals(0L, batcher.stats().bundles());
+        assertEquals(0L, disabled.stats().bundles());
+    }
+
+    @Test
+    public void retiredPlayersDropTheirPacketsAndCanQueueAgain() {
+        FakeBackend backend = new FakeBackend(false);
+        PacketBatcher<Packet> batcher = new PacketBatcher<>(false, backend);
+        Player player = player("alex");
+
+        batcher.enqueue(player, List.of(packet("a"), packet("b")));
+        assertEquals(2, batcher.stats().pending());
+        backend.retireNext();
+
+        assertTrue(backend.sentTo(player).isEmpty());
+        assertEquals(0, batcher.pending(player));
+        PacketQueueStats stats = batcher.stats();
+        assertEquals(2L, stats.dropped());
+        assertEquals(0L, stats.flushes());
+        assertEquals(0, stats.players());
+        assertTrue(stats.lines().contains("protocol.queue.dropped=2"));
+
+        batcher.enqueue(player, packet("c"));
+        assertEquals(1, backend.scheduled.size());
+        backend.runAll();
+        assertEquals(List.of("c"), backend.sentTo(player));
+    }
+
+    private static List<String> names(List<Packet> packets) {
+        List<String> names = new ArrayList<>();
+        for (Packet packet : packets) {
+            names.add(packet.name());
+        }
+        return names;
+    }
+
+    private static Packet packet(String name) {
+        return new Packet(name, null);
+    }
+
+    private static Player player(String name) {
+        UUID uuid = UUID.nameUUIDFromBytes(("player:" + name).getBytes());
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getUniqueId" -> uuid;
+            case "getName" -> name;
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "toString" -> "Player{" + name + "}";
+            default -> null;
+        };
+        return (Player) Proxy.newProxyInstance(Player.class.getClassLoader(), new Class<?>[]{Player.class}, handler);
+    }
+
+    private record Packet(String name, List<Packet> bundled) {
+    }
+
+    private record Sent(Player player, Packet packet) {
+    }
+
+    private record Scheduled(Runnable flush, Runnable retired) {
+    }
+
+    // runs scheduled flushes only when the test asks, like a player's scheduler on the next tick
+    private static final class FakeBackend implements PacketBatcher.Backend<Packet> {
+        private final boolean bundlesSupported;
+        private final List<Scheduled> scheduled = new ArrayList<>();
+        private final List<Sent> sent = new ArrayList<>();
+        private Consumer<Packet> onSend = packet -> {
+        };
+
+        private FakeBackend(boolean bundlesSupported) {
+            this.bundlesSupported = bundlesSupported;
+        }
+
+        private void runNext() {
+            this.scheduled.remove(0).flush().run();
+        }
+
+        private void retireNext() {
+            this.scheduled.remove(0).retired().run();
+        }
+
+        private void runAll() {
+            while (!this.scheduled.isEmpty()) {
+                runNext();
+            }
+        }
+
+        private List<Packet> sent(Player player) {
+            List<Packet> packets = new ArrayList<>();
+            for (Sent sent : this.sent) {
+                if (sent.player() == player) {
+                    packets.add(sent.packet());
+                }
+            }
+            return packets;
+        }
+
+        private List<String> sentTo(Player player) {
+            return names(sent(player));
+        }
+
+        @Override
+        public void schedule(Player player, Runnable flush, Runnable retired) {
+            this.scheduled.add(new Scheduled(flush, retired));
+        }
+
+        @Override
+        public void send(Player player, Packet packet) {
+            this.sent.add(new Sent(player, packet));
+            this.onSend.accept(packet);
+        }
+
+        @Override
+        public boolean isBundle(Packet packet) {
+            return packet.bundled() != null;
+        }
+
+        @Override
+        public Packet bundle(List<Packet> packets) {
+            return new Packet("bundle", packets);
+        }
+
+        @Override
+        public boolean bundlesSupported() {
+            return this.bundlesSupported;
+        }
+    }
+}
@@ -5,10 +5,14 @@ import dev.willram.ramcore.serialize.Position;
 import dev.willram.ramcore.serialize.Region;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public final class RegionRuleEngineTest {
@@ -95,4 +99,116 @@ public final class RegionRuleEngineTest {
 
         assertFalse(engine.contains(id));
     }
+
+    @Test
+    public void regionsCrossingChunksAreFoundFromEveryChunk() {
+        RegionRuleEngine engine = new RegionRuleEngine();
+        engine.register("RamCore", RuleRegion.builder(ContentId.parse("ramcore:wide"), RegionShapes.cuboid(Region.of(
+                        Position.of(-20, 0, -20, "world"),
+                        Position.of(40, 10, 40, "world")
+                )))
+                .rule(RegionRule.of("deny-block", RegionAction.BLOCK, 0, RegionRuleResult.DENY))
+                .build());
+
+        assertTrue(engine.evaluate(RegionQuery.of(Position.of(-19.5, 5, -19.5, "world"), RegionAction.BLOCK)).denied());
+        assertTrue(engine.evaluate(RegionQuery.of(Position.of(39.5, 5, 39.5, "world"), RegionAction.BLOCK)).denied());
+        assertEquals(RegionRuleResult.PASS, engine.evaluate(RegionQuery.of(Position.of(39.5, 5, 39.5, "nether"), RegionAction.BLOCK)).result());
+        assertEquals(RegionRuleResult.PASS, engine.evaluate(RegionQuery.of(Position.of(100, 5, 100, "world"), RegionAction.BLOCK)).result());
+    }
+
+    @Test
+    public void unboundedShapesAreEvaluatedAlongsideIndexedRegions() {
+        RegionRuleEngine engine = new RegionRuleEngine();
+        engine.register("RamCore", RuleRegion.builder(ContentId.parse("ramcore:everywhere"), position -> true)
+                .priority(5)
+                .rule(RegionRule.of("allow", RegionAction.INTERACT, 0, RegionRuleResult.ALLOW))
+                .build());
+        engine.register("RamCore", RuleRegion.builder(ContentId.parse("ramcore:spawn"), RegionShapes.sphere(Position.of(0, 0, 0, "world"), 4))
+                .priority(10)
+                .rule(RegionRule.of("deny", RegionAction.INTERACT, 0, RegionRuleResult.DENY))
+                .build());
+
+        assertTrue(engine.evaluate(RegionQuery.of(Position.of(0, 0, 0, "world"), RegionAction.INTERACT)).denied());
+        assertTrue(engine.evaluate(RegionQuery.of(Position.of(500, 0, 0, "world"), RegionAction.INTERACT)).allowed());
+        assertTrue(engine.evaluate(RegionQuery.of(Position.of(0, 0, 0, "other"), RegionAction.INTERACT)).allowed());
+    }
+
+    @Test
+    public void unregisteredRegionsLeaveTheIndex() {
+        RegionRuleEngine engine = new RegionRuleEngine();
+        engine.register("Temp", RuleRegion.builder(ContentId.parse("ramcore:temp"), RegionShapes.sphere(Position.of(0, 0, 0, "world"), 5))
+                .rule(RegionRule.of("deny", RegionAction.BLOCK, 0, RegionRuleResult.DENY))
+                .build());
+        RegionQuery query = RegionQuery.of(Position.of(1, 1, 1, "world"), RegionAction.BLOCK);
+        assertTrue(engine.evaluate(query).denied());
+
+        engine.unregisterOwner("Temp");
+
+        assertEquals(RegionRuleResult.PASS, engine.evaluate(query).result());
+    }
+
+    @Test
+    public void compiledRulesHonorPriorityAndConditions() {
+        RegionRuleEngine engine = new RegionRuleEngine();
+        engine.register("RamCore", RuleRegion.builder(ContentId.parse("ramcore:arena"), RegionShapes.sphere(Position.of(0, 0, 0, "world"), 10))
+                .rule(RegionRule.of("deny-all", RegionAction.BLOCK, 0, RegionRuleResult.DENY))
+                .rule(RegionRule.of("pass-high", RegionAction.BLOCK, 20, RegionRuleResult.PASS))
+                .rule(RegionRule.of("allow-builders", RegionAction.BLOCK, 10, RegionRuleResult.ALLOW)
+                        .when(query -> "builder".equals(query.subject())))
+                .rule(RegionRule.of("allow-commands", RegionAction.COMMAND, 0, RegionRuleResult.ALLOW))
+                .build());
+        RegionQuery block = RegionQuery.of(Position.of(0, 0, 0, "world"), RegionAction.BLOCK);
+
+        RegionDecision builder = engine.evaluate(block.withSubject("builder"));
+        RegionDecision visitor = engine.evaluate(block.withSubject("visitor"));
+        RegionDecision command = engine.evaluate(RegionQuery.of(Position.of(0, 0, 0, "world"), RegionAction.COMMAND));
+        RegionDecision loot = engine.evaluate(RegionQuery.of(Position.of(0, 0, 0, "world"), RegionAction.LOOT));
+
+        assertEquals("allow-builders", builder.rule());
+        assertEquals("deny-all", visitor.rule());
+        assertTrue(command.allowed());
+        assertEquals(RegionRuleResult.PASS, loot.result());
+    }
+
+    @Test
+    public void compositeShapesMergeBounds() {
+        RegionShape a = RegionShapes.cuboid(Region.of(Position.of(0, 0, 0, "world"), Position.of(10, 10, 10, "world")));
+        RegionShape b = RegionShapes.cuboid(Region.of(Position.of(5, 0, 5, "world"), Position.of(20, 10, 20, "world")));
+
+        RegionShape union = RegionShapes.any(List.of(a, b));
+        RegionShape intersection = RegionShapes.all(List.of(a, b));
+
+        assertEquals(new RegionBounds("world", 0, 0, 0, 20, 10, 20), union.bounds());
+        assertEquals(new RegionBounds("world", 5, 0, 5, 10, 10, 10), intersection.bounds());
+        assertTrue(union.contains(Position.of(15, 5, 15, "world")));
+        assertFalse(union.contains(Position.of(15, 5, 2, "world")));
+        assertTrue(intersection.contains(Position.of(7, 5, 7, "world")));
+        assertFalse(intersection.contains(Position.of(2, 5, 2, "world")));
+        assertNull(RegionShapes.any(List.of(a, position -> false)).bounds());
+    }
+
+    @Test
+    public void largeUnionsMatchMembersAcrossChunks() {
+        List<RegionShape> cells = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            int x = i * 32;
+            cells.add(RegionShapes.cuboid(Region.of(Position.of(x, 0, 0, "arena"), Position.of(x + 8, 4, 8, "arena"))));
+        }
+
+        RegionShape union = RegionShapes.any(cells);
+
+        assertNotNull(union.bounds());
+        assertEquals("arena", union.world());
+        assertTrue(union.contains(Position.of(32 * 40 + 4, 2, 4, "arena")));
+        assertFalse(union.contains(Position.of(32 * 40 + 20, 2, 4, "arena")));
+        assertFalse(union.contains(Position.of(32 * 40 + 4, 2, 4, "world")));
+    }
+
+    @Test
+    public void disjointIntersectionIsEmpty() {
+        RegionShape a = RegionShapes.sphere(Position.of(0, 0, 0, "world"), 2);
+        RegionShape b = RegionShapes.sphere(Position.of(100, 0, 0, "world"), 2);
+
+        assertFalse(RegionShapes.all(List.of(a, b)).contains(Position.of(0, 0, 0, "world")));
+    }
 }
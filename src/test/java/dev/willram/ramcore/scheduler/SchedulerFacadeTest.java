@@ -1,7 +1,13 @@
 package dev.willram.ramcore.scheduler;
 
+import dev.willram.ramcore.interfaces.Delegate;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
@@ -33,4 +39,178 @@ public final class SchedulerFacadeTest {
         assertSame(Schedulers.sync(), Schedulers.forGlobal());
         assertSame(Schedulers.async(), Schedulers.forAsync());
     }
+
+    @Test
+    public void asyncSettingsParseSystemPropertyValues() {
+        assertEquals(AsyncExecutorSettings.Mode.CACHED, AsyncExecutorSettings.parse(null, null, null).mode());
+        assertEquals(AsyncExecutorSettings.bounded(4, 16), AsyncExecutorSettings.parse("BOUNDED", "4", "16"));
+        assertEquals(AsyncExecutorSettings.virtual(32), AsyncExecutorSettings.parse("virtual", "32", null));
+    }
+
+    @Test
+    public void boundedAsyncExecutorRunsOverflowOnCallerAndRecordsStats() throws InterruptedException {
+        RamAsyncExecutor executor = new RamAsyncExecutor(AsyncExecutorSettings.bounded(1, 1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        try {
+            executor.execute(RamExecutors.named("blocker", () -> {
+                started.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            executor.execute(RamExecutors.named("queued", () -> {
+            }));
+            Thread caller = Thread.currentThread();
+            Thread[] ranOn = new Thread[1];
+            executor.execute(RamExecutors.named("overflow", () -> ranOn[0] = Thread.currentThread()));
+            assertSame(caller, ranOn[0]);
+
+            release.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+            AsyncExecutorStats stats = executor.stats();
+            assertEquals(AsyncExecutorSettings.Mode.BOUNDED, stats.mode());
+            assertEquals(3, stats.submitted());
+            assertEquals(3, stats.completed());
+            assertEquals(1, stats.rejected());
+            assertEquals(1, stats.tasks().stream().filter(task -> task.name().equals("overflow")).findFirst().orElseThrow().rejected());
+            assertTrue(stats.lines().contains("async.rejected=1"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void asyncStatsNameSubmittedAndWrappedTasksAfterTheirSource() throws Exception {
+        RamAsyncExecutor executor = new RamAsyncExecutor(AsyncExecutorSettings.bounded(1, 4));
+        try {
+            executor.submit(RamExecutors.named("submitted", () -> {
+            })).get(5, TimeUnit.SECONDS);
+            assertEquals("value", executor.submit(() -> "value").get(5, TimeUnit.SECONDS));
+            CountDownLatch wrapped = new CountDownLatch(1);
+            executor.execute(new Wrapper(RamExecutors.named("wrapped", wrapped::countDown)));
+            assertTrue(wrapped.await(5, TimeUnit.SECONDS));
+
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            List<String> names = new ArrayList<>();
+            executor.stats().tasks().forEach(task -> names.add(task.name()));
+            assertEquals(3, names.size());
+            assertTrue(names.containsAll(List.of("submitted", "wrapped", SchedulerFacadeTest.class.getName())));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void virtualAsyncExecutorNeverBlocksTheTimerThread() throws InterruptedException {
+        RamAsyncExecutor executor = new RamAsyncExecutor(AsyncExecutorSettings.virtual(1));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch overflowed = new CountDownLatch(1);
+        CountDownLatch timerFree = new CountDownLatch(1);
+        try {
+            executor.execute(RamExecutors.named("blocker", () -> {
+                started.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // the first delayed task cannot get a permit; the timer must still run the second
+            executor.schedule(RamExecutors.named("overflow", overflowed::countDown), 0L, TimeUnit.MILLISECONDS);
+            executor.schedule(RamExecutors.named("probe", () -> {
+                timerFree.countDown();
+                release.countDown();
+            }), 10L, TimeUnit.MILLISECONDS);
+            assertTrue(timerFree.await(5, TimeUnit.SECONDS));
+            assertTrue(overflowed.await(5, TimeUnit.SECONDS));
+
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+            AsyncExecutorStats stats = executor.stats();
+            assertTrue(stats.rejected() >= 1);
+            assertEquals(0, stats.dropped());
+            assertEquals(stats.submitted(), stats.completed());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void tickBudgetDefersWorkPastTheBudget() {
+        long[] clock = new long[1];
+        TickBudgetScheduler scheduler = new TickBudgetScheduler(10L, () -> clock[0]);
+        int[] runs = new int[3];
+        for (int i = 0; i < runs.length; i++) {
+            int index = i;
+            scheduler.schedule(() -> {
+                runs[index]++;
+                clock[0] += 6L;
+            }, 1L, 1L);
+        }
+
+        scheduler.tick();
+        assertEquals(List.of(1, 1, 0), List.of(runs[0], runs[1], runs[2]));
+        assertEquals(1, scheduler.stats().deferred());
+        assertEquals(1, scheduler.stats().overBudgetTicks());
+
+        scheduler.tick();
+        assertEquals(List.of(2, 1, 1), List.of(runs[0], runs[1], runs[2]));
+        assertEquals(1, scheduler.stats().deferredRuns());
+        assertTrue(scheduler.stats().lines().contains("tickBudget.overBudgetTicks=2"));
+    }
+
+    @Test
+    public void tickBudgetStaggersPeriodicTasks() {
+        TickBudgetScheduler scheduler = new TickBudgetScheduler(1_000_000L, System::nanoTime);
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int index = i;
+            scheduler.schedule(() -> ran.add(index), 1L, 4L);
+        }
+
+        for (int tick = 0; tick < 8; tick++) {
+            int before = ran.size();
+            scheduler.tick();
+            assertEquals(1, ran.size() - before);
+        }
+        assertEquals(List.of(0, 1, 2, 3, 0, 1, 2, 3), ran);
+    }
+
+    @Test
+    public void tickBudgetSkipsCancelledTasks() {
+        TickBudgetScheduler scheduler = new TickBudgetScheduler(1_000_000L, System::nanoTime);
+        int[] runs = new int[1];
+        SchedulerBackend.TaskHandle handle = scheduler.schedule(() -> runs[0]++, 1L, 1L);
+
+        scheduler.tick();
+        assertTrue(handle.cancel());
+        scheduler.tick();
+
+        assertEquals(1, runs[0]);
+        assertEquals(0, scheduler.stats().tasks());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Wrapper(Runnable delegate) implements Runnable, Delegate<Runnable> {
+        @Override
+        public void run() {
+            this.delegate.run();
+        }
+
+        @Override
+        public Runnable getDelegate() {
+            return this.delegate;
+        }
+    }
 }
@@ -0,0 +1,71 @@
+package dev.willram.ramcore.scoreboard;
+
+import dev.willram.ramcore.scoreboard.PacketSidebar.LineChange;
+import dev.willram.ramcore.scoreboard.PacketSidebar.LineChange.Kind;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public final class PacketSidebarTest {
+
+    @Test
+    public void newLinesAreCreatedWithScoresCountingDownToTheBottom() {
+        List<String> current = new ArrayList<>();
+
+        List<LineChange> changes = PacketSidebar.diff(current, List.of("a", "b", "c"));
+
+        assertEquals(List.of(
+                new LineChange(Kind.CREATE, 0, "a", 0),
+                new LineChange(Kind.SCORE, 0, null, 3),
+                new LineChange(Kind.CREATE, 1, "b", 0),
+                new LineChange(Kind.SCORE, 1, null, 2),
+                new LineChange(Kind.CREATE, 2, "c", 0),
+                new LineChange(Kind.SCORE, 2, null, 1)
+        ), changes);
+        assertEquals(List.of("a", "b", "c"), current);
+    }
+
+    @Test
+    public void sameLineCountOnlyUpdatesChangedText() {
+        List<String> current = new ArrayList<>(List.of("a", "b", "c"));
+
+        assertEquals(List.of(new LineChange(Kind.UPDATE, 1, "x", 0)), PacketSidebar.diff(current, List.of("a", "x", "c")));
+        assertTrue(PacketSidebar.diff(current, List.of("a", "x", "c")).isEmpty());
+    }
+
+    @Test
+    public void changingTheLineCountRenumbersEveryScore() {
+        List<String> current = new ArrayList<>(List.of("a", "b", "c"));
+
+        assertEquals(List.of(
+                new LineChange(Kind.SCORE, 0, null, 2),
+                new LineChange(Kind.UPDATE, 1, "c", 0),
+                new LineChange(Kind.SCORE, 1, null, 1),
+                new LineChange(Kind.REMOVE_SCORE, 2, null, 0),
+                new LineChange(Kind.REMOVE, 2, null, 0)
+        ), PacketSidebar.diff(current, List.of("a", "c")));
+
+        assertEquals(List.of(
+                new LineChange(Kind.SCORE, 0, null, 3),
+                new LineChange(Kind.SCORE, 1, null, 2),
+                new LineChange(Kind.CREATE, 2, "d", 0),
+                new LineChange(Kind.SCORE, 2, null, 1)
+        ), PacketSidebar.diff(current, List.of("a", "c", "d")));
+        assertEquals(List.of("a", "c", "d"), current);
+    }
+
+    @Test
+    public void viewersMovingToTheSameLinesNeedEqualChanges() {
+        List<String> first = new ArrayList<>(List.of("a", "b"));
+        List<String> second = new ArrayList<>(List.of("z", "b"));
+
+        List<LineChange> firstChanges = PacketSidebar.diff(first, List.of("y", "b"));
+        List<LineChange> secondChanges = PacketSidebar.diff(second, List.of("y", "b"));
+
+        assertEquals(firstChanges, secondChanges);
+    }
+}
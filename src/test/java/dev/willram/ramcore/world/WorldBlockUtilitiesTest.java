@@ -6,12 +6,17 @@ import dev.willram.ramcore.nms.api.NmsSupportStatus;
 import dev.willram.ramcore.reflect.MinecraftVersion;
 import dev.willram.ramcore.reflect.NmsVersion;
 import dev.willram.ramcore.serialize.BlockPosition;
+import dev.willram.ramcore.serialize.BlockRegion;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
 import org.bukkit.block.BlockState;
+import org.bukkit.block.data.BlockData;
 import org.bukkit.entity.EntitySnapshot;
 import org.bukkit.entity.EntityType;
 import org.bukkit.spawner.Spawner;
 import org.junit.Test;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
@@ -95,6 +100,170 @@ public final class WorldBlockUtilitiesTest {
         assertThrows(IllegalArgumentException.class, () -> snapshot.validateSingleTargetChunk(origin));
     }
 
+    @Test
+    public void farApartStructureBlocksRestoreWithoutPacking() {
+        BlockPosition origin = BlockPosition.of(0, 0, 0, "world");
+        StructureSnapshot sparse = StructureSnapshot.builder(origin)
+                .block(StructureBlockSnapshot.of(new BlockOffset(0, 0, 0), "minecraft:stone", "minecraft:stone"))
+                .block(StructureBlockSnapshot.of(new BlockOffset(2_000_000, 300, 2_000_000), "minecraft:stone", "minecraft:stone"))
+                .build();
+        StructureSnapshot dense = StructureSnapshot.builder(origin)
+                .block(StructureBlockSnapshot.of(new BlockOffset(0, 0, 0), "minecraft:stone", "minecraft:stone"))
+                .block(StructureBlockSnapshot.of(new BlockOffset(1, 0, 0), "minecraft:stone", "minecraft:stone"))
+                .build();
+
+        assertTrue(sparse.sparse());
+        assertThrows(IllegalArgumentException.class, sparse::pack);
+        assertFalse(dense.sparse());
+    }
+
+    @Test
+    public void packedStructureSnapshotRoundTripsThroughPaletteAndBinaryForm() throws IOException {
+        BlockPosition origin = BlockPosition.of(10, 64, 10, "world");
+        BlockEntitySnapshot chest = BlockEntitySnapshot.builder(BlockPosition.of(11, 65, 10, "world"), "minecraft:chest", "minecraft:chest[facing=north]")
+                .kind(BlockEntityKind.CONTAINER)
+                .property("container.inventorySize", "27")
+                .build();
+        StructureSnapshot.Builder builder = StructureSnapshot.builder(origin);
+        for (int y = 0; y < 4; y++) {
+            for (int z = 0; z < 4; z++) {
+                for (int x = 0; x < 4; x++) {
+                    String material = y == 0 ? "minecraft:stone" : "minecraft:air";
+                    builder.block(StructureBlockSnapshot.of(new BlockOffset(x, y, z), material, material));
+                }
+            }
+        }
+        StructureSnapshot snapshot = builder
+                .block(StructureBlockSnapshot.of(new BlockOffset(1, 1, 0), "minecraft:chest", "minecraft:chest[facing=north]").withBlockEntity(chest))
+                .build();
+
+        PackedStructureSnapshot packed = snapshot.pack();
+        PackedStructureSnapshot compressed = PackedStructureSnapshot.fromBytes(packed.toBytes(true));
+        PackedStructureSnapshot raw = PackedStructureSnapshot.fromBytes(packed.toBytes(false));
+
+        assertEquals(3, packed.paletteSize());
+        assertEquals(2, packed.bitsPerBlock());
+        assertEquals(64, packed.blockCount());
+        assertEquals("minecraft:chest[facing=north]", packed.blockDataAt(new BlockOffset(1, 1, 0)));
+        assertEquals(chest, packed.blockEntity(new BlockOffset(1, 1, 0)).orElseThrow());
+        assertEquals(packed, compressed);
+        assertEquals(packed, raw);
+        assertEquals(64, compressed.unpack().blocks().size());
+        assertEquals(snapshot.blocks().get(0), compressed.unpack().blocks().get(0));
+        assertTrue(packed.toBytes(true).length < packed.toBytes(false).length);
+    }
+
+    @Test
+    public void packedStructureSnapshotKeepsSparseBlocksAbsent() throws IOException {
+        BlockPosition origin = BlockPosition.of(0, 64, 0, "world");
+        PackedStructureSnapshot.Builder builder = PackedStructureSnapshot.builder(origin, new BlockOffset(-2, 0, 0), 5, 1, 1);
+        for (int i = 0; i < 40; i++) {
+            builder.block(-2, 0, 0, "minecraft:wool_" + i, "minecraft:wool_" + i);
+        }
+        builder.block(2, 0, 0, "minecraft:stone", "minecraft:stone");
+        PackedStructureSnapshot packed = builder.build();
+        List<String> visited = new ArrayList<>();
+        packed.forEachBlock((x, y, z, paletteIndex) -> visited.add(x + ":" + packed.blockData(paletteIndex)));
+
+        assertEquals(6, packed.bitsPerBlock());
+        assertEquals(2, packed.blockCount());
+        assertEquals(-1, packed.paletteIndex(0, 0, 0));
+        assertEquals(-1, packed.paletteIndex(3, 0, 0));
+        assertEquals(List.of("-2:minecraft:wool_39", "2:minecraft:stone"), visited);
+        assertEquals(packed, PackedStructureSnapshot.fromBytes(packed.toBytes(true)));
+        assertThrows(IllegalArgumentException.class, () -> builder.block(3, 0, 0, "minecraft:stone", "minecraft:stone"));
+        assertThrows(IOException.class, () -> PackedStructureSnapshot.fromBytes(new byte[]{1, 2, 3, 4, 5, 6}));
+    }
+
+    @Test
+    public void packedStructureRestoreSplitsIntoChunkSectionSlices() {
+        PackedStructureSnapshot.Builder builder = PackedStructureSnapshot.builder(BlockPosition.of(0, 0, 0, "world"), new BlockOffset(0, 0, 0), 4, 4, 2);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                builder.block(x, y, 0, "minecraft:stone", "minecraft:stone");
+            }
+        }
+        builder.block(3, 3, 1, "minecraft:dirt", "minecraft:dirt");
+        PackedStructureSnapshot packed = builder.build();
+        BlockPosition target = BlockPosition.of(14, 62, 0, "world");
+
+        List<StructureSlice> slices = StructureSlice.split(packed, target);
+
+        assertEquals(4, slices.size());
+        assertEquals(new StructureSlice(0, 3, 0, 14, 62, 0, 15, 63, 1, 4), slices.get(0));
+        assertEquals(new StructureSlice(1, 3, 0, 16, 62, 0, 17, 63, 1, 4), slices.get(1));
+        assertEquals(new StructureSlice(0, 4, 0, 14, 64, 0, 15, 65, 1, 4), slices.get(2));
+        assertEquals(new StructureSlice(1, 4, 0, 16, 64, 0, 17, 65, 1, 5), slices.get(3));
+        assertThrows(IllegalArgumentException.class, () -> packed.validateSingleTargetChunk(target));
+        packed.validateSingleTargetChunk(BlockPosition.of(0, 62, 0, "world"));
+    }
+
+    @Test
+    public void packedStructureDiffAndJournalKeepOnlyChangedBlocks() {
+        BlockPosition origin = BlockPosition.of(0, 64, 0, "world");
+        PackedStructureSnapshot.Builder before = PackedStructureSnapshot.builder(origin, new BlockOffset(0, 0, 0), 4, 2, 4);
+        PackedStructureSnapshot.Builder after = PackedStructureSnapshot.builder(origin, new BlockOffset(0, 0, 0), 4, 2, 4);
+        for (int x = 0; x < 4; x++) {
+            for (int z = 0; z < 4; z++) {
+                before.block(x, 0, z, "minecraft:stone", "minecraft:stone");
+                after.block(x, 0, z, "minecraft:stone", "minecraft:stone");
+            }
+        }
+        after.block(1, 0, 2, "minecraft:dirt", "minecraft:dirt");
+        after.block(3, 1, 3, "minecraft:torch", "minecraft:torch");
+        PackedStructureSnapshot base = before.build();
+
+        PackedStructureSnapshot delta = base.diff(after.build());
+
+        assertEquals(2, delta.blockCount());
+        assertEquals(new BlockOffset(1, 0, 2), delta.min());
+        assertEquals("minecraft:dirt", delta.blockDataAt(new BlockOffset(1, 0, 2)));
+        assertEquals("minecraft:torch", delta.blockDataAt(new BlockOffset(3, 1, 3)));
+        assertEquals(0, base.diff(base).blockCount());
+
+        StructureChangeJournal journal = StructureChangeJournal.create(base, BlockPosition.of(100, 10, 100, "world"));
+        journal.record(101, 10, 102);
+        journal.record(101, 10, 102);
+        journal.record(103, 11, 103);
+        journal.record(0, 64, 0);
+        assertEquals(1, journal.size());
+
+        PackedStructureSnapshot drained = journal.drain();
+
+        assertEquals(0, journal.size());
+        assertEquals(1, drained.blockCount());
+        assertEquals("minecraft:stone", drained.blockDataAt(new BlockOffset(1, 0, 2)));
+    }
+
+    @Test
+    public void chunkedCaptureMatchesPackedBlockByBlockCapture() {
+        BlockPosition min = BlockPosition.of(-3, 60, 14, "world");
+        BlockPosition max = BlockPosition.of(18, 62, 17, "world");
+        StructureCapture capture = StructureCapture.of(BlockRegion.of(min, max));
+        // last chunk first, so the merge order differs from the y, z, x order of a block by block capture
+        for (int chunkZ = 1; chunkZ >= 0; chunkZ--) {
+            for (int chunkX = 1; chunkX >= -1; chunkX--) {
+                capture.accept(chunkSnapshot(chunkX, chunkZ));
+            }
+        }
+
+        StructureSnapshot.Builder expected = StructureSnapshot.builder(min);
+        for (int y = 60; y <= 62; y++) {
+            for (int z = 14; z <= 17; z++) {
+                for (int x = -3; x <= 18; x++) {
+                    BlockData data = blockData(x, y, z);
+                    expected.block(StructureBlockSnapshot.of(
+                            BlockOffset.between(min, BlockPosition.of(x, y, z, "world")),
+                            data.getMaterial().key().asString(),
+                            data.getAsString()
+                    ));
+                }
+            }
+        }
+
+        assertEquals(expected.build().pack(), capture.result().getNow(null));
+    }
+
     @Test
     public void blockEntitySnapshotBuilderStoresTypedSurfaces() {
         BlockEntitySnapshot snapshot = BlockEntitySnapshot.builder(
@@ -150,6 +319,42 @@ public final class WorldBlockUtilitiesTest {
         );
     }
 
+    private static ChunkSnapshot chunkSnapshot(int chunkX, int chunkZ) {
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getX" -> chunkX;
+            case "getZ" -> chunkZ;
+            case "getBlockData" -> blockData((chunkX << 4) + (int) args[0], (int) args[1], (chunkZ << 4) + (int) args[2]);
+            case "toString" -> "ChunkSnapshot(" + chunkX + ", " + chunkZ + ")";
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> defaultValue(method.getReturnType());
+        };
+        return (ChunkSnapshot) Proxy.newProxyInstance(
+                ChunkSnapshot.class.getClassLoader(),
+                new Class<?>[]{ChunkSnapshot.class},
+                handler
+        );
+    }
+
+    private static BlockData blockData(int x, int y, int z) {
+        Material[] materials = {Material.STONE, Material.DIRT, Material.OAK_PLANKS, Material.GLASS};
+        Material material = materials[Math.floorMod(x * 7 + y * 3 + z * 5, materials.length)];
+        String data = material.key().asString();
+        InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
+            case "getMaterial" -> material;
+            case "getAsString" -> data;
+            case "toString" -> data;
+            case "equals" -> args[0] instanceof BlockData other && data.equals(other.getAsString());
+            case "hashCode" -> data.hashCode();
+            default -> defaultValue(method.getReturnType());
+        };
+        return (BlockData) Proxy.newProxyInstance(
+                BlockData.class.getClassLoader(),
+                new Class<?>[]{BlockData.class},
+                handler
+        );
+    }
+
     private static BlockState blockState() {
         InvocationHandler handler = (proxy, method, args) -> switch (method.getName()) {
             case "toString" -> "BlockState";